@@ -10,13 +10,22 @@ zapAddOn {
 
     manifest {
         author.set("ZAP Dev Team")
+        dependencies {
+            addOns {
+                register("commonlib") {
+                    version.set("1.*")
+                }
+            }
+        }
     }
 }
 
 dependencies {
+    compileOnly(parent!!.childProjects.get("commonlib")!!)
     implementation("com.googlecode.java-diff-utils:diffutils:1.2.1")
     implementation("org.bitbucket.mstrobel:procyon-compilertools:0.5.25")
 
+    testImplementation(parent!!.childProjects.get("commonlib")!!)
     testImplementation(project(":testutils"))
     testImplementation("org.apache.commons:commons-lang3:3.9")
 }
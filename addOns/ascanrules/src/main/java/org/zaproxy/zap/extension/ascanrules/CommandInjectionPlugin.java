@@ -37,6 +37,7 @@ import org.parosproxy.paros.core.scanner.AbstractAppParamPlugin;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.RateController;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
@@ -507,7 +508,7 @@ public class CommandInjectionPlugin extends AbstractAppParamPlugin {
             try {
                 // Send the request and retrieve the response
                 try {
-                    sendAndReceive(msg, false);
+                    RateController.sendAndReceive(this, msg, false, this::sendAndReceive);
                 } catch (SocketException ex) {
                     if (log.isDebugEnabled())
                         log.debug(
@@ -608,7 +609,7 @@ public class CommandInjectionPlugin extends AbstractAppParamPlugin {
             try {
                 // Send the request and retrieve the response
                 try {
-                    sendAndReceive(msg, false);
+                    RateController.sendAndReceiveDelayed(this, msg, false, this::sendAndReceive);
                 } catch (SocketException ex) {
                     if (log.isDebugEnabled())
                         log.debug(
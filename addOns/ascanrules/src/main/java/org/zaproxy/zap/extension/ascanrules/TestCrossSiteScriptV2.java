@@ -35,6 +35,7 @@ import org.parosproxy.paros.core.scanner.Plugin;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpRequestHeader;
+import org.zaproxy.zap.extension.commonlib.RateController;
 import org.zaproxy.zap.httputils.HtmlContext;
 import org.zaproxy.zap.httputils.HtmlContextAnalyser;
 import org.zaproxy.zap.model.Vulnerabilities;
@@ -127,7 +128,7 @@ public class TestCrossSiteScriptV2 extends AbstractAppParamPlugin {
         HttpMessage msg2 = msg.cloneRequest();
         setParameter(msg2, param, attack);
         try {
-            sendAndReceive(msg2);
+            RateController.sendAndReceive(this, msg2, true, this::sendAndReceive);
         } catch (URIException e) {
             if (log.isDebugEnabled()) {
                 log.debug("Failed to send HTTP message, cause: " + e.getMessage());
@@ -168,7 +169,7 @@ public class TestCrossSiteScriptV2 extends AbstractAppParamPlugin {
             HttpMessage msg2 = getNewMsg();
             setParameter(msg2, param, Constant.getEyeCatcher());
             try {
-                sendAndReceive(msg2);
+                RateController.sendAndReceive(this, msg2, true, this::sendAndReceive);
             } catch (URIException e) {
                 if (log.isDebugEnabled()) {
                     log.debug("Failed to send HTTP message, cause: " + e.getMessage());
@@ -200,7 +201,7 @@ public class TestCrossSiteScriptV2 extends AbstractAppParamPlugin {
                 msg2 = getNewMsg();
                 setParameter(msg2, param, value + Constant.getEyeCatcher());
                 try {
-                    sendAndReceive(msg2);
+                    RateController.sendAndReceive(this, msg2, true, this::sendAndReceive);
                 } catch (URIException e) {
                     if (log.isDebugEnabled()) {
                         log.debug("Failed to send HTTP message, cause: " + e.getMessage());
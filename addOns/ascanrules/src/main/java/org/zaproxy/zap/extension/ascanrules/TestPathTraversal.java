@@ -37,6 +37,7 @@ import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.RateController;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.Vulnerabilities;
 import org.zaproxy.zap.model.Vulnerability;
@@ -405,7 +406,7 @@ public class TestPathTraversal extends AbstractAppParamPlugin {
             // send the modified message (with a hopefully non-existent filename), and see what we
             // get back
             try {
-                sendAndReceive(msg);
+                RateController.sendAndReceive(this, msg, true, this::sendAndReceive);
 
             } catch (SocketException
                     | IllegalStateException
@@ -459,7 +460,7 @@ public class TestPathTraversal extends AbstractAppParamPlugin {
 
                     // send the modified message (with the url filename), and see what we get back
                     try {
-                        sendAndReceive(msg);
+                        RateController.sendAndReceive(this, msg, true, this::sendAndReceive);
 
                     } catch (SocketException
                             | IllegalStateException
@@ -593,7 +594,7 @@ public class TestPathTraversal extends AbstractAppParamPlugin {
 
         // send the modified request, and see what we get back
         try {
-            sendAndReceive(msg);
+            RateController.sendAndReceive(this, msg, true, this::sendAndReceive);
 
         } catch (SocketException
                 | IllegalStateException
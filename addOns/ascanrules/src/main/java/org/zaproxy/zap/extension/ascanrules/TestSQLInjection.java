@@ -43,6 +43,8 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.zap.extension.authentication.ExtensionAuthentication;
+import org.zaproxy.zap.extension.commonlib.BaselineResponses;
+import org.zaproxy.zap.extension.commonlib.ResponseSimilarity;
 import org.zaproxy.zap.model.Context;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
@@ -96,6 +98,11 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
     private int countBooleanBasedRequests = 0;
     private int countUnionBasedRequests = 0;
     private int countOrderByBasedRequests = 0;
+    /**
+     * The number of requests that might have changed the state of the target (the expression,
+     * boolean and UNION based), sent when the baseline was obtained.
+     */
+    private int countStateChangingRequestsAtBaseline = 0;
     // private int countStackedBasedRequests = 0;  //TODO: use in the stacked based queries
     // implementation
     /**
@@ -624,6 +631,7 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
             countBooleanBasedRequests = 0;
             countUnionBasedRequests = 0;
             countOrderByBasedRequests = 0;
+            countStateChangingRequestsAtBaseline = 0;
 
             // Check 1: Check for Error Based SQL Injection (actual error messages).
             // for each SQL metacharacter combination to try
@@ -767,27 +775,14 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
             // succeeded in modifying the database (ask me how I know?!)
             // then we cannot rely on the database contents being the same as when the original
             // query was last run (could be hours ago)
-            // so to work around this, simply re-run the query again now at this point.
+            // so to work around this, re-send the original query if any of those checks might have
+            // changed the database, otherwise reuse the recent baseline shared with the other scan
+            // rules (and the other parameters of the message).
             // Note that we are not counting this request in our max number of requests to be issued
-            refreshedmessage = getNewMsg();
-            try {
-                sendAndReceive(refreshedmessage, false); // do not follow redirects
-            } catch (SocketException ex) {
-                if (log.isDebugEnabled())
-                    log.debug(
-                            "Caught "
-                                    + ex.getClass().getName()
-                                    + " "
-                                    + ex.getMessage()
-                                    + " when accessing: "
-                                    + refreshedmessage.getRequestHeader().getURI().toString());
+            if (!refreshBaseline(origParamValue)) {
                 return; // Something went wrong, no point continuing
             }
 
-            // String mResBodyNormal = getBaseMsg().getResponseBody().toString();
-            mResBodyNormalUnstripped = refreshedmessage.getResponseBody().toString();
-            mResBodyNormalStripped = this.stripOff(mResBodyNormalUnstripped, origParamValue);
-
             if (!sqlInjectionFoundForUrl
                     && doExpressionBased
                     && countExpressionBasedRequests < doExpressionMaxRequests) {
@@ -931,27 +926,14 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
             // succeeded in modifying the database (ask me how I know?!)
             // then we cannot rely on the database contents being the same as when the original
             // query was last run (could be hours ago)
-            // so to work around this, simply re-run the query again now at this point.
+            // so to work around this, re-send the original query if any of those checks might have
+            // changed the database, otherwise reuse the recent baseline shared with the other scan
+            // rules (and the other parameters of the message).
             // Note that we are not counting this request in our max number of requests to be issued
-            refreshedmessage = getNewMsg();
-            try {
-                sendAndReceive(refreshedmessage, false); // do not follow redirects
-            } catch (SocketException ex) {
-                if (log.isDebugEnabled())
-                    log.debug(
-                            "Caught "
-                                    + ex.getClass().getName()
-                                    + " "
-                                    + ex.getMessage()
-                                    + " when accessing: "
-                                    + refreshedmessage.getRequestHeader().getURI().toString());
+            if (!refreshBaseline(origParamValue)) {
                 return; // Something went wrong, no point continuing
             }
 
-            // String mResBodyNormal = getBaseMsg().getResponseBody().toString();
-            mResBodyNormalUnstripped = refreshedmessage.getResponseBody().toString();
-            mResBodyNormalStripped = this.stripOff(mResBodyNormalUnstripped, origParamValue);
-
             // boolean booleanBasedSqlInjectionFoundForParam = false;
 
             // try each of the AND syntax values in turn.
@@ -1548,27 +1530,14 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
             // succeeded in modifying the database (ask me how I know?!)
             // then we cannot rely on the database contents being the same as when the original
             // query was last run (could be hours ago)
-            // so to work around this, simply re-run the query again now at this point.
+            // so to work around this, re-send the original query if any of those checks might have
+            // changed the database, otherwise reuse the recent baseline shared with the other scan
+            // rules (and the other parameters of the message).
             // Note that we are not counting this request in our max number of requests to be issued
-            refreshedmessage = getNewMsg();
-            try {
-                sendAndReceive(refreshedmessage, false); // do not follow redirects
-            } catch (SocketException ex) {
-                if (log.isDebugEnabled())
-                    log.debug(
-                            "Caught "
-                                    + ex.getClass().getName()
-                                    + " "
-                                    + ex.getMessage()
-                                    + " when accessing: "
-                                    + refreshedmessage.getRequestHeader().getURI().toString());
+            if (!refreshBaseline(origParamValue)) {
                 return; // Something went wrong, no point continuing
             }
 
-            // String mResBodyNormal = getBaseMsg().getResponseBody().toString();
-            mResBodyNormalUnstripped = refreshedmessage.getResponseBody().toString();
-            mResBodyNormalStripped = this.stripOff(mResBodyNormalUnstripped, origParamValue);
-
             if (!sqlInjectionFoundForUrl
                     && doOrderByBased
                     && countOrderByBasedRequests < doOrderByMaxRequests) {
@@ -1799,6 +1768,11 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
             // Do not try to internationalise this.. we need an error message in any event..
             // if it's in English, it's still better than not having it at all.
             log.error("An error occurred checking a url for SQL Injection vulnerabilities", e);
+        } finally {
+            // Do not let the other scan rules (or parameters) reuse a baseline that might be stale
+            if (isBaselineStale()) {
+                BaselineResponses.getInstance(getParent()).invalidate(getBaseMsg(), false);
+            }
         }
     }
 
@@ -2028,6 +2002,62 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
         return Alert.RISK_HIGH;
     }
 
+    /**
+     * Gets a recent response of the original request (the baseline) and strips off the original
+     * parameter value from it.
+     *
+     * <p>The baseline is shared with the other scan rules, and the other parameters of the message.
+     * It is invalidated, and the original request re-sent, if any of the expression, boolean or
+     * UNION based requests were sent since it was obtained, as they might have changed the response
+     * of the original request. The error based requests are not expected to change it, they just
+     * cause SQL errors.
+     *
+     * @param origParamValue the original value of the parameter
+     * @return {@code true} if the baseline was obtained, {@code false} otherwise
+     * @throws IOException if an error occurred while sending the original request
+     */
+    private boolean refreshBaseline(String origParamValue) throws IOException {
+        try {
+            BaselineResponses baselines = BaselineResponses.getInstance(getParent());
+            if (isBaselineStale()) {
+                baselines.invalidate(getBaseMsg(), false);
+            }
+            countStateChangingRequestsAtBaseline = getCountStateChangingRequests();
+            refreshedmessage =
+                    baselines
+                            .get(getBaseMsg(), false, this::sendAndReceive) // no redirects
+                            .getMessage();
+        } catch (SocketException ex) {
+            if (log.isDebugEnabled())
+                log.debug(
+                        "Caught "
+                                + ex.getClass().getName()
+                                + " "
+                                + ex.getMessage()
+                                + " when accessing: "
+                                + getBaseMsg().getRequestHeader().getURI().toString());
+            return false;
+        }
+
+        mResBodyNormalUnstripped = refreshedmessage.getResponseBody().toString();
+        mResBodyNormalStripped = this.stripOff(mResBodyNormalUnstripped, origParamValue);
+        return true;
+    }
+
+    /**
+     * Tells whether or not the baseline might be stale, that is, if any request that might have
+     * changed the state of the target was sent since the baseline was obtained.
+     *
+     * @return {@code true} if the baseline might be stale, {@code false} otherwise
+     */
+    private boolean isBaselineStale() {
+        return getCountStateChangingRequests() > countStateChangingRequestsAtBaseline;
+    }
+
+    private int getCountStateChangingRequests() {
+        return countExpressionBasedRequests + countBooleanBasedRequests + countUnionBasedRequests;
+    }
+
     /**
      * Replace body by stripping of pattern string. The URLencoded pattern will also be stripped
      * off. The URL decoded pattern will not be stripped off, as this is not necessary of rour
@@ -2047,13 +2077,8 @@ public class TestSQLInjection extends AbstractAppParamPlugin {
         String urlEncodePattern = getURLEncode(pattern);
         String htmlEncodePattern1 = getHTMLEncode(pattern);
         String htmlEncodePattern2 = getHTMLEncode(urlEncodePattern);
-        String result =
-                body.replaceAll("\\Q" + pattern + "\\E", "")
-                        .replaceAll("\\Q" + urlEncodePattern + "\\E", "");
-        result =
-                result.replaceAll("\\Q" + htmlEncodePattern1 + "\\E", "")
-                        .replaceAll("\\Q" + htmlEncodePattern2 + "\\E", "");
-        return result;
+        return ResponseSimilarity.removeAll(
+                body, pattern, urlEncodePattern, htmlEncodePattern1, htmlEncodePattern2);
     }
 
     /** Replace body by stripping off pattern strings. */
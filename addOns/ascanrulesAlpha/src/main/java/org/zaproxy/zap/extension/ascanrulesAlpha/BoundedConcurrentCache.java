@@ -0,0 +1,261 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.ascanrulesAlpha;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache bounded by number of entries and by total weight of the values.
+ *
+ * <p>Concurrent requests for the same (missing) key are coalesced, only one thread loads the value
+ * while the others wait for it. Loads of different keys do not block each other. When the bounds
+ * are exceeded the oldest loaded entries are evicted first.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+class BoundedConcurrentCache<K, V> {
+
+    /**
+     * Loads the value of a key not yet in the cache.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    interface Loader<K, V> {
+
+        V load(K key) throws Exception;
+    }
+
+    /**
+     * Computes the weight of a value, for example, its size in bytes.
+     *
+     * @param <V> the type of the values
+     */
+    interface Weigher<V> {
+
+        long weigh(V value);
+    }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final Weigher<V> weigher;
+
+    private final ConcurrentMap<K, Entry<K, V>> entries;
+    private final Queue<Entry<K, V>> evictionQueue;
+    private final AtomicLong totalWeight;
+
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+    private final AtomicLong evictionCount;
+
+    /**
+     * Constructs a {@code BoundedConcurrentCache} bounded only by the number of entries.
+     *
+     * @param maxEntries the maximum number of entries
+     */
+    BoundedConcurrentCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, value -> 0);
+    }
+
+    /**
+     * Constructs a {@code BoundedConcurrentCache} bounded by the number of entries and their total
+     * weight.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param maxWeight the maximum total weight of the values
+     * @param weigher the weigher of the values
+     */
+    BoundedConcurrentCache(int maxEntries, long maxWeight, Weigher<V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+
+        this.entries = new ConcurrentHashMap<>();
+        this.evictionQueue = new ConcurrentLinkedQueue<>();
+        this.totalWeight = new AtomicLong();
+
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.evictionCount = new AtomicLong();
+    }
+
+    /**
+     * Tells whether or not the given key has a value in the cache, or is being loaded.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present, {@code false} otherwise
+     */
+    boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Gets the value of the given key, loading it with the given loader if not present.
+     *
+     * <p>If another thread is already loading the value, waits for it instead of loading it again.
+     * Failed loads are not cached.
+     *
+     * @param key the key
+     * @param loader the loader of the value, if not present
+     * @return the value
+     * @throws Exception if an error occurred while loading the value
+     */
+    V get(K key, Loader<K, V> loader) throws Exception {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            Entry<K, V> newEntry = new Entry<>(key, new FutureTask<>(() -> loader.load(key)));
+            entry = entries.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                missCount.incrementAndGet();
+                entry = newEntry;
+                entry.value.run();
+                V value = getValue(entry);
+                added(entry, value);
+                return value;
+            }
+        }
+        hitCount.incrementAndGet();
+        return getValue(entry);
+    }
+
+    private V getValue(Entry<K, V> entry) throws Exception {
+        try {
+            return entry.value.get();
+        } catch (ExecutionException e) {
+            entries.remove(entry.key, entry);
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the value of the given key, if present.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if not present or if it failed to load
+     */
+    V getIfPresent(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        try {
+            return getValue(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Puts the given value in the cache, replacing the existing one, if any.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void put(K key, V value) {
+        Entry<K, V> entry = new Entry<>(key, new FutureTask<>(() -> value));
+        entry.value.run();
+        Entry<K, V> oldEntry = entries.put(key, entry);
+        if (oldEntry != null && evictionQueue.remove(oldEntry)) {
+            totalWeight.addAndGet(-oldEntry.weight);
+        }
+        added(entry, value);
+    }
+
+    private void added(Entry<K, V> entry, V value) {
+        entry.weight = weigher.weigh(value);
+        totalWeight.addAndGet(entry.weight);
+        evictionQueue.add(entry);
+
+        while (entries.size() > maxEntries || totalWeight.get() > maxWeight) {
+            Entry<K, V> eldest = evictionQueue.poll();
+            if (eldest == null) {
+                break;
+            }
+            totalWeight.addAndGet(-eldest.weight);
+            if (entries.remove(eldest.key, eldest)) {
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries in the cache, including the ones being loaded.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of times a requested key was present in the cache.
+     *
+     * @return the number of hits
+     */
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of times a requested key was not present in the cache.
+     *
+     * @return the number of misses
+     */
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Gets the number of entries evicted to keep the cache within its bounds.
+     *
+     * @return the number of evictions
+     */
+    long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private static class Entry<K, V> {
+
+        private final K key;
+        private final FutureTask<V> value;
+        private volatile long weight;
+
+        private Entry(K key, FutureTask<V> value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -21,22 +21,31 @@ package org.zaproxy.zap.extension.ascanrulesAlpha;
 
 import java.util.Collections;
 import java.util.Map;
-import org.apache.commons.collections.map.LRUMap;
+import java.util.WeakHashMap;
 import org.apache.commons.httpclient.URI;
 import org.apache.log4j.Logger;
+import org.parosproxy.paros.core.scanner.HostProcess;
 
 /**
  * GitEntryCache caches Git Index Entries
  *
+ * <p>One cache is kept per {@link HostProcess}, so that cached entries do not leak across scans.
+ *
  * @author 70pointer@gmail.com
  */
 public class GitIndexEntryCache {
 
-    private static GitIndexEntryCache instance;
+    /** The maximum number of Git index files cached, per {@code HostProcess}. */
+    private static final int MAX_INDEXES = 20;
+
+    /** The maximum number of entries cached, per Git index file. */
+    private static final int MAX_INDEX_ENTRIES = 1000;
+
+    private static final Map<HostProcess, GitIndexEntryCache> instances =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
-    @SuppressWarnings("unchecked")
-    private Map<URI, Map<URI, String>> gitIndexMap =
-            Collections.synchronizedMap(new LRUMap(20)); // max: 20 Git index files (LRU)
+    private final BoundedConcurrentCache<URI, BoundedConcurrentCache<URI, String>> gitIndexMap =
+            new BoundedConcurrentCache<>(MAX_INDEXES);
 
     private static Logger log = Logger.getLogger(GitIndexEntryCache.class);
 
@@ -44,15 +53,14 @@ public class GitIndexEntryCache {
         if (log.isDebugEnabled()) log.debug("Initialising the Git Index Entry Cache");
     }
 
-    public static synchronized GitIndexEntryCache getSingleton() {
-        if (instance == null) createSingleton();
-        return instance;
-    }
-
-    private static synchronized void createSingleton() {
-        if (instance == null) {
-            instance = new GitIndexEntryCache();
-        }
+    /**
+     * Gets the Git index entry cache of the given {@code HostProcess}, creating it if needed.
+     *
+     * @param hostprocess the host process
+     * @return the Git index entry cache, never {@code null}
+     */
+    public static GitIndexEntryCache getInstance(HostProcess hostprocess) {
+        return instances.computeIfAbsent(hostprocess, k -> new GitIndexEntryCache());
     }
 
     /**
@@ -61,7 +69,7 @@ public class GitIndexEntryCache {
      * @param uri
      * @return
      */
-    public synchronized boolean isIndexCached(URI gitIndexUri) {
+    public boolean isIndexCached(URI gitIndexUri) {
         return gitIndexMap.containsKey(gitIndexUri);
     }
 
@@ -71,11 +79,12 @@ public class GitIndexEntryCache {
      * @param uri
      * @return
      */
-    public synchronized boolean isIndexEntryCached(URI gitIndexUri, URI gitIndexEntryUri) {
-        if (!gitIndexMap.containsKey(gitIndexUri)) {
+    public boolean isIndexEntryCached(URI gitIndexUri, URI gitIndexEntryUri) {
+        BoundedConcurrentCache<URI, String> indexEntryMap = gitIndexMap.getIfPresent(gitIndexUri);
+        if (indexEntryMap == null) {
             return false;
         }
-        return gitIndexMap.get(gitIndexUri).containsKey(gitIndexEntryUri);
+        return indexEntryMap.containsKey(gitIndexEntryUri);
     }
 
     /**
@@ -84,18 +93,18 @@ public class GitIndexEntryCache {
      * @param gitIndexUri
      * @param gitIndexEntryUri
      */
-    @SuppressWarnings("unchecked")
-    public synchronized void putIndexEntry(URI gitIndexUri, URI gitIndexEntryUri, String gitSHA1) {
-        Map<URI, String> indexEntryMap;
-        if (gitIndexMap.containsKey(gitIndexUri)) {
-            indexEntryMap = gitIndexMap.get(gitIndexUri);
-        } else {
+    public void putIndexEntry(URI gitIndexUri, URI gitIndexEntryUri, String gitSHA1) {
+        BoundedConcurrentCache<URI, String> indexEntryMap;
+        try {
             indexEntryMap =
-                    Collections.synchronizedMap(
-                            new LRUMap(1000)); // max: 1000 Git index entries (LRU)
+                    gitIndexMap.get(
+                            gitIndexUri, k -> new BoundedConcurrentCache<>(MAX_INDEX_ENTRIES));
+        } catch (Exception e) {
+            // Should not happen, the loader does not throw exceptions.
+            log.warn("Failed to create the cache for Git Index " + gitIndexUri, e);
+            return;
         }
         indexEntryMap.put(gitIndexEntryUri, gitSHA1);
-        gitIndexMap.put(gitIndexUri, indexEntryMap);
     }
 
     /**
@@ -105,11 +114,29 @@ public class GitIndexEntryCache {
      * @param gitIndexEntryUri
      * @return
      */
-    public synchronized String getIndexEntry(URI gitIndexUri, URI gitIndexEntryUri) {
-        if (gitIndexMap.containsKey(gitIndexUri)) {
-            return gitIndexMap.get(gitIndexUri).get(gitIndexEntryUri);
-        } else {
+    public String getIndexEntry(URI gitIndexUri, URI gitIndexEntryUri) {
+        BoundedConcurrentCache<URI, String> indexEntryMap = gitIndexMap.getIfPresent(gitIndexUri);
+        if (indexEntryMap == null) {
             return null;
         }
+        return indexEntryMap.getIfPresent(gitIndexEntryUri);
+    }
+
+    /**
+     * Gets the number of times a requested Git index was already cached.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return gitIndexMap.getHitCount();
+    }
+
+    /**
+     * Gets the number of times a requested Git index was not cached.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return gitIndexMap.getMissCount();
     }
 }
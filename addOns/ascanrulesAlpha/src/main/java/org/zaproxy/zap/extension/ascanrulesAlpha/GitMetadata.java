@@ -140,7 +140,7 @@ public class GitMetadata {
         }
         // TODO: split out the Git MetaData from the SourceCodeDisclosure class (not as a nested
         // class)
-        MessageCache messagecache = MessageCache.getSingleton(parent);
+        MessageCache messagecache = MessageCache.getInstance(parent);
         HttpMessage msg = messagecache.getMessage(uri, basemsg, false);
 
         if (msg.getResponseHeader().getStatusCode() != HttpStatus.SC_OK) {
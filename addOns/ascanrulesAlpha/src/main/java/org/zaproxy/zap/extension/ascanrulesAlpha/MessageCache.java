@@ -19,9 +19,10 @@
  */
 package org.zaproxy.zap.extension.ascanrulesAlpha;
 
+import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.Map;
-import org.apache.commons.collections.map.LRUMap;
+import java.util.WeakHashMap;
 import org.apache.commons.httpclient.URI;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.core.scanner.HostProcess;
@@ -31,81 +32,124 @@ import org.parosproxy.paros.network.HttpMessage;
 /**
  * MessageCache caches HTTP messages.
  *
+ * <p>One cache is kept per {@link HostProcess}, so that cached messages do not leak across scans.
+ * Concurrent requests for the same URI are coalesced into a single request.
+ *
  * @author 70pointer@gmail.com
  */
 public class MessageCache {
 
-    private static MessageCache instance;
-    private HostProcess parent = null;
+    /** The maximum number of messages cached, per {@code HostProcess}. */
+    private static final int MAX_MESSAGES = 100;
+
+    /** The maximum size of the cached responses (header and body), per {@code HostProcess}. */
+    private static final long MAX_MESSAGES_SIZE = 10 * 1024 * 1024;
 
-    @SuppressWarnings("unchecked")
-    private Map<URI, HttpMessage> messagecache =
-            Collections.synchronizedMap(new LRUMap(100)); // a map of 100 objects, synchronized
+    private static final Map<HostProcess, MessageCache> instances =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     private static Logger log = Logger.getLogger(MessageCache.class);
 
+    private final WeakReference<HostProcess> parent;
+
+    private final BoundedConcurrentCache<URI, HttpMessage> messagecache =
+            new BoundedConcurrentCache<>(
+                    MAX_MESSAGES,
+                    MAX_MESSAGES_SIZE,
+                    msg ->
+                            msg.getResponseHeader().toString().length()
+                                    + msg.getResponseBody().length());
+
     private MessageCache(HostProcess hostprocess) {
         if (log.isDebugEnabled()) log.debug("Initialising");
-        parent = hostprocess;
+        parent = new WeakReference<>(hostprocess);
     }
 
-    public static synchronized MessageCache getSingleton(HostProcess hostprocess) {
-        if (instance == null) createSingleton(hostprocess);
-        return instance;
-    }
-
-    private static synchronized void createSingleton(HostProcess hostprocess) {
-        if (instance == null) {
-            instance = new MessageCache(hostprocess);
-        }
+    /**
+     * Gets the message cache of the given {@code HostProcess}, creating it if needed.
+     *
+     * @param hostprocess the host process
+     * @return the message cache, never {@code null}
+     */
+    public static MessageCache getInstance(HostProcess hostprocess) {
+        return instances.computeIfAbsent(hostprocess, MessageCache::new);
     }
 
     /**
-     * is a message cached for the given URI?
+     * is a message cached (or being retrieved) for the given URI?
      *
      * @param uri
      * @return
      */
-    public synchronized boolean isMessageCached(URI uri) {
+    public boolean isMessageCached(URI uri) {
         return messagecache.containsKey(uri);
     }
 
     /**
      * gets a HttpMessage for the requested URI, using basemsg as the base message. If the message
-     * is available in the cache, return it. If not, retrieve it.
+     * is available in the cache, return it. If not, retrieve it. If the message is already being
+     * retrieved by another thread, wait for it.
      *
      * @param uri the URI for which a httpMessage is being requested
      * @param basemsg the base message which will be used to construct new messages
      * @return a HttpMessage for the requested URI, using basemsg as the base message
      * @throws Exception
      */
-    public synchronized HttpMessage getMessage(
-            URI uri, HttpMessage basemsg, boolean followRedirects) throws Exception {
-        if (!isMessageCached(uri)) {
-            if (log.isDebugEnabled())
-                log.debug("URI '" + uri + "' is not in the message cache. Retrieving it.");
-            // request the file, then add the file to the cache
-            // use the cookies from an original request, in case authorisation is required
-            HttpMessage requestmsg = new HttpMessage(uri);
-            try {
-                requestmsg.setCookieParams(basemsg.getCookieParams());
-            } catch (Exception e) {
-                if (log.isDebugEnabled())
-                    log.debug("Could not set the cookies from the base request:" + e);
-            }
-            requestmsg.getRequestHeader().setHeader(HttpHeader.IF_MODIFIED_SINCE, null);
-            requestmsg.getRequestHeader().setHeader(HttpHeader.IF_NONE_MATCH, null);
-            requestmsg.getRequestHeader().setContentLength(requestmsg.getRequestBody().length());
-            parent.getHttpSender().sendAndReceive(requestmsg, followRedirects);
-            parent.notifyNewMessage(requestmsg);
-            // put the message in the cache
-            messagecache.put(uri, requestmsg);
-            if (log.isDebugEnabled()) log.debug("Put URI '" + uri + "' in the message cache.");
-        } else {
+    public HttpMessage getMessage(URI uri, HttpMessage basemsg, boolean followRedirects)
+            throws Exception {
+        HttpMessage msg =
+                messagecache.get(uri, key -> retrieveMessage(key, basemsg, followRedirects));
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "Message cache hits: "
+                            + messagecache.getHitCount()
+                            + ", misses: "
+                            + messagecache.getMissCount());
+        }
+        return msg;
+    }
+
+    private HttpMessage retrieveMessage(URI uri, HttpMessage basemsg, boolean followRedirects)
+            throws Exception {
+        HostProcess hostprocess = parent.get();
+        if (hostprocess == null) {
+            throw new IllegalStateException("The host process is no longer available.");
+        }
+        if (log.isDebugEnabled())
+            log.debug("URI '" + uri + "' is not in the message cache. Retrieving it.");
+        // request the file, then add the file to the cache
+        // use the cookies from an original request, in case authorisation is required
+        HttpMessage requestmsg = new HttpMessage(uri);
+        try {
+            requestmsg.setCookieParams(basemsg.getCookieParams());
+        } catch (Exception e) {
             if (log.isDebugEnabled())
-                log.debug("URI '" + uri + "' is cached in the message cache.");
+                log.debug("Could not set the cookies from the base request:" + e);
         }
-        // and return the cached message.
-        return messagecache.get(uri);
+        requestmsg.getRequestHeader().setHeader(HttpHeader.IF_MODIFIED_SINCE, null);
+        requestmsg.getRequestHeader().setHeader(HttpHeader.IF_NONE_MATCH, null);
+        requestmsg.getRequestHeader().setContentLength(requestmsg.getRequestBody().length());
+        hostprocess.getHttpSender().sendAndReceive(requestmsg, followRedirects);
+        hostprocess.notifyNewMessage(requestmsg);
+        if (log.isDebugEnabled()) log.debug("Put URI '" + uri + "' in the message cache.");
+        return requestmsg;
+    }
+
+    /**
+     * Gets the number of times a requested message was already cached.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return messagecache.getHitCount();
+    }
+
+    /**
+     * Gets the number of times a requested message had to be retrieved.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return messagecache.getMissCount();
     }
 }
@@ -244,7 +244,7 @@ public class SourceCodeDisclosureGit extends AbstractAppPlugin {
             URI originalURIWithoutQuery =
                     new URI(originalURI.getScheme(), originalURI.getAuthority(), path, null, null);
             GitMetadata git = new GitMetadata(this.getParent(), 4096);
-            GitIndexEntryCache gitindexentrycache = GitIndexEntryCache.getSingleton();
+            GitIndexEntryCache gitindexentrycache = GitIndexEntryCache.getInstance(getParent());
 
             // look for the .git/index file in the directory and parent directories of the file for
             // which we are attempting to get the source code.
@@ -0,0 +1,143 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.ascanrulesAlpha;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/** Unit test for {@link BoundedConcurrentCache}. */
+public class BoundedConcurrentCacheUnitTest {
+
+    @Test
+    public void shouldLoadValueOnceAndReturnItAfterwards() throws Exception {
+        // Given
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        // When
+        String value1 = cache.get("a", key -> key + loads.incrementAndGet());
+        String value2 = cache.get("a", key -> key + loads.incrementAndGet());
+        // Then
+        assertThat(value1, is(equalTo("a1")));
+        assertThat(value2, is(equalTo("a1")));
+        assertThat(loads.get(), is(equalTo(1)));
+        assertThat(cache.getMissCount(), is(equalTo(1L)));
+        assertThat(cache.getHitCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentLoadsOfSameKey() throws Exception {
+        // Given
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedConcurrentCache.Loader<String, String> loader =
+                key -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return "value";
+                };
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("key", loader)));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("key", loader)));
+            }
+            // When
+            release.countDown();
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS), is(equalTo("value")));
+            }
+            assertThat(loads.get(), is(equalTo(1)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldEvictOldestEntriesWhenMaxWeightExceeded() throws Exception {
+        // Given
+        BoundedConcurrentCache<String, String> cache =
+                new BoundedConcurrentCache<>(10, 10, String::length);
+        cache.get("a", key -> "1234");
+        cache.get("b", key -> "1234");
+        // When
+        cache.get("c", key -> "1234");
+        // Then
+        assertThat(cache.containsKey("a"), is(equalTo(false)));
+        assertThat(cache.containsKey("b"), is(equalTo(true)));
+        assertThat(cache.containsKey("c"), is(equalTo(true)));
+        assertThat(cache.getEvictionCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void shouldEvictOldestEntriesWhenMaxEntriesExceeded() throws Exception {
+        // Given
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        // When
+        cache.put("c", "3");
+        // Then
+        assertThat(cache.size(), is(equalTo(2)));
+        assertThat(cache.getIfPresent("a"), is(nullValue()));
+        assertThat(cache.getIfPresent("c"), is(equalTo("3")));
+    }
+
+    @Test
+    public void shouldNotCacheFailedLoads() throws Exception {
+        // Given
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(10);
+        try {
+            cache.get(
+                    "key",
+                    key -> {
+                        throw new IOException("Failed");
+                    });
+            fail("Expected IOException.");
+        } catch (IOException e) {
+            // Expected.
+        }
+        // When
+        String value = cache.get("key", key -> "value");
+        // Then
+        assertThat(cache.containsKey("key"), is(equalTo(true)));
+        assertThat(value, is(equalTo("value")));
+    }
+}
@@ -24,6 +24,7 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.URI;
+import org.apache.commons.httpclient.URIException;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -32,6 +33,7 @@ import org.parosproxy.paros.core.scanner.AbstractAppPlugin;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.RateController;
 import org.zaproxy.zap.model.Vulnerabilities;
 import org.zaproxy.zap.model.Vulnerability;
 
@@ -283,6 +285,12 @@ public class BackupFileDisclosure extends AbstractAppPlugin {
      */
     private static Vulnerability vuln = Vulnerabilities.getVulnerability("wasc_34");
 
+    /** the header used to request just part of the candidate backup files */
+    private static final String RANGE_HEADER = "Range";
+
+    /** the range used to request just the first byte of the candidate backup files */
+    private static final String FIRST_BYTE_RANGE = "bytes=0-0";
+
     /** the logger object */
     private static Logger log = Logger.getLogger(BackupFileDisclosure.class);
 
@@ -478,7 +486,7 @@ public class BackupFileDisclosure extends AbstractAppPlugin {
                 if (log.isDebugEnabled())
                     log.debug("Could not set the cookies from the base request:" + e);
             }
-            sendAndReceive(nonexistfilemsg, false);
+            RateController.sendAndReceive(this, nonexistfilemsg, false, this::sendAndReceive);
             byte[] nonexistfilemsgdata = nonexistfilemsg.getResponseBody().getBytes();
             // does the server give a 404 for a non-existent file?
             if (nonexistfilemsg.getResponseHeader().getStatusCode() != HttpStatus.SC_NOT_FOUND) {
@@ -529,7 +537,7 @@ public class BackupFileDisclosure extends AbstractAppPlugin {
                     if (log.isDebugEnabled())
                         log.debug("Could not set the cookies from the base request:" + e);
                 }
-                sendAndReceive(nonexistparentmsg, false);
+                RateController.sendAndReceive(this, nonexistparentmsg, false, this::sendAndReceive);
                 nonexistparentmsgdata = nonexistparentmsg.getResponseBody().getBytes();
                 // does the server give a 404 for a non-existent parent folder?
                 if (nonexistparentmsg.getResponseHeader().getStatusCode()
@@ -727,124 +735,28 @@ public class BackupFileDisclosure extends AbstractAppPlugin {
             }
 
             // now we have a set of candidate URIs appropriate to the attack strength chosen by the
-            // user
-            // try each candidate URI in turn.
-            for (URI candidateBackupFileURI : candidateBackupFileURIs) {
-                byte[] disclosedData = {};
-                if (log.isDebugEnabled())
-                    log.debug(
-                            "Trying possible backup file path: " + candidateBackupFileURI.getURI());
-                HttpMessage requestmsg = new HttpMessage(candidateBackupFileURI);
-                try {
-                    requestmsg.setCookieParams(originalMessage.getCookieParams());
-                } catch (Exception e) {
-                    if (log.isDebugEnabled())
-                        log.debug("Could not set the cookies from the base request:" + e);
-                }
-                // Do not follow redirects. They're evil. Yep.
-                sendAndReceive(requestmsg, false);
-                disclosedData = requestmsg.getResponseBody().getBytes();
-                int requestStatusCode = requestmsg.getResponseHeader().getStatusCode();
-
-                // just to complicate things.. I have a test case which for the random file, does
-                // NOT give a 404 (so gives404s == false)
-                // but for a "Copy of" file, actually gives a 404 (for some unknown reason). We need
-                // to handle this case.
-                if (!isEmptyResponse(disclosedData)
-                        && ((gives404s && requestStatusCode != HttpStatus.SC_NOT_FOUND)
-                                || ((!gives404s)
-                                        && nonexistfilemsg.getResponseHeader().getStatusCode()
-                                                != requestStatusCode
-                                        && (!Arrays.equals(disclosedData, nonexistfilemsgdata))))) {
-                    bingo(
-                            Alert.RISK_MEDIUM,
-                            Alert.CONFIDENCE_MEDIUM,
-                            Constant.messages.getString("ascanbeta.backupfiledisclosure.name"),
-                            Constant.messages.getString("ascanbeta.backupfiledisclosure.desc"),
-                            requestmsg
-                                    .getRequestHeader()
-                                    .getURI()
-                                    .getURI(), // originalMessage.getRequestHeader().getURI().getURI(),
-                            null, // parameter being attacked: none.
-                            candidateBackupFileURI.getURI(), // attack
-                            originalMessage
-                                    .getRequestHeader()
-                                    .getURI()
-                                    .getURI(), // new String (disclosedData),  //extrainfo
-                            Constant.messages.getString("ascanbeta.backupfiledisclosure.soln"),
-                            Constant.messages.getString(
-                                    "ascanbeta.backupfiledisclosure.evidence",
-                                    originalURI,
-                                    candidateBackupFileURI.getURI()),
-                            requestmsg // originalMessage
-                            );
-                }
-
-                if (isStop()) {
-                    if (log.isDebugEnabled())
-                        log.debug("The scanner was stopped in response to a user request");
-                    return;
-                }
+            // user. If the server gives 404s for non-existent files only the status code is needed
+            // to tell if the candidate exists, so just the first byte of the candidates is
+            // requested, where the server supports ranges.
+            if (checkCandidateURIs(
+                    originalMessage,
+                    candidateBackupFileURIs,
+                    gives404s,
+                    nonexistfilemsg,
+                    nonexistfilemsgdata)) {
+                return;
             }
 
             // now try the changed parent folders (if any)
             // the logic here needs to check using the parent 404 logic, and the output for a
             // non-existent parent folder.
-            for (URI candidateBackupFileURI : candidateBackupFileChangedFolderURIs) {
-                byte[] disclosedData = {};
-                if (log.isDebugEnabled())
-                    log.debug(
-                            "Trying possible backup file path (with changed parent folder): "
-                                    + candidateBackupFileURI.getURI());
-                HttpMessage requestmsg = new HttpMessage(candidateBackupFileURI);
-                try {
-                    requestmsg.setCookieParams(originalMessage.getCookieParams());
-                } catch (Exception e) {
-                    if (log.isDebugEnabled())
-                        log.debug("Could not set the cookies from the base request:" + e);
-                }
-                // Do not follow redirects. They're evil. Yep.
-                sendAndReceive(requestmsg, false);
-                disclosedData = requestmsg.getResponseBody().getBytes();
-                int requestStatusCode = requestmsg.getResponseHeader().getStatusCode();
-                // If the response is empty it's probably not really a backup
-
-                if (!isEmptyResponse(disclosedData)
-                        && ((parentgives404s && requestStatusCode != HttpStatus.SC_NOT_FOUND)
-                                || ((!parentgives404s)
-                                        && nonexistparentmsg.getResponseHeader().getStatusCode()
-                                                != requestStatusCode
-                                        && (!Arrays.equals(
-                                                disclosedData, nonexistparentmsgdata))))) {
-                    bingo(
-                            Alert.RISK_MEDIUM,
-                            Alert.CONFIDENCE_MEDIUM,
-                            Constant.messages.getString("ascanbeta.backupfiledisclosure.name"),
-                            Constant.messages.getString("ascanbeta.backupfiledisclosure.desc"),
-                            requestmsg
-                                    .getRequestHeader()
-                                    .getURI()
-                                    .getURI(), // originalMessage.getRequestHeader().getURI().getURI(),
-                            null, // parameter being attacked: none.
-                            candidateBackupFileURI.getURI(), // attack
-                            originalMessage
-                                    .getRequestHeader()
-                                    .getURI()
-                                    .getURI(), // new String (disclosedData),  //extrainfo
-                            Constant.messages.getString("ascanbeta.backupfiledisclosure.soln"),
-                            Constant.messages.getString(
-                                    "ascanbeta.backupfiledisclosure.evidence",
-                                    originalURI,
-                                    candidateBackupFileURI.getURI()),
-                            requestmsg // originalMessage
-                            );
-                }
-
-                if (isStop()) {
-                    if (log.isDebugEnabled())
-                        log.debug("The scanner was stopped in response to a user request");
-                    return;
-                }
+            if (nonexistparentmsg != null) {
+                checkCandidateURIs(
+                        originalMessage,
+                        candidateBackupFileChangedFolderURIs,
+                        parentgives404s,
+                        nonexistparentmsg,
+                        nonexistparentmsgdata);
             }
 
         } catch (Exception e) {
@@ -855,4 +767,135 @@ public class BackupFileDisclosure extends AbstractAppPlugin {
             return;
         }
     }
+
+    /**
+     * Requests the given candidate backup files, in order, raising an alert for the first one that
+     * is found to exist. The remaining candidates are not requested once an alert is raised.
+     *
+     * @param originalMessage the original message
+     * @param candidateURIs the URIs of the candidate backup files
+     * @param gives404s {@code true} if the server gives 404s for non-existent files
+     * @param nonexistmsg the message of a request for a non-existent file
+     * @param nonexistmsgdata the response body of the non-existent file
+     * @return {@code true} if a backup file was found or the scanner was stopped, {@code false}
+     *     otherwise
+     * @throws Exception if an error occurred while creating the requests
+     */
+    private boolean checkCandidateURIs(
+            HttpMessage originalMessage,
+            Set<URI> candidateURIs,
+            boolean gives404s,
+            HttpMessage nonexistmsg,
+            byte[] nonexistmsgdata)
+            throws Exception {
+        for (URI candidateURI : candidateURIs) {
+            if (isStop()) {
+                if (log.isDebugEnabled())
+                    log.debug("The scanner was stopped in response to a user request");
+                return true;
+            }
+
+            HttpMessage requestmsg = new HttpMessage(candidateURI);
+            try {
+                requestmsg.setCookieParams(originalMessage.getCookieParams());
+            } catch (Exception e) {
+                if (log.isDebugEnabled())
+                    log.debug("Could not set the cookies from the base request:" + e);
+            }
+            if (gives404s) {
+                requestmsg.getRequestHeader().setHeader(RANGE_HEADER, FIRST_BYTE_RANGE);
+            }
+            if (!requestCandidate(requestmsg)
+                    || !isBackupFile(requestmsg, gives404s, nonexistmsg, nonexistmsgdata)) {
+                continue;
+            }
+
+            if (requestmsg.getResponseHeader().getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT) {
+                // request the whole file, to include it in the alert
+                requestmsg.getRequestHeader().setHeader(RANGE_HEADER, null);
+                if (!requestCandidate(requestmsg)
+                        || !isBackupFile(requestmsg, gives404s, nonexistmsg, nonexistmsgdata)) {
+                    continue;
+                }
+            }
+            raiseAlert(originalMessage, requestmsg);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Requests the given candidate backup file.
+     *
+     * @param requestmsg the message of the candidate backup file
+     * @return {@code true} if the candidate was requested, {@code false} if it failed to be
+     *     requested
+     */
+    private boolean requestCandidate(HttpMessage requestmsg) {
+        if (log.isDebugEnabled())
+            log.debug(
+                    "Trying possible backup file path: " + requestmsg.getRequestHeader().getURI());
+        try {
+            // Do not follow redirects. They're evil. Yep.
+            RateController.sendAndReceive(this, requestmsg, false, this::sendAndReceive);
+            return true;
+        } catch (Exception e) {
+            if (log.isDebugEnabled())
+                log.debug(
+                        "Failed to request possible backup file path "
+                                + requestmsg.getRequestHeader().getURI()
+                                + ": "
+                                + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isBackupFile(
+            HttpMessage requestmsg,
+            boolean gives404s,
+            HttpMessage nonexistmsg,
+            byte[] nonexistmsgdata) {
+        byte[] disclosedData = requestmsg.getResponseBody().getBytes();
+        int requestStatusCode = requestmsg.getResponseHeader().getStatusCode();
+        if (requestStatusCode == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+            // the file exists but it's empty, not really a backup
+            return false;
+        }
+
+        // just to complicate things.. I have a test case which for the random file, does
+        // NOT give a 404 (so gives404s == false)
+        // but for a "Copy of" file, actually gives a 404 (for some unknown reason). We need
+        // to handle this case.
+        // If the response is empty it's probably not really a backup
+        return !isEmptyResponse(disclosedData)
+                && ((gives404s && requestStatusCode != HttpStatus.SC_NOT_FOUND)
+                        || ((!gives404s)
+                                && nonexistmsg.getResponseHeader().getStatusCode()
+                                        != requestStatusCode
+                                && (!Arrays.equals(disclosedData, nonexistmsgdata))));
+    }
+
+    private void raiseAlert(HttpMessage originalMessage, HttpMessage requestmsg)
+            throws URIException {
+        String candidateBackupFileURI = requestmsg.getRequestHeader().getURI().getURI();
+        bingo(
+                Alert.RISK_MEDIUM,
+                Alert.CONFIDENCE_MEDIUM,
+                Constant.messages.getString("ascanbeta.backupfiledisclosure.name"),
+                Constant.messages.getString("ascanbeta.backupfiledisclosure.desc"),
+                candidateBackupFileURI, // originalMessage.getRequestHeader().getURI().getURI(),
+                null, // parameter being attacked: none.
+                candidateBackupFileURI, // attack
+                originalMessage
+                        .getRequestHeader()
+                        .getURI()
+                        .getURI(), // new String (disclosedData),  //extrainfo
+                Constant.messages.getString("ascanbeta.backupfiledisclosure.soln"),
+                Constant.messages.getString(
+                        "ascanbeta.backupfiledisclosure.evidence",
+                        originalMessage.getRequestHeader().getURI(),
+                        candidateBackupFileURI),
+                requestmsg // originalMessage
+                );
+    }
 }
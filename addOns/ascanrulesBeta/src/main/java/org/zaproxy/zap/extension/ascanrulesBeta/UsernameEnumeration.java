@@ -42,8 +42,8 @@ import org.parosproxy.paros.network.HttpRequestHeader;
 import org.parosproxy.paros.network.HttpStatusCode;
 import org.zaproxy.zap.authentication.FormBasedAuthenticationMethodType.FormBasedAuthenticationMethod;
 import org.zaproxy.zap.extension.authentication.ExtensionAuthentication;
+import org.zaproxy.zap.extension.commonlib.ResponseSimilarity;
 import org.zaproxy.zap.model.Context;
-import org.zaproxy.zap.utils.HirshbergMatcher;
 
 /**
  * The UsernameEnumeration plugin identifies vulnerabilities with the login page or "forgot
@@ -793,8 +793,7 @@ public class UsernameEnumeration extends AbstractAppPlugin {
      * @return the Longest Common Subsequence of a and b
      */
     public String longestCommonSubsequence(String a, String b) {
-        HirshbergMatcher hirschberg = new HirshbergMatcher();
-        return hirschberg.getLCS(a, b);
+        return ResponseSimilarity.longestCommonSubsequence(a, b);
     }
 
     private boolean shouldContinue(List<Context> contextList) {
@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.ascanrulesBeta;
 
 import static fi.iki.elonen.NanoHTTPD.newFixedLengthResponse;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertThat;
@@ -158,6 +159,64 @@ public class BackupFileDisclosureUnitTest extends ActiveScannerTest<BackupFileDi
         assertThat(alertsRaised, hasSize(1));
     }
 
+    @Test
+    public void shouldAlertJustOnceEvenIfSeveralBackupFilesExist() throws Exception {
+        // Given
+        String test = "/";
+        nano.addHandler(
+                new NanoServerHandler(test) {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        boolean isAlertUrl = session.getUri().contains("sitemap");
+                        String content = isAlertUrl ? "<html></html>" : "";
+                        Response.Status rs =
+                                isAlertUrl ? Response.Status.OK : Response.Status.NOT_FOUND;
+                        return newFixedLengthResponse(rs, NanoHTTPD.MIME_HTML, content);
+                    }
+                });
+        HttpMessage message = getHttpMessage(test + "sitemap.xml");
+        rule.setAttackStrength(Plugin.AttackStrength.INSANE);
+        rule.init(message, parent);
+        // When
+        rule.scan();
+        // Then
+        assertThat(alertsRaised, hasSize(1));
+    }
+
+    @Test
+    public void shouldRequestWholeBackupFileIfPartialContentReturned() throws Exception {
+        // Given
+        String test = "/";
+        String content = "<html>Backup</html>";
+        nano.addHandler(
+                new NanoServerHandler(test) {
+
+                    @Override
+                    protected Response serve(IHTTPSession session) {
+                        if (!session.getUri().contains("sitemap.xml.bak")) {
+                            return newFixedLengthResponse(
+                                    Response.Status.NOT_FOUND, NanoHTTPD.MIME_HTML, "");
+                        }
+                        if (session.getHeaders().containsKey("range")) {
+                            return newFixedLengthResponse(
+                                    Response.Status.PARTIAL_CONTENT,
+                                    NanoHTTPD.MIME_HTML,
+                                    content.substring(0, 1));
+                        }
+                        return newFixedLengthResponse(
+                                Response.Status.OK, NanoHTTPD.MIME_HTML, content);
+                    }
+                });
+        HttpMessage message = getHttpMessage(test + "sitemap.xml");
+        rule.init(message, parent);
+        // When
+        rule.scan();
+        // Then
+        assertThat(alertsRaised, hasSize(1));
+        assertThat(alertsRaised.get(0).getMessage().getResponseBody().toString(), equalTo(content));
+    }
+
     private static class ForbiddenResponseWithReqPath extends NanoServerHandler {
 
         public ForbiddenResponseWithReqPath(String name) {
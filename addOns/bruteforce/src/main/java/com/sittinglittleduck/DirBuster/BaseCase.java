@@ -21,6 +21,7 @@
 package com.sittinglittleduck.DirBuster;
 
 import java.net.URL;
+import java.util.regex.Pattern;
 
 /** Used to store information about a base case. */
 public class BaseCase {
@@ -53,6 +54,9 @@ public class BaseCase {
      */
     private String regex;
 
+    // ZAP: the compiled regex, compiled once for all the requests
+    private volatile Pattern regexPattern;
+
     /** Creates a new instance of BaseCase */
     public BaseCase(
             URL baseCaseURL,
@@ -117,6 +121,13 @@ public class BaseCase {
         return regex;
     }
 
+    public Pattern getRegexPattern() {
+        if (regexPattern == null) {
+            regexPattern = Pattern.compile(regex);
+        }
+        return regexPattern;
+    }
+
     public int getReturnCode() {
         return returnCode;
     }
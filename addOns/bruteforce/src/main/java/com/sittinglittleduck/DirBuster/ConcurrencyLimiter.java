@@ -0,0 +1,110 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster;
+
+/**
+ * Limits the number of requests in flight to the host being brute forced, adapting the limit to how
+ * the host copes with the load.
+ *
+ * <p>The limit is halved when the host shows signs of overload (for example, timeouts or {@code
+ * 503} responses) and increased by one after a full limit of successful requests (additive
+ * increase, multiplicative decrease). The requests in flight when the limit is decreased do not
+ * decrease it again, so that a burst of failures counts as a single overload.
+ */
+public class ConcurrencyLimiter {
+
+    private final int minLimit;
+    private int maxLimit;
+    private int limit;
+    private int inFlight;
+    private int successes;
+    private long epoch;
+
+    /**
+     * Constructs a {@code ConcurrencyLimiter} with the given maximum limit, also used as the
+     * initial limit.
+     *
+     * @param maxLimit the maximum number of requests in flight.
+     * @throws IllegalArgumentException if the maximum limit is less than 1.
+     */
+    public ConcurrencyLimiter(int maxLimit) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("Parameter maxLimit must be greater than zero.");
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Waits until a request can be sent.
+     *
+     * @return the ticket of the request, to be given when {@link #release(long, boolean) released}.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized long acquire() throws InterruptedException {
+        while (inFlight >= limit) {
+            wait();
+        }
+        inFlight++;
+        return epoch;
+    }
+
+    /**
+     * Notifies that a request is no longer in flight.
+     *
+     * @param ticket the ticket returned when acquired.
+     * @param overloaded {@code true} if the host showed signs of overload, {@code false} otherwise.
+     */
+    public synchronized void release(long ticket, boolean overloaded) {
+        inFlight--;
+        if (overloaded) {
+            if (ticket == epoch) {
+                limit = Math.max(minLimit, limit / 2);
+                successes = 0;
+                epoch++;
+            }
+        } else if (limit < maxLimit && ++successes >= limit) {
+            limit++;
+            successes = 0;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Sets the maximum limit, for example, when the number of workers changes.
+     *
+     * @param maxLimit the maximum number of requests in flight.
+     */
+    public synchronized void setMaxLimit(int maxLimit) {
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        limit = Math.min(limit, this.maxLimit);
+        notifyAll();
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the number of requests allowed in flight.
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+}
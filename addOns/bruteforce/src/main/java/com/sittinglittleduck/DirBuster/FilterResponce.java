@@ -23,12 +23,35 @@
 package com.sittinglittleduck.DirBuster;
 
 import java.net.URL;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /** Util class to normliaze http responces */
 public class FilterResponce {
 
+    private static final Pattern DATE_HEADER_PATTERN =
+            Pattern.compile("Date: [\\w\\d, :;=/]+\\W", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern P3P_HEADER_PATTERN =
+            Pattern.compile("P3P: [\\w\\d, :;=/]+\\W", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SET_COOKIE_HEADER_PATTERN =
+            Pattern.compile("Set-Cookie:.*?\r\n", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern EXPIRES_HEADER_PATTERN =
+            Pattern.compile("Expires: [\\w\\d, :-;=/]+\\W", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ETAG_HEADER_PATTERN =
+            Pattern.compile("ETag: [\\w\\d\"\', :]+\\W", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DATE_PATTERN =
+            Pattern.compile(
+                    "\\w\\w\\w,? \\d\\d? \\w\\w\\w \\d\\d\\d\\d \\d?\\d?:?\\d?\\d?:?\\d?\\d? \\w?\\w?\\w?",
+                    Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern IP_ADDRESS_PATTERN =
+            Pattern.compile(
+                    "\\d\\d\\d?\\.\\d\\d\\d?\\.\\d\\d\\d?\\.\\d\\d\\d?", Pattern.CASE_INSENSITIVE);
+
     /** Creates a new instance of FilterResponce */
     public FilterResponce() {}
 
@@ -57,80 +80,50 @@ public class FilterResponce {
                 // remove the firstline from the responce
                 // firstline = toclean.
 
+                // ZAP: Use precompiled patterns and replace the matches directly, the matched
+                // text is no longer compiled as a regex, it might not be a valid one.
+
                 // remove date header
-                Pattern p = Pattern.compile("Date: [\\w\\d, :;=/]+\\W", Pattern.CASE_INSENSITIVE);
-                Matcher m = p.matcher(toclean);
-                if (m.find()) {
-                    // System.out.println("Found Date value = '" + m.group(0) + "'");
-                    toclean = toclean.replaceAll(m.group(0), "DATE LINE REMOVED");
-                }
+                toclean = replaceHeader(toclean, "Date:", DATE_HEADER_PATTERN, "DATE LINE REMOVED");
 
                 // remove P3P header
-                p = Pattern.compile("P3P: [\\w\\d, :;=/]+\\W", Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean);
-                if (m.find()) {
-                    // System.out.println("Found Date value = '" + m.group(0) + "'");
-                    toclean = toclean.replaceAll(m.group(0), "PSP LINE REMOVED");
-                }
+                toclean = replaceHeader(toclean, "P3P:", P3P_HEADER_PATTERN, "PSP LINE REMOVED");
 
                 // Remove cookie header
-                p = Pattern.compile("Set-Cookie:.*?\r\n", Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean);
-                if (m.find()) {
-                    // System.out.println("Found Date value = '" + m.group(0) + "'");
-                    toclean = toclean.replaceAll(m.group(0), "SET-COOKIE LINE REMOVED\r\n");
-                }
+                toclean =
+                        replaceHeader(
+                                toclean,
+                                "Set-Cookie:",
+                                SET_COOKIE_HEADER_PATTERN,
+                                "SET-COOKIE LINE REMOVED\r\n");
 
                 // Remove Expires
-                p = Pattern.compile("Expires: [\\w\\d, :-;=/]+\\W", Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean);
-                if (m.find()) {
-                    // System.out.println("Found Date value = '" + m.group(0) + "'");
-                    toclean = toclean.replaceAll(m.group(0), "EXPIRES LINE REMOVED");
-                }
+                toclean =
+                        replaceHeader(
+                                toclean,
+                                "Expires:",
+                                EXPIRES_HEADER_PATTERN,
+                                "EXPIRES LINE REMOVED");
 
                 // Remove Etag
-                p = Pattern.compile("ETag: [\\w\\d\"\', :]+\\W", Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean);
-                if (m.find()) {
-                    // System.out.println("Found Date value = '" + m.group(0) + "'");
-                    toclean = toclean.replaceAll(m.group(0), "");
-                }
+                toclean = replaceHeader(toclean, "ETag:", ETAG_HEADER_PATTERN, "");
 
                 // Remove a possible date
-                p =
-                        Pattern.compile(
-                                "\\w\\w\\w,? \\d\\d? \\w\\w\\w \\d\\d\\d\\d \\d?\\d?:?\\d?\\d?:?\\d?\\d? \\w?\\w?\\w?",
-                                Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean); // get a matcher object
-                toclean = m.replaceAll("DATE REMOVED");
+                toclean = DATE_PATTERN.matcher(toclean).replaceAll("DATE REMOVED");
 
                 // remove the host
-                p = Pattern.compile(Pattern.quote(url.getHost()), Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean); // get a matcher object
-                toclean = m.replaceAll("HOST REMOVED");
+                toclean = replaceIgnoreCase(toclean, url.getHost(), "HOST REMOVED");
 
                 // remove the entire URL
-                p = Pattern.compile(Pattern.quote(url.toString()), Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean); // get a matcher object
-                toclean = m.replaceAll("ADDRESSED REMOVED");
+                toclean = replaceIgnoreCase(toclean, url.toString(), "ADDRESSED REMOVED");
 
                 // remove the file location
-                p = Pattern.compile(Pattern.quote(url.getFile()), Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean); // get a matcher object
-                toclean = m.replaceAll("FILE REMOVED");
+                toclean = replaceIgnoreCase(toclean, url.getFile(), "FILE REMOVED");
 
-                p = Pattern.compile(Pattern.quote(url.getPath()), Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean); // get a matcher object
-                toclean = m.replaceAll("PATH REMOVED");
+                toclean = replaceIgnoreCase(toclean, url.getPath(), "PATH REMOVED");
 
                 // remove any ip address
-                p =
-                        Pattern.compile(
-                                "\\d\\d\\d?\\.\\d\\d\\d?\\.\\d\\d\\d?\\.\\d\\d\\d?",
-                                Pattern.CASE_INSENSITIVE);
-                m = p.matcher(toclean); // get a matcher object
-                toclean = m.replaceAll("IP ADDRESSED REMOVED");
+                toclean = IP_ADDRESS_PATTERN.matcher(toclean).replaceAll("IP ADDRESSED REMOVED");
                 /*
                 if(itemChecked != null)
                 {
@@ -145,6 +138,58 @@ public class FilterResponce {
         return toclean;
     }
 
+    /*
+     * ZAP: Replaces all the matches of the given header pattern, if the name of the header is
+     * present, the patterns are case insensitive which makes them slow to not match.
+     */
+    private static String replaceHeader(
+            String text, String headerName, Pattern pattern, String replacement) {
+        if (indexOfIgnoreCase(text, headerName, 0) == -1) {
+            return text;
+        }
+        return pattern.matcher(text).replaceAll(replacement);
+    }
+
+    /*
+     * ZAP: Replaces all the occurrences of the given target, ignoring the case, without
+     * compiling a regex for each.
+     */
+    static String replaceIgnoreCase(String text, String target, String replacement) {
+        int idx = indexOfIgnoreCase(text, target, 0);
+        if (idx == -1) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(text.length());
+        int last = 0;
+        do {
+            sb.append(text, last, idx).append(replacement);
+            last = idx + target.length();
+            idx = indexOfIgnoreCase(text, target, last);
+        } while (idx != -1);
+        return sb.append(text, last, text.length()).toString();
+    }
+
+    static int indexOfIgnoreCase(String text, String target, int fromIndex) {
+        int targetLength = target.length();
+        if (targetLength == 0) {
+            return -1;
+        }
+
+        char first = target.charAt(0);
+        char firstLower = Character.toLowerCase(first);
+        char firstUpper = Character.toUpperCase(first);
+        int max = text.length() - targetLength;
+        for (int i = fromIndex; i <= max; i++) {
+            char c = text.charAt(i);
+            if ((c == firstLower || c == firstUpper || c == first)
+                    && text.regionMatches(true, i + 1, target, 1, targetLength - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public static String removeItemCheckedFor(String toclean, String itemToCheckFor) {
         /*
         if (itemToCheckFor != null && toclean != null)
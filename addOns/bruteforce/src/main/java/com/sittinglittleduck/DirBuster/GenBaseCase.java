@@ -21,9 +21,7 @@
  */
 package com.sittinglittleduck.DirBuster;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Vector;
@@ -130,15 +128,8 @@ public class GenBaseCase {
                 LOG.debug("Base case for " + failurl.toString() + " came back as 200!");
             }
 
-            BufferedReader input =
-                    new BufferedReader(new InputStreamReader(httpget.getResponseBodyAsStream()));
-            String tempLine;
-            StringBuffer buf = new StringBuffer();
-            while ((tempLine = input.readLine()) != null) {
-                buf.append("\r\n" + tempLine);
-            }
-            baseResponce = buf.toString();
-            input.close();
+            // ZAP: Read the body as the workers do, for the responses to be comparable.
+            baseResponce = Worker.getResponseAsString(httpget);
 
             // HTMLparse.parseHTML();
 
@@ -268,15 +259,8 @@ public class GenBaseCase {
                 LOG.debug("Base case for " + failurl.toString() + " came back as 200!");
             }
 
-            BufferedReader input =
-                    new BufferedReader(new InputStreamReader(httpget.getResponseBodyAsStream()));
-            String tempLine;
-            StringBuffer buf = new StringBuffer();
-            while ((tempLine = input.readLine()) != null) {
-                buf.append("\r\n" + tempLine);
-            }
-            baseResponce = buf.toString();
-            input.close();
+            // ZAP: Read the body as the workers do, for the responses to be comparable.
+            baseResponce = Worker.getResponseAsString(httpget);
 
             // clean up the base case, based on the basecase URL
             baseResponce = FilterResponce.CleanResponce(baseResponce, failurl, failString);
@@ -332,15 +316,8 @@ public class GenBaseCase {
                 LOG.debug("Base case for " + failurl.toString() + " came back as 200!");
             }
 
-            BufferedReader input =
-                    new BufferedReader(new InputStreamReader(httpget.getResponseBodyAsStream()));
-            String tempLine;
-            StringBuffer buf = new StringBuffer();
-            while ((tempLine = input.readLine()) != null) {
-                buf.append("\r\n" + tempLine);
-            }
-            baseResponce = buf.toString();
-            input.close();
+            // ZAP: Read the body as the workers do, for the responses to be comparable.
+            baseResponce = Worker.getResponseAsString(httpget);
 
             // HTMLparse.parseHTML();
 
@@ -0,0 +1,73 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** A histogram of the response times of the requests, in fixed buckets. */
+public class LatencyHistogram {
+
+    private static final long[] UPPER_BOUNDS = {10, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length + 1);
+
+    /**
+     * Records the response time of a request.
+     *
+     * @param millis the response time, in milliseconds.
+     */
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < UPPER_BOUNDS.length && millis >= UPPER_BOUNDS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * Gets the (exclusive) upper bounds of the buckets, in milliseconds. The last bucket has no
+     * upper bound.
+     *
+     * @return the upper bounds, one less than the number of buckets.
+     */
+    public long[] getUpperBounds() {
+        return UPPER_BOUNDS.clone();
+    }
+
+    /**
+     * Gets the number of requests recorded in each bucket.
+     *
+     * @return the counts of the buckets.
+     */
+    public long[] getCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /** Resets the counts of all buckets. */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+}
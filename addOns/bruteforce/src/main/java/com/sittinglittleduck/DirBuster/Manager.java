@@ -26,11 +26,18 @@ import com.sittinglittleduck.DirBuster.workGenerators.WorkerGeneratorURLFuzz;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.Timer;
 import java.util.Vector;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.prefs.Preferences;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpState;
@@ -65,8 +72,15 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     private String startPoint;
     private boolean doDirs, doFiles;
     private int totalDone = 0;
-    private Vector workers = new Vector(100, 10);
-    private Vector parseWorkers = new Vector(100, 10);
+    // ZAP: Changed to concurrent lists, iterated by the timer tasks while workers are added or
+    // removed.
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final List<HTMLparse> parseWorkers = new CopyOnWriteArrayList<>();
+    // ZAP: limits the requests in flight, adapting to the load the host copes with
+    private ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1);
+    // ZAP: the response times of the requests and the current speed
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private volatile long requestsPerSecond;
     private String[] charSet;
     private int maxLen, minLen;
     boolean pureBrute = false;
@@ -97,10 +111,12 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     // variable for httpclient
     private HttpClient httpclient;
     private HttpState initialState;
-    private Vector producedBasesCases = new Vector(10, 10);
+    // ZAP: Changed to a map keyed by the base URL, type and extension of the base cases.
+    private final Map<String, BaseCase> producedBasesCases = new ConcurrentHashMap<>();
     // used to store all the links that have parsed, will not contain a list a all items, processed
     // as this will consume to much memory.  There for there is a chance of some duplication.
-    private Vector processedLinks = new Vector(100, 100);
+    // ZAP: Changed to a concurrent set, checked by all the workers and parsers.
+    private final Set<String> processedLinks = ConcurrentHashMap.newKeySet();
     // not all base case requests are processed so this will ensure the stats stay correct
     private int baseCaseCounterCorrection = 0;
     // used to store the value of items that will have been skipped
@@ -164,9 +180,9 @@ public class Manager implements ProcessChecker.ProcessUpdate {
      */
     private Vector<String> failCaseRegexes = new Vector(10, 10);
     /*
-     * Vector to store results when we are running in headless mode
+     * Queue to store results when we are running in headless mode
      */
-    Vector<HeadlessResult> headlessResult = new Vector<HeadlessResult>(100, 100);
+    final Queue<HeadlessResult> headlessResult = new ConcurrentLinkedQueue<>();
 
     /*
      * stores of information used to transer data to the gui when started with console args
@@ -254,7 +270,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         workGen = new WorkerGenerator(this);
     }
 
-    public Vector<HeadlessResult> getHeadlessResult() {
+    public Queue<HeadlessResult> getHeadlessResult() {
         return headlessResult;
     }
 
@@ -458,18 +474,19 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     private void createTheThreads() {
         // workers = new Worker[workerCount];
 
-        workers.removeAllElements();
-        parseWorkers.removeAllElements();
+        workers.clear();
+        parseWorkers.clear();
+        concurrencyLimiter = new ConcurrencyLimiter(workerCount);
 
         for (int i = 0; i < workerCount; i++) {
-            workers.addElement(new Worker(i, this));
+            workers.add(new Worker(i, this));
             // workers[i] = new Worker(this, i);
             // tpes.execute(workers[i]);
         }
 
         // create the htmlparse threads
         for (int i = 0; i < workerCount; i++) {
-            parseWorkers.addElement(new HTMLparse(this));
+            parseWorkers.add(new HTMLparse(this));
         }
         // work queue
         workQueue = new ArrayBlockingQueue<WorkUnit>(workerCount * 3);
@@ -501,6 +518,8 @@ public class Manager implements ProcessChecker.ProcessUpdate {
             numberOfBaseCasesProduced = 0;
             parsedLinksProcessed = 0;
             processedLinks.clear();
+            latencyHistogram.reset();
+            requestsPerSecond = 0;
 
             task = new ProcessChecker(this);
             timer.scheduleAtFixedRate(task, 1000L, 1000L);
@@ -529,10 +548,10 @@ public class Manager implements ProcessChecker.ProcessUpdate {
 
             // add the worker and parseWorker threads
             for (int i = 0; i < workers.size(); i++) {
-                Thread workerThread = new Thread(((Worker) workers.elementAt(i)));
+                Thread workerThread = new Thread(workers.get(i));
                 workerThread.setName("DirBuster-Worker");
                 workerThread.start();
-                ((HTMLparse) parseWorkers.elementAt(i)).start();
+                parseWorkers.get(i).start();
             }
 
         } catch (Exception e) {
@@ -672,8 +691,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
             // add to list of items that have already processed
             addParsedLink(url.getPath());
 
-            headlessResult.addElement(
-                    new HeadlessResult(url.getFile(), statusCode, HeadlessResult.DIR));
+            headlessResult.add(new HeadlessResult(url.getFile(), statusCode, HeadlessResult.DIR));
         } catch (InterruptedException e) {
             // e.printStackTrace();
             return;
@@ -703,12 +721,11 @@ public class Manager implements ProcessChecker.ProcessUpdate {
 
         addParsedLink(url.getPath());
 
-        headlessResult.addElement(
-                new HeadlessResult(url.getFile(), statusCode, HeadlessResult.FILE));
+        headlessResult.add(new HeadlessResult(url.getFile(), statusCode, HeadlessResult.FILE));
     }
 
     public synchronized void foundError(URL url, String reason) {
-        headlessResult.addElement(
+        headlessResult.add(
                 new HeadlessResult(url.getFile() + ":" + reason, -1, HeadlessResult.ERROR));
         LOG.warn(url.toString() + " - " + reason);
     }
@@ -756,18 +773,18 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     }
 
     public void pause() {
-        for (int a = 0; a < workers.size(); a++) {
-            synchronized ((Worker) workers.elementAt(a)) {
-                ((Worker) workers.elementAt(a)).pause();
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                worker.pause();
             }
         }
     }
 
     public void unPause() {
-        for (int a = 0; a < workers.size(); a++) {
-            synchronized ((Worker) workers.elementAt(a)) {
-                ((Worker) workers.elementAt(a)).unPause();
-                ((Worker) workers.elementAt(a)).notify();
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                worker.unPause();
+                worker.notify();
             }
         }
     }
@@ -819,17 +836,17 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         }
 
         // stop all the workers;
-        for (int a = 0; a < workers.size(); a++) {
-            synchronized ((Worker) workers.elementAt(a)) {
-                ((Worker) workers.elementAt(a)).stopThread();
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                worker.stopThread();
             }
         }
 
         // stops all the parsers
-        for (int a = 0; a < this.parseWorkers.size(); a++) {
-            synchronized ((HTMLparse) parseWorkers.elementAt(a)) {
-                ((HTMLparse) parseWorkers.elementAt(a)).stopWorking();
-                ((HTMLparse) parseWorkers.elementAt(a)).notify();
+        for (HTMLparse parseWorker : parseWorkers) {
+            synchronized (parseWorker) {
+                parseWorker.stopWorking();
+                parseWorker.notify();
             }
         }
 
@@ -859,10 +876,26 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         return workerCount;
     }
 
-    public Vector getWorkers() {
+    public List<Worker> getWorkers() {
         return workers;
     }
 
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    public long getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(long requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
     public boolean getAuto() {
         return auto;
     }
@@ -878,11 +911,13 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         int currentNumber = workers.size();
         for (int i = 0; i < number; i++) {
             int threadid = currentNumber + i;
-            workers.addElement(new Worker(threadid, this));
+            Worker worker = new Worker(threadid, this);
+            workers.add(worker);
 
-            new Thread((Worker) workers.elementAt(threadid)).start();
+            new Thread(worker).start();
         }
         workerCount = currentNumber + number;
+        concurrencyLimiter.setMaxLimit(workerCount);
     }
 
     /*
@@ -896,10 +931,10 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         }
 
         for (int a = currentNumber - 1; a >= (currentNumber - number); a--) {
-            ((Worker) workers.elementAt(a)).stopThread();
-            workers.remove(a);
+            workers.remove(a).stopThread();
         }
         workerCount = currentNumber - number;
+        concurrencyLimiter.setMaxLimit(workerCount);
     }
 
     // used to remove stuff from the work queue, as a result of the request from a user;
@@ -1035,23 +1070,9 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         return extToUse;
     }
 
-    public synchronized BaseCase getBaseCase(String base, boolean isDir, String fileExt) {
-
+    public BaseCase getBaseCase(String base, boolean isDir, String fileExt) {
         try {
-            for (int a = 0; a < producedBasesCases.size(); a++) {
-                BaseCase tempBaseCase = (BaseCase) producedBasesCases.elementAt(a);
-
-                if (tempBaseCase.getBaseCaseURL().equals(new URL(base))
-                        && tempBaseCase.isDir() == isDir) {
-                    if (!isDir) {
-                        if (tempBaseCase.getFileExt().equals(fileExt)) {
-                            return tempBaseCase;
-                        }
-                    } else {
-                        return tempBaseCase;
-                    }
-                }
-            }
+            return producedBasesCases.get(createBaseCaseKey(new URL(base), isDir, fileExt));
         } catch (MalformedURLException ex) {
             // do nothing I dont care
         }
@@ -1059,19 +1080,36 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         return null;
     }
 
-    public synchronized void addBaseCase(BaseCase baseCase) {
-        if (!producedBasesCases.contains(baseCase)) {
-            producedBasesCases.addElement(baseCase);
+    public void addBaseCase(BaseCase baseCase) {
+        producedBasesCases.putIfAbsent(
+                createBaseCaseKey(
+                        baseCase.getBaseCaseURL(), baseCase.isDir(), baseCase.getFileExt()),
+                baseCase);
+    }
+
+    /*
+     * ZAP: creates the key of a base case, the extension is not relevant for dirs.
+     * The external form of the URL is used, the URL equality would resolve the host.
+     */
+    private static String createBaseCaseKey(URL base, boolean isDir, String fileExt) {
+        if (isDir) {
+            return "D" + base.toExternalForm();
         }
+        return "F" + fileExt + "\n" + base.toExternalForm();
     }
 
-    public synchronized boolean hasLinkBeenDone(String link) {
+    public boolean hasLinkBeenDone(String link) {
+        return processedLinks.contains(createProcessedLinkKey(link));
+    }
 
-        if (processedLinks.contains(link)) {
-            return true;
+    /*
+     * ZAP: creates the key of a processed link, lower case in case insensitive mode.
+     */
+    private static String createProcessedLinkKey(String link) {
+        if (Config.caseInsensativeMode) {
+            return link.toLowerCase(Locale.ENGLISH);
         }
-
-        return false;
+        return link;
     }
 
     public int getBaseCaseCounterCorrection() {
@@ -1082,19 +1120,16 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         return parsedLinksProcessed;
     }
 
-    public synchronized boolean addParsedLink(String link) {
+    public boolean addParsedLink(String link) {
         // System.out.println("SBSB addParsedLink " + link);
         /*
          * case insenataive mode
          */
         if (Config.caseInsensativeMode) {
 
-            for (int a = 0; a < processedLinks.size(); a++) {
-                if (link.equalsIgnoreCase((String) processedLinks.elementAt(a))) {
-                    return false;
-                }
+            if (!processedLinks.add(createProcessedLinkKey(link))) {
+                return false;
             }
-            processedLinks.addElement(link);
 
             if (onlyUnderStartPoint
                     && !link.toLowerCase(Locale.ENGLISH)
@@ -1107,9 +1142,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
          * case sensative mode
          */
         {
-            if (!processedLinks.contains(link)) {
-                processedLinks.addElement(link);
-            }
+            processedLinks.add(link);
 
             if (onlyUnderStartPoint && !link.startsWith(startPoint)) {
                 addParsedLinksProcessed();
@@ -1141,7 +1174,7 @@ public class Manager implements ProcessChecker.ProcessUpdate {
         numberOfBaseCasesProduced++;
     }
 
-    public Vector getParseWorkers() {
+    public List<HTMLparse> getParseWorkers() {
         return parseWorkers;
     }
 
@@ -1248,8 +1281,8 @@ public class Manager implements ProcessChecker.ProcessUpdate {
     }
 
     public boolean areWorkersAlive() {
-        for (int a = 0; a < workers.size(); a++) {
-            if (((Worker) workers.elementAt(a)).isWorking()) {
+        for (Worker worker : workers) {
+            if (worker.isWorking()) {
                 // there is a worker still working so break
                 return true;
             }
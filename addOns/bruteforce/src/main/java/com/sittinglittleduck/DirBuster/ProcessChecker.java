@@ -109,6 +109,8 @@ public class ProcessChecker extends TimerTask {
             }
 
             long averageLastTen = lastTenTotal / lastTen.size();
+            lastTotal = currentTotal;
+            manager.setRequestsPerSecond(averageLastTen);
 
             String parseQueueLength = "N/A";
 
@@ -138,7 +140,6 @@ public class ProcessChecker extends TimerTask {
                 } else {
                     long timeLeft = (totalToDo - currentTotal) / averageLastTen;
                     String timeToCompelete = convertSecsToTime(timeLeft);
-                    lastTotal = currentTotal;
                     LOG.debug(
                             "Current speed: "
                                     + current
@@ -19,8 +19,8 @@
  */
 package com.sittinglittleduck.DirBuster;
 
+import java.util.List;
 import java.util.TimerTask;
-import java.util.Vector;
 
 public class ProcessEnd extends TimerTask {
 
@@ -42,19 +42,19 @@ public class ProcessEnd extends TimerTask {
                 && manager.parseQueue.isEmpty()) {
             // test to see if all the workers are done
             boolean allWorkersFinished = true;
-            Vector workers = manager.getWorkers();
-            Vector parsers = manager.getParseWorkers();
+            List<Worker> workers = manager.getWorkers();
+            List<HTMLparse> parsers = manager.getParseWorkers();
 
-            for (int a = 0; a < workers.size(); a++) {
-                if (((Worker) workers.elementAt(a)).isWorking()) {
+            for (Worker worker : workers) {
+                if (worker.isWorking()) {
                     // there is a worker still working so break
                     allWorkersFinished = false;
                     break;
                 }
             }
 
-            for (int a = 0; a < parsers.size(); a++) {
-                if (((HTMLparse) parsers.elementAt(a)).isWorking()) {
+            for (HTMLparse parser : parsers) {
+                if (parser.isWorking()) {
                     allWorkersFinished = false;
                     break;
                 }
@@ -70,19 +70,19 @@ public class ProcessEnd extends TimerTask {
             if (manager.urlFuzz || manager.pureBrutefuzz) {
                 if (manager.isURLFuzzGenFinished()) {
                     boolean allWorkersFinished = true;
-                    Vector workers = manager.getWorkers();
-                    Vector parsers = manager.getParseWorkers();
+                    List<Worker> workers = manager.getWorkers();
+                    List<HTMLparse> parsers = manager.getParseWorkers();
 
-                    for (int a = 0; a < workers.size(); a++) {
-                        if (((Worker) workers.elementAt(a)).isWorking()) {
+                    for (Worker worker : workers) {
+                        if (worker.isWorking()) {
                             // there is a worker still working so break
                             allWorkersFinished = false;
                             break;
                         }
                     }
 
-                    for (int a = 0; a < parsers.size(); a++) {
-                        if (((HTMLparse) parsers.elementAt(a)).isWorking()) {
+                    for (HTMLparse parser : parsers) {
+                        if (parser.isWorking()) {
                             allWorkersFinished = false;
                             break;
                         }
@@ -22,6 +22,7 @@ package com.sittinglittleduck.DirBuster;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Vector;
 import java.util.logging.Level;
@@ -41,7 +42,7 @@ public class ReportWriter {
      * writes the report when we are in headless mode.
      */
     public void writeReportHeadless() {
-        Vector<HeadlessResult> data = manager.getHeadlessResult();
+        Collection<HeadlessResult> data = manager.getHeadlessResult();
 
         Vector<HeadlessResult> dirs = new Vector<HeadlessResult>(100, 10);
         Vector<HeadlessResult> files = new Vector<HeadlessResult>(100, 10);
@@ -50,13 +51,13 @@ public class ReportWriter {
         Vector dirCodes = new Vector(100, 10);
         Vector fileCodes = new Vector(100, 10);
 
-        for (int a = 0; a < data.size(); a++) {
-            if (data.elementAt(a).getType() == HeadlessResult.FILE) {
-                files.addElement(data.elementAt(a));
-            } else if (data.elementAt(a).getType() == HeadlessResult.DIR) {
-                dirs.addElement(data.elementAt(a));
-            } else if (data.elementAt(a).getType() == HeadlessResult.ERROR) {
-                errors.addElement(data.elementAt(a));
+        for (HeadlessResult result : data) {
+            if (result.getType() == HeadlessResult.FILE) {
+                files.addElement(result);
+            } else if (result.getType() == HeadlessResult.DIR) {
+                dirs.addElement(result);
+            } else if (result.getType() == HeadlessResult.ERROR) {
+                errors.addElement(result);
             }
         }
 
@@ -56,6 +56,9 @@ public class Worker implements Runnable {
     /* Logger object for the class */
     private static final Logger LOG = Logger.getLogger(Worker.class);
 
+    private static final Pattern FILE_NOT_FOUND_PATTERN =
+            Pattern.compile(".*file not found.*", Pattern.CASE_INSENSITIVE);
+
     /**
      * Creates a new instance of Worker
      *
@@ -138,7 +141,6 @@ public class Worker implements Runnable {
 
                     response = FilterResponce.CleanResponce(response, work);
 
-                    Thread.sleep(10);
                     httpMethod.releaseConnection();
                 }
 
@@ -167,7 +169,7 @@ public class Worker implements Runnable {
                  * use the custom regex check instead
                  */
                 else if (work.getBaseCaseObj().isUseRegexInstead()) {
-                    Pattern regexFindFile = Pattern.compile(work.getBaseCaseObj().getRegex());
+                    Pattern regexFindFile = work.getBaseCaseObj().getRegexPattern();
 
                     Matcher m = regexFindFile.matcher(rawResponse);
 
@@ -236,7 +238,6 @@ public class Worker implements Runnable {
                 }
 
                 manager.workDone();
-                Thread.sleep(20);
 
             } catch (NoHttpResponseException e) {
                 manager.foundError(url, "NoHttpResponseException " + e.getMessage());
@@ -311,9 +312,29 @@ public class Worker implements Runnable {
             }
         }
         /*
-         * Send the request
+         * Send the request, once the host can take it
          */
-        int code = httpclient.executeMethod(httpMethod);
+        ConcurrencyLimiter limiter = manager.getConcurrencyLimiter();
+        long ticket = limiter.acquire();
+        boolean overloaded = false;
+        int code;
+        long start = System.currentTimeMillis();
+        try {
+            code = httpclient.executeMethod(httpMethod);
+            overloaded =
+                    code == HttpStatus.SC_SERVICE_UNAVAILABLE
+                            || code == HttpStatus.SC_GATEWAY_TIMEOUT
+                            || code == 429;
+            manager.getLatencyHistogram().record(System.currentTimeMillis() - start);
+        } catch (URIException e) {
+            throw e;
+        } catch (IOException e) {
+            // timeouts, refused or dropped connections
+            overloaded = true;
+            throw e;
+        } finally {
+            limiter.release(ticket, overloaded);
+        }
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("Worker[" + threadId + "]: " + code + " " + url.toString());
@@ -332,9 +353,7 @@ public class Worker implements Runnable {
 
         // TODO move this option to the Adv options
         // if the response does not match the base case
-        Pattern regexFindFile = Pattern.compile(".*file not found.*", Pattern.CASE_INSENSITIVE);
-
-        Matcher m = regexFindFile.matcher(response);
+        Matcher m = FILE_NOT_FOUND_PATTERN.matcher(response);
 
         // need to clean the base case of the item we are looking for
         String basecase =
@@ -383,12 +402,16 @@ public class Worker implements Runnable {
         }
     }
 
-    private String getResponseAsString(HttpMethodBase httpMethod) throws IOException {
+    static String getResponseAsString(HttpMethodBase httpMethod) throws IOException {
+        byte[] body = httpMethod.getResponseBody();
+        if (body == null) {
+            return "";
+        }
         Charset chartSet = getCharsetFrom(httpMethod);
-        return new String(httpMethod.getResponseBody(), chartSet);
+        return new String(body, chartSet);
     }
 
-    private Charset getCharsetFrom(HttpMethodBase httpMethod) {
+    private static Charset getCharsetFrom(HttpMethodBase httpMethod) {
         Charset chartSet;
 
         try {
@@ -0,0 +1,110 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster.workGenerators;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * The items of a list file, read once and kept in memory for all the dirs being brute forced.
+ *
+ * <p>The items are kept as UTF-8 bytes with the offsets of each item, which is more compact than
+ * keeping the strings, and are decoded when obtained. The list is immutable and can be shared
+ * between threads.
+ */
+class WordList {
+
+    /** An empty word list. */
+    static final WordList EMPTY = new WordList(new byte[0], new int[1], 0);
+
+    private final byte[] data;
+    private final int[] offsets;
+    private final int size;
+
+    private WordList(byte[] data, int[] offsets, int size) {
+        this.data = data;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    /**
+     * Reads the items of the given list file, skipping the empty lines and the lines starting with
+     * {@code #}.
+     *
+     * @param file the path to the list file.
+     * @param itemMapper the mapper applied to each (trimmed) item before keeping it.
+     * @return the word list, never {@code null}.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    static WordList load(String file, UnaryOperator<String> itemMapper) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(64 * 1024);
+        int[] offsets = new int[1024];
+        int size = 0;
+
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                byte[] item = itemMapper.apply(line.trim()).getBytes(StandardCharsets.UTF_8);
+                data.write(item, 0, item.length);
+                size++;
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                offsets[size] = data.size();
+            }
+        }
+
+        return new WordList(data.toByteArray(), Arrays.copyOf(offsets, size + 1), size);
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the number of items.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the item at the given index.
+     *
+     * @param index the index of the item.
+     * @return the item.
+     * @throws IndexOutOfBoundsException if the index is negative or not less than the size.
+     */
+    String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int start = offsets[index];
+        return new String(data, start, offsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+}
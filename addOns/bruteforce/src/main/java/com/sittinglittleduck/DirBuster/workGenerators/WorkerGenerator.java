@@ -29,11 +29,8 @@ import com.sittinglittleduck.DirBuster.GenBaseCase;
 import com.sittinglittleduck.DirBuster.HTTPHeader;
 import com.sittinglittleduck.DirBuster.Manager;
 import com.sittinglittleduck.DirBuster.WorkUnit;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Vector;
@@ -93,25 +90,20 @@ public class WorkerGenerator implements Runnable {
         int passTotal = 0;
 
         // --------------------------------------------------
+        // ZAP: Read the list once, it's used for all the dirs and file extensions.
+        WordList wordList = WordList.EMPTY;
         try {
-
-            // find the total number of requests to be made, per pass
-            // based on the fact there is a single entry per line
-            BufferedReader d =
-                    new BufferedReader(new InputStreamReader(new FileInputStream(inputFile)));
-            passTotal = 0;
-            while ((line = d.readLine()) != null) {
-                if (!line.startsWith("#")) {
-                    passTotal++;
-                }
-            }
-
-            manager.setTotalPass(passTotal);
+            wordList = WordList.load(inputFile, this::makeItemsafe);
         } catch (FileNotFoundException ex) {
             ex.printStackTrace();
         } catch (IOException ex) {
             ex.printStackTrace();
         }
+
+        // find the total number of requests to be made, per pass
+        // based on the fact there is a single entry per line
+        passTotal = wordList.size();
+        manager.setTotalPass(passTotal);
         // -------------------------------------------------
 
         // checks if the server surports heads requests
@@ -211,109 +203,94 @@ public class WorkerGenerator implements Runnable {
                 }
 
                 // generate work links
-                try {
-                    // readin dir names
-                    BufferedReader d =
-                            new BufferedReader(
-                                    new InputStreamReader(new FileInputStream(inputFile)));
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Generating dir list for " + firstPart);
-                    }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Generating dir list for " + firstPart);
+                }
 
-                    URL currentURL;
+                URL currentURL;
 
-                    // add the first item while doing dir's
-                    if (counter == 0) {
-                        try {
-                            String method;
-                            if (manager.getAuto()
-                                    && !baseCaseObj.useContentAnalysisMode()
-                                    && !baseCaseObj.isUseRegexInstead()) {
-                                method = "HEAD";
-                            } else {
-                                method = "GET";
-                            }
-                            currentURL = new URL(firstPart + currentDir);
-                            // System.out.println("first part = " + firstPart);
-                            // System.out.println("current dir = " + currentDir);
-                            workQueue.put(new WorkUnit(currentURL, true, "GET", baseCaseObj, null));
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug(
-                                        "1 adding dir to work list "
-                                                + method
-                                                + " "
-                                                + currentDir.toString());
-                            }
-                        } catch (MalformedURLException ex) {
-                            ex.printStackTrace();
-                        } catch (InterruptedException ex) {
-                            ex.printStackTrace();
+                // add the first item while doing dir's
+                if (counter == 0) {
+                    try {
+                        String method;
+                        if (manager.getAuto()
+                                && !baseCaseObj.useContentAnalysisMode()
+                                && !baseCaseObj.isUseRegexInstead()) {
+                            method = "HEAD";
+                        } else {
+                            method = "GET";
                         }
-                    } // end of dealing with first item
-                    int dirsProcessed = 0;
-
-                    // add the rest of the dirs
-                    while ((line = d.readLine()) != null) {
-                        // code to skip the current work load
-                        if (skipCurrent) {
-                            // add the totalnumber per pass - the amount process this pass to the
-                            // work correction total
-                            manager.addToWorkCorrection(passTotal - dirsProcessed);
-                            break;
+                        currentURL = new URL(firstPart + currentDir);
+                        // System.out.println("first part = " + firstPart);
+                        // System.out.println("current dir = " + currentDir);
+                        workQueue.put(new WorkUnit(currentURL, true, "GET", baseCaseObj, null));
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug(
+                                    "1 adding dir to work list "
+                                            + method
+                                            + " "
+                                            + currentDir.toString());
                         }
+                    } catch (MalformedURLException ex) {
+                        ex.printStackTrace();
+                    } catch (InterruptedException ex) {
+                        ex.printStackTrace();
+                    }
+                } // end of dealing with first item
+                int dirsProcessed = 0;
+
+                // add the rest of the dirs
+                for (int i = 0; i < wordList.size(); i++) {
+                    // code to skip the current work load
+                    if (skipCurrent) {
+                        // add the totalnumber per pass - the amount process this pass to the
+                        // work correction total
+                        manager.addToWorkCorrection(passTotal - dirsProcessed);
+                        break;
+                    }
 
-                        // if the line is not empty or starts with a #
-                        if (!line.equalsIgnoreCase("") && !line.startsWith("#")) {
-                            line = line.trim();
-                            line = makeItemsafe(line);
-                            try {
-                                String method;
-                                if (manager.getAuto()
-                                        && !baseCaseObj.useContentAnalysisMode()
-                                        && !baseCaseObj.isUseRegexInstead()) {
-                                    method = "HEAD";
-                                } else {
-                                    method = "GET";
-                                }
-
-                                currentURL = new URL(firstPart + currentDir + line + "/");
-                                // BaseCase baseCaseObj = new BaseCase(currentURL, failcode, true,
-                                // failurl, baseResponce);
-                                // if the base case is null then we need to switch to content
-                                // anylsis mode
-
-                                // System.out.println("Gen about to add to queue");
-                                workQueue.put(
-                                        new WorkUnit(currentURL, true, method, baseCaseObj, line));
-                                // System.out.println("Gen finshed adding to queue");
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.debug(
-                                            "2 adding dir to work list "
-                                                    + method
-                                                    + " "
-                                                    + currentURL.toString());
-                                }
-                            } catch (MalformedURLException e) {
-                                // TODO deal with bad line
-                                // e.printStackTrace();
-                                // do nothing if it's malformed, I dont care about them!
-                            } catch (InterruptedException e) {
-                                e.printStackTrace();
-                            }
+                    // the empty lines and the ones starting with a # were skipped
+                    line = wordList.get(i);
+                    try {
+                        String method;
+                        if (manager.getAuto()
+                                && !baseCaseObj.useContentAnalysisMode()
+                                && !baseCaseObj.isUseRegexInstead()) {
+                            method = "HEAD";
+                        } else {
+                            method = "GET";
+                        }
 
-                            // if there is a call to stop the work gen then stop!
-                            if (stopMe) {
-                                return;
-                            }
-                            dirsProcessed++;
+                        currentURL = new URL(firstPart + currentDir + line + "/");
+                        // BaseCase baseCaseObj = new BaseCase(currentURL, failcode, true,
+                        // failurl, baseResponce);
+                        // if the base case is null then we need to switch to content
+                        // anylsis mode
+
+                        // System.out.println("Gen about to add to queue");
+                        workQueue.put(new WorkUnit(currentURL, true, method, baseCaseObj, line));
+                        // System.out.println("Gen finshed adding to queue");
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug(
+                                    "2 adding dir to work list "
+                                            + method
+                                            + " "
+                                            + currentURL.toString());
                         }
-                    } // end of while
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+                    } catch (MalformedURLException e) {
+                        // TODO deal with bad line
+                        // e.printStackTrace();
+                        // do nothing if it's malformed, I dont care about them!
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+
+                    // if there is a call to stop the work gen then stop!
+                    if (stopMe) {
+                        return;
+                    }
+                    dirsProcessed++;
+                } // end of for
             }
 
             // generate the list of files
@@ -352,75 +329,54 @@ public class WorkerGenerator implements Runnable {
                             return;
                         }
 
-                        try {
-                            BufferedReader d =
-                                    new BufferedReader(
-                                            new InputStreamReader(new FileInputStream(inputFile)));
-                            // if(failcode != 200)
-                            // {
-                            int filesProcessed = 0;
-
-                            while ((line = d.readLine()) != null) {
-                                // code to skip the current work load
-                                if (skipCurrent) {
-                                    manager.addToWorkCorrection(passTotal - filesProcessed);
-                                    break;
+                        // if(failcode != 200)
+                        // {
+                        int filesProcessed = 0;
+
+                        for (int i = 0; i < wordList.size(); i++) {
+                            // code to skip the current work load
+                            if (skipCurrent) {
+                                manager.addToWorkCorrection(passTotal - filesProcessed);
+                                break;
+                            }
+                            // the empty lines and the ones starting with a # were skipped
+                            line = wordList.get(i);
+                            try {
+                                String method;
+                                if (manager.getAuto()
+                                        && !baseCaseObj.useContentAnalysisMode()
+                                        && !baseCaseObj.isUseRegexInstead()) {
+                                    method = "HEAD";
+                                } else {
+                                    method = "GET";
                                 }
-                                // dont process is the line empty for starts with a #
-                                if (!line.equalsIgnoreCase("") && !line.startsWith("#")) {
-                                    line = line.trim();
-                                    line = makeItemsafe(line);
-                                    try {
-                                        String method;
-                                        if (manager.getAuto()
-                                                && !baseCaseObj.useContentAnalysisMode()
-                                                && !baseCaseObj.isUseRegexInstead()) {
-                                            method = "HEAD";
-                                        } else {
-                                            method = "GET";
-                                        }
-
-                                        URL currentURL =
-                                                new URL(
-                                                        firstPart
-                                                                + currentDir
-                                                                + line
-                                                                + fileExtention);
-                                        // BaseCase baseCaseObj = new BaseCase(currentURL, true,
-                                        // failurl, baseResponce);
-                                        workQueue.put(
-                                                new WorkUnit(
-                                                        currentURL,
-                                                        false,
-                                                        method,
-                                                        baseCaseObj,
-                                                        line));
-                                        if (LOG.isDebugEnabled()) {
-                                            LOG.debug(
-                                                    "adding file to work list "
-                                                            + method
-                                                            + " "
-                                                            + currentURL.toString());
-                                        }
-                                    } catch (MalformedURLException e) {
-                                        // e.printStackTrace();
-                                        // again do nothing as I dont care
-                                    } catch (InterruptedException e) {
-                                        e.printStackTrace();
-                                    }
-
-                                    if (stopMe) {
-                                        return;
-                                    }
-                                    filesProcessed++;
+
+                                URL currentURL =
+                                        new URL(firstPart + currentDir + line + fileExtention);
+                                // BaseCase baseCaseObj = new BaseCase(currentURL, true,
+                                // failurl, baseResponce);
+                                workQueue.put(
+                                        new WorkUnit(currentURL, false, method, baseCaseObj, line));
+                                if (LOG.isDebugEnabled()) {
+                                    LOG.debug(
+                                            "adding file to work list "
+                                                    + method
+                                                    + " "
+                                                    + currentURL.toString());
                                 }
-                            } // end of while
-                            // }
-                        } catch (FileNotFoundException e) {
-                            e.printStackTrace();
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
+                            } catch (MalformedURLException e) {
+                                // e.printStackTrace();
+                                // again do nothing as I dont care
+                            } catch (InterruptedException e) {
+                                e.printStackTrace();
+                            }
+
+                            if (stopMe) {
+                                return;
+                            }
+                            filesProcessed++;
+                        } // end of for
+                        // }
                     }
                 } // end of file ext loop
             } // end of if files
@@ -21,6 +21,7 @@ package org.zaproxy.zap.extension.bruteforce;
 
 import com.sittinglittleduck.DirBuster.BaseCase;
 import com.sittinglittleduck.DirBuster.ExtToCheck;
+import com.sittinglittleduck.DirBuster.LatencyHistogram;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -239,6 +240,24 @@ public class BruteForce extends Thread implements BruteForceListenner {
         return this.manager.getTotal();
     }
 
+    /**
+     * Gets the current number of requests per second, averaged over the last seconds.
+     *
+     * @return the number of requests per second.
+     */
+    public long getRequestsPerSecond() {
+        return this.manager.getRequestsPerSecond();
+    }
+
+    /**
+     * Gets the histogram of the response times of the requests.
+     *
+     * @return the histogram, never {@code null}.
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return this.manager.getLatencyHistogram();
+    }
+
     public BruteForceTableModel getModel() {
         return tableModel;
     }
@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.bruteforce;
 
 import com.sittinglittleduck.DirBuster.BaseCase;
+import com.sittinglittleduck.DirBuster.LatencyHistogram;
 import java.awt.CardLayout;
 import java.awt.GridBagConstraints;
 import java.awt.Toolkit;
@@ -110,6 +111,10 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
 
     private JLabel requestCountValueLabel;
 
+    private JLabel requestRateNameLabel;
+
+    private JLabel requestRateValueLabel;
+
     private TableExportButton<HistoryReferencesTable> exportButton = null;
 
     private static Logger log = Logger.getLogger(BruteForcePanel.class);
@@ -227,6 +232,8 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
             GridBagConstraints gridBagConstraints11 = new GridBagConstraints();
             GridBagConstraints gridBagConstraints12 = new GridBagConstraints();
             GridBagConstraints gridBagConstraints13 = new GridBagConstraints();
+            GridBagConstraints gridBagConstraints14 = new GridBagConstraints();
+            GridBagConstraints gridBagConstraints15 = new GridBagConstraints();
             // Dummy
             GridBagConstraints gridBagConstraintsx = new GridBagConstraints();
             GridBagConstraints gridBagConstraintsy = new GridBagConstraints();
@@ -299,6 +306,16 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
             gridBagConstraints13.insets = new java.awt.Insets(0, 0, 0, 0);
             gridBagConstraints13.anchor = java.awt.GridBagConstraints.EAST;
 
+            gridBagConstraints14.gridx = 13;
+            gridBagConstraints14.gridy = 0;
+            gridBagConstraints14.insets = new java.awt.Insets(0, 0, 0, 0);
+            gridBagConstraints14.anchor = java.awt.GridBagConstraints.EAST;
+
+            gridBagConstraints15.gridx = 14;
+            gridBagConstraints15.gridy = 0;
+            gridBagConstraints15.insets = new java.awt.Insets(0, 0, 0, 0);
+            gridBagConstraints15.anchor = java.awt.GridBagConstraints.EAST;
+
             gridBagConstraintsx.gridx = 20;
             gridBagConstraintsx.gridy = 0;
             gridBagConstraintsx.weightx = 1.0;
@@ -328,7 +345,9 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
             panelToolbar.add(getActiveScansValueLabel(), gridBagConstraints10);
             panelToolbar.add(getRequestCountNameLabel(), gridBagConstraints11);
             panelToolbar.add(getRequestCountValueLabel(), gridBagConstraints12);
-            panelToolbar.add(getExportButton(), gridBagConstraints13);
+            panelToolbar.add(getRequestRateNameLabel(), gridBagConstraints13);
+            panelToolbar.add(getRequestRateValueLabel(), gridBagConstraints14);
+            panelToolbar.add(getExportButton(), gridBagConstraints15);
 
             panelToolbar.add(new JLabel(), gridBagConstraintsx); // Filler
             panelToolbar.add(getOptionsButton(), gridBagConstraintsy);
@@ -370,6 +389,63 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
         return requestCountValueLabel;
     }
 
+    private JLabel getRequestRateNameLabel() {
+        if (requestRateNameLabel == null) {
+            requestRateNameLabel = new javax.swing.JLabel();
+            requestRateNameLabel.setText(
+                    Constant.messages.getString("bruteforce.toolbar.requestrate.label"));
+        }
+        return requestRateNameLabel;
+    }
+
+    private JLabel getRequestRateValueLabel() {
+        if (requestRateValueLabel == null) {
+            requestRateValueLabel = new javax.swing.JLabel();
+            requestRateValueLabel.setText("0");
+        }
+        return requestRateValueLabel;
+    }
+
+    private void setRequestRateLabels(BruteForce bruteForce) {
+        if (bruteForce == null) {
+            getRequestRateValueLabel().setText("0");
+            getRequestRateNameLabel().setToolTipText(null);
+            getRequestRateValueLabel().setToolTipText(null);
+            return;
+        }
+
+        getRequestRateValueLabel().setText(String.valueOf(bruteForce.getRequestsPerSecond()));
+
+        LatencyHistogram histogram = bruteForce.getLatencyHistogram();
+        long[] upperBounds = histogram.getUpperBounds();
+        long[] counts = histogram.getCounts();
+        StringBuilder sb = new StringBuilder();
+        sb.append("<html>");
+        sb.append(Constant.messages.getString("bruteforce.toolbar.requestrate.latency"));
+        for (int i = 0; i < counts.length; i++) {
+            sb.append("<br>");
+            if (i < upperBounds.length) {
+                sb.append(
+                        Constant.messages.getString(
+                                "bruteforce.toolbar.requestrate.latency.lower",
+                                upperBounds[i],
+                                counts[i]));
+            } else {
+                sb.append(
+                        Constant.messages.getString(
+                                "bruteforce.toolbar.requestrate.latency.higher",
+                                upperBounds[i - 1],
+                                counts[i]));
+            }
+        }
+        sb.append("</html>");
+
+        final String toolTip = sb.toString();
+
+        getRequestRateNameLabel().setToolTipText(toolTip);
+        getRequestRateValueLabel().setToolTipText(toolTip);
+    }
+
     private void setActiveScanLabels() {
         List<ScanTarget> activeScans = extension.getActiveScans();
         getActiveScansValueLabel().setText(String.valueOf(activeScans.size()));
@@ -611,6 +687,7 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
             }
 
             getRequestCountValueLabel().setText(String.valueOf(bruteForce.getWorkDone()));
+            setRequestRateLabels(bruteForce);
             getProgressBar().setValue(bruteForce.getWorkDone());
             getProgressBar().setMaximum(bruteForce.getWorkTotal());
             bruteForceTable.setModel(bruteForce.getModel());
@@ -745,6 +822,7 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
     public void scanProgress(ScanTarget scanTarget, int done, int todo) {
         if (scanTarget.equals(currentSite)) {
             getRequestCountValueLabel().setText(String.valueOf(done));
+            setRequestRateLabels(extension.getBruteForce(scanTarget));
             getProgressBar().setValue(done);
             getProgressBar().setMaximum(todo);
         }
@@ -762,6 +840,7 @@ public class BruteForcePanel extends AbstractPanel implements BruteForceListenne
         resetScanButtonsAndProgressBarStates(false);
         getProgressBar().setValue(0);
         getRequestCountValueLabel().setText("0");
+        setRequestRateLabels(null);
     }
 
     @Override
@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.bruteforce;
 
 import com.sittinglittleduck.DirBuster.BaseCase;
+import com.sittinglittleduck.DirBuster.LatencyHistogram;
 import java.awt.EventQueue;
 import java.io.File;
 import java.io.FilenameFilter;
@@ -207,6 +208,14 @@ public class ExtensionBruteForce extends ExtensionAdaptor
         return 100 * bf.getWorkDone() / bf.getWorkTotal();
     }
 
+    public long getRequestsPerSecond(int scanId) {
+        return this.getBruteForce(scanId).getRequestsPerSecond();
+    }
+
+    public LatencyHistogram getLatencyHistogram(int scanId) {
+        return this.getBruteForce(scanId).getLatencyHistogram();
+    }
+
     public boolean stopScan(int scanId) {
         BruteForce bf = this.getBruteForce(scanId);
         if (bf.isStopped()) {
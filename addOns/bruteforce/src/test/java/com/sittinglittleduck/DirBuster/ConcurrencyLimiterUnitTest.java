@@ -0,0 +1,105 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/** Unit test for {@link ConcurrencyLimiter}. */
+public class ConcurrencyLimiterUnitTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithMaxLimitLessThanOne() {
+        new ConcurrencyLimiter(0);
+    }
+
+    @Test
+    public void shouldStartWithMaxLimit() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8);
+        // When
+        int limit = limiter.getLimit();
+        // Then
+        assertThat(limit, is(equalTo(8)));
+    }
+
+    @Test
+    public void shouldHalveLimitOnceForOverloadedRequestsInFlight() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8);
+        long ticket1 = limiter.acquire();
+        long ticket2 = limiter.acquire();
+        // When
+        limiter.release(ticket1, true);
+        limiter.release(ticket2, true);
+        // Then
+        assertThat(limiter.getLimit(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldNotDecreaseLimitBelowOne() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        // When
+        for (int i = 0; i < 5; i++) {
+            limiter.release(limiter.acquire(), true);
+        }
+        // Then
+        assertThat(limiter.getLimit(), is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldIncreaseLimitAfterFullLimitOfSuccesses() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8);
+        limiter.release(limiter.acquire(), true);
+        // When
+        for (int i = 0; i < 4; i++) {
+            limiter.release(limiter.acquire(), false);
+        }
+        // Then
+        assertThat(limiter.getLimit(), is(equalTo(5)));
+    }
+
+    @Test
+    public void shouldNotIncreaseLimitAboveMaxLimit() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.acquire(), false);
+        }
+        // Then
+        assertThat(limiter.getLimit(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldReduceLimitIfMaxLimitReduced() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8);
+        // When
+        limiter.setMaxLimit(3);
+        // Then
+        assertThat(limiter.getLimit(), is(equalTo(3)));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.net.URL;
+import org.junit.Test;
+
+/** Unit test for {@link FilterResponce}. */
+public class FilterResponceUnitTest {
+
+    @Test
+    public void shouldReplaceIgnoringCase() {
+        // Given
+        String text = "a Example.com b EXAMPLE.COM c example.comexample.com";
+        // When
+        String replaced = FilterResponce.replaceIgnoreCase(text, "example.com", "X");
+        // Then
+        assertThat(replaced, is(equalTo("a X b X c XX")));
+    }
+
+    @Test
+    public void shouldReturnSameTextIfNothingToReplace() {
+        // Given
+        String text = "no host here";
+        // When
+        String replaced = FilterResponce.replaceIgnoreCase(text, "example.com", "X");
+        String replacedEmpty = FilterResponce.replaceIgnoreCase(text, "", "X");
+        // Then
+        assertThat(replaced, is(sameInstance(text)));
+        assertThat(replacedEmpty, is(sameInstance(text)));
+    }
+
+    @Test
+    public void shouldRemoveUrlPartsAndVolatileValues() throws Exception {
+        // Given
+        URL url = new URL("http://example.com/dir/file.php");
+        String response =
+                "<p>Not found: http://example.com/dir/file.php on Example.com at 192.168.10.10</p>"
+                        + "<p>Mon, 01 Jan 2019 10:00:00 GMT</p>";
+        // When
+        String cleaned = FilterResponce.CleanResponce(response, url, null);
+        // Then
+        assertThat(
+                cleaned,
+                is(
+                        equalTo(
+                                "<p>Not found: http://HOST REMOVEDFILE REMOVED on HOST REMOVED at "
+                                        + "IP ADDRESSED REMOVED</p><p>DATE REMOVED</p>")));
+    }
+
+    @Test
+    public void shouldRemoveSetCookieHeadersWithRegexCharacters() throws Exception {
+        // Given
+        URL url = new URL("http://example.com/a");
+        String response = "Set-Cookie: id=(a+b)?[c]$\r\nContent-Type: text/html\r\n";
+        // When
+        String cleaned = FilterResponce.CleanResponce(response, url, null);
+        // Then
+        assertThat(cleaned, is(equalTo("SET-COOKIE LINE REMOVED\r\nContent-Type: text/html\r\n")));
+    }
+
+    @Test
+    public void shouldRemoveAllSetCookieHeaders() throws Exception {
+        // Given
+        URL url = new URL("http://example.com/a");
+        String response =
+                "Set-Cookie: session=abc\r\nSet-Cookie: theme=dark; Path=/\r\n"
+                        + "Content-Type: text/html\r\n";
+        // When
+        String cleaned = FilterResponce.CleanResponce(response, url, null);
+        // Then
+        assertThat(
+                cleaned,
+                is(
+                        equalTo(
+                                "SET-COOKIE LINE REMOVED\r\nSET-COOKIE LINE REMOVED\r\n"
+                                        + "Content-Type: text/html\r\n")));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sittinglittleduck.DirBuster.workGenerators;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit test for {@link WordList}. */
+public class WordListUnitTest {
+
+    @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldLoadItemsSkippingEmptyAndCommentLines() throws Exception {
+        // Given
+        File file = createFile("# comment", "admin", "", "  images ", "#other", "api-v1");
+        // When
+        WordList wordList = WordList.load(file.getAbsolutePath(), UnaryOperator.identity());
+        // Then
+        assertThat(wordList.size(), is(equalTo(3)));
+        assertThat(wordList.get(0), is(equalTo("admin")));
+        assertThat(wordList.get(1), is(equalTo("images")));
+        assertThat(wordList.get(2), is(equalTo("api-v1")));
+    }
+
+    @Test
+    public void shouldApplyItemMapper() throws Exception {
+        // Given
+        File file = createFile("a b", "c");
+        // When
+        WordList wordList = WordList.load(file.getAbsolutePath(), item -> item + "/");
+        // Then
+        assertThat(wordList.get(0), is(equalTo("a b/")));
+        assertThat(wordList.get(1), is(equalTo("c/")));
+    }
+
+    @Test
+    public void shouldLoadManyItems() throws Exception {
+        // Given
+        String[] items = new String[5000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = "item" + i;
+        }
+        File file = createFile(items);
+        // When
+        WordList wordList = WordList.load(file.getAbsolutePath(), UnaryOperator.identity());
+        // Then
+        assertThat(wordList.size(), is(equalTo(items.length)));
+        assertThat(wordList.get(1023), is(equalTo("item1023")));
+        assertThat(wordList.get(4999), is(equalTo("item4999")));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldFailToGetItemOutOfBounds() {
+        WordList.EMPTY.get(0);
+    }
+
+    private File createFile(String... lines) throws Exception {
+        File file = tempFolder.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines));
+        return file;
+    }
+}
@@ -0,0 +1,18 @@
+import org.zaproxy.gradle.addon.AddOnStatus
+
+version = "1"
+description = "A common library, for use by other add-ons."
+
+zapAddOn {
+    addOnName.set("Common Library")
+    addOnStatus.set(AddOnStatus.RELEASE)
+    zapVersion.set("2.7.0")
+
+    manifest {
+        author.set("ZAP Dev Team")
+    }
+}
+
+dependencies {
+    testImplementation(project(":testutils"))
+}
@@ -0,0 +1,325 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.log4j.Logger;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.network.HttpMessage;
+
+/**
+ * The baseline responses of a scan, that is, the responses to the original (unmodified) requests
+ * re-sent during the scan.
+ *
+ * <p>Scan rules that need a fresh response of the original request (for example, to compare with
+ * the responses of the attacks or to measure the normal response time) should use this class
+ * instead of sending the request themselves, the baseline is sent once and shared by all the rules
+ * of the same {@link HostProcess}, until it expires.
+ *
+ * <p>The baselines are identified by the method, URI and body of the original request, and whether
+ * or not redirects are followed.
+ */
+public final class BaselineResponses {
+
+    /** The default time, in milliseconds, that a baseline is reused, 30 seconds. */
+    public static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    /** The number of baselines that triggers the removal of the expired ones. */
+    private static final int PURGE_THRESHOLD = 100;
+
+    private static final Map<HostProcess, BaselineResponses> instances =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Logger LOGGER = Logger.getLogger(BaselineResponses.class);
+
+    private final long ttlMillis;
+    private final ConcurrentMap<Key, Entry> entries;
+
+    BaselineResponses(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the baseline responses of the given {@code HostProcess}, creating them if needed.
+     *
+     * @param hostProcess the host process
+     * @return the baseline responses, never {@code null}
+     */
+    public static BaselineResponses getInstance(HostProcess hostProcess) {
+        return instances.computeIfAbsent(
+                hostProcess, hp -> new BaselineResponses(DEFAULT_TTL_MILLIS));
+    }
+
+    /**
+     * Gets the baseline of the given original message, sending it if there's none or if expired.
+     *
+     * <p>Concurrent requests for the same baseline are coalesced, just one request is sent.
+     *
+     * @param originalMsg the original message, not modified
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @param sender the sender of the message
+     * @return the baseline, never {@code null}
+     * @throws IOException if an error occurred while sending the message
+     */
+    public Baseline get(HttpMessage originalMsg, boolean followRedirects, MessageSender sender)
+            throws IOException {
+        Entry entry = getEntry(originalMsg, followRedirects);
+        synchronized (entry) {
+            Baseline baseline = entry.baseline;
+            if (baseline == null || isExpired(baseline.timestamp)) {
+                baseline = send(originalMsg, followRedirects, sender, entry);
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(
+                        "Reusing baseline of " + originalMsg.getRequestHeader().getURI() + ".");
+            }
+            return baseline;
+        }
+    }
+
+    /**
+     * Gets the response times of the given original message, sending it until there are at least
+     * the given number of (non-expired) response times.
+     *
+     * <p>The response times include the ones measured while sending the baseline.
+     *
+     * @param originalMsg the original message, not modified
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @param sender the sender of the message
+     * @param count the minimum number of response times
+     * @return the response times, in milliseconds, oldest first
+     * @throws IOException if an error occurred while sending the message
+     */
+    public List<Long> getResponseTimes(
+            HttpMessage originalMsg, boolean followRedirects, MessageSender sender, int count)
+            throws IOException {
+        Entry entry = getEntry(originalMsg, followRedirects);
+        synchronized (entry) {
+            removeExpiredResponseTimes(entry);
+            while (entry.responseTimes.size() < count) {
+                send(originalMsg, followRedirects, sender, entry);
+            }
+            return getResponseTimes(entry);
+        }
+    }
+
+    /**
+     * Gets the (non-expired) response times of the given original message, without sending it.
+     *
+     * <p>Allows to use the response times already obtained, for example, if an error occurred while
+     * sending the message to get more.
+     *
+     * @param originalMsg the original message, not modified
+     * @param followRedirects {@code true} if redirects are followed, {@code false} otherwise
+     * @return the response times, in milliseconds, oldest first
+     * @see #getResponseTimes(HttpMessage, boolean, MessageSender, int)
+     */
+    public List<Long> getResponseTimes(HttpMessage originalMsg, boolean followRedirects) {
+        Entry entry = entries.get(new Key(originalMsg, followRedirects));
+        if (entry == null) {
+            return new ArrayList<>(0);
+        }
+        synchronized (entry) {
+            removeExpiredResponseTimes(entry);
+            return getResponseTimes(entry);
+        }
+    }
+
+    private void removeExpiredResponseTimes(Entry entry) {
+        while (!entry.responseTimes.isEmpty() && isExpired(entry.responseTimes.peekFirst()[0])) {
+            entry.responseTimes.removeFirst();
+        }
+    }
+
+    private static List<Long> getResponseTimes(Entry entry) {
+        List<Long> times = new ArrayList<>(entry.responseTimes.size());
+        for (long[] time : entry.responseTimes) {
+            times.add(time[1]);
+        }
+        return times;
+    }
+
+    /**
+     * Invalidates the baseline of the given original message, the next request will send it again.
+     *
+     * @param originalMsg the original message
+     * @param followRedirects {@code true} if redirects are followed, {@code false} otherwise
+     */
+    public void invalidate(HttpMessage originalMsg, boolean followRedirects) {
+        Entry entry = entries.get(new Key(originalMsg, followRedirects));
+        if (entry != null) {
+            synchronized (entry) {
+                entry.baseline = null;
+            }
+        }
+    }
+
+    private Entry getEntry(HttpMessage originalMsg, boolean followRedirects) {
+        if (entries.size() > PURGE_THRESHOLD) {
+            entries.values().removeIf(this::isExpired);
+        }
+        return entries.computeIfAbsent(new Key(originalMsg, followRedirects), k -> new Entry());
+    }
+
+    private boolean isExpired(Entry entry) {
+        synchronized (entry) {
+            return entry.baseline == null || isExpired(entry.baseline.timestamp);
+        }
+    }
+
+    private boolean isExpired(long timestamp) {
+        return System.currentTimeMillis() - timestamp >= ttlMillis;
+    }
+
+    private static Baseline send(
+            HttpMessage originalMsg, boolean followRedirects, MessageSender sender, Entry entry)
+            throws IOException {
+        HttpMessage msg = originalMsg.cloneRequest();
+        long start = System.currentTimeMillis();
+        sender.send(msg, followRedirects);
+        long end = System.currentTimeMillis();
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Sent baseline of " + msg.getRequestHeader().getURI() + ".");
+        }
+
+        Baseline baseline = new Baseline(msg, end - start, end);
+        entry.baseline = baseline;
+        entry.responseTimes.add(new long[] {end, end - start});
+        return baseline;
+    }
+
+    /**
+     * A baseline, the response to the original request.
+     *
+     * <p>The baselines are shared, the message should not be modified.
+     */
+    public static final class Baseline {
+
+        private final HttpMessage message;
+        private final long responseTime;
+        private final long timestamp;
+        private volatile ResponseSimilarity.Sketch sketch;
+
+        private Baseline(HttpMessage message, long responseTime, long timestamp) {
+            this.message = message;
+            this.responseTime = responseTime;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Gets the message of the baseline, shared, it should not be modified.
+         *
+         * @return the message
+         */
+        public HttpMessage getMessage() {
+            return message;
+        }
+
+        /**
+         * Gets the response body of the baseline.
+         *
+         * @return the response body
+         */
+        public String getResponseBody() {
+            return getSketch().getContent();
+        }
+
+        /**
+         * Gets the sketch of the response body, to compare it with other responses.
+         *
+         * @return the sketch of the response body
+         * @see ResponseSimilarity
+         */
+        public ResponseSimilarity.Sketch getSketch() {
+            ResponseSimilarity.Sketch bodySketch = sketch;
+            if (bodySketch == null) {
+                bodySketch = ResponseSimilarity.sketch(message.getResponseBody().toString());
+                sketch = bodySketch;
+            }
+            return bodySketch;
+        }
+
+        /**
+         * Gets the time that took to obtain the response.
+         *
+         * @return the response time, in milliseconds
+         */
+        public long getResponseTime() {
+            return responseTime;
+        }
+    }
+
+    private static class Key {
+
+        private final String method;
+        private final String uri;
+        private final String body;
+        private final boolean followRedirects;
+        private final int hashCode;
+
+        private Key(HttpMessage msg, boolean followRedirects) {
+            this.method = msg.getRequestHeader().getMethod();
+            this.uri = msg.getRequestHeader().getURI().toString();
+            this.body = msg.getRequestBody().toString();
+            this.followRedirects = followRedirects;
+
+            int result = 31 + method.hashCode();
+            result = 31 * result + uri.hashCode();
+            result = 31 * result + body.hashCode();
+            this.hashCode = 31 * result + (followRedirects ? 1231 : 1237);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return followRedirects == other.followRedirects
+                    && method.equals(other.method)
+                    && uri.equals(other.uri)
+                    && body.equals(other.body);
+        }
+    }
+
+    private static class Entry {
+
+        private Baseline baseline;
+        private final Deque<long[]> responseTimes = new ArrayDeque<>();
+    }
+}
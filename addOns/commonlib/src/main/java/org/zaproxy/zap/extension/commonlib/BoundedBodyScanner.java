@@ -0,0 +1,273 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConversionException;
+import org.parosproxy.paros.network.HttpHeader;
+import org.parosproxy.paros.network.HttpMessage;
+
+/**
+ * A scanner of response bodies with bounded cost, for (passive) scan rules that match regular
+ * expressions against the whole body.
+ *
+ * <p>The body is scanned up to a maximum size and in overlapping windows, each match is bounded to
+ * the window it's found in, which bounds the time spent with expensive expressions (for example,
+ * greedy expressions with {@link Pattern#DOTALL DOTALL}). Bodies not larger than a window are
+ * scanned as a whole, as if matched directly. The expressions are matched with transparent and
+ * non-anchoring bounds, the anchors and lookarounds behave the same as in the whole body.
+ *
+ * <p>Matches longer than the overlap of the windows might be truncated.
+ *
+ * @see #isScannableContent(HttpMessage)
+ */
+public final class BoundedBodyScanner {
+
+    /** The default maximum size of the body scanned, in characters. */
+    public static final int DEFAULT_MAX_BODY_SIZE = 5 * 1024 * 1024;
+
+    /** The default size of the windows, in characters. */
+    public static final int DEFAULT_WINDOW_SIZE = 512 * 1024;
+
+    /** The default overlap of the windows, in characters. */
+    public static final int DEFAULT_WINDOW_OVERLAP = 8 * 1024;
+
+    private static final String[] NON_SCANNABLE_CONTENT_TYPES = {
+        "image/",
+        "audio/",
+        "video/",
+        "font/",
+        "application/zip",
+        "application/x-gzip",
+        "application/gzip",
+        "application/pdf",
+        "application/font-"
+    };
+
+    /**
+     * The generic binary content type, also used for text (for example, source code files), the
+     * body is sniffed to tell if it's text.
+     */
+    private static final String OCTET_STREAM_CONTENT_TYPE = "application/octet-stream";
+
+    /** The number of bytes of the body sniffed to tell if it's text. */
+    private static final int SNIFF_SIZE = 1024;
+
+    /** The maximum ratio of control characters in the bytes sniffed to consider the body text. */
+    private static final double MAX_CONTROL_CHARS_RATIO = 0.1;
+
+    private final int maxBodySize;
+    private final int windowSize;
+    private final int windowOverlap;
+
+    /**
+     * Constructs a {@code BoundedBodyScanner} with the given maximum body size and the default
+     * windows.
+     *
+     * @param maxBodySize the maximum size of the body scanned, in characters, if less than 1 the
+     *     whole body is scanned.
+     */
+    public BoundedBodyScanner(int maxBodySize) {
+        this(maxBodySize, DEFAULT_WINDOW_SIZE, DEFAULT_WINDOW_OVERLAP);
+    }
+
+    /**
+     * Constructs a {@code BoundedBodyScanner} with the given maximum body size and windows.
+     *
+     * @param maxBodySize the maximum size of the body scanned, in characters, if less than 1 the
+     *     whole body is scanned.
+     * @param windowSize the size of the windows, in characters.
+     * @param windowOverlap the overlap of the windows, in characters.
+     * @throws IllegalArgumentException if the window size is less than 1, or if the overlap is
+     *     negative or not less than the window size.
+     */
+    public BoundedBodyScanner(int maxBodySize, int windowSize, int windowOverlap) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Parameter windowSize must be greater than zero.");
+        }
+        if (windowOverlap < 0 || windowOverlap >= windowSize) {
+            throw new IllegalArgumentException(
+                    "Parameter windowOverlap must not be negative and must be less than windowSize.");
+        }
+        this.maxBodySize = maxBodySize < 1 ? Integer.MAX_VALUE : maxBodySize;
+        this.windowSize = windowSize;
+        this.windowOverlap = windowOverlap;
+    }
+
+    /**
+     * Gets the maximum body size from the given configuration, falling back to the {@link
+     * #DEFAULT_MAX_BODY_SIZE default size} if not set.
+     *
+     * @param config the configuration of the scan rule, might be {@code null}.
+     * @param key the key of the maximum body size, specific to the scan rule.
+     * @return the maximum body size.
+     */
+    public static int getMaxBodySize(Configuration config, String key) {
+        if (config == null) {
+            return DEFAULT_MAX_BODY_SIZE;
+        }
+        try {
+            return config.getInt(key, DEFAULT_MAX_BODY_SIZE);
+        } catch (ConversionException e) {
+            return DEFAULT_MAX_BODY_SIZE;
+        }
+    }
+
+    /**
+     * Tells whether or not the response of the given message might contain text, that is, it's not
+     * of a binary content type (for example, image, audio, video, font, or archive).
+     *
+     * <p>Responses without content type are considered scannable. Responses with the generic {@code
+     * application/octet-stream} content type are considered scannable if the start of the body
+     * looks like text, the content type is often used for text files (for example, source code) not
+     * known by the server.
+     *
+     * @param msg the message.
+     * @return {@code true} if the response should be scanned, {@code false} otherwise.
+     */
+    public static boolean isScannableContent(HttpMessage msg) {
+        String contentType = msg.getResponseHeader().getHeader(HttpHeader.CONTENT_TYPE);
+        if (contentType == null) {
+            return true;
+        }
+        contentType = contentType.trim().toLowerCase(Locale.ROOT);
+        if (contentType.startsWith(OCTET_STREAM_CONTENT_TYPE)) {
+            return isText(msg.getResponseBody().getBytes());
+        }
+        for (String nonScannable : NON_SCANNABLE_CONTENT_TYPES) {
+            if (contentType.startsWith(nonScannable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether or not the start of the given body looks like text, that is, it has no null
+     * bytes and just a few control characters.
+     *
+     * @param body the body.
+     * @return {@code true} if the body looks like text, {@code false} otherwise.
+     */
+    private static boolean isText(byte[] body) {
+        int length = Math.min(body.length, SNIFF_SIZE);
+        int controlChars = 0;
+        for (int i = 0; i < length; i++) {
+            int b = body[i] & 0xff;
+            if (b == 0) {
+                return false;
+            }
+            if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1b) {
+                controlChars++;
+            }
+        }
+        return controlChars <= length * MAX_CONTROL_CHARS_RATIO;
+    }
+
+    /**
+     * Gets the body to scan, the whole body if not larger than the maximum size, otherwise the
+     * start of the body up to the maximum size.
+     *
+     * @param body the body.
+     * @return the body to scan.
+     */
+    public String getScannableBody(String body) {
+        if (body.length() <= maxBodySize) {
+            return body;
+        }
+        return body.substring(0, maxBodySize);
+    }
+
+    /**
+     * Finds the first match of the given pattern in the body.
+     *
+     * @param pattern the pattern to match.
+     * @param body the body.
+     * @return the matcher with the match, or {@code null} if not found.
+     */
+    public Matcher find(Pattern pattern, String body) {
+        Matcher[] found = new Matcher[1];
+        scan(
+                pattern,
+                body,
+                matcher -> {
+                    found[0] = matcher;
+                    return false;
+                });
+        return found[0];
+    }
+
+    /**
+     * Finds all the matches of the given pattern in the body.
+     *
+     * <p>The matcher given to the consumer should be used just during the call.
+     *
+     * @param pattern the pattern to match.
+     * @param body the body.
+     * @param consumer the consumer of the matches.
+     */
+    public void findAll(Pattern pattern, String body, Consumer<Matcher> consumer) {
+        scan(
+                pattern,
+                body,
+                matcher -> {
+                    consumer.accept(matcher);
+                    return true;
+                });
+    }
+
+    private void scan(Pattern pattern, String body, MatchHandler handler) {
+        int length = Math.min(body.length(), maxBodySize);
+        Matcher matcher = pattern.matcher(body);
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+
+        int start = 0;
+        while (true) {
+            int end = length - start <= windowSize ? length : start + windowSize;
+            boolean lastWindow = end == length;
+            // The matches starting in the overlap are found in the next window.
+            int limit = lastWindow ? length : end - windowOverlap;
+            int nextStart = limit;
+
+            matcher.region(start, end);
+            while (matcher.find() && matcher.start() < limit) {
+                if (!handler.handle(matcher)) {
+                    return;
+                }
+                nextStart = Math.max(nextStart, matcher.end());
+            }
+
+            if (lastWindow) {
+                return;
+            }
+            start = nextStart;
+        }
+    }
+
+    private interface MatchHandler {
+
+        boolean handle(Matcher matcher);
+    }
+}
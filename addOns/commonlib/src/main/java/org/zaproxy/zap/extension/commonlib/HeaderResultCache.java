@@ -0,0 +1,120 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+import org.apache.commons.collections.map.LRUMap;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpRequestHeader;
+
+/**
+ * A cache of the results of evaluating response headers, keyed by site and a fingerprint of the
+ * headers evaluated.
+ *
+ * <p>Responses from the same site usually have the same headers, the scan rules that do expensive
+ * evaluations of the headers (for example, parsing a policy) can evaluate them once and reuse the
+ * result while the headers are not changed. Each scan rule should have its own cache, the results
+ * are specific to the rule. The cache is bounded, the least recently used results are discarded.
+ *
+ * <p>The alerts should still be raised for each message, just the evaluation is reused.
+ *
+ * @param <V> the type of the results
+ */
+public final class HeaderResultCache<V> {
+
+    /** The default maximum number of results cached. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final String SEPARATOR = "\n";
+
+    private final LRUMap results;
+
+    /** Constructs a {@code HeaderResultCache} with the {@link #DEFAULT_MAX_SIZE default size}. */
+    public HeaderResultCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a {@code HeaderResultCache} with the given maximum size.
+     *
+     * @param maxSize the maximum number of results cached.
+     * @throws IllegalArgumentException if the given size is less than 1.
+     */
+    public HeaderResultCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Parameter maxSize must be greater than zero.");
+        }
+        results = new LRUMap(maxSize);
+    }
+
+    /**
+     * Gets the result for the given site and fingerprint, evaluating it if not cached.
+     *
+     * <p>The evaluation is done without holding a lock, concurrent calls for the same key might
+     * evaluate it more than once.
+     *
+     * @param site the site, {@code null} if the result does not depend on the site.
+     * @param fingerprint the fingerprint of the headers evaluated, for example, the values of the
+     *     headers, must not be {@code null}.
+     * @param evaluator the evaluator of the result, called if not cached.
+     * @return the result, might be {@code null} if returned by the evaluator.
+     * @see #getSite(HttpMessage)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String site, String fingerprint, Supplier<V> evaluator) {
+        String key = site == null ? fingerprint : site + SEPARATOR + fingerprint;
+        synchronized (results) {
+            if (results.containsKey(key)) {
+                return (V) results.get(key);
+            }
+        }
+
+        V result = evaluator.get();
+        synchronized (results) {
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /** Clears the results cached. */
+    public void clear() {
+        synchronized (results) {
+            results.clear();
+        }
+    }
+
+    /**
+     * Gets the site of the request of the given message, the scheme, host, and port, for example,
+     * {@code https://example.com:443}.
+     *
+     * @param msg the message.
+     * @return the site, never {@code null}.
+     */
+    public static String getSite(HttpMessage msg) {
+        HttpRequestHeader requestHeader = msg.getRequestHeader();
+        String hostName = requestHeader.getHostName();
+        StringBuilder strBuilder = new StringBuilder(64);
+        strBuilder.append(requestHeader.isSecure() ? "https://" : "http://");
+        strBuilder.append(hostName == null ? "" : hostName.toLowerCase(Locale.ROOT));
+        strBuilder.append(':').append(requestHeader.getHostPort());
+        return strBuilder.toString();
+    }
+}
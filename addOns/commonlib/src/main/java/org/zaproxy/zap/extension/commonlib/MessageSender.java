@@ -0,0 +1,42 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.io.IOException;
+import org.parosproxy.paros.network.HttpMessage;
+
+/**
+ * A sender of messages, normally, the scan rule (e.g. {@code this::sendAndReceive}).
+ *
+ * @see BaselineResponses
+ * @see RateController
+ */
+@FunctionalInterface
+public interface MessageSender {
+
+    /**
+     * Sends the given message.
+     *
+     * @param msg the message to send
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @throws IOException if an error occurred while sending the message
+     */
+    void send(HttpMessage msg, boolean followRedirects) throws IOException;
+}
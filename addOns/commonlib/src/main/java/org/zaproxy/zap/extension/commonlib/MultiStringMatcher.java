@@ -0,0 +1,259 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds which of several strings occur in a text, in a single pass over the text (Aho-Corasick).
+ *
+ * <p>The matcher is immutable and thread-safe once created.
+ */
+public final class MultiStringMatcher {
+
+    /**
+     * A filter that accepts just the occurrences delimited by word boundaries, that is, the same as
+     * surrounding the string with {@code \b} in a regular expression.
+     *
+     * @see #findFirst(CharSequence, OccurrenceFilter)
+     */
+    public static final OccurrenceFilter WORD_BOUNDARIES =
+            (text, index, start, end) -> isWordBoundary(text, start) && isWordBoundary(text, end);
+
+    private final int stringCount;
+    private final int[] lengths;
+    private final boolean ignoreCase;
+    private final Node root;
+
+    /**
+     * Constructs a {@code MultiStringMatcher} for the given strings.
+     *
+     * <p>The strings are identified by their index in the given list. Empty strings are always
+     * found.
+     *
+     * @param strings the strings to find
+     * @param ignoreCase {@code true} if the case should be ignored, {@code false} otherwise
+     * @throws IllegalArgumentException if the strings are {@code null} or contain {@code null}
+     */
+    public MultiStringMatcher(List<String> strings, boolean ignoreCase) {
+        if (strings == null) {
+            throw new IllegalArgumentException("Parameter strings must not be null.");
+        }
+        this.stringCount = strings.size();
+        this.lengths = new int[stringCount];
+        this.ignoreCase = ignoreCase;
+        this.root = new Node();
+
+        for (int i = 0; i < strings.size(); i++) {
+            String str = strings.get(i);
+            if (str == null) {
+                throw new IllegalArgumentException("Parameter strings must not contain null.");
+            }
+            lengths[i] = str.length();
+            Node node = root;
+            for (int j = 0; j < str.length(); j++) {
+                node = node.children.computeIfAbsent(fold(str.charAt(j)), k -> new Node());
+            }
+            node.ownOutputs.add(i);
+        }
+        buildFailureLinks();
+    }
+
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.outputs = toArray(root.ownOutputs);
+        for (Node child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            List<Integer> outputs = new ArrayList<>(node.ownOutputs);
+            for (int output : node.failure.outputs) {
+                outputs.add(output);
+            }
+            node.outputs = toArray(outputs);
+
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                Node child = entry.getValue();
+                Node failure = node.failure;
+                while (failure != null && !failure.children.containsKey(entry.getKey())) {
+                    failure = failure.failure;
+                }
+                child.failure = failure == null ? root : failure.children.get(entry.getKey());
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Gets the number of strings of the matcher.
+     *
+     * @return the number of strings
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Finds the strings that occur in the given text.
+     *
+     * @param text the text to search
+     * @return the indexes of the strings found, never {@code null}
+     */
+    public BitSet findAll(CharSequence text) {
+        BitSet found = new BitSet(stringCount);
+        int foundCount = setAll(found, root.outputs);
+        Node node = root;
+        for (int i = 0; i < text.length() && foundCount < stringCount; i++) {
+            node = next(node, fold(text.charAt(i)));
+            foundCount += setAll(found, node.outputs);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the first string that occurs in the given text, that is, the string that ends first.
+     *
+     * @param text the text to search
+     * @return the index of the string found, or {@code -1} if none
+     */
+    public int findFirst(CharSequence text) {
+        if (root.outputs.length != 0) {
+            return root.outputs[0];
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, fold(text.charAt(i)));
+            if (node.outputs.length != 0) {
+                return node.outputs[0];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first occurrence of the strings in the given text that is accepted by the given
+     * filter, that is, the occurrence that ends first.
+     *
+     * <p>Empty strings are checked just at the start of the text.
+     *
+     * @param text the text to search
+     * @param filter the filter of the occurrences
+     * @return the index of the string found, or {@code -1} if none
+     * @see #WORD_BOUNDARIES
+     */
+    public int findFirst(CharSequence text, OccurrenceFilter filter) {
+        for (int output : root.outputs) {
+            if (filter.accept(text, output, 0, 0)) {
+                return output;
+            }
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, fold(text.charAt(i)));
+            int end = i + 1;
+            for (int output : node.outputs) {
+                if (lengths[output] != 0
+                        && filter.accept(text, output, end - lengths[output], end)) {
+                    return output;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordBoundary(CharSequence text, int index) {
+        boolean wordBefore = index > 0 && isWordChar(text.charAt(index - 1));
+        boolean wordAfter = index < text.length() && isWordChar(text.charAt(index));
+        return wordBefore != wordAfter;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private Node next(Node node, char c) {
+        Node current = node;
+        while (true) {
+            Node child = current.children.get(c);
+            if (child != null) {
+                return child;
+            }
+            if (current == root) {
+                return root;
+            }
+            current = current.failure;
+        }
+    }
+
+    private static int setAll(BitSet bitSet, int[] indexes) {
+        int count = 0;
+        for (int index : indexes) {
+            if (!bitSet.get(index)) {
+                bitSet.set(index);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> ownOutputs = new ArrayList<>(1);
+        private Node failure;
+        private int[] outputs;
+    }
+
+    /** A filter of the occurrences of the strings. */
+    @FunctionalInterface
+    public interface OccurrenceFilter {
+
+        /**
+         * Tells whether or not the given occurrence should be accepted.
+         *
+         * @param text the text being searched
+         * @param index the index of the string found
+         * @param start the start of the occurrence in the text, inclusive
+         * @param end the end of the occurrence in the text, exclusive
+         * @return {@code true} if the occurrence is accepted, {@code false} otherwise
+         */
+        boolean accept(CharSequence text, int index, int start, int end);
+    }
+}
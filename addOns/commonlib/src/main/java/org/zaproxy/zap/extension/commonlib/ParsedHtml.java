@@ -0,0 +1,231 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.htmlparser.jericho.Element;
+import net.htmlparser.jericho.HTMLElementName;
+import net.htmlparser.jericho.Source;
+import net.htmlparser.jericho.StartTagType;
+import net.htmlparser.jericho.Tag;
+import org.apache.commons.collections.map.AbstractReferenceMap;
+import org.apache.commons.collections.map.ReferenceIdentityMap;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.network.HttpResponseBody;
+
+/**
+ * The parsed HTML of a response, along with commonly used elements (for example, forms, inputs,
+ * scripts, links, and comments).
+ *
+ * <p>The response body is parsed once, the instances are cached while the response body is not
+ * changed (and is still in use), so that all the scan rules share the same parsed HTML. The cache
+ * holds the response bodies weakly, the parsed HTML is reclaimed once the message is no longer
+ * used.
+ *
+ * <p>The instances are shared only by the scan rules given the same message, for example, the
+ * passive scan rules. Active scan rules get a copy of the message (and its response body) so they
+ * would not share the parsed HTML.
+ *
+ * <p>The elements returned should not be modified.
+ *
+ * @see #getInstance(HttpMessage)
+ * @see #getInstance(HttpMessage, Source)
+ */
+public final class ParsedHtml {
+
+    @SuppressWarnings("unchecked")
+    private static final Map<HttpResponseBody, ParsedHtml> CACHE =
+            Collections.synchronizedMap(
+                    new ReferenceIdentityMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.HARD));
+
+    /** The content the HTML was parsed from, used to know if the body was changed. */
+    private final String content;
+
+    private final Source source;
+
+    private final Map<String, List<Element>> elements;
+    private List<Element> allElements;
+    private List<Tag> comments;
+    private boolean fullSequentialParsed;
+
+    private ParsedHtml(String content, Source source) {
+        this.content = content;
+        this.source = source;
+        this.elements = new HashMap<>();
+    }
+
+    /**
+     * Gets the parsed HTML of the response of the given message.
+     *
+     * @param msg the message
+     * @return the parsed HTML, never {@code null}
+     */
+    public static ParsedHtml getInstance(HttpMessage msg) {
+        return getInstance(msg, null);
+    }
+
+    /**
+     * Gets the parsed HTML of the response of the given message, using the given source if not yet
+     * parsed.
+     *
+     * <p>Used by passive scan rules, which are given the source of the response.
+     *
+     * @param msg the message
+     * @param source the source of the response, might be {@code null}
+     * @return the parsed HTML, never {@code null}
+     */
+    public static ParsedHtml getInstance(HttpMessage msg, Source source) {
+        HttpResponseBody body = msg.getResponseBody();
+        String content = body.toString();
+        ParsedHtml parsedHtml = CACHE.get(body);
+        if (parsedHtml != null && parsedHtml.content == content) {
+            return parsedHtml;
+        }
+
+        parsedHtml = new ParsedHtml(content, source != null ? source : new Source(content));
+        CACHE.put(body, parsedHtml);
+        return parsedHtml;
+    }
+
+    /**
+     * Gets the source.
+     *
+     * <p>The source should not be fully parsed directly, {@link #fullSequentialParse()} should be
+     * used instead.
+     *
+     * @return the source, never {@code null}
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Parses all the tags of the source, for example, to be able to get the parent of the elements.
+     *
+     * <p>The elements obtained before are discarded, the full sequential parse might lead to
+     * different elements.
+     *
+     * @see Source#fullSequentialParse()
+     */
+    public synchronized void fullSequentialParse() {
+        if (fullSequentialParsed) {
+            return;
+        }
+        source.fullSequentialParse();
+        fullSequentialParsed = true;
+        elements.clear();
+        allElements = null;
+        comments = null;
+    }
+
+    /**
+     * Gets all the elements.
+     *
+     * @return an unmodifiable list with all the elements, never {@code null}
+     */
+    public synchronized List<Element> getAllElements() {
+        if (allElements == null) {
+            allElements = Collections.unmodifiableList(source.getAllElements());
+        }
+        return allElements;
+    }
+
+    /**
+     * Gets the elements with the given name.
+     *
+     * @param name the name of the elements, for example, {@link HTMLElementName#FORM}
+     * @return an unmodifiable list with the elements, never {@code null}
+     */
+    public synchronized List<Element> getAllElements(String name) {
+        return elements.computeIfAbsent(
+                name, k -> Collections.unmodifiableList(source.getAllElements(k)));
+    }
+
+    /**
+     * Gets the first element with the given name.
+     *
+     * @param name the name of the element, for example, {@link HTMLElementName#HTML}
+     * @return the element, or {@code null} if none
+     */
+    public Element getFirstElement(String name) {
+        List<Element> namedElements = getAllElements(name);
+        return namedElements.isEmpty() ? null : namedElements.get(0);
+    }
+
+    /**
+     * Gets the {@code form} elements.
+     *
+     * @return an unmodifiable list with the elements, never {@code null}
+     */
+    public List<Element> getForms() {
+        return getAllElements(HTMLElementName.FORM);
+    }
+
+    /**
+     * Gets the {@code input} elements.
+     *
+     * @return an unmodifiable list with the elements, never {@code null}
+     */
+    public List<Element> getInputs() {
+        return getAllElements(HTMLElementName.INPUT);
+    }
+
+    /**
+     * Gets the {@code script} elements.
+     *
+     * @return an unmodifiable list with the elements, never {@code null}
+     */
+    public List<Element> getScripts() {
+        return getAllElements(HTMLElementName.SCRIPT);
+    }
+
+    /**
+     * Gets the {@code a} elements.
+     *
+     * @return an unmodifiable list with the elements, never {@code null}
+     */
+    public List<Element> getLinks() {
+        return getAllElements(HTMLElementName.A);
+    }
+
+    /**
+     * Gets the {@code meta} elements.
+     *
+     * @return an unmodifiable list with the elements, never {@code null}
+     */
+    public List<Element> getMetas() {
+        return getAllElements(HTMLElementName.META);
+    }
+
+    /**
+     * Gets the comments.
+     *
+     * @return an unmodifiable list with the comments, never {@code null}
+     */
+    public synchronized List<Tag> getComments() {
+        if (comments == null) {
+            comments = Collections.unmodifiableList(source.getAllTags(StartTagType.COMMENT));
+        }
+        return comments;
+    }
+}
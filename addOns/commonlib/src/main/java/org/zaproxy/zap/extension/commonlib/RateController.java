@@ -0,0 +1,398 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.log4j.Logger;
+import org.parosproxy.paros.core.scanner.AbstractPlugin;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.core.scanner.ScannerParam;
+import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.model.OptionsParam;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpStatusCode;
+
+/**
+ * Controls the rate of the requests sent to a host, by limiting the number of concurrent requests.
+ *
+ * <p>The limit is adjusted with AIMD (additive increase, multiplicative decrease): it's halved when
+ * the target shows signs of struggling (connection errors, {@code 429 Too Many Requests} or {@code
+ * 503 Service Unavailable} responses, or response times well above the normal ones) and increased
+ * by about one per round of successful requests, up to the maximum.
+ *
+ * <p>One controller is kept per {@link HostProcess}, shared by all the scan rules, which also
+ * gather the number of requests, errors and response times per scan rule. The statistics are
+ * logged, in debug level, every {@value #STATISTICS_LOG_INTERVAL} requests of a scan rule. The
+ * maximum number of concurrent requests is the number of threads per host of the active scan
+ * options, so the limit binds as soon as it's decreased.
+ *
+ * <p>Only the requests sent through the controller are limited and counted. It's meant for the scan
+ * rules that send many requests per message (for example, Path Traversal, Remote OS Command
+ * Injection, Cross Site Scripting (Reflected) and Backup File Disclosure); the scan rules that send
+ * a few requests are limited just by the threads of the scan, routing them through the controller
+ * would add contention without reducing the load on the target.
+ */
+public final class RateController {
+
+    /**
+     * The maximum number of concurrent requests used if the options of the active scan are not
+     * available.
+     */
+    static final int DEFAULT_MAX_CONCURRENCY = 2;
+
+    /** The status code {@code 429 Too Many Requests}, not available in core. */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /** The factor of the normal response time above which a response is considered delayed. */
+    private static final double LATENCY_INFLATION_FACTOR = 3.0;
+
+    /** The minimum response time, in milliseconds, considered delayed. */
+    private static final long MIN_INFLATED_LATENCY_MILLIS = 250;
+
+    /** The weight of the new response times in the normal response time. */
+    private static final double LATENCY_WEIGHT = 0.1;
+
+    /** The minimum time, in milliseconds, between decreases, to not react to the same event. */
+    private static final long DECREASE_INTERVAL_MILLIS = 1000;
+
+    /** The number of requests of a scan rule between the logs of its statistics. */
+    private static final int STATISTICS_LOG_INTERVAL = 100;
+
+    private static final Map<HostProcess, RateController> instances =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Logger LOGGER = Logger.getLogger(RateController.class);
+
+    private final int maxConcurrency;
+
+    private final Lock lock;
+    private final Condition permitAvailable;
+    private double concurrencyLimit;
+    private int inFlight;
+    private double normalLatency;
+    private long lastDecrease;
+
+    private final ConcurrentMap<Integer, RuleStatistics> statistics;
+
+    RateController(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Parameter maxConcurrency must be greater than 0.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.lock = new ReentrantLock();
+        this.permitAvailable = lock.newCondition();
+        this.concurrencyLimit = maxConcurrency;
+        this.normalLatency = -1;
+        this.statistics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the rate controller of the given {@code HostProcess}, creating it if needed.
+     *
+     * <p>The maximum number of concurrent requests is the number of threads per host of the active
+     * scan options.
+     *
+     * @param hostProcess the host process
+     * @return the rate controller, never {@code null}
+     */
+    public static RateController getInstance(HostProcess hostProcess) {
+        return instances.computeIfAbsent(
+                hostProcess,
+                hp ->
+                        new RateController(
+                                getThreadsPerHost(Model.getSingleton().getOptionsParam())));
+    }
+
+    /**
+     * Gets the number of threads per host of the active scan options.
+     *
+     * @param optionsParam the options, might be {@code null}
+     * @return the number of threads per host, or {@link #DEFAULT_MAX_CONCURRENCY} if the options of
+     *     the active scan are not available
+     */
+    static int getThreadsPerHost(OptionsParam optionsParam) {
+        ScannerParam scannerParam =
+                optionsParam != null ? optionsParam.getParamSet(ScannerParam.class) : null;
+        if (scannerParam == null) {
+            return DEFAULT_MAX_CONCURRENCY;
+        }
+        return Math.max(1, scannerParam.getThreadPerHost());
+    }
+
+    /**
+     * Sends the given message through the rate controller of the scan of the given scan rule.
+     *
+     * <p>Convenience method for scan rules, for example:
+     *
+     * <pre>{@code
+     * RateController.sendAndReceive(this, msg, false, this::sendAndReceive);
+     * }</pre>
+     *
+     * @param plugin the scan rule sending the message
+     * @param msg the message to send
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @param sender the sender of the message, normally, the {@code sendAndReceive} of the scan
+     *     rule
+     * @throws IOException if an error occurred while sending the message
+     * @see #send(int, HttpMessage, boolean, MessageSender)
+     */
+    public static void sendAndReceive(
+            AbstractPlugin plugin, HttpMessage msg, boolean followRedirects, MessageSender sender)
+            throws IOException {
+        getInstance(plugin.getParent()).send(plugin.getId(), msg, followRedirects, sender);
+    }
+
+    /**
+     * Sends the given message, expected to be delayed by the target, through the rate controller of
+     * the scan of the given scan rule.
+     *
+     * @param plugin the scan rule sending the message
+     * @param msg the message to send
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @param sender the sender of the message, normally, the {@code sendAndReceive} of the scan
+     *     rule
+     * @throws IOException if an error occurred while sending the message
+     * @see #sendDelayed(int, HttpMessage, boolean, MessageSender)
+     */
+    public static void sendAndReceiveDelayed(
+            AbstractPlugin plugin, HttpMessage msg, boolean followRedirects, MessageSender sender)
+            throws IOException {
+        getInstance(plugin.getParent()).sendDelayed(plugin.getId(), msg, followRedirects, sender);
+    }
+
+    /**
+     * Sends the given message, waiting if the limit of concurrent requests was reached.
+     *
+     * @param pluginId the ID of the scan rule sending the message
+     * @param msg the message to send
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @param sender the sender of the message
+     * @throws IOException if an error occurred while sending the message
+     */
+    public void send(int pluginId, HttpMessage msg, boolean followRedirects, MessageSender sender)
+            throws IOException {
+        send(pluginId, msg, followRedirects, sender, true);
+    }
+
+    /**
+     * Sends the given message, which is expected to be delayed by the target, for example, a
+     * time-based attack.
+     *
+     * <p>The message is subject to the limit of concurrent requests and included in the statistics,
+     * but its response time is not used to adjust the limit.
+     *
+     * @param pluginId the ID of the scan rule sending the message
+     * @param msg the message to send
+     * @param followRedirects {@code true} if redirects should be followed, {@code false} otherwise
+     * @param sender the sender of the message
+     * @throws IOException if an error occurred while sending the message
+     */
+    public void sendDelayed(
+            int pluginId, HttpMessage msg, boolean followRedirects, MessageSender sender)
+            throws IOException {
+        send(pluginId, msg, followRedirects, sender, false);
+    }
+
+    private void send(
+            int pluginId,
+            HttpMessage msg,
+            boolean followRedirects,
+            MessageSender sender,
+            boolean adjustLimit)
+            throws IOException {
+        acquire();
+        boolean error = true;
+        long start = System.currentTimeMillis();
+        try {
+            sender.send(msg, followRedirects);
+            int statusCode = msg.getResponseHeader().getStatusCode();
+            error =
+                    statusCode == TOO_MANY_REQUESTS
+                            || statusCode == HttpStatusCode.SERVICE_UNAVAILABLE;
+        } finally {
+            long latency = System.currentTimeMillis() - start;
+            release(latency, error, adjustLimit);
+            RuleStatistics ruleStatistics = getStatistics(pluginId);
+            long requests = ruleStatistics.record(latency, error);
+            if (requests % STATISTICS_LOG_INTERVAL == 0 && LOGGER.isDebugEnabled()) {
+                logStatistics(pluginId, ruleStatistics);
+            }
+        }
+    }
+
+    private void logStatistics(int pluginId, RuleStatistics ruleStatistics) {
+        LOGGER.debug(
+                String.format(
+                        "Scan rule %d: %d requests, %d errors (%.1f%%), %.0f ms average response time, limit of %d concurrent requests",
+                        pluginId,
+                        ruleStatistics.getRequestCount(),
+                        ruleStatistics.getErrorCount(),
+                        ruleStatistics.getErrorRate() * 100,
+                        ruleStatistics.getAverageLatency(),
+                        getConcurrencyLimit()));
+    }
+
+    private void acquire() throws InterruptedIOException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) concurrencyLimit) {
+                permitAvailable.await();
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send the request.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latency, boolean error, boolean adjustLimit) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (adjustLimit) {
+                if (error || isInflated(latency)) {
+                    decreaseLimit();
+                } else {
+                    concurrencyLimit =
+                            Math.min(maxConcurrency, concurrencyLimit + 1 / concurrencyLimit);
+                }
+                if (!error) {
+                    normalLatency =
+                            normalLatency < 0
+                                    ? latency
+                                    : normalLatency + LATENCY_WEIGHT * (latency - normalLatency);
+                }
+            }
+            permitAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isInflated(long latency) {
+        return normalLatency >= 0
+                && latency >= MIN_INFLATED_LATENCY_MILLIS
+                && latency > normalLatency * LATENCY_INFLATION_FACTOR;
+    }
+
+    private void decreaseLimit() {
+        long now = System.currentTimeMillis();
+        if (now - lastDecrease < DECREASE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastDecrease = now;
+        concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Decreased the limit of concurrent requests to " + (int) concurrencyLimit);
+        }
+    }
+
+    /**
+     * Gets the current limit of concurrent requests.
+     *
+     * @return the limit of concurrent requests, between 1 and the maximum
+     */
+    public int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return (int) concurrencyLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the statistics of the requests sent by the given scan rule.
+     *
+     * @param pluginId the ID of the scan rule
+     * @return the statistics, never {@code null}
+     */
+    public RuleStatistics getStatistics(int pluginId) {
+        return statistics.computeIfAbsent(pluginId, k -> new RuleStatistics());
+    }
+
+    /** The statistics of the requests sent by a scan rule. */
+    public static final class RuleStatistics {
+
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+
+        private RuleStatistics() {}
+
+        private long record(long latency, boolean error) {
+            totalLatency.addAndGet(latency);
+            if (error) {
+                errorCount.incrementAndGet();
+            }
+            return requestCount.incrementAndGet();
+        }
+
+        /**
+         * Gets the number of requests sent.
+         *
+         * @return the number of requests
+         */
+        public long getRequestCount() {
+            return requestCount.get();
+        }
+
+        /**
+         * Gets the number of requests that failed or that the target refused to process.
+         *
+         * @return the number of errors
+         */
+        public long getErrorCount() {
+            return errorCount.get();
+        }
+
+        /**
+         * Gets the ratio of errors to requests.
+         *
+         * @return the error rate, between {@code 0.0} and {@code 1.0}
+         */
+        public double getErrorRate() {
+            long requests = requestCount.get();
+            return requests == 0 ? 0 : (double) errorCount.get() / requests;
+        }
+
+        /**
+         * Gets the average response time of the requests.
+         *
+         * @return the average response time, in milliseconds
+         */
+        public double getAverageLatency() {
+            long requests = requestCount.get();
+            return requests == 0 ? 0 : (double) totalLatency.get() / requests;
+        }
+    }
+}
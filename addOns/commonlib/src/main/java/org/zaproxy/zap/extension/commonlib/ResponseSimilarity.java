@@ -0,0 +1,321 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.util.Arrays;
+import org.zaproxy.zap.utils.HirshbergMatcher;
+
+/**
+ * Helper methods to compare the content of responses, for example, the response of the original
+ * request with the one of an attack.
+ *
+ * <p>The contents are summarised in {@link Sketch}es, which should be created once per response and
+ * reused in all the comparisons done with it, the costly parts of the sketch (e.g. the character
+ * counts) are computed only when needed.
+ */
+public final class ResponseSimilarity {
+
+    private static final int LATIN_CHARS = 256;
+
+    private ResponseSimilarity() {}
+
+    /**
+     * Creates a sketch of the given content.
+     *
+     * @param content the content
+     * @return the sketch of the content
+     * @throws IllegalArgumentException if the content is {@code null}
+     */
+    public static Sketch sketch(String content) {
+        if (content == null) {
+            throw new IllegalArgumentException("Parameter content must not be null.");
+        }
+        return new Sketch(content);
+    }
+
+    /**
+     * Tells whether or not the given sketches have the same content.
+     *
+     * <p>Contents with different lengths or hashes are rejected without comparing them character by
+     * character.
+     *
+     * @param a a sketch
+     * @param b another sketch
+     * @return {@code true} if the contents are the same, {@code false} otherwise
+     */
+    public static boolean isIdentical(Sketch a, Sketch b) {
+        if (a == b) {
+            return true;
+        }
+        if (a.length() != b.length() || a.hash() != b.hash()) {
+            return false;
+        }
+        return a.content.equals(b.content);
+    }
+
+    /**
+     * Gets an upper bound of the similarity ratio of the given sketches, the contents are compared
+     * as multisets of characters, that is, without regard to the order of the characters.
+     *
+     * <p>The ratio is {@code 2.0 * M / T}, where {@code M} is the number of matching characters and
+     * {@code T} the total number of characters in both contents, it's {@code 1.0} if both contents
+     * are empty.
+     *
+     * @param a a sketch
+     * @param b another sketch
+     * @return the similarity ratio, between {@code 0.0} and {@code 1.0}
+     */
+    public static double quickRatio(Sketch a, Sketch b) {
+        int totalLength = a.length() + b.length();
+        if (totalLength == 0) {
+            return 1.0;
+        }
+        if (isIdentical(a, b)) {
+            return 1.0;
+        }
+
+        long matches = 0;
+        int[] latinA = a.latinCounts();
+        int[] latinB = b.latinCounts();
+        for (int i = 0; i < LATIN_CHARS; i++) {
+            matches += Math.min(latinA[i], latinB[i]);
+        }
+
+        char[] charsA = a.otherChars();
+        int[] countsA = a.otherCounts();
+        char[] charsB = b.otherChars();
+        int[] countsB = b.otherCounts();
+        int i = 0;
+        int j = 0;
+        while (i < charsA.length && j < charsB.length) {
+            if (charsA[i] == charsB[j]) {
+                matches += Math.min(countsA[i], countsB[j]);
+                i++;
+                j++;
+            } else if (charsA[i] < charsB[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return 2.0 * matches / totalLength;
+    }
+
+    /**
+     * Gets the longest common subsequence of the given strings.
+     *
+     * <p>The common prefix and suffix of the strings are not processed by the (quadratic) LCS
+     * algorithm, so responses that differ in just a small portion are compared in a fraction of the
+     * time.
+     *
+     * @param a a string
+     * @param b another string
+     * @return the longest common subsequence
+     * @see HirshbergMatcher#getLCS(String, String)
+     */
+    public static String longestCommonSubsequence(String a, String b) {
+        if (a.equals(b)) {
+            return a;
+        }
+
+        int maxAffix = Math.min(a.length(), b.length());
+        int prefix = 0;
+        while (prefix < maxAffix && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        maxAffix -= prefix;
+        while (suffix < maxAffix
+                && a.charAt(a.length() - 1 - suffix) == b.charAt(b.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        String middleA = a.substring(prefix, a.length() - suffix);
+        String middleB = b.substring(prefix, b.length() - suffix);
+        StringBuilder strBuilder = new StringBuilder(prefix + suffix + middleA.length());
+        strBuilder.append(a, 0, prefix);
+        if (!middleA.isEmpty() && !middleB.isEmpty()) {
+            strBuilder.append(new HirshbergMatcher().getLCS(middleA, middleB));
+        }
+        strBuilder.append(a, a.length() - suffix, a.length());
+        return strBuilder.toString();
+    }
+
+    /**
+     * Removes all the occurrences of the given values from the given content.
+     *
+     * <p>Useful to strip the values reflected in a response before comparing it with other
+     * responses. The values are removed in the order given, and matched literally.
+     *
+     * @param content the content
+     * @param values the values to remove, {@code null} and empty values are ignored
+     * @return the content without the values
+     */
+    public static String removeAll(String content, String... values) {
+        String result = content;
+        for (String value : values) {
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            int idx = result.indexOf(value);
+            if (idx == -1) {
+                continue;
+            }
+            StringBuilder strBuilder = new StringBuilder(result.length());
+            int start = 0;
+            do {
+                strBuilder.append(result, start, idx);
+                start = idx + value.length();
+                idx = result.indexOf(value, start);
+            } while (idx != -1);
+            strBuilder.append(result, start, result.length());
+            result = strBuilder.toString();
+        }
+        return result;
+    }
+
+    /**
+     * A summary of a content, used to compare it with other contents.
+     *
+     * <p>The sketches are immutable and thread-safe.
+     *
+     * @see ResponseSimilarity#sketch(String)
+     */
+    public static final class Sketch {
+
+        private final String content;
+        private volatile long hash;
+        private volatile boolean hashComputed;
+
+        private volatile CharCounts charCounts;
+
+        private Sketch(String content) {
+            this.content = content;
+        }
+
+        /**
+         * Gets the content of the sketch.
+         *
+         * @return the content, never {@code null}
+         */
+        public String getContent() {
+            return content;
+        }
+
+        /**
+         * Gets the length of the content.
+         *
+         * @return the length of the content
+         */
+        public int length() {
+            return content.length();
+        }
+
+        private long hash() {
+            if (!hashComputed) {
+                // 64-bit FNV-1a
+                long h = 0xcbf29ce484222325L;
+                for (int i = 0; i < content.length(); i++) {
+                    h ^= content.charAt(i);
+                    h *= 0x100000001b3L;
+                }
+                hash = h;
+                hashComputed = true;
+            }
+            return hash;
+        }
+
+        private int[] latinCounts() {
+            return getCharCounts().latin;
+        }
+
+        private char[] otherChars() {
+            return getCharCounts().otherChars;
+        }
+
+        private int[] otherCounts() {
+            return getCharCounts().otherCounts;
+        }
+
+        private CharCounts getCharCounts() {
+            CharCounts counts = charCounts;
+            if (counts == null) {
+                counts = new CharCounts(content);
+                charCounts = counts;
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * The number of occurrences of each character of a content. The Latin-1 characters are counted
+     * in a dense array, the remaining in sorted (parallel) arrays.
+     */
+    private static final class CharCounts {
+
+        private final int[] latin;
+        private final char[] otherChars;
+        private final int[] otherCounts;
+
+        private CharCounts(String content) {
+            latin = new int[LATIN_CHARS];
+            char[] others = null;
+            int othersCount = 0;
+            for (int i = 0; i < content.length(); i++) {
+                char chr = content.charAt(i);
+                if (chr < LATIN_CHARS) {
+                    latin[chr]++;
+                } else {
+                    if (others == null) {
+                        others = new char[content.length() - i];
+                    }
+                    others[othersCount++] = chr;
+                }
+            }
+
+            if (othersCount == 0) {
+                otherChars = new char[0];
+                otherCounts = new int[0];
+                return;
+            }
+
+            Arrays.sort(others, 0, othersCount);
+            int distinct = 1;
+            for (int i = 1; i < othersCount; i++) {
+                if (others[i] != others[i - 1]) {
+                    distinct++;
+                }
+            }
+            otherChars = new char[distinct];
+            otherCounts = new int[distinct];
+            int idx = 0;
+            otherChars[0] = others[0];
+            otherCounts[0] = 1;
+            for (int i = 1; i < othersCount; i++) {
+                if (others[i] != others[i - 1]) {
+                    idx++;
+                    otherChars[idx] = others[i];
+                }
+                otherCounts[idx]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+/**
+ * A parsed {@code Set-Cookie} (or {@code Set-Cookie2}) header value.
+ *
+ * <p>The header value is parsed once, on creation, the name and the attributes are then accessed
+ * without further parsing. Instances are immutable.
+ *
+ * @see SetCookies
+ * @see <a href="https://tools.ietf.org/html/rfc6265#section-5.2">RFC 6265 - Section 5.2</a>
+ */
+public final class SetCookie {
+
+    private static final String[] NO_ATTRIBUTES = {};
+
+    private final String headerName;
+    private final String headerValue;
+    private final String name;
+    private final String[] attributeNames;
+    private final String[] attributeValues;
+
+    /**
+     * Constructs a {@code SetCookie} from the given header value.
+     *
+     * @param headerName the name of the header, {@code Set-Cookie} or {@code Set-Cookie2}
+     * @param headerValue the value of the header
+     * @throws IllegalArgumentException if any of the parameters is {@code null}
+     */
+    public SetCookie(String headerName, String headerValue) {
+        validateParameterNotNull(headerName, "headerName");
+        validateParameterNotNull(headerValue, "headerValue");
+
+        this.headerName = headerName;
+        this.headerValue = headerValue;
+
+        int nameValueSeparatorIdx = headerValue.indexOf('=');
+        this.name =
+                nameValueSeparatorIdx == -1
+                        ? null
+                        : headerValue.substring(0, nameValueSeparatorIdx).trim();
+
+        // Same elements as String.split(";"), which discards trailing empty elements.
+        int end = headerValue.length();
+        while (end > 0 && headerValue.charAt(end - 1) == ';') {
+            end--;
+        }
+        int firstSeparatorIdx = headerValue.indexOf(';');
+        if (firstSeparatorIdx == -1
+                || firstSeparatorIdx >= end
+                || !isCookieNameValuePairValid(headerValue, firstSeparatorIdx)) {
+            this.attributeNames = NO_ATTRIBUTES;
+            this.attributeValues = NO_ATTRIBUTES;
+            return;
+        }
+
+        int count = 0;
+        for (int i = firstSeparatorIdx; i < end; i++) {
+            if (headerValue.charAt(i) == ';') {
+                count++;
+            }
+        }
+        this.attributeNames = new String[count];
+        this.attributeValues = new String[count];
+        int start = firstSeparatorIdx + 1;
+        for (int i = 0; i < count; i++) {
+            int separatorIdx = headerValue.indexOf(';', start);
+            if (separatorIdx == -1 || separatorIdx > end) {
+                separatorIdx = end;
+            }
+            int valueSeparatorIdx = headerValue.indexOf('=', start);
+            if (valueSeparatorIdx != -1 && valueSeparatorIdx < separatorIdx) {
+                attributeNames[i] = headerValue.substring(start, valueSeparatorIdx).trim();
+                attributeValues[i] =
+                        headerValue.substring(valueSeparatorIdx + 1, separatorIdx).trim();
+            } else {
+                attributeNames[i] = headerValue.substring(start, separatorIdx).trim();
+            }
+            start = separatorIdx + 1;
+        }
+    }
+
+    private static boolean isCookieNameValuePairValid(String headerValue, int end) {
+        int nameValueSeparatorIdx = headerValue.indexOf('=');
+        if (nameValueSeparatorIdx == -1 || nameValueSeparatorIdx > end) {
+            return false;
+        }
+        for (int i = 0; i < nameValueSeparatorIdx; i++) {
+            if (headerValue.charAt(i) > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void validateParameterNotNull(Object parameter, String name) {
+        if (parameter == null) {
+            throw new IllegalArgumentException("The parameter " + name + " must not be null.");
+        }
+    }
+
+    /**
+     * Gets the name of the header, {@code Set-Cookie} or {@code Set-Cookie2}.
+     *
+     * @return the name of the header
+     */
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    /**
+     * Gets the value of the header.
+     *
+     * @return the value of the header
+     */
+    public String getHeaderValue() {
+        return headerValue;
+    }
+
+    /**
+     * Gets the name of the cookie, that is, the (trimmed) text before the first {@code =}.
+     *
+     * @return the name of the cookie, or {@code null} if the header value has no {@code =}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Tells whether or not the cookie has an attribute with the given name (ignoring case).
+     *
+     * <p>If the pair cookie name/value is not conformant (e.g. empty name, missing name/value
+     * separator) it returns {@code false}.
+     *
+     * @param attributeName the name of the attribute to check
+     * @return {@code true} if the cookie has the attribute, {@code false} otherwise
+     * @throws IllegalArgumentException if the {@code attributeName} is {@code null}
+     */
+    public boolean hasAttribute(String attributeName) {
+        validateParameterNotNull(attributeName, "attributeName");
+
+        if (attributeName.isEmpty()) {
+            return false;
+        }
+        for (String attribute : attributeNames) {
+            if (attributeName.equalsIgnoreCase(attribute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the (trimmed) value of the first attribute with the given name (ignoring case) that has
+     * a value.
+     *
+     * @param attributeName the name of the attribute
+     * @return the value of the attribute, or {@code null} if not present
+     * @throws IllegalArgumentException if the {@code attributeName} is {@code null}
+     */
+    public String getAttributeValue(String attributeName) {
+        validateParameterNotNull(attributeName, "attributeName");
+
+        if (attributeName.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < attributeNames.length; i++) {
+            if (attributeValues[i] != null && attributeName.equalsIgnoreCase(attributeNames[i])) {
+                return attributeValues[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.WeakHashMap;
+import org.parosproxy.paros.network.HttpHeader;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpResponseHeader;
+
+/**
+ * The parsed {@code Set-Cookie} and {@code Set-Cookie2} headers of a response.
+ *
+ * <p>The headers are parsed once per response, the instances are cached while the response header
+ * is not changed (and is still in use), so that all the scan rules share the same parsed cookies.
+ *
+ * @see #getInstance(HttpMessage)
+ */
+public final class SetCookies {
+
+    private static final SetCookies NO_COOKIES = new SetCookies("", "", Collections.emptyList());
+
+    private static final Map<HttpResponseHeader, SetCookies> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final String SET_COOKIE_LOWER_CASE = HttpHeader.SET_COOKIE.toLowerCase();
+
+    /** The headers the cookies were parsed from, used to know if the header was changed. */
+    private final String headers;
+
+    /** The first line of the response header, to search for the evidence along with the headers. */
+    private final String primeHeader;
+
+    private final List<SetCookie> setCookies;
+
+    private SetCookies(String headers, String primeHeader, List<SetCookie> setCookies) {
+        this.headers = headers;
+        this.primeHeader = primeHeader;
+        this.setCookies = setCookies;
+    }
+
+    /**
+     * Gets the parsed cookies of the response of the given message.
+     *
+     * @param msg the message
+     * @return the parsed cookies, never {@code null}
+     */
+    public static SetCookies getInstance(HttpMessage msg) {
+        HttpResponseHeader header = msg.getResponseHeader();
+        String headers = header.getHeadersAsString();
+        SetCookies setCookies = CACHE.get(header);
+        if (setCookies != null && setCookies.headers == headers) {
+            return setCookies;
+        }
+
+        List<SetCookie> cookies = new ArrayList<>(2);
+        addSetCookies(cookies, header, HttpHeader.SET_COOKIE);
+        addSetCookies(cookies, header, HttpHeader.SET_COOKIE2);
+        if (cookies.isEmpty()) {
+            return NO_COOKIES;
+        }
+
+        setCookies =
+                new SetCookies(
+                        headers, header.getPrimeHeader(), Collections.unmodifiableList(cookies));
+        CACHE.put(header, setCookies);
+        return setCookies;
+    }
+
+    private static void addSetCookies(
+            List<SetCookie> cookies, HttpResponseHeader header, String headerName) {
+        Vector<String> values = header.getHeaders(headerName);
+        if (values != null) {
+            for (String value : values) {
+                cookies.add(new SetCookie(headerName, value));
+            }
+        }
+    }
+
+    /**
+     * Gets all the cookies, first the ones from {@code Set-Cookie} headers then the ones from
+     * {@code Set-Cookie2} headers, in the order of the headers.
+     *
+     * @return an unmodifiable list with the cookies, never {@code null}
+     */
+    public List<SetCookie> getAll() {
+        return setCookies;
+    }
+
+    /**
+     * Gets the cookies from the headers with the given name.
+     *
+     * @param headerName the name of the header, {@code Set-Cookie} or {@code Set-Cookie2}
+     * @return the cookies, never {@code null}
+     */
+    public List<SetCookie> getAll(String headerName) {
+        List<SetCookie> cookies = new ArrayList<>(setCookies.size());
+        for (SetCookie setCookie : setCookies) {
+            if (setCookie.getHeaderName().equalsIgnoreCase(headerName)) {
+                cookies.add(setCookie);
+            }
+        }
+        return cookies;
+    }
+
+    /**
+     * Gets the header line of the given cookie up to the name of the cookie, for example, {@code
+     * Set-Cookie: name}. Typically used for the evidence of alerts, as it does not include the
+     * value of the cookie.
+     *
+     * <p>The line is the first (in the response header) starting with {@code Set-Cookie} (ignoring
+     * case) followed by the value of the header.
+     *
+     * @param setCookie the cookie
+     * @return the header line up to the name of the cookie, or {@code null} if not found
+     */
+    public String getSetCookiePlusName(SetCookie setCookie) {
+        String name = setCookie.getName();
+        String value = setCookie.getHeaderValue();
+        if (name == null || value.isEmpty()) {
+            return null;
+        }
+
+        // Same as searching the whole header, the lines are not joined.
+        String setCookiePlusName = getSetCookiePlusName(primeHeader, name, value);
+        if (setCookiePlusName != null) {
+            return setCookiePlusName;
+        }
+        return getSetCookiePlusName(headers, name, value);
+    }
+
+    private static String getSetCookiePlusName(String text, String name, String value) {
+        int start = indexOfIgnoreCase(text, SET_COOKIE_LOWER_CASE, 0, text.length());
+        while (start != -1) {
+            // The value has to start in the same line, it can't be preceded by line terminators.
+            int lineEnd = indexOfLineTerminator(text, start);
+            int valueIdx =
+                    lastIndexOfIgnoreCase(
+                            text, value, start + SET_COOKIE_LOWER_CASE.length(), lineEnd);
+            if (valueIdx != -1) {
+                String match = text.substring(start, valueIdx + value.length());
+                return match.substring(0, match.indexOf(name) + name.length());
+            }
+            start = indexOfIgnoreCase(text, SET_COOKIE_LOWER_CASE, start + 1, text.length());
+        }
+        return null;
+    }
+
+    private static int indexOfLineTerminator(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    private static int indexOfIgnoreCase(String text, String str, int from, int to) {
+        for (int i = from; i <= to - str.length(); i++) {
+            if (regionMatchesIgnoreCase(text, i, str)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOfIgnoreCase(String text, String str, int from, int maxStart) {
+        for (int i = Math.min(maxStart, text.length() - str.length()); i >= from; i--) {
+            if (regionMatchesIgnoreCase(text, i, str)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Same as the case-insensitive matching of the regular expressions, just for ASCII chars. */
+    private static boolean regionMatchesIgnoreCase(String text, int offset, String str) {
+        for (int i = 0; i < str.length(); i++) {
+            char c1 = text.charAt(offset + i);
+            char c2 = str.charAt(i);
+            if (c1 != c2 && toLowerCaseAscii(c1) != toLowerCaseAscii(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCaseAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.BaselineResponses.Baseline;
+
+/** Unit test for {@link BaselineResponses}. */
+public class BaselineResponsesUnitTest {
+
+    @Test
+    public void shouldSendCopyOfOriginalMessage() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        HttpMessage originalMsg = createMessage("/");
+        CountingSender sender = new CountingSender();
+        // When
+        Baseline baseline = baselines.get(originalMsg, false, sender);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(1)));
+        assertThat(baseline.getMessage(), is(not(sameInstance(originalMsg))));
+        assertThat(baseline.getResponseBody(), is(equalTo("Response 1")));
+        assertThat(originalMsg.getResponseBody().toString(), is(equalTo("")));
+    }
+
+    @Test
+    public void shouldReuseBaselineWhileNotExpired() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        CountingSender sender = new CountingSender();
+        Baseline first = baselines.get(createMessage("/"), false, sender);
+        // When
+        Baseline second = baselines.get(createMessage("/"), false, sender);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(1)));
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    public void shouldSendAgainIfBaselineExpired() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(0);
+        CountingSender sender = new CountingSender();
+        baselines.get(createMessage("/"), false, sender);
+        // When
+        Baseline baseline = baselines.get(createMessage("/"), false, sender);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(2)));
+        assertThat(baseline.getResponseBody(), is(equalTo("Response 2")));
+    }
+
+    @Test
+    public void shouldSendAgainIfBaselineInvalidated() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        CountingSender sender = new CountingSender();
+        baselines.get(createMessage("/"), false, sender);
+        // When
+        baselines.invalidate(createMessage("/"), false);
+        baselines.get(createMessage("/"), false, sender);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldKeepSeparateBaselinesPerRequestAndRedirectHandling() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        CountingSender sender = new CountingSender();
+        // When
+        baselines.get(createMessage("/a"), false, sender);
+        baselines.get(createMessage("/b"), false, sender);
+        baselines.get(createMessage("/a"), true, sender);
+        HttpMessage msgWithBody = createMessage("/a");
+        msgWithBody.setRequestBody("p=1");
+        baselines.get(msgWithBody, false, sender);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldSendUntilEnoughResponseTimes() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        CountingSender sender = new CountingSender();
+        baselines.get(createMessage("/"), false, sender);
+        // When
+        List<Long> responseTimes = baselines.getResponseTimes(createMessage("/"), false, sender, 3);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(3)));
+        assertThat(responseTimes, hasSize(3));
+    }
+
+    @Test
+    public void shouldKeepResponseTimesObtainedBeforeError() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        CountingSender sender = new CountingSender();
+        baselines.getResponseTimes(createMessage("/"), false, sender, 2);
+        try {
+            baselines.getResponseTimes(
+                    createMessage("/"),
+                    false,
+                    (msg, followRedirects) -> {
+                        throw new IOException();
+                    },
+                    5);
+        } catch (IOException e) {
+            // Expected.
+        }
+        // When
+        List<Long> responseTimes = baselines.getResponseTimes(createMessage("/"), false);
+        // Then
+        assertThat(sender.count.get(), is(equalTo(2)));
+        assertThat(responseTimes, hasSize(2));
+    }
+
+    @Test
+    public void shouldNotSendWhenGettingJustTheResponseTimesObtained() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        // When
+        List<Long> responseTimes = baselines.getResponseTimes(createMessage("/"), false);
+        // Then
+        assertThat(responseTimes, hasSize(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldPropagateErrorsWhileSending() throws Exception {
+        // Given
+        BaselineResponses baselines = new BaselineResponses(Long.MAX_VALUE);
+        // When
+        baselines.get(
+                createMessage("/"),
+                false,
+                (msg, followRedirects) -> {
+                    throw new IOException();
+                });
+        // Then = IOException
+    }
+
+    private static HttpMessage createMessage(String path) throws Exception {
+        return new HttpMessage(new URI("http://example.com" + path, true));
+    }
+
+    private static class CountingSender implements MessageSender {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void send(HttpMessage msg, boolean followRedirects) {
+            msg.setResponseBody("Response " + count.incrementAndGet());
+        }
+    }
+}
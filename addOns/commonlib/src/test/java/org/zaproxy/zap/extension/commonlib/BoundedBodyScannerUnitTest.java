@@ -0,0 +1,184 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.utils.ZapXmlConfiguration;
+
+/** Unit test for {@link BoundedBodyScanner}. */
+public class BoundedBodyScannerUnitTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithOverlapNotLessThanWindow() {
+        new BoundedBodyScanner(100, 10, 10);
+    }
+
+    @Test
+    public void shouldFindSameAsWholeBodyIfNotLargerThanWindow() {
+        // Given
+        BoundedBodyScanner scanner = new BoundedBodyScanner(100, 20, 5);
+        String body = "a <?php echo 1; ?> b";
+        Pattern pattern = Pattern.compile("<\\?php.+?\\?>", Pattern.DOTALL);
+        // When
+        Matcher matcher = scanner.find(pattern, body);
+        // Then
+        assertThat(matcher.group(), is(equalTo("<?php echo 1; ?>")));
+    }
+
+    @Test
+    public void shouldFindMatchesAcrossWindowsOnce() {
+        // Given
+        BoundedBodyScanner scanner = new BoundedBodyScanner(1000, 10, 4);
+        String body = "xxxxxxabcxxxxabcxxabcxxxxxxxxxxxxabc";
+        Pattern pattern = Pattern.compile("abc");
+        List<Integer> starts = new ArrayList<>();
+        // When
+        scanner.findAll(pattern, body, matcher -> starts.add(matcher.start()));
+        // Then
+        assertThat(starts, contains(6, 13, 18, 33));
+    }
+
+    @Test
+    public void shouldBoundMatchesToWindow() {
+        // Given
+        BoundedBodyScanner scanner = new BoundedBodyScanner(1000, 10, 4);
+        String body = "{aaaaaa}bbbbbbbbbbbbbbbbbbbbbb}";
+        Pattern pattern = Pattern.compile("\\{.+\\}", Pattern.DOTALL);
+        // When
+        Matcher matcher = scanner.find(pattern, body);
+        // Then
+        assertThat(matcher.group(), is(equalTo("{aaaaaa}")));
+    }
+
+    @Test
+    public void shouldNotAnchorToWindowBounds() {
+        // Given
+        BoundedBodyScanner scanner = new BoundedBodyScanner(1000, 10, 2);
+        String body = "xxxxxxxxpackage a;";
+        Pattern pattern = Pattern.compile("^package\\s+[a-z]+;");
+        // When
+        Matcher matcher = scanner.find(pattern, body);
+        // Then
+        assertThat(matcher, is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotScanBeyondMaxBodySize() {
+        // Given
+        BoundedBodyScanner scanner = new BoundedBodyScanner(10, 4, 1);
+        String body = "xxxxxxxxxxabc";
+        // When
+        Matcher matcher = scanner.find(Pattern.compile("abc"), body);
+        String scannableBody = scanner.getScannableBody(body);
+        // Then
+        assertThat(matcher, is(nullValue()));
+        assertThat(scannableBody, is(equalTo("xxxxxxxxxx")));
+    }
+
+    @Test
+    public void shouldScanWholeBodyIfNoMaxBodySize() {
+        // Given
+        BoundedBodyScanner scanner = new BoundedBodyScanner(0, 4, 1);
+        String body = "xxxxxxxxxxabc";
+        // When
+        Matcher matcher = scanner.find(Pattern.compile("abc"), body);
+        // Then
+        assertThat(matcher.start(), is(equalTo(10)));
+    }
+
+    @Test
+    public void shouldGetMaxBodySizeFromConfigOrDefault() {
+        // Given
+        ZapXmlConfiguration config = new ZapXmlConfiguration();
+        config.setProperty("rules.a.maxbodysize", "1024");
+        config.setProperty("rules.b.maxbodysize", "not a number");
+        // When / Then
+        assertThat(BoundedBodyScanner.getMaxBodySize(config, "rules.a.maxbodysize"), is(1024));
+        assertThat(
+                BoundedBodyScanner.getMaxBodySize(config, "rules.b.maxbodysize"),
+                is(BoundedBodyScanner.DEFAULT_MAX_BODY_SIZE));
+        assertThat(
+                BoundedBodyScanner.getMaxBodySize(null, "rules.a.maxbodysize"),
+                is(BoundedBodyScanner.DEFAULT_MAX_BODY_SIZE));
+    }
+
+    @Test
+    public void shouldNotScanBinaryContent() throws Exception {
+        assertThat(BoundedBodyScanner.isScannableContent(createMessage(null)), is(true));
+        assertThat(BoundedBodyScanner.isScannableContent(createMessage("text/html")), is(true));
+        assertThat(
+                BoundedBodyScanner.isScannableContent(createMessage("application/json")), is(true));
+        assertThat(BoundedBodyScanner.isScannableContent(createMessage("image/png")), is(false));
+        assertThat(
+                BoundedBodyScanner.isScannableContent(createMessage("application/zip")), is(false));
+    }
+
+    @Test
+    public void shouldScanOctetStreamContentIfText() throws Exception {
+        // Given
+        HttpMessage msg = createMessage("Application/Octet-Stream");
+        msg.setResponseBody("<?php\n\techo 'Source code';\r\n?>");
+        // When
+        boolean scannable = BoundedBodyScanner.isScannableContent(msg);
+        // Then
+        assertThat(scannable, is(true));
+    }
+
+    @Test
+    public void shouldNotScanOctetStreamContentIfBinary() throws Exception {
+        // Given
+        HttpMessage msg = createMessage("application/octet-stream");
+        msg.setResponseBody(new byte[] {0x50, 0x4b, 0x03, 0x04, 0x14, 0x00, 0x00, 0x00});
+        // When
+        boolean scannable = BoundedBodyScanner.isScannableContent(msg);
+        // Then
+        assertThat(scannable, is(false));
+    }
+
+    @Test
+    public void shouldNotScanOctetStreamContentWithManyControlCharacters() throws Exception {
+        // Given
+        HttpMessage msg = createMessage("application/octet-stream");
+        msg.setResponseBody(new byte[] {0x01, 0x02, 0x03, 0x41, 0x42, 0x43, 0x44, 0x45});
+        // When
+        boolean scannable = BoundedBodyScanner.isScannableContent(msg);
+        // Then
+        assertThat(scannable, is(false));
+    }
+
+    private static HttpMessage createMessage(String contentType) throws Exception {
+        HttpMessage msg = new HttpMessage();
+        msg.setResponseHeader(
+                "HTTP/1.1 200 OK\r\n"
+                        + (contentType != null ? "Content-Type: " + contentType + "\r\n" : ""));
+        return msg;
+    }
+}
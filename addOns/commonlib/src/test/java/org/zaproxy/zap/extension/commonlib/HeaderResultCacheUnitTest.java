@@ -0,0 +1,116 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link HeaderResultCache}. */
+public class HeaderResultCacheUnitTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithNoSize() {
+        // Given
+        int maxSize = 0;
+        // When
+        new HeaderResultCache<String>(maxSize);
+        // Then = IllegalArgumentException
+    }
+
+    @Test
+    public void shouldEvaluateOnceForSameSiteAndFingerprint() {
+        // Given
+        HeaderResultCache<String> cache = new HeaderResultCache<>();
+        AtomicInteger evaluations = new AtomicInteger();
+        // When
+        String result1 = cache.get("site", "a", () -> "r" + evaluations.incrementAndGet());
+        String result2 = cache.get("site", "a", () -> "r" + evaluations.incrementAndGet());
+        // Then
+        assertThat(result1, is(equalTo("r1")));
+        assertThat(result2, is(equalTo("r1")));
+        assertThat(evaluations.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldEvaluateForDifferentSitesOrFingerprints() {
+        // Given
+        HeaderResultCache<String> cache = new HeaderResultCache<>();
+        AtomicInteger evaluations = new AtomicInteger();
+        // When
+        cache.get("site", "a", () -> "r" + evaluations.incrementAndGet());
+        String result2 = cache.get("site", "b", () -> "r" + evaluations.incrementAndGet());
+        String result3 = cache.get("other site", "a", () -> "r" + evaluations.incrementAndGet());
+        String result4 = cache.get(null, "a", () -> "r" + evaluations.incrementAndGet());
+        // Then
+        assertThat(result2, is(equalTo("r2")));
+        assertThat(result3, is(equalTo("r3")));
+        assertThat(result4, is(equalTo("r4")));
+    }
+
+    @Test
+    public void shouldCacheNullResults() {
+        // Given
+        HeaderResultCache<String> cache = new HeaderResultCache<>();
+        AtomicInteger evaluations = new AtomicInteger();
+        cache.get(
+                "site",
+                "a",
+                () -> {
+                    evaluations.incrementAndGet();
+                    return null;
+                });
+        // When
+        String result = cache.get("site", "a", () -> "r" + evaluations.incrementAndGet());
+        // Then
+        assertThat(result, is(nullValue()));
+        assertThat(evaluations.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldDiscardLeastRecentlyUsedResults() {
+        // Given
+        HeaderResultCache<String> cache = new HeaderResultCache<>(2);
+        cache.get("site", "a", () -> "a1");
+        cache.get("site", "b", () -> "b1");
+        cache.get("site", "a", () -> "a2");
+        // When
+        cache.get("site", "c", () -> "c1");
+        // Then
+        assertThat(cache.get("site", "a", () -> "a3"), is(equalTo("a1")));
+        assertThat(cache.get("site", "b", () -> "b2"), is(equalTo("b2")));
+    }
+
+    @Test
+    public void shouldGetSiteWithDefaultPort() throws Exception {
+        // Given
+        HttpMessage msg = new HttpMessage(new URI("https://Example.com/path?a=b", true));
+        // When
+        String site = HeaderResultCache.getSite(msg);
+        // Then
+        assertThat(site, is(equalTo("https://example.com:443")));
+    }
+}
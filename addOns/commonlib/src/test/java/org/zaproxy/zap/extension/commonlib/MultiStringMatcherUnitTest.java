@@ -0,0 +1,206 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/** Unit test for {@link MultiStringMatcher}. */
+public class MultiStringMatcherUnitTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithNullStrings() {
+        // Given / When
+        new MultiStringMatcher(null, false);
+        // Then = IllegalArgumentException
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithNullString() {
+        // Given / When
+        new MultiStringMatcher(Arrays.asList("a", null), false);
+        // Then = IllegalArgumentException
+    }
+
+    @Test
+    public void shouldFindNothingWithoutStrings() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Collections.emptyList(), false);
+        // When
+        BitSet found = matcher.findAll("text");
+        // Then
+        assertThat(found.isEmpty(), is(equalTo(true)));
+        assertThat(matcher.findFirst("text"), is(equalTo(-1)));
+    }
+
+    @Test
+    public void shouldFindAllOccurringStrings() {
+        // Given
+        MultiStringMatcher matcher =
+                new MultiStringMatcher(Arrays.asList("he", "she", "his", "hers", "xyz"), false);
+        // When
+        BitSet found = matcher.findAll("ushers");
+        // Then
+        assertThat(found, is(equalTo(bits(0, 1, 3))));
+    }
+
+    @Test
+    public void shouldFindStringsSuffixOfOthers() {
+        // Given
+        MultiStringMatcher matcher =
+                new MultiStringMatcher(Arrays.asList("abcd", "bc", "c"), false);
+        // When
+        BitSet found = matcher.findAll("xabcx");
+        // Then
+        assertThat(found, is(equalTo(bits(1, 2))));
+    }
+
+    @Test
+    public void shouldFindDuplicatedStrings() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("ab", "ab"), false);
+        // When
+        BitSet found = matcher.findAll("_ab_");
+        // Then
+        assertThat(found, is(equalTo(bits(0, 1))));
+    }
+
+    @Test
+    public void shouldAlwaysFindEmptyString() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("", "a"), false);
+        // When
+        BitSet found = matcher.findAll("");
+        // Then
+        assertThat(found, is(equalTo(bits(0))));
+    }
+
+    @Test
+    public void shouldRespectCaseIfNotIgnoringCase() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("WordPress"), false);
+        // When
+        BitSet found = matcher.findAll("wordpress");
+        // Then
+        assertThat(found.isEmpty(), is(equalTo(true)));
+    }
+
+    @Test
+    public void shouldIgnoreCaseIfRequested() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("WordPress"), true);
+        // When
+        BitSet found = matcher.findAll("<meta content=\"WORDPRESS 5.2\">");
+        // Then
+        assertThat(found, is(equalTo(bits(0))));
+    }
+
+    @Test
+    public void shouldFindFirstStringEnding() {
+        // Given
+        MultiStringMatcher matcher =
+                new MultiStringMatcher(Arrays.asList("TODO", "FIXME", "BUG"), true);
+        // When
+        int first = matcher.findFirst("// a bug, fixme later, todo");
+        // Then
+        assertThat(first, is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldFindFirstStringDelimitedByWordBoundaries() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("TODO", "BUG"), true);
+        // When
+        int first =
+                matcher.findFirst(
+                        "// debug: todos_ and bugs, later todo",
+                        MultiStringMatcher.WORD_BOUNDARIES);
+        // Then
+        assertThat(first, is(equalTo(0)));
+    }
+
+    @Test
+    public void shouldNotFindStringsPartOfWords() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("BUG"), true);
+        // When
+        int first = matcher.findFirst("DEBUG BUG_1 BUG2", MultiStringMatcher.WORD_BOUNDARIES);
+        // Then
+        assertThat(first, is(equalTo(-1)));
+    }
+
+    @Test
+    public void shouldCheckWordBoundariesSameAsRegex() {
+        // Given
+        List<String> strings = Arrays.asList("@todo", "db", "x-y");
+        MultiStringMatcher matcher = new MultiStringMatcher(strings, true);
+        List<String> texts =
+                Arrays.asList("a @todo", "a@todo", "@todo", "db.", "_db", "x-yz", "(x-y)", "é db");
+        for (String text : texts) {
+            boolean regexFound = false;
+            for (String str : strings) {
+                regexFound |=
+                        Pattern.compile("\\b" + str + "\\b", Pattern.CASE_INSENSITIVE)
+                                .matcher(text)
+                                .find();
+            }
+            // When
+            int found = matcher.findFirst(text, MultiStringMatcher.WORD_BOUNDARIES);
+            // Then
+            assertThat(text, found != -1, is(equalTo(regexFound)));
+        }
+    }
+
+    @Test
+    public void shouldGiveOccurrencesToFilter() {
+        // Given
+        MultiStringMatcher matcher = new MultiStringMatcher(Arrays.asList("ab", "b"), false);
+        List<String> occurrences = new ArrayList<>();
+        // When
+        int first =
+                matcher.findFirst(
+                        "xabxb",
+                        (text, index, start, end) -> {
+                            occurrences.add(index + ":" + start + "-" + end);
+                            return start == 4;
+                        });
+        // Then
+        assertThat(first, is(equalTo(1)));
+        assertThat(occurrences, contains("0:1-3", "1:2-3", "1:4-5"));
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bitSet = new BitSet();
+        for (int index : indexes) {
+            bitSet.set(index);
+        }
+        return bitSet;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import net.htmlparser.jericho.Element;
+import net.htmlparser.jericho.HTMLElementName;
+import net.htmlparser.jericho.Source;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link ParsedHtml}. */
+public class ParsedHtmlUnitTest {
+
+    @Test
+    public void shouldReuseParsedHtmlWhileBodyNotChanged() {
+        // Given
+        HttpMessage msg = createMessage("<html><form></form></html>");
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg);
+        // When
+        ParsedHtml sameParsedHtml = ParsedHtml.getInstance(msg);
+        msg.setResponseBody("<html><form></form><form></form></html>");
+        ParsedHtml changedParsedHtml = ParsedHtml.getInstance(msg);
+        // Then
+        assertThat(sameParsedHtml, is(sameInstance(parsedHtml)));
+        assertThat(changedParsedHtml, is(not(sameInstance(parsedHtml))));
+        assertThat(changedParsedHtml.getForms().size(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldUseGivenSourceIfNotYetParsed() {
+        // Given
+        HttpMessage msg = createMessage("<html></html>");
+        Source source = new Source(msg.getResponseBody().toString());
+        // When
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg, source);
+        // Then
+        assertThat(parsedHtml.getSource(), is(sameInstance(source)));
+    }
+
+    @Test
+    public void shouldGetElementsByName() {
+        // Given
+        HttpMessage msg =
+                createMessage(
+                        "<html><head><meta charset=\"UTF-8\"><script src=\"a.js\"></script></head>"
+                                + "<body><a href=\"/\">A</a><form><input name=\"a\">"
+                                + "<input name=\"b\"></form></body></html>");
+        // When
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg);
+        // Then
+        assertThat(parsedHtml.getMetas().size(), is(equalTo(1)));
+        assertThat(parsedHtml.getScripts().size(), is(equalTo(1)));
+        assertThat(parsedHtml.getLinks().size(), is(equalTo(1)));
+        assertThat(parsedHtml.getForms().size(), is(equalTo(1)));
+        assertThat(parsedHtml.getInputs().size(), is(equalTo(2)));
+        assertThat(parsedHtml.getInputs(), is(sameInstance(parsedHtml.getInputs())));
+        assertThat(parsedHtml.getFirstElement(HTMLElementName.HTML), is(not(nullValue())));
+        assertThat(parsedHtml.getFirstElement(HTMLElementName.TABLE), is(nullValue()));
+    }
+
+    @Test
+    public void shouldGetComments() {
+        // Given
+        HttpMessage msg = createMessage("<html><!-- A --><body><!-- B --></body></html>");
+        // When
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg);
+        // Then
+        assertThat(parsedHtml.getComments().size(), is(equalTo(2)));
+        assertThat(parsedHtml.getComments().get(0).toString(), is(equalTo("<!-- A -->")));
+    }
+
+    @Test
+    public void shouldDiscardElementsOnFullSequentialParse() {
+        // Given
+        HttpMessage msg = createMessage("<html><form><input name=\"a\"></form></html>");
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg);
+        List<Element> forms = parsedHtml.getForms();
+        // When
+        parsedHtml.fullSequentialParse();
+        // Then
+        assertThat(parsedHtml.getForms(), is(not(sameInstance(forms))));
+        assertThat(parsedHtml.getForms().get(0).getParentElement(), is(not(nullValue())));
+    }
+
+    private static HttpMessage createMessage(String responseBody) {
+        HttpMessage msg = new HttpMessage();
+        msg.setResponseBody(responseBody);
+        return msg;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.Test;
+import org.parosproxy.paros.core.scanner.AbstractPlugin;
+import org.parosproxy.paros.core.scanner.HostProcess;
+import org.parosproxy.paros.core.scanner.ScannerParam;
+import org.parosproxy.paros.model.OptionsParam;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.RateController.RuleStatistics;
+
+/** Unit test for {@link RateController}. */
+public class RateControllerUnitTest {
+
+    private static final int PLUGIN_ID = 1;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithZeroMaxConcurrency() {
+        // Given
+        int maxConcurrency = 0;
+        // When
+        new RateController(maxConcurrency);
+        // Then = IllegalArgumentException
+    }
+
+    @Test
+    public void shouldStartWithMaxConcurrency() {
+        // Given / When
+        RateController controller = new RateController(8);
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(8)));
+    }
+
+    @Test
+    public void shouldRecordStatisticsPerRule() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        // When
+        controller.send(PLUGIN_ID, createMessage(), false, statusSender(HttpStatusCode.OK));
+        controller.send(
+                PLUGIN_ID,
+                createMessage(),
+                false,
+                statusSender(HttpStatusCode.SERVICE_UNAVAILABLE));
+        controller.send(2, createMessage(), false, statusSender(HttpStatusCode.OK));
+        // Then
+        RuleStatistics statistics = controller.getStatistics(PLUGIN_ID);
+        assertThat(statistics.getRequestCount(), is(equalTo(2L)));
+        assertThat(statistics.getErrorCount(), is(equalTo(1L)));
+        assertThat(statistics.getErrorRate(), is(closeTo(0.5, 0.001)));
+        assertThat(controller.getStatistics(2).getRequestCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void shouldHalveLimitOnServiceUnavailable() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        // When
+        controller.send(
+                PLUGIN_ID,
+                createMessage(),
+                false,
+                statusSender(HttpStatusCode.SERVICE_UNAVAILABLE));
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldHalveLimitOnTooManyRequests() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        // When
+        controller.send(PLUGIN_ID, createMessage(), false, statusSender(429));
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldHalveLimitAndRecordErrorOnIOException() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        // When
+        try {
+            controller.send(
+                    PLUGIN_ID,
+                    createMessage(),
+                    false,
+                    (msg, followRedirects) -> {
+                        throw new IOException();
+                    });
+        } catch (IOException e) {
+            // Expected.
+        }
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(4)));
+        assertThat(controller.getStatistics(PLUGIN_ID).getErrorCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void shouldHalveLimitWhenResponseTimeInflates() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        controller.send(PLUGIN_ID, createMessage(), false, statusSender(HttpStatusCode.OK));
+        // When
+        controller.send(PLUGIN_ID, createMessage(), false, delayedSender(300));
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(4)));
+    }
+
+    @Test
+    public void shouldNotAdjustLimitWithDelayedRequests() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        controller.send(PLUGIN_ID, createMessage(), false, statusSender(HttpStatusCode.OK));
+        // When
+        controller.sendDelayed(PLUGIN_ID, createMessage(), false, delayedSender(300));
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(8)));
+        assertThat(controller.getStatistics(PLUGIN_ID).getRequestCount(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void shouldIncreaseLimitAdditivelyAfterSuccessfulRequests() throws Exception {
+        // Given
+        RateController controller = new RateController(8);
+        controller.send(
+                PLUGIN_ID,
+                createMessage(),
+                false,
+                statusSender(HttpStatusCode.SERVICE_UNAVAILABLE));
+        // When
+        for (int i = 0; i < 10; i++) {
+            controller.send(PLUGIN_ID, createMessage(), false, statusSender(HttpStatusCode.OK));
+        }
+        // Then
+        assertThat(controller.getConcurrencyLimit(), is(equalTo(6)));
+    }
+
+    @Test
+    public void shouldNotSendMoreConcurrentRequestsThanLimit() throws Exception {
+        // Given
+        RateController controller = new RateController(2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        MessageSender sender =
+                (msg, followRedirects) -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+                };
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+        // When
+        for (int i = 0; i < 12; i++) {
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                controller.sendDelayed(PLUGIN_ID, createMessage(), false, sender);
+                                return null;
+                            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        // Then
+        assertThat(maxInFlight.get(), is(equalTo(2)));
+        assertThat(controller.getStatistics(PLUGIN_ID).getRequestCount(), is(equalTo(12L)));
+        assertThat(controller.getStatistics(PLUGIN_ID).getAverageLatency(), is(greaterThan(0.0)));
+    }
+
+    @Test
+    public void shouldUseThreadsPerHostOfActiveScanOptionsAsMaxConcurrency() {
+        // Given
+        ScannerParam scannerParam = mock(ScannerParam.class);
+        given(scannerParam.getThreadPerHost()).willReturn(3);
+        OptionsParam optionsParam = mock(OptionsParam.class);
+        given(optionsParam.getParamSet(ScannerParam.class)).willReturn(scannerParam);
+        // When
+        int maxConcurrency = RateController.getThreadsPerHost(optionsParam);
+        // Then
+        assertThat(maxConcurrency, is(equalTo(3)));
+    }
+
+    @Test
+    public void shouldUseOneAsMaxConcurrencyIfNoThreadsPerHost() {
+        // Given
+        ScannerParam scannerParam = mock(ScannerParam.class);
+        given(scannerParam.getThreadPerHost()).willReturn(0);
+        OptionsParam optionsParam = mock(OptionsParam.class);
+        given(optionsParam.getParamSet(ScannerParam.class)).willReturn(scannerParam);
+        // When
+        int maxConcurrency = RateController.getThreadsPerHost(optionsParam);
+        // Then
+        assertThat(maxConcurrency, is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldUseDefaultMaxConcurrencyIfNoActiveScanOptions() {
+        // Given
+        OptionsParam optionsParam = mock(OptionsParam.class);
+        // When
+        int maxConcurrency = RateController.getThreadsPerHost(optionsParam);
+        // Then
+        assertThat(maxConcurrency, is(equalTo(RateController.DEFAULT_MAX_CONCURRENCY)));
+    }
+
+    @Test
+    public void shouldSendThroughControllerOfTheScanOfTheScanRule() throws Exception {
+        // Given
+        HostProcess hostProcess = mock(HostProcess.class);
+        AbstractPlugin plugin = mock(AbstractPlugin.class);
+        given(plugin.getParent()).willReturn(hostProcess);
+        given(plugin.getId()).willReturn(PLUGIN_ID);
+        // When
+        RateController.sendAndReceive(
+                plugin, createMessage(), false, statusSender(HttpStatusCode.OK));
+        RateController.sendAndReceiveDelayed(
+                plugin, createMessage(), false, statusSender(HttpStatusCode.OK));
+        // Then
+        RuleStatistics statistics =
+                RateController.getInstance(hostProcess).getStatistics(PLUGIN_ID);
+        assertThat(statistics.getRequestCount(), is(equalTo(2L)));
+    }
+
+    private static HttpMessage createMessage() throws Exception {
+        return new HttpMessage(new URI("http://example.com/", true));
+    }
+
+    private static MessageSender statusSender(int statusCode) {
+        return (msg, followRedirects) -> msg.getResponseHeader().setStatusCode(statusCode);
+    }
+
+    private static MessageSender delayedSender(long delay) {
+        return (msg, followRedirects) -> {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            msg.getResponseHeader().setStatusCode(HttpStatusCode.OK);
+        };
+    }
+}
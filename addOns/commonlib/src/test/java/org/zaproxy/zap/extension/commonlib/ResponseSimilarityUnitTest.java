@@ -0,0 +1,212 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.zaproxy.zap.extension.commonlib.ResponseSimilarity.Sketch;
+import org.zaproxy.zap.utils.HirshbergMatcher;
+
+/** Unit test for {@link ResponseSimilarity}. */
+public class ResponseSimilarityUnitTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToSketchNullContent() {
+        // Given
+        String content = null;
+        // When
+        ResponseSimilarity.sketch(content);
+        // Then = IllegalArgumentException
+    }
+
+    @Test
+    public void shouldBeIdenticalIfSameContent() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("<html>Content</html>");
+        Sketch b = ResponseSimilarity.sketch("<html>Content</html>");
+        // When
+        boolean identical = ResponseSimilarity.isIdentical(a, b);
+        // Then
+        assertThat(identical, is(equalTo(true)));
+    }
+
+    @Test
+    public void shouldNotBeIdenticalIfDifferentContentWithSameLength() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("<html>Content A</html>");
+        Sketch b = ResponseSimilarity.sketch("<html>Content B</html>");
+        // When
+        boolean identical = ResponseSimilarity.isIdentical(a, b);
+        // Then
+        assertThat(identical, is(equalTo(false)));
+    }
+
+    @Test
+    public void shouldHaveQuickRatioOfOneForEmptyContents() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("");
+        Sketch b = ResponseSimilarity.sketch("");
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        // Then
+        assertThat(ratio, is(equalTo(1.0)));
+    }
+
+    @Test
+    public void shouldHaveQuickRatioOfZeroForContentsWithoutCommonChars() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("abc");
+        Sketch b = ResponseSimilarity.sketch("xyz中");
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        // Then
+        assertThat(ratio, is(equalTo(0.0)));
+    }
+
+    @Test
+    public void shouldCountRepeatedCharsInQuickRatio() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("aab中中");
+        Sketch b = ResponseSimilarity.sketch("中baa");
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        // Then
+        assertThat(ratio, is(closeTo(2.0 * 4 / 9, 0.0001)));
+    }
+
+    @Test
+    public void shouldCountAllOccurrencesOfRepeatedCharsInQuickRatio() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("baaa");
+        Sketch b = ResponseSimilarity.sketch("caaa");
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        // Then
+        // The "a"s match 3 times, the set-based ratio used before matched them just once (0.25)
+        assertThat(ratio, is(equalTo(0.75)));
+    }
+
+    @Test
+    public void shouldNotDependOnTheOrderOfRepeatedCharsInQuickRatio() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("abab");
+        Sketch b = ResponseSimilarity.sketch("baba");
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        // Then
+        // All chars match, the set-based ratio used before matched each char just once (0.5)
+        assertThat(ratio, is(equalTo(1.0)));
+    }
+
+    @Test
+    public void shouldMatchRepeatedCharsUpToTheLowestCountInQuickRatio() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("xaaaa");
+        Sketch b = ResponseSimilarity.sketch("ya");
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        // Then
+        // Same as the set-based ratio used before, "a" matches once
+        assertThat(ratio, is(closeTo(2.0 * 1 / 7, 0.0001)));
+    }
+
+    @Test
+    public void shouldBeSymmetricQuickRatio() {
+        // Given
+        Sketch a = ResponseSimilarity.sketch("<p>aaa bbb 中中</p>");
+        Sketch b = ResponseSimilarity.sketch("<div>ab 中</div>");
+        // When
+        double ratioAB = ResponseSimilarity.quickRatio(a, b);
+        double ratioBA = ResponseSimilarity.quickRatio(b, a);
+        // Then
+        assertThat(ratioAB, is(equalTo(ratioBA)));
+    }
+
+    @Test
+    public void shouldCompareLargeContents() {
+        // Given
+        String content = createContent(4 * 1024 * 1024);
+        String modifiedContent = content.replace("row 1000 ", "row 1000 changed ");
+        Sketch a = ResponseSimilarity.sketch(content);
+        Sketch b = ResponseSimilarity.sketch(modifiedContent);
+        // When
+        double ratio = ResponseSimilarity.quickRatio(a, b);
+        String lcs = ResponseSimilarity.longestCommonSubsequence(content, modifiedContent);
+        // Then
+        assertThat(ratio, is(closeTo(2.0 * content.length() / (a.length() + b.length()), 0.0001)));
+        assertThat(lcs, is(equalTo(content)));
+    }
+
+    @Test
+    public void shouldReturnSameStringAsLongestCommonSubsequenceIfEqual() {
+        // Given
+        String a = "<html>Content</html>";
+        // When
+        String lcs = ResponseSimilarity.longestCommonSubsequence(a, new String(a));
+        // Then
+        assertThat(lcs, is(equalTo(a)));
+    }
+
+    @Test
+    public void shouldKeepCommonPrefixAndSuffixInLongestCommonSubsequence() {
+        // Given
+        String a = "<html>Welcome user1, bye</html>";
+        String b = "<html>Welcome user22, bye</html>";
+        // When
+        String lcs = ResponseSimilarity.longestCommonSubsequence(a, b);
+        // Then
+        assertThat(lcs, is(equalTo("<html>Welcome user, bye</html>")));
+    }
+
+    @Test
+    public void shouldHaveSameLengthOfLongestCommonSubsequenceAsHirshbergMatcher() {
+        // Given
+        String a = "<p>The quick brown fox</p><p>jumps over</p><p>the lazy dog</p>";
+        String b = "<p>The quick red fox</p><p>jumped over</p><p>a lazy cat</p>";
+        // When
+        String lcs = ResponseSimilarity.longestCommonSubsequence(a, b);
+        // Then
+        assertThat(lcs.length(), is(equalTo(new HirshbergMatcher().getLCS(a, b).length())));
+    }
+
+    @Test
+    public void shouldRemoveAllOccurrencesOfTheValues() {
+        // Given
+        String content = "value a value [b] value a";
+        // When
+        String result = ResponseSimilarity.removeAll(content, "a", null, "", "[b]");
+        // Then
+        assertThat(result, is(equalTo("vlue  vlue  vlue ")));
+    }
+
+    private static String createContent(int length) {
+        StringBuilder strBuilder = new StringBuilder(length + 32);
+        strBuilder.append("<html><body>");
+        for (int i = 0; strBuilder.length() < length; i++) {
+            strBuilder.append("<p>row ").append(i).append(" </p>\n");
+        }
+        strBuilder.append("</body></html>");
+        return strBuilder.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpHeader;
+
+/** Unit test for {@link SetCookie}. */
+public class SetCookieUnitTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithNullHeaderValue() {
+        // Given / When
+        new SetCookie(HttpHeader.SET_COOKIE, null);
+        // Then = IllegalArgumentException
+    }
+
+    @Test
+    public void shouldGetHeaderNameAndValue() {
+        // Given / When
+        SetCookie setCookie = new SetCookie(HttpHeader.SET_COOKIE2, "Name=Value");
+        // Then
+        assertThat(setCookie.getHeaderName(), is(equalTo(HttpHeader.SET_COOKIE2)));
+        assertThat(setCookie.getHeaderValue(), is(equalTo("Name=Value")));
+    }
+
+    @Test
+    public void shouldGetTrimmedName() {
+        // Given / When
+        SetCookie setCookie = new SetCookie(HttpHeader.SET_COOKIE, " Name =Value; Secure");
+        // Then
+        assertThat(setCookie.getName(), is(equalTo("Name")));
+    }
+
+    @Test
+    public void shouldNotGetNameWithoutNameValueSeparator() {
+        // Given / When
+        SetCookie setCookie = new SetCookie(HttpHeader.SET_COOKIE, "Name; Secure");
+        // Then
+        assertThat(setCookie.getName(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldFindAttributesIgnoringCase() {
+        // Given / When
+        SetCookie setCookie =
+                new SetCookie(HttpHeader.SET_COOKIE, "Name=Value; secure ; HTTPONLY;Path=/");
+        // Then
+        assertThat(setCookie.hasAttribute("Secure"), is(equalTo(true)));
+        assertThat(setCookie.hasAttribute("HttpOnly"), is(equalTo(true)));
+        assertThat(setCookie.hasAttribute("path"), is(equalTo(true)));
+        assertThat(setCookie.hasAttribute("Domain"), is(equalTo(false)));
+        assertThat(setCookie.hasAttribute(""), is(equalTo(false)));
+    }
+
+    @Test
+    public void shouldNotFindAttributesIfNameValuePairNotValid() {
+        // Given / When
+        SetCookie setCookie = new SetCookie(HttpHeader.SET_COOKIE, " =Value; Secure");
+        // Then
+        assertThat(setCookie.hasAttribute("Secure"), is(equalTo(false)));
+    }
+
+    @Test
+    public void shouldGetFirstAttributeValueTrimmed() {
+        // Given / When
+        SetCookie setCookie =
+                new SetCookie(
+                        HttpHeader.SET_COOKIE,
+                        "Name=Value; SameSite; samesite = Lax ; SameSite=Strict;;");
+        // Then
+        assertThat(setCookie.getAttributeValue("SameSite"), is(equalTo("Lax")));
+        assertThat(setCookie.getAttributeValue("Secure"), is(nullValue()));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.commonlib;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpHeader;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link SetCookies}. */
+public class SetCookiesUnitTest {
+
+    @Test
+    public void shouldNotHaveCookiesIfNoSetCookieHeaders() throws Exception {
+        // Given
+        HttpMessage msg = createMessage("HTTP/1.1 200 OK\r\nContent-Type: text/html\r\n");
+        // When
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        // Then
+        assertThat(setCookies.getAll().isEmpty(), is(equalTo(true)));
+    }
+
+    @Test
+    public void shouldGetSetCookieThenSetCookie2Headers() throws Exception {
+        // Given
+        HttpMessage msg =
+                createMessage(
+                        "HTTP/1.1 200 OK\r\n"
+                                + "Set-Cookie2: c=3\r\n"
+                                + "Set-Cookie: a=1\r\n"
+                                + "Set-Cookie: b=2\r\n");
+        // When
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        // Then
+        assertThat(setCookies.getAll().size(), is(equalTo(3)));
+        assertThat(setCookies.getAll().get(0).getName(), is(equalTo("a")));
+        assertThat(setCookies.getAll().get(1).getName(), is(equalTo("b")));
+        assertThat(setCookies.getAll().get(2).getName(), is(equalTo("c")));
+        assertThat(setCookies.getAll(HttpHeader.SET_COOKIE2).size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void shouldReuseParsedCookiesWhileHeaderNotChanged() throws Exception {
+        // Given
+        HttpMessage msg = createMessage("HTTP/1.1 200 OK\r\nSet-Cookie: a=1\r\n");
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        // When
+        SetCookies sameSetCookies = SetCookies.getInstance(msg);
+        msg.getResponseHeader().addHeader(HttpHeader.SET_COOKIE, "b=2");
+        SetCookies changedSetCookies = SetCookies.getInstance(msg);
+        // Then
+        assertThat(sameSetCookies, is(sameInstance(setCookies)));
+        assertThat(changedSetCookies, is(not(sameInstance(setCookies))));
+        assertThat(changedSetCookies.getAll().size(), is(equalTo(2)));
+    }
+
+    @Test
+    public void shouldGetSetCookiePlusName() throws Exception {
+        // Given
+        HttpMessage msg =
+                createMessage(
+                        "HTTP/1.1 200 OK\r\n"
+                                + "Set-Cookie: a=1; Secure\r\n"
+                                + "set-cookie2: name=value; HttpOnly\r\n");
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        // When
+        String evidence1 = setCookies.getSetCookiePlusName(setCookies.getAll().get(0));
+        String evidence2 = setCookies.getSetCookiePlusName(setCookies.getAll().get(1));
+        // Then
+        assertThat(evidence1, is(equalTo("Set-Cookie: a")));
+        assertThat(evidence2, is(equalTo("set-cookie2: name")));
+    }
+
+    @Test
+    public void shouldNotGetSetCookiePlusNameIfNoName() throws Exception {
+        // Given
+        HttpMessage msg = createMessage("HTTP/1.1 200 OK\r\nSet-Cookie: value\r\n");
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        // When
+        String evidence = setCookies.getSetCookiePlusName(setCookies.getAll().get(0));
+        // Then
+        assertThat(evidence, is(nullValue()));
+    }
+
+    private static HttpMessage createMessage(String responseHeader) throws Exception {
+        HttpMessage msg = new HttpMessage();
+        msg.setResponseHeader(responseHeader);
+        return msg;
+    }
+}
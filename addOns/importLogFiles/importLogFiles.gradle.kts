@@ -18,4 +18,6 @@ zapAddOn {
 
 dependencies {
     implementation(files("lib/org.jwall.web.audit-0.2.15.jar"))
+
+    testImplementation(project(":testutils"))
 }
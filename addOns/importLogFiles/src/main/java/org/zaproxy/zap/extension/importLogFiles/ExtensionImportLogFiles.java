@@ -19,19 +19,19 @@
  */
 package org.zaproxy.zap.extension.importLogFiles;
 
-import java.io.BufferedReader;
+import java.awt.EventQueue;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.JFileChooser;
@@ -78,6 +78,19 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
         }
     }
 
+    private static final String THREAD_NAME = "ZAP-Import-Log-Files";
+
+    /** The number of messages persisted and added to the Sites tree at a time. */
+    private static final int HISTORY_BATCH_SIZE = 500;
+
+    // http://www.w3.org/Protocols/rfc2616/rfc2616-sec5.html
+    private static final Pattern REQUEST_PATTERN =
+            Pattern.compile("^OPTIONS|^GET|^HEAD|^POST|^PUT|^DELETE|^TRACE|^CONNECT");
+
+    // http://www.w3.org/Protocols/rfc2616/rfc2616-sec6.html
+    private static final Pattern STATUS_LINE_PATTERN =
+            Pattern.compile("HTTP/[0-9].[0-9]\\s[0-9]{3}", Pattern.DOTALL);
+
     private ZapMenuItem menuExample = null;
 
     private static Logger log = Logger.getLogger(ExtensionImportLogFiles.class);
@@ -142,7 +155,12 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
                                 int openChoice = fc.showOpenDialog(main);
                                 if (openChoice == JFileChooser.APPROVE_OPTION) {
                                     File newFile = fc.getSelectedFile();
-                                    processInput(newFile, logChoice);
+                                    // Logs can be large, do not block the EDT while importing
+                                    Thread t =
+                                            new Thread(
+                                                    () -> processInput(newFile, logChoice),
+                                                    THREAD_NAME);
+                                    t.start();
                                 }
                             }
                         }
@@ -182,10 +200,18 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
         return null;
     }
 
-    private synchronized List<HttpMessage> readModSecLogs(ModSecurity2AuditReader reader)
-            throws IOException {
+    private List<HttpMessage> readModSecLogs(ModSecurity2AuditReader reader) throws IOException {
         List<HttpMessage> messages = new ArrayList<>();
+        readModSecLogs(reader, messages::add);
+
+        if (messages.size() == 0) {
+            return null;
+        }
+        return messages;
+    }
 
+    private synchronized void readModSecLogs(
+            ModSecurity2AuditReader reader, Consumer<HttpMessage> consumer) throws IOException {
         while (reader.bytesRead() < reader.bytesAvailable()) {
             try {
                 AuditEvent a = reader.readNext();
@@ -198,7 +224,7 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
                                     new HttpResponseHeader(a.getResponseHeader()),
                                     new HttpResponseBody());
                     httpMessage.setResponseFromTargetHost(true);
-                    messages.add(httpMessage);
+                    consumer.accept(httpMessage);
                 } else break;
             } catch (Exception e) {
                 // View.getSingleton().showWarningDialog("Cannot import this log as it does not
@@ -208,11 +234,6 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
         }
 
         reader.close();
-
-        if (messages.size() == 0) {
-            return null;
-        }
-        return messages;
     }
 
     /**
@@ -223,13 +244,17 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
      *     database
      */
     public void addToTree(List<HistoryReference> historyList) {
-        SiteMap currentTree = Model.getSingleton().getSession().getSiteTree();
+        List<HistoryReference> historyRefs = new ArrayList<>(historyList);
+        runInEdt(
+                () -> {
+                    SiteMap currentTree = Model.getSingleton().getSession().getSiteTree();
 
-        for (HistoryReference historyref : historyList) {
-            currentTree.addPath(historyref);
-        }
+                    for (HistoryReference historyref : historyRefs) {
+                        currentTree.addPath(historyref);
+                    }
 
-        currentTree.reload();
+                    currentTree.reload();
+                });
         // /Need to refresh history tabs for details and alerts refresh
     }
 
@@ -242,52 +267,75 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
      * @param logChoice type of logfile being imported
      */
     public void processInput(File newFile, LogType logChoice) {
-        if (logChoice == LogType.ZAP) {
-            List<String> parsedText = readFile(newFile);
-            try {
-                List<HttpMessage> messages = getHttpMessages(parsedText);
-                List<HistoryReference> history = getHistoryRefs(messages);
-                addToTree(history);
-            } catch (HttpMalformedHeaderException e) {
-                log.error(e.getMessage(), e);
-            }
-        } else if (logChoice == LogType.MOD_SECURITY_2) {
-            try {
-                List<HttpMessage> messages = readModSecLogsFromFile(newFile);
-                List<HistoryReference> history = getHistoryRefs(messages);
-                SiteMap currentTree = Model.getSingleton().getSession().getSiteTree();
-                for (HistoryReference historyref : history) {
-                    currentTree.addPath(historyref);
-                }
-                currentTree.reload();
-                // /Need to refresh history tabs for details.
-            } catch (IOException e) {
-                log.error(e.getMessage(), e);
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
+        HistoryBatch batch = new HistoryBatch();
+        try {
+            if (logChoice == LogType.ZAP) {
+                readZapLog(newFile, batch::add);
+            } else if (logChoice == LogType.MOD_SECURITY_2) {
+                readModSecLogs(new ModSecurity2AuditReader(newFile), batch::add);
             }
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            batch.flush();
         }
+        runInEdt(() -> Model.getSingleton().getSession().getSiteTree().reload());
+        // /Need to refresh history tabs for details and alerts refresh
+    }
+
+    /**
+     * Runs the given task in the EDT, if the view is initialised, as the imports run in other
+     * threads and the Sites tree should be changed just in the EDT.
+     *
+     * <p>The tasks are run in the order they are given, so the Sites tree is reloaded after the
+     * messages are added.
+     *
+     * @param task the task that changes the Sites tree
+     */
+    private static void runInEdt(Runnable task) {
+        runInEdt(task, false);
     }
 
-    List<String> readFile(File file) {
-        return readFileFromPath(Paths.get(file.getPath()));
+    /**
+     * Runs the given task in the EDT, if the view is initialised, optionally waiting for it to
+     * finish.
+     *
+     * @param task the task that changes the Sites tree
+     * @param wait {@code true} if it should wait for the task to finish, {@code false} otherwise
+     */
+    private static void runInEdt(Runnable task, boolean wait) {
+        if (!View.isInitialised() || EventQueue.isDispatchThread()) {
+            task.run();
+        } else if (!wait) {
+            EventQueue.invokeLater(task);
+        } else {
+            try {
+                EventQueue.invokeAndWait(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException e) {
+                log.error(e.getCause().getMessage(), e.getCause());
+            }
+        }
     }
 
-    List<String> readFileFromPath(Path filePath) {
-        List<String> parsed = new ArrayList<String>();
-        Charset charset = Charset.forName("US-ASCII");
-        try (BufferedReader reader = Files.newBufferedReader(filePath, charset)) {
-            Scanner sc = new Scanner(reader);
-            sc.useDelimiter(Pattern.compile("====\\s[0-9]*\\s=========="));
-            while (sc.hasNext()) {
-                parsed.add(sc.next());
+    private void readZapLog(File file, Consumer<HttpMessage> consumer) throws IOException {
+        try (ZapLogReader reader =
+                new ZapLogReader(
+                        new InputStreamReader(
+                                Files.newInputStream(file.toPath()), StandardCharsets.US_ASCII))) {
+            String block;
+            while ((block = reader.nextMessage()) != null) {
+                try {
+                    HttpMessage message = getHttpMessage(block);
+                    if (message != null) {
+                        consumer.accept(message);
+                    }
+                } catch (HttpMalformedHeaderException e) {
+                    log.error(e.getMessage(), e);
+                }
             }
-            sc.close();
-            return parsed;
-        } catch (IOException x) {
-            log.error(x.getMessage(), x);
         }
-        return null;
     }
 
     /**
@@ -301,85 +349,90 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
      */
     public List<HttpMessage> getHttpMessageFromPair(String request, String response)
             throws HttpMalformedHeaderException {
-        List<String> reqResp = new ArrayList<>(2);
-        reqResp.add(request);
-        reqResp.add(response);
-        return getHttpMessages(reqResp);
+        // Parse the pair as one message, as exported by ZAP, the request and the response are
+        // separated by a blank line
+        HttpMessage httpMessage = getHttpMessage(request + "\r\n\r\n" + response);
+        List<HttpMessage> messages = new ArrayList<>(1);
+        if (httpMessage != null) {
+            messages.add(httpMessage);
+        }
+        return messages;
     }
 
-    private List<HttpMessage> getHttpMessages(List<String> parsedrequestandresponse)
-            throws HttpMalformedHeaderException {
-        // http://www.w3.org/Protocols/rfc2616/rfc2616-sec5.html
-        Pattern requestP =
-                Pattern.compile("^OPTIONS|^GET|^HEAD|^POST|^PUT|^DELETE|^TRACE|^CONNECT");
-
-        // http://www.w3.org/Protocols/rfc2616/rfc2616-sec6.html
-        // Not sure whether to use the allchars-then-allwhitespacechars or just the DOTALL to get
-        // the httprequestbody?
-        Pattern responseP =
-                Pattern.compile(
-                        "(\\S*\\s*)?(HTTP/[0-9].[0-9]\\s[0-9]{3}.*)",
-                        Pattern.DOTALL | Pattern.MULTILINE);
-        // Pattern responseP = Pattern.compile("(.*)?(HTTP/[0-9].[0-9]\\s[0-9]{3}.*)",
-        // Pattern.DOTALL | Pattern.MULTILINE);
-
-        // Add capture group as we want to just match the html, not the rest of the payload
-        Pattern responseBodyP =
-                Pattern.compile("\\S*?(<html>.*</html>)", Pattern.DOTALL | Pattern.MULTILINE);
-
+    private static HttpMessage getHttpMessage(String block) throws HttpMalformedHeaderException {
         HttpRequestHeader tempRequestHeader = null;
         HttpRequestBody tempRequestBody = new HttpRequestBody();
         HttpResponseHeader tempResponseHeader = null;
         HttpResponseBody tempResponseBody = new HttpResponseBody();
 
-        // Initialise list at total parsed message count for performance.
-        List<HttpMessage> messages = new ArrayList<>(parsedrequestandresponse.size());
-
-        for (String block : parsedrequestandresponse) {
-            // HTTP request and response header pairs have a 2 line break between them as per RFC
-            // 2616
-            // http://tools.ietf.org/html/rfc2616
-            String[] httpComponents = block.split("\r\n\r\n");
-            for (String component : httpComponents) {
-                // Remove leading and trailing whitespace
-                component = component.trim();
-
-                Matcher requestM = requestP.matcher(component);
-                if (requestM.find()) {
-                    tempRequestHeader = new HttpRequestHeader(component);
-                }
+        // HTTP request and response header pairs have a 2 line break between them as per RFC
+        // 2616
+        // http://tools.ietf.org/html/rfc2616
+        String[] httpComponents = block.split("\r\n\r\n");
+        for (String component : httpComponents) {
+            // Remove leading and trailing whitespace
+            component = component.trim();
+
+            Matcher requestM = REQUEST_PATTERN.matcher(component);
+            if (requestM.lookingAt()) {
+                tempRequestHeader = new HttpRequestHeader(component);
+            }
 
-                // Strange way of splitting it up but usually if the httpRequestBody is present,
-                // i.e. on a Post request there's
-                // a token in the body usually
-                // So I'm using the group matching in the regex to split that up. We'll need either
-                // a blank HttpRequestBody or
-                // the actual one further down the line.
-                Matcher responseM = responseP.matcher(component);
-                if (responseM.find()) {
-                    if (!responseM.group(1).trim().isEmpty())
-                        tempRequestBody = new HttpRequestBody(responseM.group(1).trim());
-
-                    tempResponseHeader = new HttpResponseHeader(responseM.group(2).trim());
-                }
-                Matcher responseBodyM = responseBodyP.matcher(component);
-                if (responseBodyM.find()) {
-                    tempResponseBody = new HttpResponseBody(responseBodyM.group(1));
+            // Strange way of splitting it up but usually if the httpRequestBody is present, i.e.
+            // on a Post request there's a token in the body usually, so the token (if any)
+            // preceding the status line is used as the body. We'll need either a blank
+            // HttpRequestBody or the actual one further down the line.
+            Matcher responseM = STATUS_LINE_PATTERN.matcher(component);
+            if (responseM.find()) {
+                int statusLineStart = responseM.start();
+                String requestBody =
+                        component
+                                .substring(
+                                        getStartOfLastToken(component, statusLineStart),
+                                        statusLineStart)
+                                .trim();
+                if (!requestBody.isEmpty()) {
+                    tempRequestBody = new HttpRequestBody(requestBody);
                 }
+
+                tempResponseHeader =
+                        new HttpResponseHeader(component.substring(statusLineStart).trim());
             }
 
-            if (tempRequestHeader != null && tempResponseHeader != null) {
-                HttpMessage httpMessage =
-                        new HttpMessage(
-                                tempRequestHeader,
-                                tempRequestBody,
-                                tempResponseHeader,
-                                tempResponseBody);
-                httpMessage.setResponseFromTargetHost(true);
-                messages.add(httpMessage);
+            // Just the html, not the rest of the payload
+            int htmlStart = component.indexOf("<html>");
+            if (htmlStart != -1) {
+                int htmlEnd = component.lastIndexOf("</html>");
+                if (htmlEnd >= htmlStart + 6) {
+                    tempResponseBody =
+                            new HttpResponseBody(component.substring(htmlStart, htmlEnd + 7));
+                }
             }
         }
-        return messages;
+
+        if (tempRequestHeader == null || tempResponseHeader == null) {
+            return null;
+        }
+        HttpMessage httpMessage =
+                new HttpMessage(
+                        tempRequestHeader, tempRequestBody, tempResponseHeader, tempResponseBody);
+        httpMessage.setResponseFromTargetHost(true);
+        return httpMessage;
+    }
+
+    /**
+     * Gets the start of the last token (non-whitespace characters, optionally followed by
+     * whitespace characters) before the given index.
+     */
+    private static int getStartOfLastToken(String text, int end) {
+        int idx = end;
+        while (idx > 0 && Character.isWhitespace(text.charAt(idx - 1))) {
+            idx--;
+        }
+        while (idx > 0 && !Character.isWhitespace(text.charAt(idx - 1))) {
+            idx--;
+        }
+        return idx;
     }
 
     public List<HistoryReference> getHistoryRefs(List<HttpMessage> messages)
@@ -389,19 +442,27 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
         Session currentSession = Model.getSingleton().getSession();
 
         for (HttpMessage message : messages) {
-            try {
-                historyRefs.add(new HistoryReference(currentSession, 1, message));
-            } catch (DatabaseException e) {
-                log.error(e.getMessage(), e);
-            } catch (HttpMalformedHeaderException e) {
-                log.error(e.getMessage(), e);
-            } catch (NullPointerException n) {
-                log.error(n.getMessage(), n);
+            HistoryReference historyRef = createHistoryRef(currentSession, message);
+            if (historyRef != null) {
+                historyRefs.add(historyRef);
             }
         }
         return historyRefs;
     }
 
+    private static HistoryReference createHistoryRef(Session session, HttpMessage message) {
+        try {
+            return new HistoryReference(session, 1, message);
+        } catch (DatabaseException e) {
+            log.error(e.getMessage(), e);
+        } catch (HttpMalformedHeaderException e) {
+            log.error(e.getMessage(), e);
+        } catch (NullPointerException n) {
+            log.error(n.getMessage(), n);
+        }
+        return null;
+    }
+
     public String getMessageString(String key) {
         return getMessages().getString(key);
     }
@@ -425,4 +486,51 @@ public class ExtensionImportLogFiles extends ExtensionAdaptor {
             return null;
         }
     }
+
+    /**
+     * A batch of messages being imported, persisted and added to the Sites tree once full, to not
+     * hold all the messages of the log in memory.
+     *
+     * <p>The messages are persisted in the thread of the import, the whole batch is then added to
+     * the Sites tree at once, in the EDT. The import waits for the batch to be added, so that the
+     * batches do not pile up if the EDT is busy.
+     */
+    private static class HistoryBatch {
+
+        private final List<HttpMessage> messages = new ArrayList<>(HISTORY_BATCH_SIZE);
+
+        void add(HttpMessage message) {
+            messages.add(message);
+            if (messages.size() >= HISTORY_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (messages.isEmpty()) {
+                return;
+            }
+
+            Session session = Model.getSingleton().getSession();
+            List<HistoryReference> historyRefs = new ArrayList<>(messages.size());
+            List<HttpMessage> persistedMessages = new ArrayList<>(messages.size());
+            for (HttpMessage message : messages) {
+                HistoryReference historyRef = createHistoryRef(session, message);
+                if (historyRef != null) {
+                    historyRefs.add(historyRef);
+                    persistedMessages.add(message);
+                }
+            }
+            messages.clear();
+
+            runInEdt(
+                    () -> {
+                        SiteMap currentTree = session.getSiteTree();
+                        for (int i = 0; i < historyRefs.size(); i++) {
+                            currentTree.addPath(historyRefs.get(i), persistedMessages.get(i));
+                        }
+                    },
+                    true);
+        }
+    }
 }
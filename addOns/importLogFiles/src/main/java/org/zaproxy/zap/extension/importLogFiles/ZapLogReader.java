@@ -0,0 +1,116 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.importLogFiles;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the messages exported by ZAP, one at a time.
+ *
+ * <p>Each message (request and response) is preceded by a separator line, {@code ==== <id>
+ * ==========}. The log is read in chunks, so just the message being read is held in memory.
+ */
+class ZapLogReader implements Closeable {
+
+    private static final Pattern SEPARATOR = Pattern.compile("====\\s[0-9]*\\s==========");
+
+    /**
+     * The number of characters searched again for a separator after reading more of the log, to
+     * find the separators split between chunks.
+     */
+    private static final int SEPARATOR_OVERLAP = 64;
+
+    private static final int CHUNK_SIZE = 16384;
+
+    private final Reader reader;
+    private final char[] chunk;
+    private final StringBuilder buffer;
+    private final Matcher matcher;
+
+    private int blockStart;
+    private int searchStart;
+    private boolean endOfLog;
+
+    /**
+     * Constructs a {@code ZapLogReader} with the given reader.
+     *
+     * @param reader the reader of the log.
+     */
+    ZapLogReader(Reader reader) {
+        this.reader = reader;
+        this.chunk = new char[CHUNK_SIZE];
+        this.buffer = new StringBuilder(CHUNK_SIZE * 2);
+        this.matcher = SEPARATOR.matcher(buffer);
+    }
+
+    /**
+     * Reads the next message, that is, the text between two separators (or the end of the log).
+     *
+     * @return the text of the message, or {@code null} if there are no more messages.
+     * @throws IOException if an error occurred while reading the log.
+     */
+    String nextMessage() throws IOException {
+        while (true) {
+            if (matcher.reset().find(searchStart)) {
+                String message = buffer.substring(blockStart, matcher.start());
+                blockStart = matcher.end();
+                searchStart = blockStart;
+                if (!message.isEmpty()) {
+                    return message;
+                }
+                continue;
+            }
+
+            if (endOfLog) {
+                if (blockStart < buffer.length()) {
+                    String message = buffer.substring(blockStart);
+                    blockStart = buffer.length();
+                    return message;
+                }
+                return null;
+            }
+
+            readChunk();
+        }
+    }
+
+    private void readChunk() throws IOException {
+        // Discard the messages already returned before reading more of the log
+        buffer.delete(0, blockStart);
+        blockStart = 0;
+        searchStart = Math.max(0, buffer.length() - SEPARATOR_OVERLAP);
+
+        int read = reader.read(chunk);
+        if (read == -1) {
+            endOfLog = true;
+            return;
+        }
+        buffer.append(chunk, 0, read);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
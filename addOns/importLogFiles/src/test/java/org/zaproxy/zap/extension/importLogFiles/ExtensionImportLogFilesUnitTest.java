@@ -0,0 +1,85 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.importLogFiles;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link ExtensionImportLogFiles}. */
+public class ExtensionImportLogFilesUnitTest {
+
+    private ExtensionImportLogFiles extension;
+
+    @Before
+    public void setUp() {
+        extension = new ExtensionImportLogFiles();
+    }
+
+    @Test
+    public void shouldGetHttpMessageFromRequestAndResponsePair() throws Exception {
+        // Given
+        String request = "GET http://example.com/page HTTP/1.1\r\nHost: example.com\r\n\r\n";
+        String response =
+                "HTTP/1.1 200 OK\r\nContent-Type: text/html\r\n\r\n<html><p>Page</p></html>";
+        // When
+        List<HttpMessage> messages = extension.getHttpMessageFromPair(request, response);
+        // Then
+        assertThat(messages, hasSize(1));
+        HttpMessage message = messages.get(0);
+        assertThat(
+                message.getRequestHeader().getURI().toString(),
+                is(equalTo("http://example.com/page")));
+        assertThat(message.getResponseHeader().getStatusCode(), is(equalTo(200)));
+        assertThat(message.getResponseBody().toString(), is(equalTo("<html><p>Page</p></html>")));
+    }
+
+    @Test
+    public void shouldGetHttpMessageFromPairWithoutTrailingLineBreaks() throws Exception {
+        // Given
+        String request = "POST http://example.com/form HTTP/1.1\r\nHost: example.com";
+        String response = "HTTP/1.1 302 Found\r\nLocation: http://example.com/";
+        // When
+        List<HttpMessage> messages = extension.getHttpMessageFromPair(request, response);
+        // Then
+        assertThat(messages, hasSize(1));
+        HttpMessage message = messages.get(0);
+        assertThat(message.getRequestHeader().getMethod(), is(equalTo("POST")));
+        assertThat(message.getResponseHeader().getStatusCode(), is(equalTo(302)));
+    }
+
+    @Test
+    public void shouldNotGetHttpMessageFromPairWithoutResponse() throws Exception {
+        // Given
+        String request = "GET http://example.com/page HTTP/1.1\r\nHost: example.com\r\n\r\n";
+        String response = "";
+        // When
+        List<HttpMessage> messages = extension.getHttpMessageFromPair(request, response);
+        // Then
+        assertThat(messages, is(empty()));
+    }
+}
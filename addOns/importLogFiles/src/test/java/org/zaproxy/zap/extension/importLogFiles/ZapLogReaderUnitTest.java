@@ -0,0 +1,102 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.importLogFiles;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/** Unit test for {@link ZapLogReader}. */
+public class ZapLogReaderUnitTest {
+
+    @Test
+    public void shouldReadNoMessagesFromEmptyLog() throws Exception {
+        // Given
+        ZapLogReader reader = new ZapLogReader(new StringReader(""));
+        // When
+        String message = reader.nextMessage();
+        // Then
+        assertThat(message, is(nullValue()));
+    }
+
+    @Test
+    public void shouldReadMessagesBetweenSeparators() throws Exception {
+        // Given
+        String log =
+                "==== 1 ==========\nGET http://example.com/ HTTP/1.1\r\n\r\nHTTP/1.1 200 OK\r\n\r\n"
+                        + "==== 2 ==========\nGET http://example.org/ HTTP/1.1\r\n\r\n";
+        // When
+        List<String> messages = readAll(log);
+        // Then
+        assertThat(messages.size(), is(equalTo(2)));
+        assertThat(
+                messages.get(0),
+                is(equalTo("\nGET http://example.com/ HTTP/1.1\r\n\r\nHTTP/1.1 200 OK\r\n\r\n")));
+        assertThat(messages.get(1), is(equalTo("\nGET http://example.org/ HTTP/1.1\r\n\r\n")));
+    }
+
+    @Test
+    public void shouldReadTextWithoutSeparatorAsOneMessage() throws Exception {
+        // Given
+        String log = "GET http://example.com/ HTTP/1.1\r\n\r\n";
+        // When
+        List<String> messages = readAll(log);
+        // Then
+        assertThat(messages.size(), is(equalTo(1)));
+        assertThat(messages.get(0), is(equalTo(log)));
+    }
+
+    @Test
+    public void shouldReadMessagesLargerThanChunksAndSeparatorsBetweenChunks() throws Exception {
+        // Given
+        StringBuilder log = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            log.append("==== ").append(i).append(" ==========");
+            StringBuilder message = new StringBuilder("\nGET http://example.com/" + i + "\r\n");
+            for (int j = 0; j < (i * 97) % 1500; j++) {
+                message.append("line ").append(j).append(" = value\r\n");
+            }
+            log.append(message);
+            expected.add(message.toString());
+        }
+        // When
+        List<String> messages = readAll(log.toString());
+        // Then
+        assertThat(messages, is(equalTo(expected)));
+    }
+
+    private static List<String> readAll(String log) throws Exception {
+        List<String> messages = new ArrayList<>();
+        try (ZapLogReader reader = new ZapLogReader(new StringReader(log))) {
+            String message;
+            while ((message = reader.nextMessage()) != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+}
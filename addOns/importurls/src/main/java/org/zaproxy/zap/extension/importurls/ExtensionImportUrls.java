@@ -21,14 +21,13 @@ package org.zaproxy.zap.extension.importurls;
 
 import java.awt.EventQueue;
 import java.awt.event.KeyEvent;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.swing.JFileChooser;
-import org.apache.commons.httpclient.URI;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.control.Control;
@@ -37,6 +36,8 @@ import org.parosproxy.paros.extension.ExtensionHook;
 import org.parosproxy.paros.extension.history.ExtensionHistory;
 import org.parosproxy.paros.model.HistoryReference;
 import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.model.Session;
+import org.parosproxy.paros.model.SiteMap;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpSender;
 import org.parosproxy.paros.view.View;
@@ -53,6 +54,9 @@ public class ExtensionImportUrls extends ExtensionAdaptor {
 
     private ImportUrlsAPI api;
 
+    private final List<UrlImporter> importers = new CopyOnWriteArrayList<>();
+    private volatile UrlImporter lastImporter;
+
     private static Logger log = Logger.getLogger(ExtensionImportUrls.class);
 
     public ExtensionImportUrls() {
@@ -114,86 +118,57 @@ public class ExtensionImportUrls extends ExtensionAdaptor {
         if (file == null) {
             return "";
         }
-        BufferedReader in = null;
-        try {
-            if (View.isInitialised()) {
-                // Switch to the output panel, if in GUI mode
-                View.getSingleton().getOutputPanel().setTabFocus();
-            }
-            in = new BufferedReader(new FileReader(file));
-
-            HttpSender sender =
-                    new HttpSender(
-                            Model.getSingleton().getOptionsParam().getConnectionParam(),
-                            true,
-                            HttpSender.MANUAL_REQUEST_INITIATOR);
-
-            String line;
-            StringBuilder outputLine;
-            while ((line = in.readLine()) != null) {
-                if (!line.startsWith("#") && line.trim().length() > 0) {
-                    if (!line.startsWith("http")) {
-                        // ZAP exports urls to a file in which each line starts with the HTTP Method
-                        // (verb)
-                        // followed by a tab, so makes sense to cope with it.
-                        // Otherwise assume complete URLs starting with http(s) scheme.
-                        int tabIdx = line.indexOf("\t");
-                        if (tabIdx > -1) {
-                            line = line.substring(line.indexOf("\t")).trim();
-                        }
-                    }
-                    outputLine = new StringBuilder();
-                    try {
-                        outputLine.append("GET").append("\t").append(line).append("\t");
-                        HttpMessage msg = new HttpMessage(new URI(line, false));
-                        sender.sendAndReceive(msg, true);
-                        persistMessage(msg);
-
-                        outputLine.append(msg.getResponseHeader().getStatusCode());
+        if (View.isInitialised()) {
+            // Switch to the output panel, if in GUI mode
+            View.getSingleton().getOutputPanel().setTabFocus();
+        }
 
-                    } catch (Exception e) {
-                        outputLine.append(e.getMessage());
-                    }
-                    outputLine.append("\n");
-                    if (View.isInitialised()) {
-                        final String str = outputLine.toString();
-                        EventQueue.invokeLater(
-                                new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        View.getSingleton().getOutputPanel().append(str);
-                                    }
-                                });
-                    }
-                }
-            }
+        HttpSender sender =
+                new HttpSender(
+                        Model.getSingleton().getOptionsParam().getConnectionParam(),
+                        true,
+                        HttpSender.MANUAL_REQUEST_INITIATOR);
+        UrlImporter importer =
+                new UrlImporter(
+                        THREAD_PREFIX,
+                        UrlImporter.DEFAULT_THREADS,
+                        UrlImporter.DEFAULT_THREADS_PER_HOST,
+                        msg -> sender.sendAndReceive(msg, true),
+                        ExtensionImportUrls::handleResults);
+        importers.add(importer);
+        lastImporter = importer;
+        try {
+            importer.importFile(file);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    // Ignore
-                }
-            }
+            importers.remove(importer);
         }
         return null;
     }
 
-    private static void persistMessage(final HttpMessage message) {
-        // Add the message to the history panel and sites tree
-        final HistoryReference historyRef;
+    /**
+     * Gets the last import started, to obtain its progress.
+     *
+     * @return the last import, or {@code null} if none was started.
+     */
+    UrlImporter getLastImporter() {
+        return lastImporter;
+    }
 
-        try {
-            historyRef =
-                    new HistoryReference(
-                            Model.getSingleton().getSession(),
-                            HistoryReference.TYPE_ZAP_USER,
-                            message);
-        } catch (Exception e) {
-            log.warn(e.getMessage(), e);
-            return;
+    private static void handleResults(List<HttpMessage> messages, String output) {
+        // Persist all messages before adding them to the history panel and sites tree, at once
+        List<HttpMessage> persistedMessages = new ArrayList<>(messages.size());
+        List<HistoryReference> historyRefs = new ArrayList<>(messages.size());
+        Session session = Model.getSingleton().getSession();
+        for (HttpMessage message : messages) {
+            try {
+                historyRefs.add(
+                        new HistoryReference(session, HistoryReference.TYPE_ZAP_USER, message));
+                persistedMessages.add(message);
+            } catch (Exception e) {
+                log.warn(e.getMessage(), e);
+            }
         }
 
         final ExtensionHistory extHistory =
@@ -201,18 +176,30 @@ public class ExtensionImportUrls extends ExtensionAdaptor {
                         Control.getSingleton()
                                 .getExtensionLoader()
                                 .getExtension(ExtensionHistory.NAME);
-        if (extHistory != null) {
-            EventQueue.invokeLater(
-                    new Runnable() {
-                        @Override
-                        public void run() {
-                            extHistory.addHistory(historyRef);
-                            Model.getSingleton()
-                                    .getSession()
-                                    .getSiteTree()
-                                    .addPath(historyRef, message);
+        if (extHistory == null && !View.isInitialised()) {
+            return;
+        }
+        EventQueue.invokeLater(
+                () -> {
+                    if (extHistory != null) {
+                        SiteMap siteTree = session.getSiteTree();
+                        for (int i = 0; i < historyRefs.size(); i++) {
+                            extHistory.addHistory(historyRefs.get(i));
+                            siteTree.addPath(historyRefs.get(i), persistedMessages.get(i));
                         }
-                    });
+                    }
+                    if (View.isInitialised()) {
+                        View.getSingleton().getOutputPanel().append(output);
+                    }
+                });
+    }
+
+    @Override
+    public void unload() {
+        super.unload();
+
+        for (UrlImporter importer : importers) {
+            importer.stop();
         }
     }
 
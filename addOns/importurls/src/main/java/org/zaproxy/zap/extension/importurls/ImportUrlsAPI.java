@@ -20,6 +20,9 @@
 package org.zaproxy.zap.extension.importurls;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import net.sf.json.JSONObject;
 import org.apache.log4j.Logger;
 import org.zaproxy.zap.extension.api.ApiAction;
@@ -28,6 +31,8 @@ import org.zaproxy.zap.extension.api.ApiException.Type;
 import org.zaproxy.zap.extension.api.ApiImplementor;
 import org.zaproxy.zap.extension.api.ApiResponse;
 import org.zaproxy.zap.extension.api.ApiResponseElement;
+import org.zaproxy.zap.extension.api.ApiResponseSet;
+import org.zaproxy.zap.extension.api.ApiView;
 import org.zaproxy.zap.utils.ApiUtils;
 
 /** The API for importing URLs from a file. */
@@ -39,6 +44,8 @@ public class ImportUrlsAPI extends ApiImplementor {
 
     private static final String ACTION_IMPORTURLS = "importurls";
 
+    private static final String VIEW_PROGRESS = "progress";
+
     private static final String PARAM_FILE_PATH = "filePath";
 
     private ExtensionImportUrls extension;
@@ -52,6 +59,7 @@ public class ImportUrlsAPI extends ApiImplementor {
         super();
         this.extension = extension;
         this.addApiAction(new ApiAction(ACTION_IMPORTURLS, new String[] {PARAM_FILE_PATH}));
+        this.addApiView(new ApiView(VIEW_PROGRESS));
     }
 
     @Override
@@ -72,4 +80,27 @@ public class ImportUrlsAPI extends ApiImplementor {
                 throw new ApiException(Type.BAD_ACTION);
         }
     }
+
+    @Override
+    public ApiResponse handleApiView(String name, JSONObject params) throws ApiException {
+        switch (name) {
+            case VIEW_PROGRESS:
+                UrlImporter importer = extension.getLastImporter();
+                Map<String, String> progress = new HashMap<>();
+                progress.put("running", Boolean.toString(importer != null && importer.isRunning()));
+                progress.put(
+                        "urlsRead", Long.toString(importer != null ? importer.getUrlsRead() : 0));
+                progress.put(
+                        "urlsProcessed",
+                        Long.toString(importer != null ? importer.getUrlsProcessed() : 0));
+                progress.put("errors", Long.toString(importer != null ? importer.getErrors() : 0));
+                progress.put(
+                        "urlsPerSecond",
+                        String.format(
+                                Locale.ROOT, "%.2f", importer != null ? importer.getRate() : 0.0));
+                return new ApiResponseSet<>(name, progress);
+            default:
+                throw new ApiException(Type.BAD_VIEW);
+        }
+    }
 }
@@ -0,0 +1,387 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.importurls;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.httpclient.URI;
+import org.apache.log4j.Logger;
+import org.parosproxy.paros.network.HttpMessage;
+
+/**
+ * Imports the URLs of a file, accessing them concurrently.
+ *
+ * <p>The URLs are accessed by a bounded pool of threads, with a limit on the number of concurrent
+ * requests to each host. The file is read as the URLs are accessed, so that just a few URLs are
+ * held in memory at any time. The results are handed to the {@link ResultsHandler} in batches, by a
+ * single thread, to not persist and show each result on its own.
+ */
+class UrlImporter {
+
+    static final int DEFAULT_THREADS = 10;
+
+    static final int DEFAULT_THREADS_PER_HOST = 2;
+
+    private static final int BATCH_SIZE = 250;
+
+    private static final long FLUSH_INTERVAL_MS = 500;
+
+    private static final Logger LOGGER = Logger.getLogger(UrlImporter.class);
+
+    private static final AtomicInteger IMPORTER_ID = new AtomicInteger(1);
+
+    private final String threadPrefix;
+    private final int threadsPerHost;
+    private final MessageSender sender;
+    private final ResultsHandler resultsHandler;
+
+    private final ExecutorService executor;
+    private final Semaphore pendingUrls;
+    private final ConcurrentMap<String, Semaphore> hostPermits;
+    private final BlockingQueue<Result> results;
+
+    private final LongAdder urlsRead;
+    private final LongAdder urlsProcessed;
+    private final LongAdder errors;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private volatile long startTime;
+    private volatile long endTime;
+
+    /**
+     * Constructs an {@code UrlImporter} with the given number of threads.
+     *
+     * @param threadPrefix the prefix of the names of the threads.
+     * @param threads the number of threads accessing the URLs.
+     * @param threadsPerHost the maximum number of concurrent requests to the same host.
+     * @param sender the sender of the messages.
+     * @param resultsHandler the handler of the results.
+     * @throws IllegalArgumentException if the number of threads or the number of threads per host
+     *     is less than 1.
+     */
+    UrlImporter(
+            String threadPrefix,
+            int threads,
+            int threadsPerHost,
+            MessageSender sender,
+            ResultsHandler resultsHandler) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parameter threads must be greater than zero.");
+        }
+        if (threadsPerHost < 1) {
+            throw new IllegalArgumentException(
+                    "Parameter threadsPerHost must be greater than zero.");
+        }
+        this.threadPrefix = threadPrefix + IMPORTER_ID.getAndIncrement() + "-";
+        this.threadsPerHost = threadsPerHost;
+        this.sender = sender;
+        this.resultsHandler = resultsHandler;
+
+        this.executor = Executors.newFixedThreadPool(threads, new ImporterThreadFactory());
+        this.pendingUrls = new Semaphore(threads * 2);
+        this.hostPermits = new ConcurrentHashMap<>();
+        this.results = new LinkedBlockingQueue<>();
+
+        this.urlsRead = new LongAdder();
+        this.urlsProcessed = new LongAdder();
+        this.errors = new LongAdder();
+    }
+
+    /**
+     * Imports the URLs of the given file, returning once all of them were accessed and handled.
+     *
+     * @param file the file with the URLs, one per line.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    void importFile(File file) throws IOException {
+        startTime = System.currentTimeMillis();
+        running = true;
+        Thread resultsThread = new Thread(this::processResults, threadPrefix + "Results");
+        resultsThread.setDaemon(true);
+        resultsThread.start();
+
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while (!stopped && (line = in.readLine()) != null) {
+                String url = extractUrl(line);
+                if (url == null) {
+                    continue;
+                }
+                pendingUrls.acquire();
+                urlsRead.increment();
+                executor.execute(() -> accessUrl(url));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        } finally {
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    if (stopped) {
+                        executor.shutdownNow();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+            running = false;
+            try {
+                resultsThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            endTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Extracts the URL from the given line of the file.
+     *
+     * <p>Blank lines and lines starting with {@code #} are ignored. Lines starting with the HTTP
+     * method followed by a tab, as exported by ZAP, are also accepted.
+     *
+     * @param line the line of the file.
+     * @return the URL, or {@code null} if the line should be ignored.
+     */
+    static String extractUrl(String line) {
+        if (line.startsWith("#") || line.trim().isEmpty()) {
+            return null;
+        }
+        if (!line.startsWith("http")) {
+            // ZAP exports urls to a file in which each line starts with the HTTP Method (verb)
+            // followed by a tab, so makes sense to cope with it.
+            // Otherwise assume complete URLs starting with http(s) scheme.
+            int tabIdx = line.indexOf('\t');
+            if (tabIdx > -1) {
+                return line.substring(tabIdx).trim();
+            }
+        }
+        return line;
+    }
+
+    private void accessUrl(String url) {
+        Semaphore permits = null;
+        StringBuilder outputLine = new StringBuilder(url.length() + 16);
+        outputLine.append("GET").append('\t').append(url).append('\t');
+        HttpMessage msg = null;
+        try {
+            HttpMessage message = new HttpMessage(new URI(url, false));
+            permits = getHostPermits(message.getRequestHeader().getURI().getHost());
+            permits.acquire();
+            sender.sendAndReceive(message);
+            outputLine.append(message.getResponseHeader().getStatusCode());
+            msg = message;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outputLine.append(e.getMessage());
+            errors.increment();
+        } catch (Exception e) {
+            outputLine.append(e.getMessage());
+            errors.increment();
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+            pendingUrls.release();
+        }
+        outputLine.append('\n');
+        results.add(new Result(msg, outputLine.toString()));
+        urlsProcessed.increment();
+    }
+
+    private Semaphore getHostPermits(String host) {
+        String key = host == null ? "" : host.toLowerCase(Locale.ROOT);
+        return hostPermits.computeIfAbsent(key, k -> new Semaphore(threadsPerHost));
+    }
+
+    private void processResults() {
+        List<HttpMessage> messages = new ArrayList<>(BATCH_SIZE);
+        StringBuilder output = new StringBuilder();
+        List<Result> batch = new ArrayList<>(BATCH_SIZE);
+        long lastFlush = System.currentTimeMillis();
+        try {
+            while (running || !results.isEmpty()) {
+                Result result = results.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    batch.add(result);
+                    results.drainTo(batch, BATCH_SIZE - batch.size());
+                }
+                for (Result r : batch) {
+                    if (r.message != null) {
+                        messages.add(r.message);
+                    }
+                    output.append(r.output);
+                }
+                batch.clear();
+
+                long now = System.currentTimeMillis();
+                if (messages.size() >= BATCH_SIZE || now - lastFlush >= FLUSH_INTERVAL_MS) {
+                    flush(messages, output);
+                    lastFlush = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        results.drainTo(batch);
+        for (Result r : batch) {
+            if (r.message != null) {
+                messages.add(r.message);
+            }
+            output.append(r.output);
+        }
+        flush(messages, output);
+    }
+
+    private void flush(List<HttpMessage> messages, StringBuilder output) {
+        if (messages.isEmpty() && output.length() == 0) {
+            return;
+        }
+        try {
+            resultsHandler.handleResults(new ArrayList<>(messages), output.toString());
+        } catch (Exception e) {
+            LOGGER.error("Failed to handle the results of the imported URLs:", e);
+        }
+        messages.clear();
+        output.setLength(0);
+    }
+
+    /** Stops the import, the URLs being accessed are still handled. */
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Tells whether or not the import is running.
+     *
+     * @return {@code true} if running, {@code false} otherwise.
+     */
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the number of URLs read from the file, so far.
+     *
+     * @return the number of URLs read.
+     */
+    long getUrlsRead() {
+        return urlsRead.sum();
+    }
+
+    /**
+     * Gets the number of URLs already accessed, successfully or not.
+     *
+     * @return the number of URLs processed.
+     */
+    long getUrlsProcessed() {
+        return urlsProcessed.sum();
+    }
+
+    /**
+     * Gets the number of URLs that could not be accessed.
+     *
+     * @return the number of errors.
+     */
+    long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Gets the number of URLs processed per second, since the start of the import.
+     *
+     * @return the rate of the import.
+     */
+    double getRate() {
+        long start = startTime;
+        if (start == 0) {
+            return 0;
+        }
+        long end = running || endTime == 0 ? System.currentTimeMillis() : endTime;
+        long elapsed = Math.max(1, end - start);
+        return getUrlsProcessed() * 1000.0 / elapsed;
+    }
+
+    /** The sender of the messages, called concurrently. */
+    interface MessageSender {
+
+        /**
+         * Sends the given message and receives its response.
+         *
+         * @param message the message to send.
+         * @throws IOException if an error occurred while sending the message.
+         */
+        void sendAndReceive(HttpMessage message) throws IOException;
+    }
+
+    /** The handler of the results, called by a single thread. */
+    interface ResultsHandler {
+
+        /**
+         * Handles the results of a batch of URLs.
+         *
+         * @param messages the messages successfully sent.
+         * @param output the output of all URLs of the batch, one line per URL.
+         */
+        void handleResults(List<HttpMessage> messages, String output);
+    }
+
+    private static class Result {
+
+        private final HttpMessage message;
+        private final String output;
+
+        Result(HttpMessage message, String output) {
+            this.message = message;
+            this.output = output;
+        }
+    }
+
+    private class ImporterThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, threadPrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.importurls;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link UrlImporter}. */
+public class UrlImporterUnitTest {
+
+    @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldIgnoreEmptyAndCommentLines() {
+        assertThat(UrlImporter.extractUrl(""), is(nullValue()));
+        assertThat(UrlImporter.extractUrl("   "), is(nullValue()));
+        assertThat(UrlImporter.extractUrl("# http://example.com/"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldExtractUrlsWithAndWithoutMethod() {
+        assertThat(
+                UrlImporter.extractUrl("http://example.com/a"),
+                is(equalTo("http://example.com/a")));
+        assertThat(
+                UrlImporter.extractUrl("GET\thttp://example.com/b "),
+                is(equalTo("http://example.com/b")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCreateWithNoThreads() {
+        new UrlImporter("", 0, 1, msg -> {}, (msgs, output) -> {});
+    }
+
+    @Test
+    public void shouldAccessAllUrlsLimitingRequestsPerHost() throws Exception {
+        // Given
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            lines.add("http://host" + (i % 3) + ".example.com/path" + i);
+        }
+        File file = createFile(lines);
+        ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        UrlImporter.MessageSender sender =
+                msg -> {
+                    AtomicInteger count =
+                            inFlight.computeIfAbsent(
+                                    msg.getRequestHeader().getURI().getHost(),
+                                    k -> new AtomicInteger());
+                    maxInFlight.accumulateAndGet(count.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    count.decrementAndGet();
+                    msg.setResponseHeader("HTTP/1.1 200 OK\r\n");
+                };
+        ResultsCollector collector = new ResultsCollector();
+        UrlImporter importer = new UrlImporter("", 8, 2, sender, collector);
+        // When
+        importer.importFile(file);
+        // Then
+        assertThat(importer.isRunning(), is(equalTo(false)));
+        assertThat(importer.getUrlsRead(), is(equalTo(600L)));
+        assertThat(importer.getUrlsProcessed(), is(equalTo(600L)));
+        assertThat(importer.getErrors(), is(equalTo(0L)));
+        assertThat(maxInFlight.get(), is(lessThanOrEqualTo(2)));
+        assertThat(collector.messages.size(), is(equalTo(600)));
+        assertThat(collector.outputLines, is(equalTo(600)));
+        assertThat(collector.batches, is(lessThan(600)));
+    }
+
+    @Test
+    public void shouldCountAndOutputUrlsNotAccessed() throws Exception {
+        // Given
+        List<String> lines = new ArrayList<>();
+        lines.add("http://example.com/ok");
+        lines.add("http://example.com/error");
+        lines.add("not a url");
+        File file = createFile(lines);
+        UrlImporter.MessageSender sender =
+                msg -> {
+                    if (msg.getRequestHeader().getURI().getPath().equals("/error")) {
+                        throw new IOException("Failed");
+                    }
+                    msg.setResponseHeader("HTTP/1.1 404 Not Found\r\n");
+                };
+        ResultsCollector collector = new ResultsCollector();
+        UrlImporter importer = new UrlImporter("", 2, 1, sender, collector);
+        // When
+        importer.importFile(file);
+        // Then
+        assertThat(importer.getUrlsProcessed(), is(equalTo(3L)));
+        assertThat(importer.getErrors(), is(equalTo(2L)));
+        assertThat(collector.messages.size(), is(equalTo(1)));
+        assertThat(
+                collector.output.toString().contains("GET\thttp://example.com/ok\t404\n"),
+                is(true));
+        assertThat(
+                collector.output.toString().contains("GET\thttp://example.com/error\tFailed\n"),
+                is(true));
+    }
+
+    private File createFile(List<String> lines) throws Exception {
+        File file = tempFolder.newFile();
+        Files.write(file.toPath(), lines);
+        return file;
+    }
+
+    private static class ResultsCollector implements UrlImporter.ResultsHandler {
+
+        private final List<HttpMessage> messages = new ArrayList<>();
+        private final StringBuilder output = new StringBuilder();
+        private int outputLines;
+        private int batches;
+
+        @Override
+        public void handleResults(List<HttpMessage> msgs, String out) {
+            messages.addAll(msgs);
+            output.append(out);
+            for (int i = 0; i < out.length(); i++) {
+                if (out.charAt(i) == '\n') {
+                    outputLines++;
+                }
+            }
+            batches++;
+        }
+    }
+}
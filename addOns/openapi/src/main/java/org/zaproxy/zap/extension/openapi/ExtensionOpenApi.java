@@ -59,6 +59,7 @@ public class ExtensionOpenApi extends ExtensionAdaptor implements CommandLineLis
     private ZapMenuItem menuImportUrlOpenApi = null;
     private int threadId = 1;
     private SpiderParser customSpider;
+    private volatile int parallelism = Requestor.DEFAULT_PARALLELISM;
 
     private CommandLineArgument[] arguments = new CommandLineArgument[2];
     private static final int ARG_IMPORT_FILE_IDX = 0;
@@ -234,6 +235,7 @@ public class ExtensionOpenApi extends ExtensionAdaptor implements CommandLineLis
                             Requestor requestor =
                                     new Requestor(HttpSender.MANUAL_REQUEST_INITIATOR);
                             requestor.setSiteOverride(hostOverride);
+                            requestor.setParallelism(parallelism);
                             requestor.addListener(new HistoryPersister());
                             SwaggerConverter converter =
                                     new SwaggerConverter(
@@ -300,6 +302,29 @@ public class ExtensionOpenApi extends ExtensionAdaptor implements CommandLineLis
         return null;
     }
 
+    /**
+     * Gets the number of requests sent concurrently when importing a definition.
+     *
+     * @return the number of requests sent concurrently.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of requests sent concurrently when importing a definition, {@code 1} to send
+     * the requests one at a time.
+     *
+     * @param parallelism the number of requests sent concurrently.
+     * @throws IllegalArgumentException if the given parallelism is less than 1.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parameter parallelism must be greater than zero.");
+        }
+        this.parallelism = parallelism;
+    }
+
     private ValueGenerator getValueGenerator() {
         // Always get the latest ValueGenerator as it could have changed
         ExtensionSpider spider =
@@ -29,15 +29,19 @@ import org.zaproxy.zap.extension.api.ApiImplementor;
 import org.zaproxy.zap.extension.api.ApiResponse;
 import org.zaproxy.zap.extension.api.ApiResponseElement;
 import org.zaproxy.zap.extension.api.ApiResponseList;
+import org.zaproxy.zap.extension.api.ApiView;
 
 public class OpenApiAPI extends ApiImplementor {
 
     private static final String PREFIX = "openapi";
     private static final String ACTION_IMPORT_FILE = "importFile";
     private static final String ACTION_IMPORT_URL = "importUrl";
+    private static final String ACTION_SET_OPTION_PARALLELISM = "setOptionParallelism";
+    private static final String VIEW_OPTION_PARALLELISM = "optionParallelism";
     private static final String PARAM_URL = "url";
     private static final String PARAM_FILE = "file";
     private static final String PARAM_HOST_OVERRIDE = "hostOverride";
+    private static final String PARAM_INTEGER = "Integer";
     private ExtensionOpenApi extension = null;
 
     /** Provided only for API client generator usage. */
@@ -53,6 +57,10 @@ public class OpenApiAPI extends ApiImplementor {
                         ACTION_IMPORT_URL,
                         new String[] {PARAM_URL},
                         new String[] {PARAM_HOST_OVERRIDE}));
+        this.addApiAction(
+                new ApiAction(ACTION_SET_OPTION_PARALLELISM, new String[] {PARAM_INTEGER}));
+
+        this.addApiView(new ApiView(VIEW_OPTION_PARALLELISM));
     }
 
     @Override
@@ -114,8 +122,24 @@ public class OpenApiAPI extends ApiImplementor {
                 throw new ApiException(ApiException.Type.ILLEGAL_PARAMETER, PARAM_URL);
             }
 
+        } else if (ACTION_SET_OPTION_PARALLELISM.equals(name)) {
+            int parallelism = getParam(params, PARAM_INTEGER, 0);
+            if (parallelism < 1) {
+                throw new ApiException(ApiException.Type.ILLEGAL_PARAMETER, PARAM_INTEGER);
+            }
+            extension.setParallelism(parallelism);
+            return ApiResponseElement.OK;
+
         } else {
             throw new ApiException(ApiException.Type.BAD_ACTION);
         }
     }
+
+    @Override
+    public ApiResponse handleApiView(String name, JSONObject params) throws ApiException {
+        if (VIEW_OPTION_PARALLELISM.equals(name)) {
+            return new ApiResponseElement(name, Integer.toString(extension.getParallelism()));
+        }
+        throw new ApiException(ApiException.Type.BAD_VIEW);
+    }
 }
@@ -71,7 +71,17 @@ public class BodyGenerator {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Generate body for object " + name);
         }
-        String jsonStr = generateJsonObjectString(name, refs);
+        String jsonStr;
+        if (refs.isEmpty()) {
+            // Not following any reference, the body is always the same for the model
+            jsonStr = modelGenerator.getExampleBody(name, refs);
+            if (jsonStr == null) {
+                jsonStr = generateJsonObjectString(name, refs);
+                modelGenerator.setExampleBody(name, jsonStr, refs);
+            }
+        } else {
+            jsonStr = generateJsonObjectString(name, refs);
+        }
         if (isArray) {
             jsonStr = createJsonArrayWith(jsonStr);
         }
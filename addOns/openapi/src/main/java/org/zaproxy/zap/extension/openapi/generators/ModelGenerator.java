@@ -22,30 +22,35 @@ package org.zaproxy.zap.extension.openapi.generators;
 import io.swagger.models.Model;
 import io.swagger.models.properties.Property;
 import io.swagger.models.properties.RefProperty;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ModelGenerator {
 
-    private Map<String, Model> definitions;
+    private Map<String, Model> definitions = Collections.emptyMap();
+
+    /** The example bodies already generated, by name of the model. */
+    private final Map<String, ExampleBody> exampleBodies = new HashMap<>();
 
     public void setDefinitions(Map<String, Model> definitions) {
-        this.definitions = definitions;
+        this.definitions =
+                definitions != null ? definitions : Collections.<String, Model>emptyMap();
+        exampleBodies.clear();
     }
 
     public Map<String, String> generate(String name) {
         Map<String, String> model = new HashMap<String, String>();
-        for (Map.Entry<String, Model> definition : definitions.entrySet()) {
-            if (definition.getKey().equals(name)) {
-                for (Map.Entry<String, Property> property :
-                        definition.getValue().getProperties().entrySet()) {
-                    if (property.getValue().getType().equals("ref")) {
-                        model.put(
-                                property.getKey(),
-                                ((RefProperty) property.getValue()).getSimpleRef());
-                    } else {
-                        model.put(property.getKey(), property.getValue().getType());
-                    }
+        Model definition = definitions.get(name);
+        if (definition != null) {
+            for (Map.Entry<String, Property> property : definition.getProperties().entrySet()) {
+                if (property.getValue().getType().equals("ref")) {
+                    model.put(
+                            property.getKey(), ((RefProperty) property.getValue()).getSimpleRef());
+                } else {
+                    model.put(property.getKey(), property.getValue().getType());
                 }
             }
         }
@@ -53,12 +58,49 @@ public class ModelGenerator {
     }
 
     public Map<String, Property> getProperty(String name) {
-        for (Map.Entry<String, Model> definition : definitions.entrySet()) {
-            if (definition.getKey().equals(name)) {
-
-                return definition.getValue().getProperties();
-            }
+        Model definition = definitions.get(name);
+        if (definition != null) {
+            return definition.getProperties();
         }
         return new HashMap<String, Property>();
     }
+
+    /**
+     * Gets the example body already generated for the model with the given name, adding to the
+     * given references the ones followed while generating it.
+     *
+     * @param name the name of the model.
+     * @param refs the references being followed, to add the ones followed by the body.
+     * @return the example body, or {@code null} if not yet generated.
+     */
+    String getExampleBody(String name, List<String> refs) {
+        ExampleBody exampleBody = exampleBodies.get(name);
+        if (exampleBody == null) {
+            return null;
+        }
+        refs.addAll(exampleBody.refs);
+        return exampleBody.body;
+    }
+
+    /**
+     * Sets the example body generated for the model with the given name.
+     *
+     * @param name the name of the model.
+     * @param body the example body.
+     * @param refs the references followed while generating the body.
+     */
+    void setExampleBody(String name, String body, List<String> refs) {
+        exampleBodies.put(name, new ExampleBody(body, new ArrayList<>(refs)));
+    }
+
+    private static class ExampleBody {
+
+        private final String body;
+        private final List<String> refs;
+
+        ExampleBody(String body, List<String> refs) {
+            this.body = body;
+            this.refs = refs;
+        }
+    }
 }
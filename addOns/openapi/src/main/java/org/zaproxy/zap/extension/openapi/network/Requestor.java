@@ -22,6 +22,13 @@ package org.zaproxy.zap.extension.openapi.network;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.httpclient.URI;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
@@ -32,11 +39,19 @@ import org.parosproxy.paros.network.HttpSender;
 
 public class Requestor {
 
+    /** The default number of requests sent concurrently. */
+    public static final int DEFAULT_PARALLELISM = 5;
+
+    private static final String THREAD_PREFIX = "ZAP-OpenApi-Requestor-";
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger(1);
+
     private final int initiator;
-    private List<RequesterListener> listeners = new ArrayList<RequesterListener>();
+    private List<RequesterListener> listeners = new CopyOnWriteArrayList<RequesterListener>();
     private HttpSender sender;
     private static final Logger LOG = Logger.getLogger(Requestor.class);
     private String siteOverride;
+    private int parallelism = DEFAULT_PARALLELISM;
 
     public Requestor(int initiator) {
         this.initiator = initiator;
@@ -47,74 +62,136 @@ public class Requestor {
                         initiator);
     }
 
+    /**
+     * Sends the requests of the given models, returning once all of them were sent.
+     *
+     * <p>The requests are sent concurrently, as per the {@link #setParallelism(int) parallelism},
+     * while the listeners are notified one message at a time.
+     *
+     * @param requestsModel the models of the requests to send.
+     * @return the errors that occurred while sending the requests, in the order of the models.
+     */
     public List<String> run(List<RequestModel> requestsModel) {
         List<String> errors = new ArrayList<String>();
-        try {
+        if (parallelism <= 1 || requestsModel.size() <= 1) {
             for (RequestModel requestModel : requestsModel) {
-                String url = requestModel.getUrl();
-                URI uri;
-                if (siteOverride != null && siteOverride.length() > 0) {
-                    int s1 = url.indexOf("://");
-                    int s2 = url.indexOf("/", s1 + 4);
-                    url = url.substring(0, s1) + "://" + siteOverride + url.substring(s2);
-                    uri = new URI(url, false);
-                } else {
-                    uri = new URI(url, false);
-                }
-
-                HttpMessage httpRequest = new HttpMessage(uri);
-                httpRequest.getRequestHeader().setMethod(requestModel.getMethod().name());
-                for (HttpHeaderField hhf : requestModel.getHeaders()) {
-                    httpRequest.getRequestHeader().setHeader(hhf.getName(), hhf.getValue());
+                String error = sendRequest(requestModel);
+                if (error != null) {
+                    errors.add(error);
                 }
-                httpRequest.getRequestBody().setBody(requestModel.getBody());
-                httpRequest
-                        .getRequestHeader()
-                        .setContentLength(httpRequest.getRequestBody().length());
+            }
+            return errors;
+        }
 
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(parallelism, requestsModel.size()),
+                        new RequestorThreadFactory(THREAD_PREFIX + THREAD_ID.getAndIncrement()));
+        try {
+            List<Future<String>> results = new ArrayList<>(requestsModel.size());
+            for (RequestModel requestModel : requestsModel) {
+                results.add(executor.submit(() -> sendRequest(requestModel)));
+            }
+            for (Future<String> result : results) {
+                String error;
                 try {
-                    sender.sendAndReceive(httpRequest, true);
-
-                    for (RequesterListener listener : listeners) {
-                        try {
-                            listener.handleMessage(httpRequest, initiator);
-                        } catch (Exception e) {
-                            // Dont add handler errors to the list returned - these are assumed to
-                            // be handler specific
-                            LOG.error(e.getMessage(), e);
-                        }
-                    }
-                } catch (IOException e) {
-                    errors.add(
-                            Constant.messages.getString(
-                                    "openapi.import.error",
-                                    url,
-                                    e.getClass().getName(),
-                                    e.getMessage()));
-                    LOG.debug(e.getMessage(), e);
+                    error = result.get();
+                } catch (ExecutionException e) {
+                    LOG.error(e.getMessage(), e);
+                    error = e.getCause().getMessage();
+                }
+                if (error != null) {
+                    errors.add(error);
                 }
             }
-        } catch (IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             errors.add(e.getMessage());
-            LOG.error(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
         }
         return errors;
     }
 
-    public String getResponseBody(URI uri) throws NullPointerException, IOException {
-        HttpMessage httpRequest = new HttpMessage(uri);
-        httpRequest.getRequestHeader().setHeader("Accept", "application/json,*/*");
-        sender.sendAndReceive(httpRequest, true);
+    private String sendRequest(RequestModel requestModel) {
+        String url = requestModel.getUrl();
+        try {
+            URI uri;
+            if (siteOverride != null && siteOverride.length() > 0) {
+                int s1 = url.indexOf("://");
+                int s2 = url.indexOf("/", s1 + 4);
+                url = url.substring(0, s1) + "://" + siteOverride + url.substring(s2);
+                uri = new URI(url, false);
+            } else {
+                uri = new URI(url, false);
+            }
+
+            HttpMessage httpRequest = new HttpMessage(uri);
+            httpRequest.getRequestHeader().setMethod(requestModel.getMethod().name());
+            for (HttpHeaderField hhf : requestModel.getHeaders()) {
+                httpRequest.getRequestHeader().setHeader(hhf.getName(), hhf.getValue());
+            }
+            httpRequest.getRequestBody().setBody(requestModel.getBody());
+            httpRequest.getRequestHeader().setContentLength(httpRequest.getRequestBody().length());
+
+            try {
+                sender.sendAndReceive(httpRequest, true);
+                notifyListeners(httpRequest);
+            } catch (IOException e) {
+                LOG.debug(e.getMessage(), e);
+                return Constant.messages.getString(
+                        "openapi.import.error", url, e.getClass().getName(), e.getMessage());
+            }
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private synchronized void notifyListeners(HttpMessage httpRequest) {
         for (RequesterListener listener : listeners) {
             try {
                 listener.handleMessage(httpRequest, initiator);
             } catch (Exception e) {
+                // Dont add handler errors to the list returned - these are assumed to
+                // be handler specific
                 LOG.error(e.getMessage(), e);
             }
         }
+    }
+
+    public String getResponseBody(URI uri) throws NullPointerException, IOException {
+        HttpMessage httpRequest = new HttpMessage(uri);
+        httpRequest.getRequestHeader().setHeader("Accept", "application/json,*/*");
+        sender.sendAndReceive(httpRequest, true);
+        notifyListeners(httpRequest);
         return httpRequest.getResponseBody().toString();
     }
 
+    /**
+     * Gets the number of requests sent concurrently.
+     *
+     * @return the number of requests sent concurrently.
+     * @see #setParallelism(int)
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of requests sent concurrently, {@code 1} to send the requests one at a time.
+     *
+     * @param parallelism the number of requests sent concurrently.
+     * @throws IllegalArgumentException if the given parallelism is less than 1.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parameter parallelism must be greater than zero.");
+        }
+        this.parallelism = parallelism;
+    }
+
     public void addListener(RequesterListener listener) {
         this.listeners.add(listener);
     }
@@ -130,4 +207,21 @@ public class Requestor {
     public void setSiteOverride(String siteOverride) {
         this.siteOverride = siteOverride;
     }
+
+    private static class RequestorThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        RequestorThreadFactory(String prefix) {
+            this.prefix = prefix + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.openapi.network;
+
+import static fi.iki.elonen.NanoHTTPD.newFixedLengthResponse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import fi.iki.elonen.NanoHTTPD;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpHeaderField;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.extension.openapi.AbstractOpenApiTest;
+import org.zaproxy.zap.testutils.NanoServerHandler;
+
+public class RequestorUnitTest extends AbstractOpenApiTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToSetParallelismLessThanOne() {
+        new Requestor(HttpSender.MANUAL_REQUEST_INITIATOR).setParallelism(0);
+    }
+
+    @Test
+    public void shouldSendAllRequestsConcurrentlyNotifyingListenersOneAtATime() {
+        this.nano.addHandler(
+                new NanoServerHandler("/") {
+
+                    @Override
+                    protected NanoHTTPD.Response serve(NanoHTTPD.IHTTPSession session) {
+                        return newFixedLengthResponse("OK");
+                    }
+                });
+        List<RequestModel> requestModels = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requestModels.add(createRequestModel("http://localhost:" + nano.getListeningPort(), i));
+        }
+
+        Requestor requestor = new Requestor(HttpSender.MANUAL_REQUEST_INITIATOR);
+        requestor.setParallelism(4);
+        final Set<String> accessedUrls = new HashSet<String>();
+        final AtomicInteger notifying = new AtomicInteger();
+        final AtomicInteger concurrentNotifications = new AtomicInteger();
+        requestor.addListener(
+                new RequesterListener() {
+                    @Override
+                    public void handleMessage(HttpMessage message, int initiator) {
+                        if (notifying.incrementAndGet() > 1) {
+                            concurrentNotifications.incrementAndGet();
+                        }
+                        accessedUrls.add(message.getRequestHeader().getURI().toString());
+                        notifying.decrementAndGet();
+                    }
+                });
+        List<String> errors = requestor.run(requestModels);
+
+        assertTrue(errors.isEmpty());
+        assertEquals(50, accessedUrls.size());
+        assertEquals(0, concurrentNotifications.get());
+    }
+
+    @Test
+    public void shouldReturnErrorsInOrderOfRequests() {
+        List<RequestModel> requestModels = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requestModels.add(createRequestModel("http://localhost:1", i));
+        }
+
+        Requestor requestor = new Requestor(HttpSender.MANUAL_REQUEST_INITIATOR);
+        requestor.setParallelism(4);
+        List<String> errors = requestor.run(requestModels);
+
+        assertEquals(10, errors.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(errors.get(i).contains("http://localhost:1/op" + i + " "));
+        }
+    }
+
+    private static RequestModel createRequestModel(String site, int i) {
+        RequestModel requestModel = new RequestModel();
+        requestModel.setUrl(site + "/op" + i);
+        requestModel.setMethod(RequestMethod.GET);
+        requestModel.setHeaders(new ArrayList<HttpHeaderField>());
+        requestModel.setBody("");
+        return requestModel;
+    }
+}
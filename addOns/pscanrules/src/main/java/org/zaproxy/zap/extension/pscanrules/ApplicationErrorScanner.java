@@ -25,6 +25,7 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.BoundedBodyScanner;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 import org.zaproxy.zap.utils.ContentMatcher;
@@ -49,6 +50,9 @@ public class ApplicationErrorScanner extends PluginPassiveScanner {
     private static final ContentMatcher matcher =
             ContentMatcher.getInstance(
                     ApplicationErrorScanner.class.getResourceAsStream(APP_ERRORS_FILE));
+    /** The key of the configuration with the maximum size of the body scanned, in characters. */
+    static final String MAX_BODY_SIZE_PROPERTY = "rules.applicationerror.maxbodysize";
+
     // Inner Thread Parent variable
     private PassiveScanThread parent = null;
 
@@ -139,8 +143,14 @@ public class ApplicationErrorScanner extends PluginPassiveScanner {
             }
             raiseAlert(msg, id, msg.getResponseHeader().getPrimeHeader(), Alert.RISK_LOW);
 
-        } else if (status != HttpStatusCode.NOT_FOUND) {
-            String evidence = matcher.findInContent(msg.getResponseBody().toString());
+        } else if (status != HttpStatusCode.NOT_FOUND
+                && BoundedBodyScanner.isScannableContent(msg)) {
+            BoundedBodyScanner bodyScanner =
+                    new BoundedBodyScanner(
+                            BoundedBodyScanner.getMaxBodySize(getConfig(), MAX_BODY_SIZE_PROPERTY));
+            String evidence =
+                    matcher.findInContent(
+                            bodyScanner.getScannableBody(msg.getResponseBody().toString()));
             if (evidence != null) {
                 // We found it!
                 // There exists a positive match of an
@@ -34,6 +34,7 @@ import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMessage;
 import org.zaproxy.zap.extension.anticsrf.ExtensionAntiCSRF;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
@@ -105,7 +106,8 @@ public class CSRFCountermeasures extends PluginPassiveScanner {
 
         // need to do this if we are to be able to get an element's parent. Do it as early as
         // possible in the logic
-        source.fullSequentialParse();
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg, source);
+        parsedHtml.fullSequentialParse();
 
         long start = System.currentTimeMillis();
 
@@ -115,7 +117,7 @@ public class CSRFCountermeasures extends PluginPassiveScanner {
             return;
         }
 
-        List<Element> formElements = source.getAllElements(HTMLElementName.FORM);
+        List<Element> formElements = parsedHtml.getForms();
         List<String> tokenNames = extAntiCSRF.getAntiCsrfTokenNames();
 
         if (formElements != null && formElements.size() > 0) {
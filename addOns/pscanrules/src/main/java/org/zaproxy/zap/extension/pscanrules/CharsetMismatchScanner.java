@@ -21,7 +21,6 @@ package org.zaproxy.zap.extension.pscanrules;
 
 import java.util.List;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import net.htmlparser.jericho.StartTag;
 import net.htmlparser.jericho.StartTagType;
@@ -31,6 +30,7 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -109,7 +109,7 @@ public class CharsetMismatchScanner extends PluginPassiveScanner {
             String bodyContentCharset = "";
             String metaCharset = "";
 
-            List<Element> metaElements = source.getAllElements(HTMLElementName.META);
+            List<Element> metaElements = ParsedHtml.getInstance(msg, source).getMetas();
 
             if (metaElements != null) {
                 for (Element metaElement : metaElements) {
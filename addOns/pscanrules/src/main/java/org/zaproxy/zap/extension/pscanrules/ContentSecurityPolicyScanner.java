@@ -36,6 +36,7 @@ import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.HeaderResultCache;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -61,6 +62,10 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
     private static final String WILDCARD_URI = "http://*";
     private static final URI PARSED_WILDCARD_URI = URI.parse(WILDCARD_URI);
 
+    /** The analyses of the policies, per site. */
+    private static final HeaderResultCache<PolicyAnalysis> POLICY_ANALYSES =
+            new HeaderResultCache<>();
+
     private PassiveScanThread parent = null;
 
     @Override
@@ -76,7 +81,6 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
         boolean cspHeaderFound = false;
-        int noticesRisk = Alert.RISK_INFO;
         // LOGGER.setLevel(Level.DEBUG); //Enable for debugging
 
         if (LOGGER.isDebugEnabled()) {
@@ -126,38 +130,28 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
         }
 
         if (cspHeaderFound) {
-            ArrayList<Notice> notices = new ArrayList<>();
-            Origin origin = URI.parse(msg.getRequestHeader().getURI().toString());
             String policyText = cspOptions.toString().replace("[", "").replace("]", "");
-            Policy pol = ParserWithLocation.parse(policyText, origin, notices); // Populate notices
-
-            if (!notices.isEmpty()) {
-                String cspNoticesString = getCSPNoticesString(notices);
-                if (cspNoticesString.contains(
-                                Constant.messages.getString(MESSAGE_PREFIX + "notices.errors"))
-                        || cspNoticesString.contains(
-                                Constant.messages.getString(MESSAGE_PREFIX + "notices.warnings"))) {
-                    noticesRisk = Alert.RISK_LOW;
-                } else {
-                    noticesRisk = Alert.RISK_INFO;
-                }
+            PolicyAnalysis analysis =
+                    POLICY_ANALYSES.get(
+                            HeaderResultCache.getSite(msg),
+                            policyText,
+                            () -> analysePolicy(msg, policyText));
+
+            if (analysis.noticesString != null) {
                 raiseAlert(
                         msg,
                         Constant.messages.getString(MESSAGE_PREFIX + "notices.name"),
                         id,
-                        cspNoticesString,
+                        analysis.noticesString,
                         getHeaderField(msg, HTTP_HEADER_CSP).get(0),
-                        noticesRisk,
+                        analysis.noticesRisk,
                         cspOptions.get(0));
             }
 
-            List<String> allowedWildcardSources = getAllowedWildcardSources(policyText, origin);
-            if (!allowedWildcardSources.isEmpty()) {
-                String allowedWildcardSrcs =
-                        allowedWildcardSources.toString().replace("[", "").replace("]", "");
+            if (analysis.allowedWildcardSources != null) {
                 String wildcardSrcDesc =
                         Constant.messages.getString(
-                                MESSAGE_PREFIX + "wildcard.desc", allowedWildcardSrcs);
+                                MESSAGE_PREFIX + "wildcard.desc", analysis.allowedWildcardSources);
                 raiseAlert(
                         msg,
                         Constant.messages.getString(MESSAGE_PREFIX + "wildcard.name"),
@@ -168,7 +162,7 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
                         cspOptions.get(0));
             }
 
-            if (pol.allowsUnsafeInlineScript()) {
+            if (analysis.allowsUnsafeInlineScript) {
                 raiseAlert(
                         msg,
                         Constant.messages.getString(MESSAGE_PREFIX + "scriptsrc.unsafe.name"),
@@ -179,7 +173,7 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
                         cspOptions.get(0));
             }
 
-            if (pol.allowsUnsafeInlineStyle()) {
+            if (analysis.allowsUnsafeInlineStyle) {
                 raiseAlert(
                         msg,
                         Constant.messages.getString(MESSAGE_PREFIX + "stylesrc.unsafe.name"),
@@ -201,6 +195,46 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
         }
     }
 
+    /**
+     * Analyses the given policy, the analysis depends just on the site of the message and the
+     * policy, so it's reused for all the messages of the site with the same policy.
+     *
+     * @param msg the message with the policy.
+     * @param policyText the policy.
+     * @return the analysis, never {@code null}.
+     */
+    private PolicyAnalysis analysePolicy(HttpMessage msg, String policyText) {
+        ArrayList<Notice> notices = new ArrayList<>();
+        Origin origin = URI.parse(msg.getRequestHeader().getURI().toString());
+        Policy pol = ParserWithLocation.parse(policyText, origin, notices); // Populate notices
+
+        String cspNoticesString = null;
+        int noticesRisk = Alert.RISK_INFO;
+        if (!notices.isEmpty()) {
+            cspNoticesString = getCSPNoticesString(notices);
+            if (cspNoticesString.contains(
+                            Constant.messages.getString(MESSAGE_PREFIX + "notices.errors"))
+                    || cspNoticesString.contains(
+                            Constant.messages.getString(MESSAGE_PREFIX + "notices.warnings"))) {
+                noticesRisk = Alert.RISK_LOW;
+            }
+        }
+
+        List<String> allowedWildcardSources = getAllowedWildcardSources(policyText, origin);
+        String allowedWildcardSrcs = null;
+        if (!allowedWildcardSources.isEmpty()) {
+            allowedWildcardSrcs =
+                    allowedWildcardSources.toString().replace("[", "").replace("]", "");
+        }
+
+        return new PolicyAnalysis(
+                cspNoticesString,
+                noticesRisk,
+                allowedWildcardSrcs,
+                pol.allowsUnsafeInlineScript(),
+                pol.allowsUnsafeInlineStyle());
+    }
+
     private String getCSPNoticesString(ArrayList<Notice> notices) {
         char NEWLINE = '\n';
         StringBuilder returnSb = new StringBuilder();
@@ -357,4 +391,27 @@ public class ContentSecurityPolicyScanner extends PluginPassiveScanner {
                 msg); // HttpMessage
         parent.raiseAlert(id, alert);
     }
+
+    /** The result of analysing a policy, the issues found in it. */
+    private static class PolicyAnalysis {
+
+        private final String noticesString;
+        private final int noticesRisk;
+        private final String allowedWildcardSources;
+        private final boolean allowsUnsafeInlineScript;
+        private final boolean allowsUnsafeInlineStyle;
+
+        private PolicyAnalysis(
+                String noticesString,
+                int noticesRisk,
+                String allowedWildcardSources,
+                boolean allowsUnsafeInlineScript,
+                boolean allowsUnsafeInlineStyle) {
+            this.noticesString = noticesString;
+            this.noticesRisk = noticesRisk;
+            this.allowedWildcardSources = allowedWildcardSources;
+            this.allowsUnsafeInlineScript = allowsUnsafeInlineScript;
+            this.allowsUnsafeInlineStyle = allowsUnsafeInlineStyle;
+        }
+    }
 }
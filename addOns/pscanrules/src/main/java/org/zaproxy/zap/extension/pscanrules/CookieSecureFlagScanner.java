@@ -20,14 +20,13 @@
 package org.zaproxy.zap.extension.pscanrules;
 
 import java.util.Set;
-import java.util.Vector;
 import net.htmlparser.jericho.Source;
-import org.apache.commons.collections.iterators.IteratorChain;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.model.Model;
-import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.SetCookie;
+import org.zaproxy.zap.extension.commonlib.SetCookies;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -60,42 +59,33 @@ public class CookieSecureFlagScanner extends PluginPassiveScanner {
             return;
         }
 
-        IteratorChain iterator = new IteratorChain();
-        Vector<String> cookies1 = msg.getResponseHeader().getHeaders(HttpHeader.SET_COOKIE);
-
-        if (cookies1 != null) {
-            iterator.addIterator(cookies1.iterator());
-        }
-
-        Vector<String> cookies2 = msg.getResponseHeader().getHeaders(HttpHeader.SET_COOKIE2);
-
-        if (cookies2 != null) {
-            iterator.addIterator(cookies2.iterator());
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        if (setCookies.getAll().isEmpty()) {
+            return;
         }
 
         Set<String> ignoreList = CookieUtils.getCookieIgnoreList(getModel());
 
-        while (iterator.hasNext()) {
-            String headerValue = (String) iterator.next();
-            if (!CookieUtils.hasAttribute(headerValue, SECURE_COOKIE_ATTRIBUTE)) {
-                if (!ignoreList.contains(CookieUtils.getCookieName(headerValue))) {
-                    this.raiseAlert(msg, id, headerValue);
+        for (SetCookie setCookie : setCookies.getAll()) {
+            if (!setCookie.hasAttribute(SECURE_COOKIE_ATTRIBUTE)) {
+                if (!ignoreList.contains(setCookie.getName())) {
+                    this.raiseAlert(msg, id, setCookies, setCookie);
                 }
             }
         }
     }
 
-    private void raiseAlert(HttpMessage msg, int id, String headerValue) {
+    private void raiseAlert(HttpMessage msg, int id, SetCookies setCookies, SetCookie setCookie) {
         Alert alert = new Alert(getPluginId(), Alert.RISK_LOW, Alert.CONFIDENCE_MEDIUM, getName());
         alert.setDetail(
                 getDescription(),
                 msg.getRequestHeader().getURI().toString(),
-                CookieUtils.getCookieName(headerValue),
+                setCookie.getName(),
                 "",
                 "",
                 getSolution(),
                 getReference(),
-                CookieUtils.getSetCookiePlusName(msg.getResponseHeader().toString(), headerValue),
+                setCookies.getSetCookiePlusName(setCookie),
                 614, // CWE Id
                 13, // WASC Id - Info leakage
                 msg);
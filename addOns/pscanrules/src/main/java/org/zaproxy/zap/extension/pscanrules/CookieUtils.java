@@ -24,6 +24,8 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.parosproxy.paros.model.Model;
+import org.parosproxy.paros.network.HttpHeader;
+import org.zaproxy.zap.extension.commonlib.SetCookie;
 import org.zaproxy.zap.extension.ruleconfig.RuleConfigParam;
 
 /** Utility class to extract/parse/check Set-Cookie header values. */
@@ -50,22 +52,7 @@ class CookieUtils {
         validateParameterNotNull(headerValue, "headerValue");
         validateParameterNotNull(attributeName, "attributeName");
 
-        if (headerValue.isEmpty() || attributeName.isEmpty()) {
-            return false;
-        }
-
-        String[] cookieElements = headerValue.split(";");
-        if (cookieElements.length == 1 || !isCookieNameValuePairValid(cookieElements[0])) {
-            return false;
-        }
-
-        for (int i = 1; i < cookieElements.length; i++) {
-            String[] attribute = cookieElements[i].split("=", 2);
-            if (attributeName.equalsIgnoreCase(attribute[0].trim())) {
-                return true;
-            }
-        }
-        return false;
+        return new SetCookie(HttpHeader.SET_COOKIE, headerValue).hasAttribute(attributeName);
     }
 
     /**
@@ -80,22 +67,7 @@ class CookieUtils {
         validateParameterNotNull(headerValue, "headerValue");
         validateParameterNotNull(attributeName, "attributeName");
 
-        if (headerValue.isEmpty() || attributeName.isEmpty()) {
-            return null;
-        }
-
-        String[] cookieElements = headerValue.split(";");
-        if (cookieElements.length == 1 || !isCookieNameValuePairValid(cookieElements[0])) {
-            return null;
-        }
-
-        for (int i = 1; i < cookieElements.length; i++) {
-            String[] attribute = cookieElements[i].split("=", 2);
-            if (attribute.length > 1 && attributeName.equalsIgnoreCase(attribute[0].trim())) {
-                return attribute[1].trim();
-            }
-        }
-        return null;
+        return new SetCookie(HttpHeader.SET_COOKIE, headerValue).getAttributeValue(attributeName);
     }
 
     /**
@@ -151,20 +123,6 @@ class CookieUtils {
         return null;
     }
 
-    private static boolean isCookieNameValuePairValid(String nameValuePair) {
-        int nameValuePairIdx = nameValuePair.indexOf('=');
-        if (nameValuePairIdx == NOT_FOUND) {
-            return false;
-        }
-
-        String cookieName = nameValuePair.substring(0, nameValuePairIdx).trim();
-        if (cookieName.isEmpty()) {
-            return false;
-        }
-
-        return true;
-    }
-
     private static void validateParameterNotNull(Object parameter, String name) {
         if (parameter == null) {
             throw new IllegalArgumentException("The parameter " + name + " must not be null.");
@@ -22,12 +22,12 @@ package org.zaproxy.zap.extension.pscanrules;
 import java.io.IOException;
 import java.util.List;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.extension.encoder.Base64;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -84,7 +84,7 @@ public class InsecureJSFViewStatePassiveScanner extends PluginPassiveScanner {
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
         if (msg.getResponseBody().length() > 0 && msg.getResponseHeader().isText()) {
-            List<Element> sourceElements = source.getAllElements(HTMLElementName.INPUT);
+            List<Element> sourceElements = ParsedHtml.getInstance(msg, source).getInputs();
             if (sourceElements != null) {
                 for (Element sourceElement : sourceElements) {
 
@@ -27,6 +27,7 @@ import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -63,7 +64,7 @@ public class MixedContentScanner extends PluginPassiveScanner {
 
         List<MixedContent> list = new ArrayList<>();
         boolean incScript = false;
-        List<Element> sourceElements = source.getAllElements();
+        List<Element> sourceElements = ParsedHtml.getInstance(msg, source).getAllElements();
         for (Element sourceElement : sourceElements) {
             if (addAttsContainingHttpContent(sourceElement, "src", list)) {
                 if (HTMLElementName.SCRIPT.equals(sourceElement.getName())) {
@@ -22,7 +22,6 @@ package org.zaproxy.zap.extension.pscanrules;
 import java.util.List;
 import java.util.Vector;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
@@ -30,6 +29,7 @@ import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -104,7 +104,7 @@ public class XFrameOptionScanner extends PluginPassiveScanner {
                 raiseAlert(msg, id, "", VulnType.XFO_MISSING);
             }
 
-            String metaXFO = getMetaXFOEvidence(source);
+            String metaXFO = getMetaXFOEvidence(ParsedHtml.getInstance(msg, source));
 
             if (metaXFO != null) {
                 // XFO found defined by META tag
@@ -183,8 +183,8 @@ public class XFrameOptionScanner extends PluginPassiveScanner {
      *     {@code null}.
      * @see <a href="https://tools.ietf.org/html/rfc7034#section-4">RFC 7034 Section 4</a>
      */
-    private String getMetaXFOEvidence(Source source) {
-        List<Element> metaElements = source.getAllElements(HTMLElementName.META);
+    private String getMetaXFOEvidence(ParsedHtml parsedHtml) {
+        List<Element> metaElements = parsedHtml.getMetas();
         String httpEquiv;
 
         if (metaElements != null) {
@@ -7,11 +7,18 @@ zapAddOn {
 
     manifest {
         author.set("ZAP Dev Team")
+        dependencies {
+            addOns {
+                register("commonlib") {
+                    version.set("1.*")
+                }
+            }
+        }
     }
 }
 
 dependencies {
-    implementation("com.google.re2j:re2j:1.2")
-
+    compileOnly(parent!!.childProjects.get("commonlib")!!)
+    testImplementation(parent!!.childProjects.get("commonlib")!!)
     testImplementation(project(":testutils"))
 }
@@ -20,10 +20,7 @@
 package org.zaproxy.zap.extension.pscanrulesAlpha;
 
 import java.io.IOException;
-import java.util.LinkedHashSet;
-import java.util.Set;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import net.htmlparser.jericho.Source;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
@@ -44,35 +41,53 @@ public class Base64Disclosure extends PluginPassiveScanner {
     private PassiveScanThread parent = null;
 
     /**
-     * a set of patterns used to identify Base64 encoded data. Set a minimum length to reduce false
-     * positives. Note that because we only look for patterns ending in at least one "=", we will
-     * have false negatives (ie, we will not detect ALL Base64 references). If we do not include
-     * this condition, however, we will have a very large number of false positives. TODO: find a
-     * different way to reduce false positives without causing false negatives.
+     * the minimum length of the Base64 candidates. Set a minimum length to reduce false positives.
+     * Note that the padding ("=") is optional, so short strings of letters and digits would
+     * otherwise be reported.
      */
-    // static Pattern base64Pattern = Pattern.compile("[a-zA-Z0-9\\+\\\\/]{30,}={1,2}");
-    // static Pattern base64Pattern = Pattern.compile("[a-zA-Z0-9\\+\\\\/]{30,}={0,2}");
-    static Set<Pattern> base64Patterns =
-            new LinkedHashSet<Pattern>(); // the order of patterns is important. most specific first
+    private static final int MIN_BASE64_LENGTH = 30;
 
-    static {
-        // base64Patterns.add(Pattern.compile("[a-zA-Z0-9\\+\\\\/]{30,}={0,2}"));
-        // base64Patterns.add(Pattern.compile("[a-zA-Z0-9\\-_]{30,}={0,2}"));  //used in JWT - file
-        // and URL safe variant of Base64 alphabet
-        base64Patterns.add(Pattern.compile("[a-zA-Z0-9\\+\\\\/\\-_]{30,}={0,2}"));
-    };
+    /**
+     * the maximum number of Base64 characters decoded per message, so that responses with lots of
+     * (or very big) candidates, for example, inline data URIs, have a bounded cost.
+     */
+    static final int MAX_DECODED_CHARS_PER_MESSAGE = 1024 * 1024;
 
     /**
-     * patterns used to identify strings withut each of the given character sets which is used to
-     * calculate the probability of this occurring, and eliminate potential Base64 strings which are
-     * extremely improbable
+     * the minimum entropy of a candidate, relative to the maximum entropy possible for a string of
+     * its length. Base64 encoded data is close to the maximum, while repetitive strings (e.g.
+     * "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA0a") are unlikely to be Base64.
      */
-    static Pattern digitPattern = Pattern.compile("[0-9]");
+    private static final double MIN_RELATIVE_ENTROPY = 0.5;
 
-    static Pattern alphaPattern = Pattern.compile("[a-zA-Z]");
-    static Pattern otherPattern = Pattern.compile("[\\+\\\\/\\-_]");
-    static Pattern lowercasePattern = Pattern.compile("[a-z]");
-    static Pattern uppercasePattern = Pattern.compile("[A-Z]");
+    // the character classes of the Base64 alphabet
+    private static final int DIGIT = 1;
+    private static final int LOWERCASE = 2;
+    private static final int UPPERCASE = 4;
+    private static final int OTHER = 8;
+
+    /**
+     * the character classes of the Base64 alphabet (including the file and URL safe variant, used
+     * in JWT), indexed by character, which are used to calculate the probability of a candidate not
+     * containing characters of a given class, and eliminate potential Base64 strings which are
+     * extremely improbable. Characters not in the alphabet have no class.
+     */
+    private static final byte[] CHARACTER_CLASSES = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CHARACTER_CLASSES[c] = DIGIT;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHARACTER_CLASSES[c] = LOWERCASE;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHARACTER_CLASSES[c] = UPPERCASE;
+        }
+        for (char c : new char[] {'+', '\\', '/', '-', '_'}) {
+            CHARACTER_CLASSES[c] = OTHER;
+        }
+    }
 
     /** the logger. logs stuff. strange that! */
     private static Logger log = Logger.getLogger(Base64Disclosure.class);
@@ -121,286 +136,389 @@ public class Base64Disclosure extends PluginPassiveScanner {
         String responsebody = msg.getResponseBody().toString();
         String[] responseparts = {responseheader, responsebody};
 
-        // for each pattern..
-        for (Pattern pattern : base64Patterns) {
-            if (log.isDebugEnabled()) log.debug("Trying Base64 Pattern: " + pattern);
-            for (String haystack : responseparts) {
-                Matcher matcher = pattern.matcher(haystack);
-                while (matcher.find()) {
-                    String base64evidence = matcher.group();
-                    String tempbase64evidence = base64evidence;
-                    byte[] decodeddata = null;
-                    try {
-                        // if the string had the "-_" alphabet, replace the - and _ with + and /
-                        // respectively
-                        tempbase64evidence = tempbase64evidence.replace('-', '+');
-                        tempbase64evidence = tempbase64evidence.replace('_', '/');
-
-                        // decode the data
-                        decodeddata = Base64.decode(tempbase64evidence);
-                    } catch (IOException e) {
-                        // it's not actually Base64. so skip it.
-                        if (log.isDebugEnabled())
-                            log.debug(
-                                    "["
-                                            + tempbase64evidence
-                                            + "] (modified from ["
-                                            + base64evidence
-                                            + "]) could not be decoded as Base64 data");
-                        continue;
-                    }
-
-                    // does the base 64 encoded string actually contain the various characters that
-                    // we might expect?
-                    // (note: we may not care, depending on the threshold set by the user)
-                    String base64evidenceString = new String(tempbase64evidence);
-                    boolean noDigitInString = !digitPattern.matcher(base64evidenceString).find();
-                    boolean noAlphaInString = !alphaPattern.matcher(base64evidenceString).find();
-                    // boolean noOtherInString = !
-                    // otherPattern.matcher(base64evidenceString).find();
-                    boolean noLowerInString =
-                            !lowercasePattern.matcher(base64evidenceString).find();
-                    boolean noUpperInString =
-                            !uppercasePattern.matcher(base64evidenceString).find();
-
-                    // calculate the actual probability of a Base64 string of this length *not*
-                    // containing a given character class (digit/alphabetic/other Base64 character)
-                    // right about now, I expect to get flamed by the statistics geeks in our
-                    // midst.. wait for it! :)
-                    float probabilityOfNoDigitInString =
-                            (float) Math.pow(((float) 64 - 10) / 64, base64evidence.length());
-                    float probabilityOfNoAlphaInString =
-                            (float) Math.pow(((float) 64 - 52) / 64, base64evidence.length());
-                    // float probabilityOfNoOtherInString = (float)Math.pow(((float)64-2)/64,
-                    // base64evidence.length());
-                    float probabilityOfNoLowerInString =
-                            (float) Math.pow(((float) 64 - 26) / 64, base64evidence.length());
-                    float probabilityOfNoUpperInString = probabilityOfNoLowerInString;
-
-                    // set the threshold percentage based on what threshold was set by the user
-                    float probabilityThreshold = 0.0F; // 0% probability threshold
-                    switch (this.getAlertThreshold()) {
-                            // 50% probability threshold (ie, "on balance of probability")
-                        case HIGH:
-                            probabilityThreshold = 0.50F;
-                            break;
-                            // 25% probability threshold
-                        case MEDIUM:
-                            probabilityThreshold = 0.25F;
-                            break;
-                            // 10% probability threshold
-                        case LOW:
-                            probabilityThreshold = 0.10F;
-                            break;
-                            // 0% probability threshold (all structurally valid Base64 data is
-                            // considered, regardless of how improbable  it is given character
-                            // frequencies, etc)
-                        default:
+        float probabilityThreshold = getProbabilityThreshold();
+        int decodeBudget = MAX_DECODED_CHARS_PER_MESSAGE;
+
+        // find the candidates (i.e. [a-zA-Z0-9\\+\\\\/\\-_]{30,}={0,2}) in a single pass,
+        // classifying the characters while doing so, so that only plausible candidates are decoded.
+        for (String haystack : responseparts) {
+            int length = haystack.length();
+            int i = 0;
+            while (i < length) {
+                int start = i;
+                int characterClasses = 0;
+                for (; i < length; i++) {
+                    char c = haystack.charAt(i);
+                    if (c >= CHARACTER_CLASSES.length || CHARACTER_CLASSES[c] == 0) {
+                        break;
                     }
+                    characterClasses |= CHARACTER_CLASSES[c];
+                }
+                if (i - start < MIN_BASE64_LENGTH) {
+                    i++;
+                    continue;
+                }
+                int end = i;
+                while (end < length && end - i < 2 && haystack.charAt(end) == '=') {
+                    end++;
+                }
+                String base64evidence = haystack.substring(start, end);
+                i = end;
 
-                    // if the String is unlikely to be Base64, given the distribution of the
-                    // characters
-                    // ie, less probable than the threshold probability controlled by the user, then
-                    // do not process it.
-                    if ((noDigitInString && probabilityOfNoDigitInString < probabilityThreshold)
-                            || (noAlphaInString
-                                    && probabilityOfNoAlphaInString < probabilityThreshold)
-                            ||
-                            // (noOtherInString && probabilityOfNoOtherInString <
-                            // probabilityThreshold) ||
-                            (noLowerInString && probabilityOfNoLowerInString < probabilityThreshold)
-                            || (noUpperInString
-                                    && probabilityOfNoUpperInString < probabilityThreshold)) {
-                        if (log.isTraceEnabled()) {
-                            log.trace(
-                                    "The following candidate Base64 has been excluded on probabilistic grounds: ["
-                                            + base64evidence
-                                            + "] ");
-                            if (noDigitInString)
-                                log.trace(
-                                        "The candidate Base64 has no digit characters, and the the probability of this occurring for a string of this length is "
-                                                + (probabilityOfNoDigitInString * 100)
-                                                + "%. The threshold is "
-                                                + (probabilityThreshold * 100)
-                                                + "%");
-                            if (noAlphaInString)
-                                log.trace(
-                                        "The candidate Base64 has no alphabetic characters, and the the probability of this occurring for a string of this length is "
-                                                + (probabilityOfNoAlphaInString * 100)
-                                                + "%. The threshold is "
-                                                + (probabilityThreshold * 100)
-                                                + "%");
-                            // if (noOtherInString)
-                            //	log.trace("The candidate Base64 has no 'other' characters, and the
-                            // the probability of this occurring for a string of this length is "+
-                            // (probabilityOfNoOtherInString * 100) + "%. The threshold is "+
-                            // (probabilityThreshold *100)+ "%");
-                            if (noLowerInString)
-                                log.trace(
-                                        "The candidate Base64 has no lowercase characters, and the the probability of this occurring for a string of this length is "
-                                                + (probabilityOfNoLowerInString * 100)
-                                                + "%. The threshold is "
-                                                + (probabilityThreshold * 100)
-                                                + "%");
-                            if (noUpperInString)
-                                log.trace(
-                                        "The candidate Base64 has no uppercase characters, and the the probability of this occurring for a string of this length is "
-                                                + (probabilityOfNoUpperInString * 100)
-                                                + "%. The threshold is "
-                                                + (probabilityThreshold * 100)
-                                                + "%");
-                        }
-                        continue;
-                    }
+                if (isImprobable(base64evidence, characterClasses, probabilityThreshold)
+                        || (probabilityThreshold > 0
+                                && hasLowEntropy(haystack, start, end - start))) {
+                    continue;
+                }
 
+                if (base64evidence.length() > decodeBudget) {
                     if (log.isDebugEnabled())
                         log.debug(
-                                "Found a match for Base64, of length "
+                                "Skipping candidate Base64 of length "
                                         + base64evidence.length()
-                                        + ":"
-                                        + base64evidence);
-
-                    // so it's valid Base64.  Is it valid .NET ViewState data?
-                    // This will be true for both __VIEWSTATE and __EVENTVALIDATION data, although
-                    // currently, we can only interpret/decode __VIEWSTATE.
-                    boolean validviewstate = false;
-                    boolean macless = false;
-                    String viewstatexml = null;
-                    if (decodeddata[0] == -1 || decodeddata[1] == 0x01) {
-                        // TODO: decode __EVENTVALIDATION data
-                        ViewStateDecoder viewstatedecoded = new ViewStateDecoder();
-                        try {
-                            if (log.isDebugEnabled())
-                                log.debug(
-                                        "The following Base64 string has a ViewState preamble: ["
-                                                + base64evidence
-                                                + "]");
-                            viewstatexml = viewstatedecoded.decodeAsXML(base64evidence.getBytes());
-                            if (log.isDebugEnabled())
-                                log.debug(
-                                        "The data was successfully decoded as ViewState data of length "
-                                                + viewstatexml.length()
-                                                + ": "
-                                                + viewstatexml);
-                            validviewstate = true;
-
-                            // is the ViewState protected by a MAC?
-                            Matcher hmaclessmatcher =
-                                    ViewStateDecoder.patternNoHMAC.matcher(viewstatexml);
-                            macless = hmaclessmatcher.find();
-
-                            if (log.isDebugEnabled()) log.debug("MAC-less??? " + macless);
-                        } catch (Exception e) {
-                            // no need to do anything here.. just don't set "validviewstate" to true
-                            // :)
-                            // e.printStackTrace();
-                            if (log.isDebugEnabled())
-                                log.debug(
-                                        "The Base64 value ["
-                                                + base64evidence
-                                                + "] has a valid ViewState pre-amble, but is not a valid viewstate. It may be an EVENTVALIDATION value, is not yet decodable.");
-                        }
-                    }
+                                        + ", exceeds the remaining decode budget of the message.");
+                    continue;
+                }
+                decodeBudget -= base64evidence.length();
+
+                // if the string had the "-_" alphabet, replace the - and _ with + and /
+                // respectively
+                String tempbase64evidence = base64evidence;
+                if ((characterClasses & OTHER) != 0) {
+                    tempbase64evidence = tempbase64evidence.replace('-', '+').replace('_', '/');
+                }
+                byte[] decodeddata;
+                try {
+                    decodeddata = Base64.decode(tempbase64evidence);
+                } catch (IOException e) {
+                    // it's not actually Base64. so skip it.
+                    if (log.isDebugEnabled())
+                        log.debug(
+                                "["
+                                        + tempbase64evidence
+                                        + "] (modified from ["
+                                        + base64evidence
+                                        + "]) could not be decoded as Base64 data");
+                    continue;
+                }
 
-                    if (validviewstate == true) {
-                        if (log.isDebugEnabled())
-                            log.debug("Raising a ViewState informational alert");
-
-                        // raise an (informational) Alert with the human readable ViewState data
-                        Alert alert =
-                                new Alert(
-                                        getPluginId(),
-                                        Alert.RISK_INFO,
-                                        Alert.CONFIDENCE_MEDIUM,
-                                        Constant.messages.getString(
-                                                "pscanalpha.base64disclosure.viewstate.name"));
-                        alert.setDetail(
-                                Constant.messages.getString(
-                                        "pscanalpha.base64disclosure.viewstate.desc"),
-                                msg.getRequestHeader().getURI().toString(),
-                                "", // param
-                                "", // attack
-                                Constant.messages.getString(
-                                        "pscanalpha.base64disclosure.viewstate.extrainfo",
-                                        viewstatexml), // other info
-                                Constant.messages.getString(
-                                        "pscanalpha.base64disclosure.viewstate.soln"),
-                                Constant.messages.getString(
-                                        "pscanalpha.base64disclosure.viewstate.refs"),
-                                viewstatexml, // evidence
-                                200, // Information Exposure,
-                                13, // Information Leakage
-                                msg);
-                        parent.raiseAlert(id, alert);
-                        // do NOT break at this point.. we need to find *all* the issues
-
-                        // if the ViewState is not protected by a MAC, alert it as a High, cos we
-                        // can mess with the parameters for sure..
-                        if (macless) {
-                            Alert alertmacless =
-                                    new Alert(
-                                            getPluginId(),
-                                            Alert.RISK_HIGH,
-                                            Alert.CONFIDENCE_MEDIUM,
-                                            Constant.messages.getString(
-                                                    "pscanalpha.base64disclosure.viewstatewithoutmac.name"));
-                            alertmacless.setDetail(
-                                    Constant.messages.getString(
-                                            "pscanalpha.base64disclosure.viewstatewithoutmac.desc"),
-                                    msg.getRequestHeader().getURI().toString(),
-                                    "", // param
-                                    "", // attack
-                                    Constant.messages.getString(
-                                            "pscanalpha.base64disclosure.viewstatewithoutmac.extrainfo",
-                                            viewstatexml), // other info
-                                    Constant.messages.getString(
-                                            "pscanalpha.base64disclosure.viewstatewithoutmac.soln"),
-                                    Constant.messages.getString(
-                                            "pscanalpha.base64disclosure.viewstatewithoutmac.refs"),
-                                    viewstatexml,
-                                    642, // CWE-642 = External Control of Critical State Data
-                                    13, // Information Leakage
-                                    msg);
-                            parent.raiseAlert(id, alertmacless);
-                            // do NOT break at this point.. we need to find *all* the issues
-                        }
-                        // TODO: if the ViewState contains sensitive data, alert it (particularly if
-                        // running over HTTP)
-                    } else {
-                        if (log.isDebugEnabled()) log.debug("Raising a Base64 informational alert");
-
-                        // the Base64 decoded data is not a valid ViewState (even though it may have
-                        // a valid ViewStatet pre-amble)
-                        // so treat it as normal Base64 data, and raise an informational alert.
-                        if (base64evidence.length() > 0) {
-                            Alert alert =
-                                    new Alert(
-                                            getPluginId(),
-                                            Alert.RISK_INFO,
-                                            Alert.CONFIDENCE_MEDIUM,
-                                            getName());
-                            alert.setDetail(
-                                    getDescription(),
-                                    msg.getRequestHeader().getURI().toString(),
-                                    "", // param
-                                    null,
-                                    getExtraInfo(msg, base64evidence, decodeddata), // other info
-                                    getSolution(),
-                                    getReference(),
+                if (log.isDebugEnabled())
+                    log.debug(
+                            "Found a match for Base64, of length "
+                                    + base64evidence.length()
+                                    + ":"
+                                    + base64evidence);
+
+                // so it's valid Base64.  Is it valid .NET ViewState data?
+                // This will be true for both __VIEWSTATE and __EVENTVALIDATION data, although
+                // currently, we can only interpret/decode __VIEWSTATE.
+                String viewstatexml = null;
+                if (decodeddata[0] == -1 || decodeddata[1] == 0x01) {
+                    viewstatexml =
+                            decodeViewState(
                                     base64evidence,
-                                    200, // Information Exposure,
-                                    13, // Information Leakage
-                                    msg);
-                            parent.raiseAlert(id, alert);
-                            // do NOT break at this point.. we need to find *all* the potential
-                            // Base64 encoded data in the response..
-                        }
-                    }
+                                    tempbase64evidence.equals(base64evidence) ? decodeddata : null);
+                }
+
+                if (viewstatexml != null) {
+                    raiseViewStateAlerts(msg, id, viewstatexml);
+                } else {
+                    // the Base64 decoded data is not a valid ViewState (even though it may have
+                    // a valid ViewStatet pre-amble)
+                    // so treat it as normal Base64 data, and raise an informational alert.
+                    raiseBase64Alert(msg, id, base64evidence, decodeddata);
                 }
+                // do NOT break at this point.. we need to find *all* the potential Base64
+                // encoded data in the response..
             }
         }
     }
 
+    /**
+     * gets the probability threshold, based on what threshold was set by the user
+     *
+     * @return the probability threshold
+     */
+    private float getProbabilityThreshold() {
+        switch (this.getAlertThreshold()) {
+                // 50% probability threshold (ie, "on balance of probability")
+            case HIGH:
+                return 0.50F;
+                // 25% probability threshold
+            case MEDIUM:
+                return 0.25F;
+                // 10% probability threshold
+            case LOW:
+                return 0.10F;
+                // 0% probability threshold (all structurally valid Base64 data is
+                // considered, regardless of how improbable  it is given character
+                // frequencies, etc)
+            default:
+                return 0.0F;
+        }
+    }
+
+    /**
+     * tells whether or not the candidate is unlikely to be Base64, given the distribution of the
+     * characters, ie, less probable than the threshold probability controlled by the user.
+     *
+     * @param base64evidence the candidate
+     * @param characterClasses the character classes present in the candidate
+     * @param probabilityThreshold the probability threshold
+     * @return {@code true} if the candidate is improbable, {@code false} otherwise
+     */
+    private static boolean isImprobable(
+            String base64evidence, int characterClasses, float probabilityThreshold) {
+        // does the base 64 encoded string actually contain the various characters that
+        // we might expect?
+        // (note: we may not care, depending on the threshold set by the user)
+        boolean noDigitInString = (characterClasses & DIGIT) == 0;
+        boolean noLowerInString = (characterClasses & LOWERCASE) == 0;
+        boolean noUpperInString = (characterClasses & UPPERCASE) == 0;
+        boolean noAlphaInString = noLowerInString && noUpperInString;
+        if (!noDigitInString && !noLowerInString && !noUpperInString) {
+            return false;
+        }
+
+        // calculate the actual probability of a Base64 string of this length *not*
+        // containing a given character class (digit/alphabetic/other Base64 character)
+        // right about now, I expect to get flamed by the statistics geeks in our
+        // midst.. wait for it! :)
+        float probabilityOfNoDigitInString =
+                (float) Math.pow(((float) 64 - 10) / 64, base64evidence.length());
+        float probabilityOfNoAlphaInString =
+                (float) Math.pow(((float) 64 - 52) / 64, base64evidence.length());
+        float probabilityOfNoLowerInString =
+                (float) Math.pow(((float) 64 - 26) / 64, base64evidence.length());
+        float probabilityOfNoUpperInString = probabilityOfNoLowerInString;
+
+        if ((noDigitInString && probabilityOfNoDigitInString < probabilityThreshold)
+                || (noAlphaInString && probabilityOfNoAlphaInString < probabilityThreshold)
+                || (noLowerInString && probabilityOfNoLowerInString < probabilityThreshold)
+                || (noUpperInString && probabilityOfNoUpperInString < probabilityThreshold)) {
+            if (log.isTraceEnabled()) {
+                log.trace(
+                        "The following candidate Base64 has been excluded on probabilistic grounds: ["
+                                + base64evidence
+                                + "] ");
+                if (noDigitInString)
+                    log.trace(
+                            "The candidate Base64 has no digit characters, and the the probability of this occurring for a string of this length is "
+                                    + (probabilityOfNoDigitInString * 100)
+                                    + "%. The threshold is "
+                                    + (probabilityThreshold * 100)
+                                    + "%");
+                if (noAlphaInString)
+                    log.trace(
+                            "The candidate Base64 has no alphabetic characters, and the the probability of this occurring for a string of this length is "
+                                    + (probabilityOfNoAlphaInString * 100)
+                                    + "%. The threshold is "
+                                    + (probabilityThreshold * 100)
+                                    + "%");
+                // if (noOtherInString)
+                //	log.trace("The candidate Base64 has no 'other' characters, and the
+                // the probability of this occurring for a string of this length is "+
+                // (probabilityOfNoOtherInString * 100) + "%. The threshold is "+
+                // (probabilityThreshold *100)+ "%");
+                if (noLowerInString)
+                    log.trace(
+                            "The candidate Base64 has no lowercase characters, and the the probability of this occurring for a string of this length is "
+                                    + (probabilityOfNoLowerInString * 100)
+                                    + "%. The threshold is "
+                                    + (probabilityThreshold * 100)
+                                    + "%");
+                if (noUpperInString)
+                    log.trace(
+                            "The candidate Base64 has no uppercase characters, and the the probability of this occurring for a string of this length is "
+                                    + (probabilityOfNoUpperInString * 100)
+                                    + "%. The threshold is "
+                                    + (probabilityThreshold * 100)
+                                    + "%");
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * tells whether or not the candidate has a low (Shannon) entropy, relative to the maximum
+     * entropy possible for a string of its length, which is unlikely for Base64 encoded data.
+     *
+     * @param text the text containing the candidate
+     * @param start the start of the candidate
+     * @param length the length of the candidate
+     * @return {@code true} if the entropy is low, {@code false} otherwise
+     */
+    static boolean hasLowEntropy(String text, int start, int length) {
+        int[] frequencies = new int[CHARACTER_CLASSES.length];
+        int symbols = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = text.charAt(i);
+            if (c != '=') {
+                frequencies[c]++;
+                symbols++;
+            }
+        }
+
+        double sum = 0;
+        for (int frequency : frequencies) {
+            if (frequency > 1) {
+                sum += frequency * log2(frequency);
+            }
+        }
+        double entropy = log2(symbols) - sum / symbols;
+        double maxEntropy = log2(Math.min(symbols, 64));
+        if (entropy < MIN_RELATIVE_ENTROPY * maxEntropy) {
+            if (log.isTraceEnabled()) {
+                log.trace(
+                        "The following candidate Base64 has been excluded because of its low entropy ("
+                                + entropy
+                                + " bits per character, maximum "
+                                + maxEntropy
+                                + "): ["
+                                + text.substring(start, start + length)
+                                + "] ");
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    /**
+     * decodes the given ViewState, if valid. Only called for the candidates that will raise an
+     * alert, those with the ViewState preamble.
+     *
+     * @param base64evidence the Base64 encoded ViewState
+     * @param decodeddata the decoded data, or {@code null} if it should be decoded from the
+     *     evidence.
+     * @return the human readable ViewState data, or {@code null} if not a valid ViewState
+     */
+    private static String decodeViewState(String base64evidence, byte[] decodeddata) {
+        // TODO: decode __EVENTVALIDATION data
+        if (decodeddata != null && (decodeddata[0] != -1 || decodeddata[1] != 0x01)) {
+            // not a ViewState preamble, no need to decode it again to know that.
+            return null;
+        }
+        ViewStateDecoder viewstatedecoded = new ViewStateDecoder();
+        try {
+            if (log.isDebugEnabled())
+                log.debug(
+                        "The following Base64 string has a ViewState preamble: ["
+                                + base64evidence
+                                + "]");
+            String viewstatexml =
+                    decodeddata != null
+                            ? viewstatedecoded.decodeRawAsXML(decodeddata)
+                            : viewstatedecoded.decodeAsXML(base64evidence.getBytes());
+            if (log.isDebugEnabled())
+                log.debug(
+                        "The data was successfully decoded as ViewState data of length "
+                                + viewstatexml.length()
+                                + ": "
+                                + viewstatexml);
+            return viewstatexml;
+        } catch (Exception e) {
+            // no need to do anything here.. just don't return the ViewState :)
+            if (log.isDebugEnabled())
+                log.debug(
+                        "The Base64 value ["
+                                + base64evidence
+                                + "] has a valid ViewState pre-amble, but is not a valid viewstate. It may be an EVENTVALIDATION value, is not yet decodable.");
+            return null;
+        }
+    }
+
+    private void raiseViewStateAlerts(HttpMessage msg, int id, String viewstatexml) {
+        // is the ViewState protected by a MAC?
+        Matcher hmaclessmatcher = ViewStateDecoder.patternNoHMAC.matcher(viewstatexml);
+        boolean macless = hmaclessmatcher.find();
+
+        if (log.isDebugEnabled()) log.debug("MAC-less??? " + macless);
+
+        if (log.isDebugEnabled()) log.debug("Raising a ViewState informational alert");
+
+        // raise an (informational) Alert with the human readable ViewState data
+        Alert alert =
+                new Alert(
+                        getPluginId(),
+                        Alert.RISK_INFO,
+                        Alert.CONFIDENCE_MEDIUM,
+                        Constant.messages.getString("pscanalpha.base64disclosure.viewstate.name"));
+        alert.setDetail(
+                Constant.messages.getString("pscanalpha.base64disclosure.viewstate.desc"),
+                msg.getRequestHeader().getURI().toString(),
+                "", // param
+                "", // attack
+                Constant.messages.getString(
+                        "pscanalpha.base64disclosure.viewstate.extrainfo",
+                        viewstatexml), // other info
+                Constant.messages.getString("pscanalpha.base64disclosure.viewstate.soln"),
+                Constant.messages.getString("pscanalpha.base64disclosure.viewstate.refs"),
+                viewstatexml, // evidence
+                200, // Information Exposure,
+                13, // Information Leakage
+                msg);
+        parent.raiseAlert(id, alert);
+        // do NOT break at this point.. we need to find *all* the issues
+
+        // if the ViewState is not protected by a MAC, alert it as a High, cos we
+        // can mess with the parameters for sure..
+        if (macless) {
+            Alert alertmacless =
+                    new Alert(
+                            getPluginId(),
+                            Alert.RISK_HIGH,
+                            Alert.CONFIDENCE_MEDIUM,
+                            Constant.messages.getString(
+                                    "pscanalpha.base64disclosure.viewstatewithoutmac.name"));
+            alertmacless.setDetail(
+                    Constant.messages.getString(
+                            "pscanalpha.base64disclosure.viewstatewithoutmac.desc"),
+                    msg.getRequestHeader().getURI().toString(),
+                    "", // param
+                    "", // attack
+                    Constant.messages.getString(
+                            "pscanalpha.base64disclosure.viewstatewithoutmac.extrainfo",
+                            viewstatexml), // other info
+                    Constant.messages.getString(
+                            "pscanalpha.base64disclosure.viewstatewithoutmac.soln"),
+                    Constant.messages.getString(
+                            "pscanalpha.base64disclosure.viewstatewithoutmac.refs"),
+                    viewstatexml,
+                    642, // CWE-642 = External Control of Critical State Data
+                    13, // Information Leakage
+                    msg);
+            parent.raiseAlert(id, alertmacless);
+            // do NOT break at this point.. we need to find *all* the issues
+        }
+        // TODO: if the ViewState contains sensitive data, alert it (particularly if
+        // running over HTTP)
+    }
+
+    private void raiseBase64Alert(
+            HttpMessage msg, int id, String base64evidence, byte[] decodeddata) {
+        if (log.isDebugEnabled()) log.debug("Raising a Base64 informational alert");
+
+        Alert alert = new Alert(getPluginId(), Alert.RISK_INFO, Alert.CONFIDENCE_MEDIUM, getName());
+        alert.setDetail(
+                getDescription(),
+                msg.getRequestHeader().getURI().toString(),
+                "", // param
+                null,
+                getExtraInfo(msg, base64evidence, decodeddata), // other info
+                getSolution(),
+                getReference(),
+                base64evidence,
+                200, // Information Exposure,
+                13, // Information Leakage
+                msg);
+        parent.raiseAlert(id, alert);
+    }
+
     /**
      * sets the parent
      *
@@ -29,6 +29,7 @@ import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.BoundedBodyScanner;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -39,6 +40,9 @@ import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
  */
 public class HashDisclosureScanner extends PluginPassiveScanner {
 
+    /** The key of the configuration with the maximum size of the body scanned, in characters. */
+    static final String MAX_BODY_SIZE_PROPERTY = "rules.hashdisclosure.maxbodysize";
+
     private PassiveScanThread parent = null;
 
     /** a map of a regular expression pattern to details of the Hash type found */
@@ -200,8 +204,17 @@ public class HashDisclosureScanner extends PluginPassiveScanner {
 
         // get the response contents as an array of Strings, so we can match against them
         String responseheader = msg.getResponseHeader().getHeadersAsString();
-        String responsebody = msg.getResponseBody().toString();
-        String[] responseparts = {responseheader, responsebody};
+        String[] responseparts;
+        if (BoundedBodyScanner.isScannableContent(msg)) {
+            // The patterns match short strings, just the size of the body needs to be bounded.
+            BoundedBodyScanner bodyScanner =
+                    new BoundedBodyScanner(
+                            BoundedBodyScanner.getMaxBodySize(getConfig(), MAX_BODY_SIZE_PROPERTY));
+            String responsebody = bodyScanner.getScannableBody(msg.getResponseBody().toString());
+            responseparts = new String[] {responseheader, responsebody};
+        } else {
+            responseparts = new String[] {responseheader};
+        }
 
         checkForHashes(msg, id, responseparts);
     }
@@ -21,13 +21,13 @@ package org.zaproxy.zap.extension.pscanrulesAlpha;
 
 import java.util.List;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -60,7 +60,7 @@ public class InsecureFormPostScanner extends PluginPassiveScanner {
             return;
         }
 
-        List<Element> formElements = source.getAllElements(HTMLElementName.FORM);
+        List<Element> formElements = ParsedHtml.getInstance(msg, source).getForms();
         for (Element formElement : formElements) {
             String formAction = formElement.getAttributeValue("action");
             if (formAction != null && formAction.trim().toLowerCase().startsWith("http://")) {
@@ -33,6 +33,7 @@ import org.parosproxy.paros.core.scanner.Plugin;
 import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 import org.zaproxy.zap.model.Context;
@@ -198,14 +199,15 @@ public class LinkTargetScanner extends PluginPassiveScanner {
                         .getSession()
                         .getContextsForUrl(msg.getRequestHeader().getURI().toString());
 
-        for (Element link : source.getAllElements(HTMLElementName.A)) {
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg, source);
+        for (Element link : parsedHtml.getLinks()) {
             if (this.isLinkFromOtherDomain(host, link.getAttributeValue("href"), contextList)) {
                 if (this.checkElement(link, msg, id)) {
                     return;
                 }
             }
         }
-        for (Element link : source.getAllElements(HTMLElementName.AREA)) {
+        for (Element link : parsedHtml.getAllElements(HTMLElementName.AREA)) {
             if (this.isLinkFromOtherDomain(host, link.getAttributeValue("href"), contextList)) {
                 if (this.checkElement(link, msg, id)) {
                     return;
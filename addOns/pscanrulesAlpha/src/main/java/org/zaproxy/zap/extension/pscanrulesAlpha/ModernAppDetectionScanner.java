@@ -26,6 +26,7 @@ import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -55,10 +56,11 @@ public class ModernAppDetectionScanner extends PluginPassiveScanner {
         String evidence = null;
         String otherInfo = null;
 
-        List<Element> links = source.getAllElements(HTMLElementName.A);
+        ParsedHtml parsedHtml = ParsedHtml.getInstance(msg, source);
+        List<Element> links = parsedHtml.getLinks();
         if (links.size() == 0) {
             // if no links but there are scripts then thats another indication
-            List<Element> scripts = source.getAllElements(HTMLElementName.SCRIPT);
+            List<Element> scripts = parsedHtml.getScripts();
             if (scripts.size() > 0) {
                 evidence = scripts.get(0).toString();
                 otherInfo = Constant.messages.getString(MESSAGE_PREFIX + "other.nolinks");
@@ -81,7 +83,7 @@ public class ModernAppDetectionScanner extends PluginPassiveScanner {
             }
         }
         if (evidence == null) {
-            Element noScript = source.getFirstElement(HTMLElementName.NOSCRIPT);
+            Element noScript = parsedHtml.getFirstElement(HTMLElementName.NOSCRIPT);
             if (noScript != null) {
                 // Its an indication the app works differently with JavaScript
                 evidence = noScript.toString();
@@ -19,10 +19,6 @@
  */
 package org.zaproxy.zap.extension.pscanrulesAlpha;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
@@ -46,27 +42,37 @@ public class PiiScanner extends PluginPassiveScanner {
 
     private PassiveScanThread parent = null;
 
+    /** The minimum number of digits of a sequence, to be part of a (candidate) number. */
+    private static final int MIN_DIGITS_SEQUENCE = 3;
+
+    /** The maximum number of digits of a credit card number. */
+    private static final int MAX_CARD_NUMBER_LENGTH = 19;
+
+    private static final int[] LUHN_DOUBLED_DIGITS = {0, 2, 4, 6, 8, 1, 3, 5, 7, 9};
+
     private enum CreditCard {
-        AMERICAN_EXPRESS("American Express", "\\b(?:3[47][0-9]{13})\\b"),
-        DINERSCLUB("DinersClub", "\\b(?:3(?:0[0-5]|[68][0-9])[0-9]{11})\\b"),
-        DISCOVER("Discover", "\\b(?:6(?:011|5[0-9]{2})(?:[0-9]{12}))\\b"),
-        JCB("Jcb", "\\b(?:(?:2131|1800|35\\d{3})\\d{11})\\b"),
-        MAESTRO("Maestro", "\\b(?:(?:5[0678]\\d\\d|6304|6390|67\\d\\d)\\d{8,15})\\b"),
+        AMERICAN_EXPRESS("American Express", new CardNumbers(lengths(15), "34 37")),
+        DINERSCLUB("DinersClub", new CardNumbers(lengths(14), "300 301 302 303 304 305 36 38")),
+        DISCOVER("Discover", new CardNumbers(lengths(16), "6011 65")),
+        JCB("Jcb", new CardNumbers(lengths(15), "2131 1800"), new CardNumbers(lengths(16), "35")),
+        MAESTRO(
+                "Maestro",
+                new CardNumbers(
+                        lengths(12, 13, 14, 15, 16, 17, 18, 19), "50 56 57 58 6304 6390 67")),
         MASTERCARD(
                 "Mastercard",
-                "\\b(?:(?:5[1-5][0-9]{2}|222[1-9]|22[3-9][0-9]|2[3-6][0-9]{2}|27[01][0-9]|2720)[0-9]{12})\\b"),
-        VISA("Visa", "\\b(?:4[0-9]{12})(?:[0-9]{3})?\\b");
+                new CardNumbers(
+                        lengths(16),
+                        "51 52 53 54 55 2221 2222 2223 2224 2225 2226 2227 2228 2229 "
+                                + "223 224 225 226 227 228 229 23 24 25 26 270 271 2720")),
+        VISA("Visa", new CardNumbers(lengths(13, 16), "4"));
 
         private final String name;
-        private final Pattern pattern;
+        private final CardNumbers[] numbers;
 
-        CreditCard(String name, String regex) {
+        CreditCard(String name, CardNumbers... numbers) {
             this.name = name;
-            this.pattern = Pattern.compile(regex);
-        }
-
-        public Matcher matcher(String cc) {
-            return pattern.matcher(cc);
+            this.numbers = numbers;
         }
 
         @Override
@@ -75,6 +81,64 @@ public class PiiScanner extends PluginPassiveScanner {
         }
     }
 
+    /** The prefixes of the numbers of a credit card, and their allowed lengths. */
+    private static class CardNumbers {
+
+        private final int lengths;
+        private final String[] prefixes;
+
+        /**
+         * Constructs a {@code CardNumbers} with the given lengths and prefixes.
+         *
+         * @param lengths the bit mask of the allowed lengths
+         * @param prefixes the prefixes, separated by spaces
+         */
+        CardNumbers(int lengths, String prefixes) {
+            this.lengths = lengths;
+            this.prefixes = prefixes.split(" ");
+        }
+    }
+
+    private static int lengths(int... lengths) {
+        int mask = 0;
+        for (int length : lengths) {
+            mask |= 1 << length;
+        }
+        return mask;
+    }
+
+    /**
+     * The trie of the prefixes of the credit cards, each node has the allowed lengths (bit mask)
+     * for each credit card (by ordinal).
+     */
+    private static final PrefixNode CARD_PREFIXES = createCardPrefixes();
+
+    private static PrefixNode createCardPrefixes() {
+        PrefixNode root = new PrefixNode();
+        for (CreditCard cc : CreditCard.values()) {
+            for (CardNumbers numbers : cc.numbers) {
+                for (String prefix : numbers.prefixes) {
+                    PrefixNode node = root;
+                    for (int i = 0; i < prefix.length(); i++) {
+                        int digit = prefix.charAt(i) - '0';
+                        if (node.children[digit] == null) {
+                            node.children[digit] = new PrefixNode();
+                        }
+                        node = node.children[digit];
+                    }
+                    node.lengths[cc.ordinal()] |= numbers.lengths;
+                }
+            }
+        }
+        return root;
+    }
+
+    private static class PrefixNode {
+
+        private final PrefixNode[] children = new PrefixNode[10];
+        private final int[] lengths = new int[CreditCard.values().length];
+    }
+
     public PiiScanner() {}
 
     @Override
@@ -85,37 +149,123 @@ public class PiiScanner extends PluginPassiveScanner {
     @Override
     public void scanHttpRequestSend(HttpMessage msg, int id) {}
 
+    /**
+     * Scans the response body for credit card numbers, in a single pass.
+     *
+     * <p>The candidate numbers are the sequences of (at least {@value #MIN_DIGITS_SEQUENCE})
+     * digits, joined if separated just by whitespace. The type of card is identified by the prefix
+     * and length of the candidate, and the Luhn checksum is calculated while reading the digits.
+     */
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
-        String responseBody = msg.getResponseBody().toString();
-        List<String> candidates = getNumberSequences(responseBody);
-        for (String candidate : candidates) {
-            for (CreditCard cc : CreditCard.values()) {
-                Matcher matcher = cc.matcher(candidate);
-                while (matcher.find()) {
-                    String evidence = matcher.group();
-                    if (validateLuhnChecksum(evidence)) {
+        String body = msg.getResponseBody().toString();
+        CandidateNumber candidate = new CandidateNumber();
+        int length = body.length();
+        int i = 0;
+        while (i < length) {
+            if (!isDigit(body.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            while (i < length && isDigit(body.charAt(i))) {
+                i++;
+            }
+            if (i - start < MIN_DIGITS_SEQUENCE) {
+                checkCandidate(msg, id, candidate);
+                continue;
+            }
+
+            candidate.append(body, start, i);
+            while (i < length && isWhitespace(body.charAt(i))) {
+                i++;
+            }
+            if (i == length || !isDigit(body.charAt(i))) {
+                checkCandidate(msg, id, candidate);
+            }
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+
+    private void checkCandidate(HttpMessage msg, int id, CandidateNumber candidate) {
+        if (candidate.length == 0) {
+            return;
+        }
+        if (candidate.length <= MAX_CARD_NUMBER_LENGTH && candidate.isLuhnChecksumValid()) {
+            int lengthBit = 1 << candidate.length;
+            int cards = 0;
+            PrefixNode node = CARD_PREFIXES;
+            for (int i = 0; i < candidate.length && node != null; i++) {
+                node = node.children[candidate.digits[i] - '0'];
+                if (node != null) {
+                    for (int j = 0; j < node.lengths.length; j++) {
+                        if ((node.lengths[j] & lengthBit) != 0) {
+                            cards |= 1 << j;
+                        }
+                    }
+                }
+            }
+            if (cards != 0) {
+                String evidence = new String(candidate.digits, 0, candidate.length);
+                for (CreditCard cc : CreditCard.values()) {
+                    if ((cards & (1 << cc.ordinal())) != 0) {
                         raiseAlert(msg, id, evidence, cc.name);
                     }
                 }
             }
         }
+        candidate.reset();
     }
 
-    private static boolean validateLuhnChecksum(String evidence) {
-        int sum = 0;
-        int parity = evidence.length() % 2;
-        for (int index = 0; index < evidence.length(); index++) {
-            int digit = Integer.parseInt(evidence.substring(index, index + 1));
-            if ((index % 2) == parity) {
-                digit *= 2;
-                if (digit > 9) {
-                    digit -= 9;
+    /**
+     * A candidate credit card number, keeps the first digits and the Luhn sums of the number.
+     *
+     * <p>As the digits doubled by the Luhn algorithm depend on the length of the number it's kept
+     * the sum for both cases, doubling the digits in even and in odd positions.
+     */
+    private static class CandidateNumber {
+
+        private final char[] digits = new char[MAX_CARD_NUMBER_LENGTH];
+        private int length;
+        private int sumEvenDoubled;
+        private int sumOddDoubled;
+
+        void append(String str, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (length < MAX_CARD_NUMBER_LENGTH) {
+                    char c = str.charAt(i);
+                    int digit = c - '0';
+                    digits[length] = c;
+                    if (length % 2 == 0) {
+                        sumEvenDoubled += LUHN_DOUBLED_DIGITS[digit];
+                        sumOddDoubled += digit;
+                    } else {
+                        sumEvenDoubled += digit;
+                        sumOddDoubled += LUHN_DOUBLED_DIGITS[digit];
+                    }
                 }
+                length++;
             }
-            sum += digit;
         }
-        return (sum % 10) == 0;
+
+        boolean isLuhnChecksumValid() {
+            int sum = length % 2 == 0 ? sumEvenDoubled : sumOddDoubled;
+            return sum % 10 == 0;
+        }
+
+        void reset() {
+            length = 0;
+            sumEvenDoubled = 0;
+            sumOddDoubled = 0;
+        }
     }
 
     private void raiseAlert(HttpMessage msg, int id, String evidence, String cardType) {
@@ -136,22 +286,6 @@ public class PiiScanner extends PluginPassiveScanner {
         parent.raiseAlert(id, alert);
     }
 
-    private static List<String> getNumberSequences(String inputString) {
-        return getNumberSequences(inputString, 3);
-    }
-
-    private static List<String> getNumberSequences(String inputString, int minSequence) {
-        String regexString = String.format("(?:\\d{%d,}[\\s]*)+", minSequence);
-        // Use RE2/J to avoid StackOverflowError when the response has many numbers.
-        com.google.re2j.Matcher matcher =
-                com.google.re2j.Pattern.compile(regexString).matcher(inputString);
-        List<String> result = new ArrayList<>();
-        while (matcher.find()) {
-            result.add(matcher.group().replaceAll("\\s+", ""));
-        }
-        return result;
-    }
-
     @Override
     public int getPluginId() {
         return PLUGIN_ID;
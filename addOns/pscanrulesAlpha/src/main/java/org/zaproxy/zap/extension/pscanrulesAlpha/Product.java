@@ -19,6 +19,8 @@
  */
 package org.zaproxy.zap.extension.pscanrulesAlpha;
 
+import java.util.Objects;
+
 /**
  * A product.
  *
@@ -104,6 +106,6 @@ public class Product {
     }
     /** hashCode. Necessary for Set.containsKey() operation to work correctly */
     public int hashCode() {
-        return 314159265;
+        return Objects.hash(productType, productDistro, productName, productVersion);
     }
 }
@@ -29,6 +29,7 @@ import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.BoundedBodyScanner;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -39,6 +40,9 @@ import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
  */
 public class SourceCodeDisclosureScanner extends PluginPassiveScanner {
 
+    /** The key of the configuration with the maximum size of the body scanned, in characters. */
+    static final String MAX_BODY_SIZE_PROPERTY = "rules.sourcecodedisclosure.maxbodysize";
+
     private PassiveScanThread parent = null;
 
     private static final Logger log = Logger.getLogger(SourceCodeDisclosureScanner.class);
@@ -662,8 +666,15 @@ public class SourceCodeDisclosureScanner extends PluginPassiveScanner {
      */
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
+        if (!BoundedBodyScanner.isScannableContent(msg)) {
+            return;
+        }
+
         // get the body contents as a String, so we can match against it
         String responsebody = msg.getResponseBody().toString();
+        BoundedBodyScanner bodyScanner =
+                new BoundedBodyScanner(
+                        BoundedBodyScanner.getMaxBodySize(getConfig(), MAX_BODY_SIZE_PROPERTY));
 
         // try each of the patterns in turn against the response.
         // we deliberately do not assume that only status 200 responses will contain source code.
@@ -673,8 +684,8 @@ public class SourceCodeDisclosureScanner extends PluginPassiveScanner {
         while (patternIterator.hasNext()) {
             Pattern languagePattern = patternIterator.next();
             programminglanguage = languagePatterns.get(languagePattern);
-            Matcher matcher = languagePattern.matcher(responsebody);
-            if (matcher.find()) {
+            Matcher matcher = bodyScanner.find(languagePattern, responsebody);
+            if (matcher != null) {
                 evidence = matcher.group();
                 if (log.isDebugEnabled()) {
                     log.debug(
@@ -24,7 +24,6 @@ import java.util.Vector;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import org.apache.commons.httpclient.URI;
 import org.apache.log4j.Logger;
@@ -34,6 +33,8 @@ import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.HeaderResultCache;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -79,6 +80,9 @@ public class StrictTransportSecurityScanner extends PluginPassiveScanner {
         HSTS_MALFORMED_CONTENT
     };
 
+    /** The results of evaluating the values of single HSTS headers. */
+    private static final HeaderResultCache<StsResult> STS_RESULTS = new HeaderResultCache<>();
+
     private PassiveScanThread parent = null;
     private static final Logger logger = Logger.getLogger(StrictTransportSecurityScanner.class);
 
@@ -118,7 +122,7 @@ public class StrictTransportSecurityScanner extends PluginPassiveScanner {
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
         long start = System.currentTimeMillis();
         Vector<String> stsOption = msg.getResponseHeader().getHeaders(STS_HEADER);
-        String metaHSTS = getMetaHSTSEvidence(source);
+        String metaHSTS = getMetaHSTSEvidence(ParsedHtml.getInstance(msg, source));
 
         if (msg.getRequestHeader().isSecure()) { // No point reporting missing for non-SSL resources
             // Content available via both HTTPS and HTTP is a separate though related issue
@@ -147,24 +151,13 @@ public class StrictTransportSecurityScanner extends PluginPassiveScanner {
             } else if (stsOption.size() > 1) { // More than one header found
                 raiseAlert(VulnType.HSTS_MULTIPLE_HEADERS, null, msg, id);
             } else { // Single HSTS header entry
+                // The evaluation depends just on the value, not on the site.
                 String stsOptionString = stsOption.get(0);
-                Matcher badAgeMatcher = BAD_MAX_AGE_PATT.matcher(stsOptionString);
-                Matcher maxAgeMatcher = MAX_AGE_PATT.matcher(stsOptionString);
-                Matcher malformedMaxAgeMatcher = MALFORMED_MAX_AGE.matcher(stsOptionString);
-                Matcher wellformedMatcher = WELL_FORMED_PATT.matcher(stsOptionString);
-                if (!wellformedMatcher.matches()) {
-                    // Well formed pattern didn't match (perhaps curly quotes or some other unwanted
-                    // character(s))
-                    raiseAlert(VulnType.HSTS_MALFORMED_CONTENT, STS_HEADER, msg, id);
-                } else if (badAgeMatcher.find()) {
-                    // Matched BAD_MAX_AGE_PATT, max-age is zero
-                    raiseAlert(VulnType.HSTS_MAX_AGE_DISABLED, badAgeMatcher.group(), msg, id);
-                } else if (!maxAgeMatcher.find()) {
-                    // Didn't find a digit value associated with max-age
-                    raiseAlert(VulnType.HSTS_MAX_AGE_MISSING, stsOption.get(0), msg, id);
-                } else if (malformedMaxAgeMatcher.find()) {
-                    // Found max-age but it was malformed
-                    raiseAlert(VulnType.HSTS_MALFORMED_MAX_AGE, stsOption.get(0), msg, id);
+                StsResult result =
+                        STS_RESULTS.get(
+                                null, stsOptionString, () -> evaluateStsHeader(stsOptionString));
+                if (result != null) {
+                    raiseAlert(result.vulnType, result.evidence, msg, id);
                 }
             }
         } else if (AlertThreshold.LOW.equals(this.getAlertThreshold())
@@ -191,6 +184,34 @@ public class StrictTransportSecurityScanner extends PluginPassiveScanner {
         }
     }
 
+    /**
+     * Evaluates the value of a single HSTS header.
+     *
+     * @param stsOptionString the value of the header.
+     * @return the result, or {@code null} if there are no issues with the header.
+     */
+    private static StsResult evaluateStsHeader(String stsOptionString) {
+        Matcher badAgeMatcher = BAD_MAX_AGE_PATT.matcher(stsOptionString);
+        Matcher maxAgeMatcher = MAX_AGE_PATT.matcher(stsOptionString);
+        Matcher malformedMaxAgeMatcher = MALFORMED_MAX_AGE.matcher(stsOptionString);
+        Matcher wellformedMatcher = WELL_FORMED_PATT.matcher(stsOptionString);
+        if (!wellformedMatcher.matches()) {
+            // Well formed pattern didn't match (perhaps curly quotes or some other unwanted
+            // character(s))
+            return new StsResult(VulnType.HSTS_MALFORMED_CONTENT, STS_HEADER);
+        } else if (badAgeMatcher.find()) {
+            // Matched BAD_MAX_AGE_PATT, max-age is zero
+            return new StsResult(VulnType.HSTS_MAX_AGE_DISABLED, badAgeMatcher.group());
+        } else if (!maxAgeMatcher.find()) {
+            // Didn't find a digit value associated with max-age
+            return new StsResult(VulnType.HSTS_MAX_AGE_MISSING, stsOptionString);
+        } else if (malformedMaxAgeMatcher.find()) {
+            // Found max-age but it was malformed
+            return new StsResult(VulnType.HSTS_MALFORMED_MAX_AGE, stsOptionString);
+        }
+        return null;
+    }
+
     @Override
     public int getPluginId() {
         return PLUGIN_ID;
@@ -267,8 +288,8 @@ public class StrictTransportSecurityScanner extends PluginPassiveScanner {
      *     return {@code null}.
      * @see <a href="https://tools.ietf.org/html/rfc6797#section-8.5">RFC 6797 Section 8.5</a>
      */
-    private String getMetaHSTSEvidence(Source source) {
-        List<Element> metaElements = source.getAllElements(HTMLElementName.META);
+    private String getMetaHSTSEvidence(ParsedHtml parsedHtml) {
+        List<Element> metaElements = parsedHtml.getMetas();
         String httpEquiv;
 
         if (metaElements != null) {
@@ -282,4 +303,15 @@ public class StrictTransportSecurityScanner extends PluginPassiveScanner {
         }
         return null;
     }
+
+    private static class StsResult {
+
+        private final VulnType vulnType;
+        private final String evidence;
+
+        private StsResult(VulnType vulnType, String evidence) {
+            this.vulnType = vulnType;
+            this.evidence = evidence;
+        }
+    }
 }
@@ -23,7 +23,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import net.htmlparser.jericho.StartTag;
 import net.htmlparser.jericho.StartTagType;
@@ -33,6 +32,7 @@ import org.parosproxy.paros.network.HtmlParameter;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -89,7 +89,7 @@ public class UserControlledCharsetScanner extends PluginPassiveScanner {
 
     private void checkMetaContentCharset(
             HttpMessage msg, int id, Source source, Set<HtmlParameter> params) {
-        List<Element> metaElements = source.getAllElements(HTMLElementName.META);
+        List<Element> metaElements = ParsedHtml.getInstance(msg, source).getMetas();
         if (metaElements == null || metaElements.size() == 0) {
             return;
         }
@@ -23,15 +23,18 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.regex.Pattern;
 import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HtmlParameter;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
-import org.parosproxy.paros.network.HttpResponseHeader;
+import org.zaproxy.zap.extension.commonlib.SetCookie;
+import org.zaproxy.zap.extension.commonlib.SetCookies;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -46,6 +49,9 @@ public class UserControlledCookieScanner extends PluginPassiveScanner {
     /** Prefix for internationalized messages used by this rule */
     private static final String MESSAGE_PREFIX = "pscanalpha.usercontrolledcookie.";
 
+    /** Common delimiters in cookies. E.g. name=value;name2=v1|v2|v3 */
+    private static final Pattern COOKIE_DELIMITERS_PATTERN = Pattern.compile("[;=|]");
+
     @Override
     public String getName() {
         return Constant.messages.getString(MESSAGE_PREFIX + "name");
@@ -58,17 +64,20 @@ public class UserControlledCookieScanner extends PluginPassiveScanner {
 
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
-        if (msg.getResponseHeader().getHeader(HttpResponseHeader.SET_COOKIE) != null) {}
+        List<SetCookie> setCookies = SetCookies.getInstance(msg).getAll(HttpHeader.SET_COOKIE);
+        if (setCookies.isEmpty()) {
+            return;
+        }
 
         Set<HtmlParameter> params = new TreeSet<>(msg.getFormParams());
         params.addAll(msg.getUrlParams());
-
-        if (msg.getResponseHeader().getHeaders(HttpHeader.SET_COOKIE) == null) {
+        if (params.isEmpty()) {
             return;
         }
 
-        for (String cookie : msg.getResponseHeader().getHeaders(HttpHeader.SET_COOKIE)) {
-            cookie = decodeCookie(cookie, msg.getResponseHeader().getCharset());
+        for (SetCookie setCookie : setCookies) {
+            String cookie =
+                    decodeCookie(setCookie.getHeaderValue(), msg.getResponseHeader().getCharset());
             if (cookie == null) {
                 continue;
             }
@@ -82,13 +91,9 @@ public class UserControlledCookieScanner extends PluginPassiveScanner {
             // For example, if user input was 'number=20' and the cookie was
             // value=82384920 then we don't want to match.  I want precise
             // matches such as value=20.
-            //
-            // Common delimiters in cookies.  E.g. name=value;name2=v1|v2|v3
-            String[] cookieSplit = cookie.split("[;=|]");
+            String[] cookieSplit = COOKIE_DELIMITERS_PATTERN.split(cookie);
             for (String cookiePart : cookieSplit) {
-                if (params != null && params.size() > 0) {
-                    checkUserControllableCookieHeaderValue(msg, id, params, cookiePart, cookie);
-                }
+                checkUserControllableCookieHeaderValue(msg, id, params, cookiePart, cookie);
             }
         }
     }
@@ -34,6 +34,7 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HtmlParameter;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -64,7 +65,7 @@ public class UserControlledHTMLAttributesScanner extends PluginPassiveScanner {
             return;
         }
 
-        List<Element> htmlElements = source.getAllElements();
+        List<Element> htmlElements = ParsedHtml.getInstance(msg, source).getAllElements();
         if (htmlElements.size() == 0) {
             return;
         }
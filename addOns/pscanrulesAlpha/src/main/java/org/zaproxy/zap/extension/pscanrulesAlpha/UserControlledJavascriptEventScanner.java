@@ -33,6 +33,7 @@ import org.parosproxy.paros.network.HtmlParameter;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpStatusCode;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -115,7 +116,7 @@ public class UserControlledJavascriptEventScanner extends PluginPassiveScanner {
             return;
         }
 
-        List<Element> htmlElements = source.getAllElements();
+        List<Element> htmlElements = ParsedHtml.getInstance(msg, source).getAllElements();
         for (Element htmlElement : htmlElements) {
             Attributes attributes = htmlElement.getAttributes();
             if (attributes == null) {
@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.pscanrulesAlpha;
 
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -65,6 +66,10 @@ public class ViewStateDecoder {
      * @return a byte array containing the read data
      */
     private static byte[] readBytes(ByteBuffer bb, int n) {
+        // check before allocating, the length might be bogus (e.g. not actually ViewState data)
+        if (n > bb.remaining()) {
+            throw new BufferUnderflowException();
+        }
         byte[] bytes = new byte[n];
         bb.get(bytes);
         return bytes;
@@ -348,7 +353,18 @@ public class ViewStateDecoder {
         } catch (IOException e) {
             throw new Exception("Invalid Base64 data");
         }
+        return decodeRawAsXML(decodeddata);
+    }
 
+    /**
+     * decodes a (Base64 decoded) byte array into a human readable String, interpreting the data as
+     * a tree of ViewState objects.
+     *
+     * @param decodeddata a byte array containing the ViewState data, already Base64 decoded.
+     * @return a human readable, XML based representation of the ViewState data
+     * @throws Exception
+     */
+    public String decodeRawAsXML(byte[] decodeddata) throws Exception {
         // prepare to parse the base64 decoded data as ViewState data
         ByteBuffer dataBuffer = ByteBuffer.wrap(decodeddata);
         byte[] preamble = new byte[2];
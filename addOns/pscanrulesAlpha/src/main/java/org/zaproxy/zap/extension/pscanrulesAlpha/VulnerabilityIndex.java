@@ -0,0 +1,291 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.pscanrulesAlpha;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, in-memory index of the vulnerabilities of the products, by product name and
+ * version.
+ *
+ * <p>The versions of each product are kept sorted, the lookups are done with a binary search and do
+ * not require any locking.
+ */
+final class VulnerabilityIndex {
+
+    private static final int FILE_MAGIC = 0x5a564931; // ZVI1
+
+    private static final String SQL_ALL_VULNERABILITIES =
+            "select distinct ep.externalproductname, "
+                    + " case when ver.versionupdate != \"\" then ver.version || ep.productversiondelimiter || ver.versionupdate else ver.version end, "
+                    + " v.cveid, v.cvss "
+                    + " from externalproducts ep "
+                    + " ,products p "
+                    + " ,versions ver "
+                    + " ,versionstovulnerabilities vv "
+                    + " ,vulnerabilities v "
+                    + " where ep.productid = p.productid "
+                    + " and p.productid = ver.productid "
+                    + " and ver.versionid = vv.versionid "
+                    + " and vv.cveid = v.cveid "
+                    + " order by 1, 2, v.cvss desc, v.cveid asc ";
+
+    private static final VulnerabilityIndex EMPTY =
+            new VulnerabilityIndex(Collections.<String, ProductVersions>emptyMap());
+
+    private final Map<String, ProductVersions> products;
+
+    private VulnerabilityIndex(Map<String, ProductVersions> products) {
+        this.products = products;
+    }
+
+    /**
+     * Gets an empty index.
+     *
+     * @return the empty index
+     */
+    static VulnerabilityIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Loads the index from the given vulnerability database, with a single query.
+     *
+     * @param connection the connection to the vulnerability database
+     * @return the index
+     * @throws SQLException if an error occurred while querying the database
+     */
+    static VulnerabilityIndex load(Connection connection) throws SQLException {
+        Builder builder = new Builder();
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery(SQL_ALL_VULNERABILITIES)) {
+            while (rs.next()) {
+                String productName = rs.getString(1);
+                String version = rs.getString(2);
+                String cve = rs.getString(3);
+                if (productName != null && version != null && cve != null) {
+                    builder.add(productName, version, cve, rs.getDouble(4));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the index from the given file, previously written with {@link #write(Path)}.
+     *
+     * <p>The file is memory-mapped while read.
+     *
+     * @param file the file with the index
+     * @return the index
+     * @throws IOException if an error occurred while reading the file or if it's not valid
+     */
+    static VulnerabilityIndex read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != FILE_MAGIC) {
+                throw new IOException("Not a vulnerability index file: " + file);
+            }
+            int productCount = buffer.getInt();
+            Map<String, ProductVersions> products = new HashMap<>(productCount * 2);
+            for (int i = 0; i < productCount; i++) {
+                String name = readString(buffer);
+                int versionCount = buffer.getInt();
+                String[] versions = new String[versionCount];
+                CVE[][] cves = new CVE[versionCount][];
+                for (int j = 0; j < versionCount; j++) {
+                    versions[j] = readString(buffer);
+                    cves[j] = new CVE[buffer.getInt()];
+                    for (int k = 0; k < cves[j].length; k++) {
+                        String cve = readString(buffer);
+                        cves[j][k] = new CVE(cve, buffer.getDouble());
+                    }
+                }
+                products.put(name, new ProductVersions(versions, cves));
+            }
+            return new VulnerabilityIndex(products);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to read the vulnerability index file: " + file, e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the index to the given file, to be later read with {@link #read(Path)}.
+     *
+     * @param file the file to write to
+     * @throws IOException if an error occurred while writing the file
+     */
+    void write(Path file) throws IOException {
+        List<byte[]> strings = new ArrayList<>();
+        int size = 8;
+        for (Map.Entry<String, ProductVersions> product : products.entrySet()) {
+            size += addString(strings, product.getKey()) + 4;
+            ProductVersions productVersions = product.getValue();
+            for (int i = 0; i < productVersions.versions.length; i++) {
+                size += addString(strings, productVersions.versions[i]) + 4;
+                for (CVE cve : productVersions.cves[i]) {
+                    size += addString(strings, cve.getCve()) + 8;
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(FILE_MAGIC);
+        buffer.putInt(products.size());
+        int stringIndex = 0;
+        for (ProductVersions productVersions : products.values()) {
+            putString(buffer, strings.get(stringIndex++));
+            buffer.putInt(productVersions.versions.length);
+            for (int i = 0; i < productVersions.versions.length; i++) {
+                putString(buffer, strings.get(stringIndex++));
+                buffer.putInt(productVersions.cves[i].length);
+                for (CVE cve : productVersions.cves[i]) {
+                    putString(buffer, strings.get(stringIndex++));
+                    buffer.putDouble(cve.getCvss());
+                }
+            }
+        }
+        buffer.flip();
+
+        Path tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), "vuln", ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int addString(List<byte[]> strings, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Gets the vulnerabilities of the given product and version.
+     *
+     * @param productName the name of the product
+     * @param version the version of the product
+     * @return the vulnerabilities, ordered by CVSS (descending) and CVE ID, never {@code null}
+     */
+    List<CVE> getVulnerabilities(String productName, String version) {
+        ProductVersions productVersions = products.get(productName);
+        if (productVersions == null) {
+            return Collections.emptyList();
+        }
+        int idx = Arrays.binarySearch(productVersions.versions, version);
+        if (idx < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(productVersions.cves[idx]));
+    }
+
+    /**
+     * Gets the number of products in the index.
+     *
+     * @return the number of products
+     */
+    int getProductCount() {
+        return products.size();
+    }
+
+    private static class ProductVersions {
+
+        private final String[] versions;
+        private final CVE[][] cves;
+
+        ProductVersions(String[] versions, CVE[][] cves) {
+            this.versions = versions;
+            this.cves = cves;
+        }
+    }
+
+    /** A builder of {@link VulnerabilityIndex}, the versions can be added in any order. */
+    static class Builder {
+
+        private final Map<String, Map<String, List<CVE>>> products = new HashMap<>();
+
+        /**
+         * Adds a vulnerability of the given product and version.
+         *
+         * <p>The vulnerabilities of a product version are kept in the order they are added.
+         *
+         * @param productName the name of the product
+         * @param version the version of the product
+         * @param cve the CVE ID
+         * @param cvss the CVSS score
+         * @return this builder
+         */
+        Builder add(String productName, String version, String cve, double cvss) {
+            products.computeIfAbsent(productName, k -> new HashMap<>())
+                    .computeIfAbsent(version, k -> new ArrayList<>())
+                    .add(new CVE(cve, cvss));
+            return this;
+        }
+
+        VulnerabilityIndex build() {
+            Map<String, ProductVersions> index = new HashMap<>(products.size() * 2);
+            for (Map.Entry<String, Map<String, List<CVE>>> product : products.entrySet()) {
+                Map<String, List<CVE>> versionsCves = product.getValue();
+                String[] versions = versionsCves.keySet().toArray(new String[0]);
+                Arrays.sort(versions);
+                CVE[][] cves = new CVE[versions.length][];
+                for (int i = 0; i < versions.length; i++) {
+                    cves[i] = versionsCves.get(versions[i]).toArray(new CVE[0]);
+                }
+                index.put(product.getKey(), new ProductVersions(versions, cves));
+            }
+            return new VulnerabilityIndex(index);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.pscanrulesAlpha;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMalformedHeaderException;
+import org.parosproxy.paros.network.HttpMessage;
+
+/** Unit test for {@link Base64Disclosure}. */
+public class Base64DisclosureUnitTest extends PassiveScannerTest<Base64Disclosure> {
+
+    @Override
+    protected Base64Disclosure createScanner() {
+        return new Base64Disclosure();
+    }
+
+    @Test
+    public void shouldRaiseAlertForBase64EncodedData() throws Exception {
+        // Given
+        String base64 = "VGhpcyBpcyBhIHNlY3JldCB0b2tlbiB3aXRoIDEyMyBkaWdpdHM=";
+        HttpMessage msg = createMsg("<input value=\"" + base64 + "\">");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(1));
+        assertThat(alertsRaised.get(0).getName(), is(equalTo("Base64 Disclosure")));
+        assertThat(alertsRaised.get(0).getEvidence(), is(equalTo(base64)));
+        assertThat(
+                alertsRaised.get(0).getOtherInfo(),
+                is(equalTo("This is a secret token with 123 digits")));
+    }
+
+    @Test
+    public void shouldRaiseAlertForUrlSafeBase64EncodedData() throws Exception {
+        // Given
+        String base64 = "c3ViamVjdHM_X2Q9MSZpZD4-Pj8_fn5-IHg-Pw==";
+        HttpMessage msg = createMsg("{\"token\": \"" + base64 + "\"}");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(1));
+        assertThat(alertsRaised.get(0).getEvidence(), is(equalTo(base64)));
+        assertThat(alertsRaised.get(0).getOtherInfo(), is(equalTo("subjects?_d=1&id>>>??~~~ x>?")));
+    }
+
+    @Test
+    public void shouldNotRaiseAlertForShortData() throws Exception {
+        // Given
+        String base64 = "VGhpcyBpcyBhIHNlY3JldCB0b2tl";
+        HttpMessage msg = createMsg("<input value=\"" + base64 + "\">");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotRaiseAlertForImprobableData() throws Exception {
+        // Given
+        String noDigits = "thisIsAVeryLongFunctionNameInSomeMinifiedJavaScript";
+        HttpMessage msg = createMsg("a." + noDigits + "();");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotRaiseAlertForLowEntropyData() throws Exception {
+        // Given
+        String lowEntropy = "abababababababababababababababababab1A";
+        HttpMessage msg = createMsg("<input value=\"" + lowEntropy + "\">");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotDecodeMoreDataThanBudgetPerMessage() throws Exception {
+        // Given
+        String bigBase64 = randomBase64(Base64Disclosure.MAX_DECODED_CHARS_PER_MESSAGE + 4);
+        String base64 = "VGhpcyBpcyBhIHNlY3JldCB0b2tlbiB3aXRoIDEyMyBkaWdpdHM=";
+        HttpMessage msg = createMsg(bigBase64 + " " + base64);
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(1));
+        assertThat(alertsRaised.get(0).getEvidence(), is(equalTo(base64)));
+    }
+
+    @Test
+    public void shouldRaiseViewStateAlertsIfNotProtectedByMac() throws Exception {
+        // Given
+        String viewState = "/wEPDwULLTE2MTY2ODcyMjlkFgJmD2QWAgIBZA==";
+        HttpMessage msg = createMsg("<input name=\"__VIEWSTATE\" value=\"" + viewState + "\" />");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(2));
+        assertThat(alertsRaised.get(0).getName(), is(equalTo("ASP.NET ViewState Disclosure")));
+        assertThat(
+                alertsRaised.get(0).getEvidence(), containsString("<string>-1616687229</string>"));
+        assertThat(alertsRaised.get(1).getName(), is(equalTo("ASP.NET ViewState Integrity")));
+    }
+
+    @Test
+    public void shouldRaiseBase64AlertIfViewStatePreambleButBogusData() throws Exception {
+        // Given - a string with a length of 2GB
+        String notViewState = "/wEF/////wdzb21lIGRhdGEgdGhhdCBpcyBub3QgYSB2aWV3c3RhdGU=";
+        HttpMessage msg =
+                createMsg("<input name=\"__VIEWSTATE\" value=\"" + notViewState + "\" />");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(1));
+        assertThat(alertsRaised.get(0).getName(), is(equalTo("Base64 Disclosure")));
+        assertThat(alertsRaised.get(0).getEvidence(), is(equalTo(notViewState)));
+    }
+
+    private static String randomBase64(int length) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        Random random = new Random(1);
+        StringBuilder strBuilder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            strBuilder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return strBuilder.toString();
+    }
+
+    private static HttpMessage createMsg(String body) throws HttpMalformedHeaderException {
+        HttpMessage msg = new HttpMessage();
+        msg.setRequestHeader("GET https://www.example.com/test/ HTTP/1.1");
+        msg.setResponseHeader("HTTP/1.1 200 OK\r\n" + "Server: Apache-Coyote/1.1\r\n");
+        msg.setResponseBody(body);
+        return msg;
+    }
+}
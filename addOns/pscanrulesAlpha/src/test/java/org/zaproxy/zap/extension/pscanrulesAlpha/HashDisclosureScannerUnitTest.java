@@ -28,6 +28,7 @@ import org.parosproxy.paros.core.scanner.Plugin.AlertThreshold;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMalformedHeaderException;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.utils.ZapXmlConfiguration;
 
 /** Unit test for {@link HashDisclosureScanner}. */
 public class HashDisclosureScannerUnitTest extends PassiveScannerTest<HashDisclosureScanner> {
@@ -105,6 +106,43 @@ public class HashDisclosureScannerUnitTest extends PassiveScannerTest<HashDisclo
         assertThat(alertsRaised.size(), is(0));
     }
 
+    @Test
+    public void shouldNotRaiseAlertWhenHashInBinaryResponse() throws Exception {
+        // Given
+        String hashVal = "cc03e747a6afbbcbf8be7668acfebee5";
+        HttpMessage msg = createMsg(hashVal);
+        msg.getResponseHeader().setHeader(HttpHeader.CONTENT_TYPE, "image/png");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
+    @Test
+    public void shouldRaiseAlertWhenHashInTextOctetStreamResponse() throws Exception {
+        // Given
+        String hashVal = "cc03e747a6afbbcbf8be7668acfebee5";
+        HttpMessage msg = createMsg(hashVal);
+        msg.getResponseHeader().setHeader(HttpHeader.CONTENT_TYPE, "application/octet-stream");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(1));
+    }
+
+    @Test
+    public void shouldNotRaiseAlertWhenHashBeyondMaxBodySize() throws Exception {
+        // Given
+        String hashVal = "cc03e747a6afbbcbf8be7668acfebee5";
+        HttpMessage msg = createMsg(hashVal);
+        rule.setConfig(new ZapXmlConfiguration());
+        rule.getConfig().setProperty(HashDisclosureScanner.MAX_BODY_SIZE_PROPERTY, "10");
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
     private HttpMessage createMsg(String hashVal) throws HttpMalformedHeaderException {
         HttpMessage msg = new HttpMessage();
         msg.setRequestHeader("GET https://www.example.com/test/ HTTP/1.1");
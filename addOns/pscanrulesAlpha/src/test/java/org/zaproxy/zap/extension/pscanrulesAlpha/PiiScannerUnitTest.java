@@ -61,6 +61,41 @@ public class PiiScannerUnitTest extends PassiveScannerTest<PiiScanner> {
         assertThat(alertsRaised.size(), is(0));
     }
 
+    @Test
+    public void shouldNotRaiseAlertWhenNumberFailsLuhnChecksum() throws Exception {
+        // Given
+        String cardNumber = "4716186978544331";
+        HttpMessage msg = createMsg(cardNumber);
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
+    @Test
+    public void shouldNotRaiseAlertWhenNumberHasShortDigitSequence() throws Exception {
+        // Given
+        String cardNumber = "4716 18 69 7854 4330";
+        HttpMessage msg = createMsg(cardNumber);
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(0));
+    }
+
+    @Test
+    public void shouldRaiseAlertForEachCardNumber() throws Exception {
+        // Given
+        String cardNumbers = "4716186978544330, 1, 370695954010459";
+        HttpMessage msg = createMsg(cardNumbers);
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertThat(alertsRaised.size(), is(2));
+        assertThat(alertsRaised.get(0).getEvidence(), is("4716186978544330"));
+        assertThat(alertsRaised.get(1).getEvidence(), is("370695954010459"));
+    }
+
     private HttpMessage createMsg(String cardNumber) throws HttpMalformedHeaderException {
         HttpMessage msg = new HttpMessage();
         msg.setRequestHeader("GET https://www.example.com/test/ HTTP/1.1");
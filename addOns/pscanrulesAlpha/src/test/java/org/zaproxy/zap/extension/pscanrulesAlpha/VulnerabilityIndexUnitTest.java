@@ -0,0 +1,177 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.pscanrulesAlpha;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit test for {@link VulnerabilityIndex}. */
+public class VulnerabilityIndexUnitTest {
+
+    @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldNotHaveVulnerabilitiesIfEmpty() {
+        // Given
+        VulnerabilityIndex index = VulnerabilityIndex.empty();
+        // When
+        List<CVE> cves = index.getVulnerabilities("Apache", "2.2.3");
+        // Then
+        assertThat(cves, is(empty()));
+    }
+
+    @Test
+    public void shouldGetVulnerabilitiesOfProductVersion() {
+        // Given
+        VulnerabilityIndex index = createIndex();
+        // When
+        List<CVE> cves = index.getVulnerabilities("Apache", "2.2.3");
+        // Then
+        assertThat(ids(cves), contains("CVE-2007-0002", "CVE-2007-0001"));
+    }
+
+    @Test
+    public void shouldNotGetVulnerabilitiesOfUnknownVersionOrProduct() {
+        // Given
+        VulnerabilityIndex index = createIndex();
+        // When / Then
+        assertThat(index.getVulnerabilities("Apache", "2.2.4"), is(empty()));
+        assertThat(index.getVulnerabilities("Apache", "2.2"), is(empty()));
+        assertThat(index.getVulnerabilities("nginx", "2.2.3"), is(empty()));
+    }
+
+    @Test
+    public void shouldReadWrittenIndex() throws Exception {
+        // Given
+        Path file = tempFolder.getRoot().toPath().resolve("vulnerabilities.idx");
+        createIndex().write(file);
+        // When
+        VulnerabilityIndex index = VulnerabilityIndex.read(file);
+        // Then
+        assertThat(index.getProductCount(), is(equalTo(2)));
+        List<CVE> cves = index.getVulnerabilities("Apache", "2.2.3");
+        assertThat(ids(cves), contains("CVE-2007-0002", "CVE-2007-0001"));
+        assertThat(cves.get(0).getCvss(), is(equalTo(7.5)));
+        assertThat(ids(index.getVulnerabilities("PHP", "5.1.2")), contains("CVE-2006-0001"));
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void shouldFailToReadInvalidIndex() throws Exception {
+        // Given
+        Path file = tempFolder.newFile("vulnerabilities.idx").toPath();
+        Files.write(file, new byte[] {1, 2, 3, 4, 5});
+        // When
+        VulnerabilityIndex.read(file);
+        // Then = IOException
+    }
+
+    @Test
+    public void shouldLoadVulnerabilitiesFromDatabase() throws Exception {
+        // Given
+        Path dbFile = tempFolder.getRoot().toPath().resolve("vulnerabilities.db");
+        createDatabase(dbFile);
+        // When
+        VulnerabilityIndex index;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile)) {
+            index = VulnerabilityIndex.load(connection);
+        }
+        // Then
+        assertThat(ids(index.getVulnerabilities("Apache", "2.2.3")), contains("CVE-2007-0002"));
+        assertThat(ids(index.getVulnerabilities("PHP", "5.1.2-1")), contains("CVE-2006-0001"));
+        assertThat(index.getVulnerabilities("PHP", "5.1.2"), is(empty()));
+    }
+
+    @Test
+    public void shouldLoadIndexFromDatabaseAndSaveIndexFile() throws Exception {
+        // Given
+        Path dir = tempFolder.getRoot().toPath();
+        createDatabase(dir.resolve("vulnerabilities.db"));
+        // When
+        VulnerabilityIndex index = VulnerabilityCache.loadIndex(dir);
+        // Then
+        assertThat(ids(index.getVulnerabilities("Apache", "2.2.3")), contains("CVE-2007-0002"));
+        Path indexFile = dir.resolve("vulnerabilities.idx");
+        assertThat(Files.exists(indexFile), is(equalTo(true)));
+        assertThat(
+                ids(VulnerabilityIndex.read(indexFile).getVulnerabilities("Apache", "2.2.3")),
+                contains("CVE-2007-0002"));
+    }
+
+    @Test
+    public void shouldLoadEmptyIndexWithoutDatabase() {
+        // Given
+        Path dir = tempFolder.getRoot().toPath();
+        // When
+        VulnerabilityIndex index = VulnerabilityCache.loadIndex(dir);
+        // Then
+        assertThat(index.getProductCount(), is(equalTo(0)));
+    }
+
+    private static VulnerabilityIndex createIndex() {
+        return new VulnerabilityIndex.Builder()
+                .add("PHP", "5.1.2", "CVE-2006-0001", 5.0)
+                .add("Apache", "2.2.3", "CVE-2007-0002", 7.5)
+                .add("Apache", "2.2.3", "CVE-2007-0001", 4.3)
+                .add("Apache", "2.0.59", "CVE-2006-0002", 5.0)
+                .add("Apache", "2.2.10", "CVE-2008-0001", 2.6)
+                .build();
+    }
+
+    private static void createDatabase(Path file) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+                Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(
+                    "create table externalproducts (externalproductname text, productid integer, productversiondelimiter text)");
+            stmt.executeUpdate("create table products (productid integer)");
+            stmt.executeUpdate(
+                    "create table versions (versionid integer, productid integer, version text, versionupdate text)");
+            stmt.executeUpdate(
+                    "create table versionstovulnerabilities (versionid integer, cveid text)");
+            stmt.executeUpdate("create table vulnerabilities (cveid text, cvss real)");
+            stmt.executeUpdate(
+                    "insert into externalproducts values ('Apache', 1, '-'), ('PHP', 2, '-')");
+            stmt.executeUpdate("insert into products values (1), (2)");
+            stmt.executeUpdate(
+                    "insert into versions values (1, 1, '2.2.3', ''), (2, 2, '5.1.2', '1')");
+            stmt.executeUpdate(
+                    "insert into versionstovulnerabilities values (1, 'CVE-2007-0002'), (2, 'CVE-2006-0001')");
+            stmt.executeUpdate(
+                    "insert into vulnerabilities values ('CVE-2007-0002', 7.5), ('CVE-2006-0001', 5.0)");
+        }
+    }
+
+    private static List<String> ids(List<CVE> cves) {
+        return cves.stream().map(CVE::getCve).collect(Collectors.toList());
+    }
+}
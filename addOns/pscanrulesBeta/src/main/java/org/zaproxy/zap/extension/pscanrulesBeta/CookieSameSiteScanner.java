@@ -19,12 +19,12 @@
  */
 package org.zaproxy.zap.extension.pscanrulesBeta;
 
-import java.util.Vector;
 import net.htmlparser.jericho.Source;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
-import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.SetCookie;
+import org.zaproxy.zap.extension.commonlib.SetCookies;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -53,43 +53,41 @@ public class CookieSameSiteScanner extends PluginPassiveScanner {
 
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
-        checkCookies(msg, id, HttpHeader.SET_COOKIE);
-        checkCookies(msg, id, HttpHeader.SET_COOKIE2);
-    }
-
-    private void checkCookies(HttpMessage msg, int id, String cookieHeader) {
-        Vector<String> cookies = msg.getResponseHeader().getHeaders(cookieHeader);
-
-        if (cookies == null) {
-            return;
-        }
-        for (String cookie : cookies) {
-            String sameSiteVal =
-                    SetCookieUtils.getAttributeValue(cookie, SAME_SITE_COOKIE_ATTRIBUTE);
+        SetCookies setCookies = SetCookies.getInstance(msg);
+        for (SetCookie setCookie : setCookies.getAll()) {
+            String sameSiteVal = setCookie.getAttributeValue(SAME_SITE_COOKIE_ATTRIBUTE);
             if (sameSiteVal == null) {
                 // Its missing
-                this.raiseAlert(msg, id, cookie, this.getDescription());
+                this.raiseAlert(msg, id, setCookies, setCookie, this.getDescription());
             } else if (!(sameSiteVal.equalsIgnoreCase(SAME_SITE_COOKIE_VALUE_STRICT)
                     || sameSiteVal.equalsIgnoreCase(SAME_SITE_COOKIE_VALUE_LAX))) {
                 // Its present but with an illegal value
                 this.raiseAlert(
-                        msg, id, cookie, Constant.messages.getString(MESSAGE_PREFIX + "badval"));
+                        msg,
+                        id,
+                        setCookies,
+                        setCookie,
+                        Constant.messages.getString(MESSAGE_PREFIX + "badval"));
             }
         }
     }
 
-    private void raiseAlert(HttpMessage msg, int id, String cookieHeaderValue, String description) {
+    private void raiseAlert(
+            HttpMessage msg,
+            int id,
+            SetCookies setCookies,
+            SetCookie setCookie,
+            String description) {
         Alert alert = new Alert(getPluginId(), Alert.RISK_LOW, Alert.CONFIDENCE_MEDIUM, getName());
         alert.setDetail(
                 description,
                 msg.getRequestHeader().getURI().toString(),
-                SetCookieUtils.getCookieName(cookieHeaderValue),
+                setCookie.getName(),
                 "",
                 "",
                 getSolution(),
                 getReference(),
-                SetCookieUtils.getSetCookiePlusName(
-                        msg.getResponseHeader().toString(), cookieHeaderValue),
+                setCookies.getSetCookiePlusName(setCookie),
                 16, // CWE Id 16 - Configuration
                 13, // WASC Id - Info leakage
                 msg);
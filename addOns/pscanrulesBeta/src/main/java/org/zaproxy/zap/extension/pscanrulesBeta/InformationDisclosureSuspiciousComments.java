@@ -27,14 +27,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
-import net.htmlparser.jericho.StartTagType;
 import net.htmlparser.jericho.Tag;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.BoundedBodyScanner;
+import org.zaproxy.zap.extension.commonlib.MultiStringMatcher;
+import org.zaproxy.zap.extension.commonlib.ParsedHtml;
 import org.zaproxy.zap.extension.pscan.PassiveScanThread;
 import org.zaproxy.zap.extension.pscan.PluginPassiveScanner;
 
@@ -44,13 +45,21 @@ public class InformationDisclosureSuspiciousComments extends PluginPassiveScanne
             "pscanbeta.informationdisclosuresuspiciouscomments.";
     private static final int PLUGIN_ID = 10027;
 
+    /**
+     * The key of the configuration with the maximum size of the JavaScript scanned, in characters.
+     */
+    static final String MAX_BODY_SIZE_PROPERTY = "rules.suspiciouscomments.maxbodysize";
+
     private PassiveScanThread parent = null;
     public static final String suspiciousCommentsListDir = "xml";
     public static final String suspiciousCommentsListFile = "suspicious-comments.txt";
     private static final Logger logger =
             Logger.getLogger(InformationDisclosureSuspiciousComments.class);
 
-    private static List<Pattern> patterns = null;
+    /** The characters that make a suspicious word a regular expression, not a plain word. */
+    private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
+
+    private static volatile SuspiciousWords suspiciousWords;
 
     @Override
     public void scanHttpRequestSend(HttpMessage msg, int id) {}
@@ -58,51 +67,46 @@ public class InformationDisclosureSuspiciousComments extends PluginPassiveScanne
     @Override
     public void scanHttpResponseReceive(HttpMessage msg, int id, Source source) {
 
-        List<Pattern> patterns = getPatterns();
+        SuspiciousWords words = getSuspiciousWords();
 
         if (msg.getResponseBody().length() > 0 && msg.getResponseHeader().isText()) {
             StringBuilder todoComments = new StringBuilder();
 
             if (msg.getResponseHeader().isJavaScript()) {
                 // Just treat as text
-                String[] lines = msg.getResponseBody().toString().split("\n");
+                BoundedBodyScanner bodyScanner =
+                        new BoundedBodyScanner(
+                                BoundedBodyScanner.getMaxBodySize(
+                                        getConfig(), MAX_BODY_SIZE_PROPERTY));
+                String[] lines =
+                        bodyScanner.getScannableBody(msg.getResponseBody().toString()).split("\n");
                 for (String line : lines) {
-                    for (Pattern pattern : patterns) {
-                        if (pattern.matcher(line).find()) {
-                            todoComments.append(line);
-                            todoComments.append("\n");
-                            break; // Only need to record this line once
-                        }
+                    if (words.isFound(line)) {
+                        todoComments.append(line);
+                        todoComments.append("\n");
                     }
                 }
             } else {
                 // Can use the parser
 
+                ParsedHtml parsedHtml = ParsedHtml.getInstance(msg, source);
+
                 // Check the comments
-                List<Tag> tags = source.getAllTags(StartTagType.COMMENT);
+                List<Tag> tags = parsedHtml.getComments();
                 for (Tag tag : tags) {
                     String tagStr = tag.toString();
-                    for (Pattern pattern : patterns) {
-                        if (pattern.matcher(tagStr).find()) {
-                            todoComments.append(tagStr);
-                            todoComments.append("\n");
-                            break; // Only need to record this comment once
-                        }
+                    if (words.isFound(tagStr)) {
+                        todoComments.append(tagStr);
+                        todoComments.append("\n");
                     }
                 }
                 // Check the scripts
-                Element el;
-                int offset = 0;
-                while ((el = source.getNextElement(offset, HTMLElementName.SCRIPT)) != null) {
+                for (Element el : parsedHtml.getScripts()) {
                     String elStr = el.toString();
-                    for (Pattern pattern : patterns) {
-                        if (pattern.matcher(elStr).find()) {
-                            todoComments.append(elStr);
-                            todoComments.append("\n");
-                            break; // Only need to record this script once
-                        }
+                    if (words.isFound(elStr)) {
+                        todoComments.append(elStr);
+                        todoComments.append("\n");
                     }
-                    offset = el.getEnd();
                 }
             }
             if (todoComments.length() > 0) {
@@ -129,44 +133,87 @@ public class InformationDisclosureSuspiciousComments extends PluginPassiveScanne
         parent.raiseAlert(id, alert);
     }
 
-    private static List<Pattern> getPatterns() {
-        if (patterns == null) {
-            patterns = new ArrayList<>();
-
-            try {
-                File f =
-                        new File(
-                                Constant.getZapHome()
-                                        + File.separator
-                                        + suspiciousCommentsListDir
-                                        + File.separator
-                                        + suspiciousCommentsListFile);
-                if (!f.exists()) {
-                    throw new IOException("Couldn't find resource: " + f.getAbsolutePath());
-                }
-                try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
-                    String line = null;
-                    while ((line = reader.readLine()) != null) {
-                        line = line.trim();
-                        if (!line.startsWith("#") && line.length() > 0) {
+    /**
+     * Gets the suspicious words, (re)loaded from the file if not yet loaded or if changed since
+     * last loaded, which allows to change the words without restarting ZAP.
+     *
+     * @return the suspicious words, never {@code null}.
+     */
+    private static SuspiciousWords getSuspiciousWords() {
+        File f =
+                new File(
+                        Constant.getZapHome()
+                                + File.separator
+                                + suspiciousCommentsListDir
+                                + File.separator
+                                + suspiciousCommentsListFile);
+        long lastModified = f.lastModified();
+        SuspiciousWords words = suspiciousWords;
+        if (words != null && words.lastModified == lastModified) {
+            return words;
+        }
+
+        synchronized (InformationDisclosureSuspiciousComments.class) {
+            words = suspiciousWords;
+            if (words == null || words.lastModified != lastModified) {
+                words = loadSuspiciousWords(f, lastModified);
+                suspiciousWords = words;
+            }
+        }
+        return words;
+    }
+
+    private static SuspiciousWords loadSuspiciousWords(File f, long lastModified) {
+        List<String> plainWords = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+        try {
+            if (!f.exists()) {
+                throw new IOException("Couldn't find resource: " + f.getAbsolutePath());
+            }
+            try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
+                String line = null;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.startsWith("#") && line.length() > 0) {
+                        if (isPlainWord(line)) {
+                            plainWords.add(line);
+                        } else {
                             patterns.add(
                                     Pattern.compile(
                                             "\\b" + line + "\\b", Pattern.CASE_INSENSITIVE));
                         }
                     }
                 }
-            } catch (IOException e) {
-                logger.error(
-                        "Error on opening/reading suspicious comments file: "
-                                + File.separator
-                                + suspiciousCommentsListDir
-                                + File.separator
-                                + suspiciousCommentsListFile
-                                + " Error: "
-                                + e.getMessage());
             }
+        } catch (IOException e) {
+            logger.error(
+                    "Error on opening/reading suspicious comments file: "
+                            + File.separator
+                            + suspiciousCommentsListDir
+                            + File.separator
+                            + suspiciousCommentsListFile
+                            + " Error: "
+                            + e.getMessage());
         }
-        return patterns;
+        return new SuspiciousWords(lastModified, plainWords, patterns);
+    }
+
+    /**
+     * Tells whether or not the given word is matched the same way by the {@link MultiStringMatcher}
+     * as by a case insensitive regular expression, that is, it has just ASCII characters and no
+     * regular expression constructs.
+     *
+     * @param word the word to check.
+     * @return {@code true} if the word is plain, {@code false} otherwise.
+     */
+    private static boolean isPlainWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c > 127 || REGEX_CHARS.indexOf(c) != -1) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -191,4 +238,36 @@ public class InformationDisclosureSuspiciousComments extends PluginPassiveScanne
     public int getPluginId() {
         return PLUGIN_ID;
     }
+
+    /**
+     * The suspicious words, the plain words are found all at once with a {@link
+     * MultiStringMatcher}, the others with regular expressions.
+     */
+    private static final class SuspiciousWords {
+
+        private final long lastModified;
+        private final MultiStringMatcher plainWords;
+        private final List<Pattern> patterns;
+
+        private SuspiciousWords(
+                long lastModified, List<String> plainWords, List<Pattern> patterns) {
+            this.lastModified = lastModified;
+            this.plainWords =
+                    plainWords.isEmpty() ? null : new MultiStringMatcher(plainWords, true);
+            this.patterns = patterns;
+        }
+
+        boolean isFound(String text) {
+            if (plainWords != null
+                    && plainWords.findFirst(text, MultiStringMatcher.WORD_BOUNDARIES) != -1) {
+                return true;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(text).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -43,6 +43,8 @@ public class InformationDisclosureSuspiciousCommentsUnitTest
         return new InformationDisclosureSuspiciousComments();
     }
 
+    private Path testFile;
+
     @Override
     public void setUpZap() throws Exception {
         super.setUpZap();
@@ -52,7 +54,7 @@ public class InformationDisclosureSuspiciousCommentsUnitTest
                         Paths.get(
                                 Constant.getZapHome(),
                                 InformationDisclosureSuspiciousComments.suspiciousCommentsListDir));
-        Path testFile =
+        testFile =
                 xmlDir.resolve(InformationDisclosureSuspiciousComments.suspiciousCommentsListFile);
         Files.write(testFile, Arrays.asList("# FixMeNot", "  FixMe  ", "TODO", "\t "));
     }
@@ -244,4 +246,21 @@ public class InformationDisclosureSuspiciousCommentsUnitTest
         // Then
         assertEquals(0, alertsRaised.size());
     }
+
+    @Test
+    public void shouldReloadSuspiciousWordsIfFileChanged() throws Exception {
+        // Given
+        HttpMessage msg =
+                createHttpMessageWithRespBody(
+                        "<!-- The password is in the db -->", "text/html;charset=ISO-8859-1");
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        assertEquals(0, alertsRaised.size());
+        Files.write(testFile, Arrays.asList("pass(word)?"));
+        testFile.toFile().setLastModified(System.currentTimeMillis() + 60000);
+        // When
+        rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
+        // Then
+        assertEquals(1, alertsRaised.size());
+        assertEquals("<!-- The password is in the db -->\n", alertsRaised.get(0).getOtherInfo());
+    }
 }
@@ -6,14 +6,22 @@ description = "An advanced active injection bundle for SQLi (derived by SQLMap)"
 zapAddOn {
     addOnName.set("Advanced SQLInjection Scanner")
     addOnStatus.set(AddOnStatus.BETA)
-    zapVersion.set("2.5.0")
+    zapVersion.set("2.7.0")
 
     manifest {
         author.set("Andrea Pompili (Yhawke)")
+        dependencies {
+            addOns {
+                register("commonlib") {
+                    version.set("1.*")
+                }
+            }
+        }
     }
 }
 
 dependencies {
+    compileOnly(parent!!.childProjects.get("commonlib")!!)
     implementation("org.jdom:jdom:1.1.3")
 }
 
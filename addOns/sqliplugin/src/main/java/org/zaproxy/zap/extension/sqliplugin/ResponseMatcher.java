@@ -19,8 +19,8 @@
  */
 package org.zaproxy.zap.extension.sqliplugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import org.zaproxy.zap.extension.commonlib.ResponseSimilarity;
+import org.zaproxy.zap.extension.commonlib.ResponseSimilarity.Sketch;
 
 /**
  * Class for string diff management used to compare the original content to the one related to a
@@ -45,28 +45,26 @@ public class ResponseMatcher {
     // Maximum value for comparison ratio
     public static final double MAX_RATIO = 1.0;
 
-    private String strA;
-    private String strB;
-    // Inner helper class for strB string counting
-    private Map<Integer, Integer> fullBCount;
+    private Sketch strA;
+    // The sketch of the original response is kept (and its character counts computed just once)
+    // until a new original response is set
+    private Sketch strB;
     private double matchRatio;
     private boolean negativeLogic;
 
     public ResponseMatcher() {
-        fullBCount = new HashMap<>();
         matchRatio = -1;
         negativeLogic = false;
     }
 
     /** @param strA */
     public void setInjectedResponse(String a) {
-        this.strA = a;
+        this.strA = ResponseSimilarity.sketch(a);
     }
 
     /** @param strB */
     public void setOriginalResponse(String b) {
-        this.strB = b;
-        this.fullBCount.clear();
+        this.strB = ResponseSimilarity.sketch(b);
         matchRatio = -1;
     }
 
@@ -82,55 +80,10 @@ public class ResponseMatcher {
      * @return
      */
     public double getQuickRatio() {
-        int chr;
-        int count;
-        int matches = 0;
-        int start = 0;
-        while (start < Math.min(strA.length(), strB.length())) {
-            if (strA.charAt(start) == strB.charAt(start)) {
-                start += 1;
-
-            } else break;
-        }
-
-        // viewing strA and strB as multisets, set matches to the cardinality
+        // viewing strA and strB as multisets, count the cardinality
         // of their intersection; this counts the number of matches
         // without regard to order, so is clearly an upper bound
-        if (fullBCount.isEmpty()) {
-
-            for (int i = start; i < strB.length(); i++) {
-                chr = strB.charAt(i);
-                count = fullBCount.containsKey(chr) ? fullBCount.get(chr) : 1;
-                fullBCount.put(chr, count);
-            }
-        }
-
-        // avail[x] is the number of times x appears in 'strB' less the
-        // number of times we've seen it in 'strA' so far ... kinda
-        Map<Integer, Integer> avail = new HashMap<>();
-
-        for (int i = start; i < strA.length(); i++) {
-            chr = strA.charAt(i);
-            if (avail.containsKey(chr)) {
-                count = avail.get(chr);
-
-            } else if (fullBCount.containsKey(chr)) {
-                count = fullBCount.get(chr);
-
-            } else {
-                count = 0;
-            }
-
-            avail.put(chr, count - 1);
-
-            if (count > 0) {
-                matches += 1;
-            }
-        }
-
-        int totalLength = strA.length() + strB.length();
-
-        return (totalLength > 0) ? 2.0 * (start + matches) / totalLength : 1.0;
+        return ResponseSimilarity.quickRatio(strA, strB);
     }
 
     /**
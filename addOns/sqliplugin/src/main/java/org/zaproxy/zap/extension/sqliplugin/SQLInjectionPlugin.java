@@ -37,6 +37,7 @@ import org.parosproxy.paros.core.scanner.Alert;
 import org.parosproxy.paros.core.scanner.Category;
 import org.parosproxy.paros.network.HttpHeader;
 import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.BaselineResponses;
 import org.zaproxy.zap.model.Tech;
 import org.zaproxy.zap.model.TechSet;
 
@@ -922,20 +923,22 @@ public class SQLInjectionPlugin extends AbstractAppParamPlugin {
                             // First check if we have enough sample for the test
                             if (responseTimes.size() < MIN_TIME_RESPONSES) {
                                 // We need some dummy requests to have a correct
-                                // deviation model for this page
+                                // deviation model for this page, the response times
+                                // of the original page are shared with other scan rules
                                 log.warn(
                                         "Time-based comparison needs larger statistical model: "
                                                 + "making a few dummy requests");
 
-                                do {
-                                    tempMsg = sendPayload(null, null, true);
-                                    if (tempMsg == null) {
-                                        // Probably a Circular Exception occurred
-                                        // exit the plugin
-                                        return;
-                                    }
-
-                                } while (responseTimes.size() < MIN_TIME_RESPONSES);
+                                List<Long> normalResponseTimes =
+                                        getNormalResponseTimes(
+                                                parameter,
+                                                MIN_TIME_RESPONSES - responseTimes.size());
+                                if (normalResponseTimes == null) {
+                                    // Probably a Circular Exception occurred
+                                    // exit the plugin
+                                    return;
+                                }
+                                responseTimes.addAll(normalResponseTimes);
                             }
 
                             // OK now we can get the deviation of the
@@ -1248,6 +1251,53 @@ public class SQLInjectionPlugin extends AbstractAppParamPlugin {
         return tempMsg;
     }
 
+    /**
+     * Gets the response times of the original page, shared with other scan rules, sending it until
+     * there are at least the given number of response times.
+     *
+     * <p>A request that fails with an I/O error is retried, the response times already obtained are
+     * kept. After as many failed requests as the number of response times needed, the response
+     * times obtained so far are used.
+     *
+     * @param paramName the name of the parameter being tested, for logging purposes
+     * @param count the minimum number of response times
+     * @return the response times, or {@code null} if the request could not be sent (for example,
+     *     circular redirect)
+     */
+    private List<Long> getNormalResponseTimes(String paramName, int count) {
+        BaselineResponses baselines = BaselineResponses.getInstance(getParent());
+        int failedRequests = 0;
+        while (failedRequests < count) {
+            try {
+                return baselines.getResponseTimes(getBaseMsg(), true, this::sendAndReceive, count);
+
+            } catch (RedirectException | URIException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug(
+                            "SQL Injection vulnerability check failed for parameter ["
+                                    + paramName
+                                    + "] while getting the normal response times due to: "
+                                    + e.getClass().getCanonicalName(),
+                            e);
+                }
+                return null;
+
+            } catch (IOException ex) {
+                // Ok we got an error, keep the response times already obtained and try again
+                failedRequests++;
+
+                // Do not try to internationalise this.. we need an error message in any event..
+                // if it's in English, it's still better than not having it at all.
+                log.warn(
+                        "SQL Injection vulnerability check failed for parameter ["
+                                + paramName
+                                + "] while getting the normal response times due to an I/O error",
+                        ex);
+            }
+        }
+        return baselines.getResponseTimes(getBaseMsg(), true);
+    }
+
     /**
      * Returns True if the last web request resulted in a (recognized) DBMS error page
      *
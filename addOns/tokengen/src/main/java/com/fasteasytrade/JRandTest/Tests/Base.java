@@ -54,6 +54,8 @@ public class Base {
 	private Result result = Result.FAIL;
 	private List<String> details = new ArrayList<String>();
 	private List<String> errors = new ArrayList<String>();
+	// ZAP: The p-values computed by the tests that only print their results.
+	private List<Double> pValues = new ArrayList<Double>();
 	
 	final public double PI = Math.PI; // 3.141592653589793;
 
@@ -127,16 +129,8 @@ public class Base {
 	 *            array can be sorted.
 	 */
 	public void qsort(double[] arr, int dim) {
-		int i, j;
-		double temp;
-
-		for (i = 0; i < dim - 1; i++)
-			for (j = i + 1; j < dim; j++)
-				if (arr[i] > arr[j]) {
-					temp = arr[i];
-					arr[i] = arr[j];
-					arr[j] = temp;
-				}
+		// ZAP: Sort in O(n log n), the exchange sort took seconds for the 65536 counts of Count16Bits.
+		Arrays.sort(arr, 0, dim);
 	}
 
 	/**
@@ -149,16 +143,8 @@ public class Base {
 	 *            array can be sorted.
 	 */
 	public void qsort(int[] arr, int dim) {
-		int i, j;
-		int temp;
-
-		for (i = 0; i < dim - 1; i++)
-			for (j = i + 1; j < dim; j++)
-				if (arr[i] > arr[j]) {
-					temp = arr[i];
-					arr[i] = arr[j];
-					arr[j] = temp;
-				}
+		// ZAP: Sort in O(n log n), the exchange sort took seconds for the 65536 counts of Count16Bits.
+		Arrays.sort(arr, 0, dim);
 	}
 
 	/**
@@ -183,16 +169,8 @@ public class Base {
 	 *            array can be sorted.
 	 */
 	public void qsort(point[] arr, int dim) {
-		int i, j;
-		point temp;
-
-		for (i = 0; i < dim - 1; i++)
-			for (j = i + 1; j < dim; j++)
-				if (arr[i].y > arr[j].y) {
-					temp = arr[i];
-					arr[i] = arr[j];
-					arr[j] = temp;
-				}
+		// ZAP: Sort in O(n log n), the exchange sort took seconds for the 8000 points of MinimumDistance.
+		Arrays.sort(arr, 0, dim, (a, b) -> Double.compare(a.y, b.y));
 	}
 
 	public static java.text.DecimalFormat df = new java.text.DecimalFormat();
@@ -213,7 +191,10 @@ public class Base {
 	 * @return double with 4 decimal places (as in C "%.4f")
 	 */
 	public String d4d(double d) {
-		return df.format(d);
+		// ZAP: DecimalFormat is not thread safe, the tests might run concurrently.
+		synchronized (df) {
+			return df.format(d);
+		}
 	}
 
 	/**
@@ -769,6 +750,16 @@ public class Base {
 		this.errors.add(error);
 	}
 
+	// ZAP: Allow to obtain the p-values computed by the tests.
+	protected void addPValue (double pValue) {
+		this.pValues.add(pValue);
+	}
+
+	// ZAP: Allow to obtain the p-values computed by the tests.
+	public List<Double> getPValues() {
+		return pValues;
+	}
+
 	public Result getResult() throws Exception {
 		if ( ! hasBeenRun) {
 			throw new Exception("Test has not been run");
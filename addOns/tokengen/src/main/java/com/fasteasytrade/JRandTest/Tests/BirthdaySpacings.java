@@ -139,6 +139,8 @@ public class BirthdaySpacings extends Base {
 		}
 
 		pvalue = KStest(p, 32 - no_bits + 1);
+		// ZAP: Allow to obtain the p-value.
+		addPValue(pvalue);
 
 		printf("\n\t\t\tdegree of freedoms is: " + dgf + "\n");
 		puts("\t---------------------------------------------------------------");
@@ -104,15 +104,15 @@ public class MinimumDistance extends Base
 			{
 				pts[j] = new point();
 				pts[j].y = ratio * (0xffffffffL & readInt());
+				// ZAP: Removed debug output to stdout.
 				if (!isOpen())
 				{
-					System.out.println("Eof... 1");
 					break;
 				}
 				pts[j].x = ratio * (0xffffffffL & readInt());
+				// ZAP: Removed debug output to stdout.
 				if (!isOpen())
 				{
-					System.out.println("Eof... 2");
 					break;
 				}
 				//if (j > 0 && pts[j].y == pts[j-1].y && pts[j].x == pts[j-1].x)
@@ -133,12 +133,14 @@ public class MinimumDistance extends Base
 				for (k = j + 1; dmin > 0 && k < no_pts; k++)
 				{
 					d = (pts[k].y - pts[j].y) * (pts[k].y - pts[j].y);
+					// ZAP: The points are sorted by y, no closer points after this one (as in DIEHARD).
+					if (d >= dmin)
+						break;
 					if (d < dmin)
 					{
 						d += (pts[k].x - pts[j].x) * (pts[k].x - pts[j].x);
 						dmin = MIN(dmin, d);
-						if (dmin == 0)
-							System.out.println("dmin=0 @ i="+i+" j="+j+" k="+k);
+						// ZAP: Removed debug output to stdout, printed when the points are the same.
 					}
 				}
 			}
@@ -168,6 +170,8 @@ public class MinimumDistance extends Base
 				+ no_smpl
 				+ " transformed mindist^2's:");
 		pvalue = KStest(p, no_smpl);
+		// ZAP: Allow to obtain the p-value.
+		addPValue(pvalue);
 		printf(" p-value=" + d4(pvalue) + "\n\n");
 
 	}
@@ -67,7 +67,8 @@ public class MonteCarlo extends Base
 	 */
 	public void test(String filename) throws Exception
 	{
-		final int square256 = 256 * 256; // square(radius) of circle(256)
+		// ZAP: The coordinates have 16 bits, the radius is 2^16 (was 256, which left almost all points out).
+		final long square65536 = 65536L * 65536L; // square(radius) of circle(65536)
 		long success = 0;
 		long length = 0;
 
@@ -97,21 +98,28 @@ public class MonteCarlo extends Base
 			y = ((0xff & b[2]) << 8) | (0xff & b[3]);
 
 			/*
-			 * Is point(x,y) in circle(256) ?
+			 * Is point(x,y) in circle(65536) ?
 			 */
-			if (x * x + y * y <= square256)
+			if ((long) x * x + (long) y * y < square65536)
 				success++;
 		}
 
 		closeInputStream();
 
 		printf("\n\t found " + length + " points.");
-		printf("\n\t found " + success + " points in circle(256).");
+		printf("\n\t found " + success + " points in circle(65536).");
 
 		double piValue = ((double) success / length);
 		piValue *= 4.0;
 		printf("\n\t piValue: " + d4(piValue));
 
+		// ZAP: Allow to obtain the p-value, the successes are binomial with p = PI / 4.
+		if (length > 0) {
+			double z = (success - length * PI / 4) / sqrt(length * (PI / 4) * (1 - PI / 4));
+			addPValue(1 - Phi(z));
+			printf("\n\t p-value: " + d4(1 - Phi(z)));
+		}
+
 		return;
 	}
 
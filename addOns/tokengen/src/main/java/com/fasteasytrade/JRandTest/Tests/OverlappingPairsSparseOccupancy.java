@@ -163,6 +163,8 @@ public class OverlappingPairsSparseOccupancy extends Base
 						+ (no_mswds)
 						+ " ");
 				printf("\t\t" + d4(z) + "\t\t" + d4(1 - Phi(z)) + "\n");
+				// ZAP: Allow to obtain the p-values.
+				addPValue(1 - Phi(z));
 			}
 
 			closeInputStream();
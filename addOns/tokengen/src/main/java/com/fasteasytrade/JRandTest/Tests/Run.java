@@ -200,14 +200,12 @@ public class Run extends Base
 			{
 				for (k = 0; k < length; ++k)
 				{
-if (!rs.isOpen()) {
-	System.out.println("SBSB closed!");
-	break;
-}
+					// ZAP: Removed debug output to stdout, printed for every number read.
+					if (!rs.isOpen()) {
+						break;
+					}
 					//x[k] = uni() / (0.000 + UNIMAX);
 					x[k] = read32BitsAsDouble();
-					//System.out.println("x["+k+"]="+x[k]);
-System.out.println("x["+k+"]="+x[k]);
 				}
 
 				udruns(x, length, ustat, dstat);
@@ -216,10 +214,13 @@ System.out.println("x["+k+"]="+x[k]);
 			}
 
 			pv = KStest(pu, no_seqs);
+			// ZAP: Allow to obtain the p-values.
+			addPValue(pv);
 			printf("\n\t\t\t\tSet " + i + "\n");
 			printf(
 				"\t\t runs up; ks test for " + no_seqs + " p's: " + pv + "\n");
 			pv = KStest(pd, no_seqs);
+			addPValue(pv);
 			printf(
 				"\t\t runs down; ks test for "
 					+ no_seqs
@@ -182,6 +182,8 @@ public class Squeeze extends Base
 
 		printf(
 			"\n\t\tChi-square with 42 degrees of freedom: " + d4(chsq) + "\n");
+		// ZAP: Allow to obtain the p-value.
+		addPValue(1 - Chisq(42, chsq));
 		printf(
 			"\t\tz-score="
 				+ d4((chsq - 42.) / std)
@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.tokengen;
 
 import java.awt.Component;
+import java.awt.EventQueue;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.HeadlessException;
@@ -28,6 +29,7 @@ import java.awt.event.ActionListener;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.text.MessageFormat;
 import java.util.List;
 import java.util.ResourceBundle;
 import javax.swing.JButton;
@@ -158,9 +160,22 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
     }
 
     public void startAnalysis(CharacterFrequencyMap cfm) {
+        startAnalysis(cfm, false);
+    }
+
+    /**
+     * Starts the analysis of the given tokens.
+     *
+     * @param cfm the tokens to analyse.
+     * @param deepAnalysis {@code true} if the deep analysis should be done, {@code false}
+     *     otherwise.
+     */
+    public void startAnalysis(CharacterFrequencyMap cfm, boolean deepAnalysis) {
         this.requestFocus();
         analyserThread = new TokenAnalyserThread(messages);
         analyserThread.setCfm(cfm);
+        analyserThread.setDeepAnalysis(deepAnalysis);
+        this.getProgressBar().setMaximum(analyserThread.getNumberOfTests());
         analyserThread.addListenner(this);
         analyserThread.addOutputDestination(this.getDetailsArea());
         analyserThread.start();
@@ -186,6 +201,21 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
             this.getErrorsArea().append("\n");
         }
         this.getProgressBar().setValue(this.getProgressBar().getValue() + 1);
+        // After any pending progress of the test.
+        EventQueue.invokeLater(() -> getProgressBar().setString(null));
+    }
+
+    @Override
+    public void notifyTestProgress(TokenAnalysisTestResult.Type type, int percentage) {
+        String name = new TokenAnalysisTestResult(type).getName();
+        EventQueue.invokeLater(
+                () ->
+                        getProgressBar()
+                                .setString(
+                                        MessageFormat.format(
+                                                messages.getString("tokengen.analyse.progress"),
+                                                name,
+                                                percentage)));
     }
 
     private JButton getCancelButton() {
@@ -270,6 +300,7 @@ public class AnalyseTokensDialog extends AbstractDialog implements TokenAnalyser
 
     public void reset() {
         this.getProgressBar().setValue(0);
+        this.getProgressBar().setString(null);
         this.getErrorsArea().setText("");
         this.getDetailsArea().setText("");
         this.getTokenAnalysisResultsTableModel().clear();
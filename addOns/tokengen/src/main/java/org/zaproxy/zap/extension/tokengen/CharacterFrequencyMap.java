@@ -21,60 +21,94 @@ package org.zaproxy.zap.extension.tokengen;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.zaproxy.zap.extension.tokengen.TokenAnalysisTestResult.Result;
 
+/**
+ * The tokens collected and the statistics of their characters.
+ *
+ * <p>The tokens are kept packed in a single buffer and the characters are counted in primitive
+ * arrays, to handle a large number of tokens with little memory and time.
+ */
 public class CharacterFrequencyMap {
     // Rename to something more generic??
 
     private static String DEC_CHRS = "-.0123456789";
     private static String HEX_CHRS = "0123456789ABCDEFabcdef";
 
-    private List<String> tokens = new ArrayList<>();
-    private Map<Character, Integer> map = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private char[] tokensChars = new char[INITIAL_CAPACITY * 16];
+    private int tokensCharsLength;
+    // The start of each token in tokensChars, the last being the end of the last token.
+    private int[] tokensOffsets = new int[INITIAL_CAPACITY + 1];
+    private int tokensCount;
+
+    private int[] frequencies = new int[128];
     private char lowestChar = Character.MAX_VALUE;
     private char highestChar = Character.MIN_VALUE;
     private boolean allDec = true;
     private boolean allHex = true;
-    private BigInteger maxNumber = BigInteger.ZERO;
+    private BigInteger maxNumber;
     private boolean exceededLong = false;
     private int minLength = Integer.MAX_VALUE;
     private int maxLength = 0;
-    private Map<Integer, Set<Character>> charsPerPosn = new HashMap<>();
-    private Set<Character> allChrs = new HashSet<>();
-
-    public void addToken(String token) {
-        tokens.add(token);
-        if (token.length() > maxLength) {
-            maxLength = token.length();
+    private BitSet[] charsPerPosn = new BitSet[16];
+    private BitSet allChrs = new BitSet(128);
+    private byte[] tokensBytes;
+
+    /**
+     * Adds the given token.
+     *
+     * <p>Safe to call concurrently, for example, while the tokens are being generated.
+     *
+     * @param token the token to add.
+     */
+    public synchronized void addToken(String token) {
+        int length = token.length();
+        ensureTokensCapacity(length);
+        token.getChars(0, length, tokensChars, tokensCharsLength);
+        tokensCharsLength += length;
+        tokensCount++;
+        tokensOffsets[tokensCount] = tokensCharsLength;
+        maxNumber = null;
+        tokensBytes = null;
+
+        if (length > maxLength) {
+            maxLength = length;
+            if (length > charsPerPosn.length) {
+                charsPerPosn =
+                        Arrays.copyOf(charsPerPosn, Math.max(length, charsPerPosn.length * 2));
+            }
         }
-        if (token.length() < minLength) {
-            minLength = token.length();
+        if (length < minLength) {
+            minLength = length;
         }
-        int index = 0;
-        for (char chr : token.toCharArray()) {
-            allChrs.add(chr);
-            if (charsPerPosn.get(index) == null) {
-                charsPerPosn.put(index, new HashSet<Character>());
+        for (int index = 0; index < length; index++) {
+            char chr = token.charAt(index);
+            allChrs.set(chr);
+            BitSet chrsAtIndex = charsPerPosn[index];
+            if (chrsAtIndex == null) {
+                chrsAtIndex = new BitSet(128);
+                charsPerPosn[index] = chrsAtIndex;
+            }
+            chrsAtIndex.set(chr);
+
+            if (chr >= frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, Math.max(chr + 1, frequencies.length * 2));
             }
-            charsPerPosn.get(index).add(chr);
-            Integer intVal = map.get(chr);
-            if (intVal == null) {
-                intVal = Integer.valueOf(0);
+            if (frequencies[chr]++ == 0) {
                 if (chr < lowestChar) {
                     lowestChar = chr;
                 }
@@ -82,42 +116,41 @@ public class CharacterFrequencyMap {
                     highestChar = chr;
                 }
             }
-            map.put(chr, intVal + 1);
 
-            if (DEC_CHRS.indexOf(chr) < 0) {
+            if (allDec && DEC_CHRS.indexOf(chr) < 0) {
                 allDec = false;
             }
-            if (HEX_CHRS.indexOf(chr) < 0) {
+            if (allHex && HEX_CHRS.indexOf(chr) < 0) {
                 allHex = false;
             }
-            index++;
         }
-        if (allDec) {
-            try {
-                maxNumber = maxNumber.max(new BigInteger(token, 10));
-            } catch (NumberFormatException e) {
-                exceededLong = true;
-            }
+    }
+
+    private void ensureTokensCapacity(int length) {
+        if (tokensCharsLength + length > tokensChars.length) {
+            tokensChars =
+                    Arrays.copyOf(
+                            tokensChars,
+                            Math.max(tokensCharsLength + length, tokensChars.length * 2));
         }
-        if (allHex) {
-            try {
-                maxNumber = maxNumber.max(new BigInteger(token, 16));
-            } catch (NumberFormatException e) {
-                exceededLong = true;
-            }
+        if (tokensCount + 2 > tokensOffsets.length) {
+            tokensOffsets = Arrays.copyOf(tokensOffsets, tokensOffsets.length * 2);
         }
     }
 
+    private String getToken(int index) {
+        int start = tokensOffsets[index];
+        return new String(tokensChars, start, tokensOffsets[index + 1] - start);
+    }
+
     public double log2(double i) {
         return Math.log(i) / Math.log(2);
     }
 
     public double getMaxTheoreticalEntropy() {
         double entropy = 0;
-        Iterator<Entry<Integer, Set<Character>>> iter = charsPerPosn.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<Integer, Set<Character>> cpp = iter.next();
-            entropy += log2(cpp.getValue().size());
+        for (int i = 0; i < maxLength; i++) {
+            entropy += log2(charsPerPosn[i].cardinality());
         }
         return entropy;
     }
@@ -137,21 +170,25 @@ public class CharacterFrequencyMap {
         int min = mid - mdev;
         int max = mid + mdev;
 
+        int[] instantsOfChrs = new int[highestChar + 1];
         for (int i = 0; i < maxLength; i++) {
             StringBuilder sb = new StringBuilder();
             sb.append("Col ");
             sb.append(i);
-            for (char c : allChrs) {
-                int instantsOfChr = 0;
 
-                // TODO handle decs as special case?
-                for (String token : tokens) {
-                    if (token != null && token.length() > i && token.charAt(i) == c) {
-                        instantsOfChr++;
-                    }
+            // TODO handle decs as special case?
+            Arrays.fill(instantsOfChrs, 0);
+            for (int t = 0; t < tokensCount; t++) {
+                int idx = tokensOffsets[t] + i;
+                if (idx < tokensOffsets[t + 1]) {
+                    instantsOfChrs[tokensChars[idx]]++;
                 }
+            }
+
+            for (int c = allChrs.nextSetBit(0); c >= 0; c = allChrs.nextSetBit(c + 1)) {
+                int instantsOfChr = instantsOfChrs[c];
                 sb.append(" ");
-                sb.append(c);
+                sb.append((char) c);
                 sb.append(":");
                 sb.append(instantsOfChr);
                 if (instantsOfChr > max) {
@@ -159,7 +196,7 @@ public class CharacterFrequencyMap {
                             "Column "
                                     + i
                                     + " Character "
-                                    + c
+                                    + (char) c
                                     + " appears "
                                     + instantsOfChr
                                     + " times: more than expected ("
@@ -170,7 +207,7 @@ public class CharacterFrequencyMap {
                             "Column "
                                     + i
                                     + " Character "
-                                    + c
+                                    + (char) c
                                     + " appears "
                                     + instantsOfChr
                                     + " times: less than expected ("
@@ -202,8 +239,8 @@ public class CharacterFrequencyMap {
         //
 
         for (int i = 0; i < maxLength; i++) {
-            int chrsAtI = charsPerPosn.get(i).size();
-            int mid = tokens.size() / chrsAtI / chrsAtI;
+            int chrsAtI = charsPerPosn[i].cardinality();
+            int mid = tokensCount / chrsAtI / chrsAtI;
             int mdev = mdev(chrsAtI);
             int min = mid - mdev;
             int max = mid + mdev;
@@ -230,23 +267,21 @@ public class CharacterFrequencyMap {
             sb.append(i);
 
             int[][] trans = new int[256][256];
-            int chrsAtI = charsPerPosn.get(i).size();
-            int mid = tokens.size() / chrsAtI / chrsAtI;
+            int chrsAtI = charsPerPosn[i].cardinality();
+            int mid = tokensCount / chrsAtI / chrsAtI;
             int mdev = mdev(chrsAtI);
             int min = mid - mdev;
             int max = mid + mdev;
 
-            for (String token : tokens) {
-                int j = i + 1;
-                if (j >= maxLength) {
-                    j = 0;
-                }
-                if (i < token.length()) {
-                    char c1 = token.charAt(i);
-                    if (j < token.length()) {
-                        char c2 = token.charAt(j);
-                        trans[c1][c2]++;
-                    }
+            int j = i + 1;
+            if (j >= maxLength) {
+                j = 0;
+            }
+            for (int t = 0; t < tokensCount; t++) {
+                int start = tokensOffsets[t];
+                int length = tokensOffsets[t + 1] - start;
+                if (i < length && j < length) {
+                    trans[tokensChars[start + i]][tokensChars[start + j]]++;
                 }
             }
             for (int x = 0; x < 256; x++) {
@@ -301,11 +336,10 @@ public class CharacterFrequencyMap {
     }
 
     public int getFrequency(char chr) {
-        Integer i = map.get(chr);
-        if (i == null) {
+        if (chr >= frequencies.length) {
             return 0;
         }
-        return i;
+        return frequencies[chr];
     }
 
     public char getLowestChar() {
@@ -324,65 +358,119 @@ public class CharacterFrequencyMap {
         return allDec;
     }
 
-    public BigInteger getMaxNumber() {
+    public synchronized BigInteger getMaxNumber() {
+        computeMaxNumber();
         return maxNumber;
     }
 
-    public boolean isExceededLong() {
+    public synchronized boolean isExceededLong() {
+        computeMaxNumber();
         return exceededLong;
     }
 
-    public List<String> getTokens() {
+    private void computeMaxNumber() {
+        if (maxNumber != null) {
+            return;
+        }
+        maxNumber = BigInteger.ZERO;
+        exceededLong = false;
+        if (!allDec && !allHex) {
+            return;
+        }
+
+        for (int i = 0; i < tokensCount; i++) {
+            String token = getToken(i);
+            if (allDec) {
+                try {
+                    maxNumber = maxNumber.max(new BigInteger(token, 10));
+                } catch (NumberFormatException e) {
+                    exceededLong = true;
+                }
+            }
+            if (allHex) {
+                try {
+                    maxNumber = maxNumber.max(new BigInteger(token, 16));
+                } catch (NumberFormatException e) {
+                    exceededLong = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a copy of the tokens.
+     *
+     * @return the tokens, never {@code null}.
+     */
+    public synchronized List<String> getTokens() {
+        List<String> tokens = new ArrayList<>(tokensCount);
+        for (int i = 0; i < tokensCount; i++) {
+            tokens.add(getToken(i));
+        }
         return tokens;
     }
 
     public BigInteger getBigIntegerToken(int index) {
-        if (index >= tokens.size()) {
+        if (index >= tokensCount) {
             return null;
         }
         if (allDec) {
-            return new BigInteger(this.tokens.get(index), 10);
+            return new BigInteger(getToken(index), 10);
 
         } else if (allHex) {
-            return new BigInteger(this.tokens.get(index), 16);
+            return new BigInteger(getToken(index), 16);
         }
-        return new BigInteger(this.tokens.get(index).getBytes());
+        return new BigInteger(getToken(index).getBytes());
     }
 
     public byte[] getByteArrayToken(int index) throws DecoderException {
-        if (index >= tokens.size()) {
+        if (index >= tokensCount) {
             return null;
         }
+        return toBytes(getToken(index));
+    }
+
+    private byte[] toBytes(String token) throws DecoderException {
         if (allDec) {
-            return (new BigInteger(this.tokens.get(index), 10)).toByteArray();
+            return (new BigInteger(token, 10)).toByteArray();
 
         } else if (allHex) {
-            return Hex.decodeHex(this.tokens.get(index).toCharArray());
+            return Hex.decodeHex(token.toCharArray());
         }
-        return this.tokens.get(index).getBytes();
-        // TODO This ok now?
-        /*
-        //return this.tokens.get(index).getBytes();
-
-
-        return Hex.decodeHex(this.tokens.get(index).toCharArray());
-        / *
-        String s = this.tokens.get(index);
-        int len = s.length();
-           byte[] data = new byte[len / 2];
-           for (int i = 0; i < len; i += 2) {
-               data[i / 2] = (byte) ((Character.digit(s.charAt(i), 16) << 4)
-                                    + Character.digit(s.charAt(i+1), 16));
-           }
-           return data;
-        */
+        return token.getBytes();
+    }
 
+    /**
+     * Gets the bytes of all the tokens, one after the other, as returned by {@link
+     * #getByteArrayToken(int)}.
+     *
+     * <p>The tokens that can not be converted to bytes (for example, hexadecimal tokens with odd
+     * number of characters) are skipped.
+     *
+     * @return the bytes of the tokens, not to be modified.
+     */
+    public synchronized byte[] getTokensBytes() {
+        if (tokensBytes == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(tokensCharsLength);
+            for (int i = 0; i < tokensCount; i++) {
+                try {
+                    byte[] bytes = toBytes(getToken(i));
+                    out.write(bytes, 0, bytes.length);
+                } catch (DecoderException | NumberFormatException e) {
+                    // Nothing to add.
+                }
+            }
+            tokensBytes = out.toByteArray();
+        }
+        return tokensBytes;
     }
 
     public void save(File file) throws IOException {
         try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
-            for (String token : tokens) {
-                out.write(token + "\n");
+            for (int i = 0; i < tokensCount; i++) {
+                int start = tokensOffsets[i];
+                out.write(tokensChars, start, tokensOffsets[i + 1] - start);
+                out.write('\n');
             }
         }
     }
@@ -397,10 +485,10 @@ public class CharacterFrequencyMap {
     }
 
     public int size() {
-        return this.tokens.size();
+        return tokensCount;
     }
 
     public int numberOfChars() {
-        return allChrs.size();
+        return allChrs.cardinality();
     }
 }
@@ -22,7 +22,6 @@ package org.zaproxy.zap.extension.tokengen;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.TreeSet;
@@ -61,10 +60,10 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
     private TokenParam tokenParam = null;;
     private TokenOptionsPanel tokenOptionsPanel;
 
-    private List<TokenGenerator> generators = Collections.emptyList();
-    private int runningGenerators = 0;
-    private CharacterFrequencyMap cfm = null;
-    private boolean manuallyStopped = false;
+    private volatile TokenGenerator generator;
+    private volatile boolean generating;
+    private volatile CharacterFrequencyMap cfm = null;
+    private volatile boolean manuallyStopped = false;
 
     private static Logger log = Logger.getLogger(ExtensionTokenGen.class);
 
@@ -128,7 +127,7 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
 
     @Override
     public List<String> getActiveActions() {
-        if (runningGenerators == 0) {
+        if (!generating) {
             return null;
         }
 
@@ -217,7 +216,17 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
         return fifs;
     }
 
+    /**
+     * Adds the result of a request sent to generate a token, extracting the token from the
+     * response.
+     *
+     * <p>Called concurrently by the threads of the {@link TokenGenerator}.
+     *
+     * @param msg the message sent.
+     * @param targetToken the token to extract.
+     */
     protected void addTokenResult(HttpMessage msg, HtmlParameterStats targetToken) {
+        CharacterFrequencyMap cfm = this.cfm;
         // Extract the token
         String token = null;
         switch (targetToken.getType()) {
@@ -240,7 +249,7 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
                 break;
         }
         if (token != null) {
-            this.cfm.addToken(token);
+            cfm.addToken(token);
             msg.setNote(token);
         }
 
@@ -281,7 +290,7 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
     public void showAnalyseTokensDialog(CharacterFrequencyMap cfm) {
         this.getAnalyseTokensDialog().reset();
         this.getAnalyseTokensDialog().setVisible(true);
-        this.getAnalyseTokensDialog().startAnalysis(cfm);
+        this.getAnalyseTokensDialog().startAnalysis(cfm, getTokenParam().isDeepAnalysis());
     }
 
     public void showAnalyseTokensDialog() {
@@ -316,52 +325,50 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
         int numThreads = this.getTokenParam().getThreadsPerScan();
         this.manuallyStopped = false;
 
-        generators = new ArrayList<>();
-
-        for (int i = 0; i < numThreads; i++) {
-            TokenGenerator gen = new TokenGenerator();
-            generators.add(gen);
-
-            gen.setExtension(this);
-            gen.setHttpMessage(msg);
-            gen.setNumberTokens(numGen / numThreads); // TODO what about remainder?
-            gen.setTargetToken(htmlParameterStats);
-            gen.setRequestDelay(getTokenParam().getRequestDelayInMs(), TimeUnit.MILLISECONDS);
-            gen.setShouldRemoveCookie(shouldRemoveCookie);
-            gen.execute();
-            this.runningGenerators++;
-        }
+        TokenGenerator gen = new TokenGenerator();
+        gen.setExtension(this);
+        gen.setHttpMessage(msg);
+        gen.setNumberTokens(numGen);
+        gen.setNumberThreads(numThreads);
+        gen.setTargetToken(htmlParameterStats);
+        gen.setRequestDelay(getTokenParam().getRequestDelayInMs(), TimeUnit.MILLISECONDS);
+        gen.setShouldRemoveCookie(shouldRemoveCookie);
+
+        this.generator = gen;
+        this.generating = true;
+        gen.start();
     }
 
     protected void generatorStopped(TokenGenerator gen) {
-        this.runningGenerators--;
-        log.debug("generatorStopped runningGenerators " + runningGenerators);
-
-        if (this.runningGenerators <= 0) {
-            log.debug("generatorStopped scanFinished");
-            this.getTokenPanel().scanFinshed();
+        if (gen == this.generator) {
+            this.generating = false;
+        }
+        log.debug("generatorStopped scanFinished");
+        this.getTokenPanel().scanFinshed();
 
-            if (!manuallyStopped) {
-                this.showAnalyseTokensDialog();
-            }
+        if (!manuallyStopped) {
+            this.showAnalyseTokensDialog();
         }
     }
 
     public void stopTokenGeneration() {
         this.manuallyStopped = true;
-        for (TokenGenerator gen : generators) {
+        TokenGenerator gen = this.generator;
+        if (gen != null) {
             gen.stopGenerating();
         }
     }
 
     public void pauseTokenGeneration() {
-        for (TokenGenerator gen : generators) {
+        TokenGenerator gen = this.generator;
+        if (gen != null) {
             gen.setPaused(true);
         }
     }
 
     public void resumeTokenGeneration() {
-        for (TokenGenerator gen : generators) {
+        TokenGenerator gen = this.generator;
+        if (gen != null) {
             gen.setPaused(false);
         }
     }
@@ -393,7 +400,7 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
         @Override
         public void sessionAboutToChange(Session session) {
             stopTokenGeneration();
-            generators = Collections.emptyList();
+            generator = null;
 
             if (tokenPanel != null) {
                 tokenPanel.reset();
@@ -416,7 +423,8 @@ public class ExtensionTokenGen extends ExtensionAdaptor {
             if (Mode.safe.equals(mode)) {
                 stopTokenGeneration();
             } else if (Mode.protect.equals(mode)) {
-                if (!generators.isEmpty() && !generators.get(0).getHttpMessage().isInScope()) {
+                TokenGenerator gen = generator;
+                if (gen != null && !gen.getHttpMessage().isInScope()) {
                     stopTokenGeneration();
                 }
             }
@@ -22,4 +22,12 @@ package org.zaproxy.zap.extension.tokengen;
 public interface TokenAnalyserListenner {
 
     public void notifyTestResult(TokenAnalysisTestResult result);
+
+    /**
+     * Notifies the progress of a test still running.
+     *
+     * @param type the type of the test.
+     * @param percentage the progress of the test, from 0 to 100.
+     */
+    default void notifyTestProgress(TokenAnalysisTestResult.Type type, int percentage) {}
 }
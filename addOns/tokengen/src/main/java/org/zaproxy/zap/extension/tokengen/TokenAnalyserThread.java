@@ -20,17 +20,34 @@
 package org.zaproxy.zap.extension.tokengen;
 
 import com.fasteasytrade.JRandTest.IO.OutputDestination;
-import com.fasteasytrade.JRandTest.IO.RandomStream;
 import com.fasteasytrade.JRandTest.Tests.Base;
+import com.fasteasytrade.JRandTest.Tests.BirthdaySpacings;
 import com.fasteasytrade.JRandTest.Tests.Count16Bits;
 import com.fasteasytrade.JRandTest.Tests.Count1Bit;
 import com.fasteasytrade.JRandTest.Tests.Count2Bits;
 import com.fasteasytrade.JRandTest.Tests.Count3Bits;
 import com.fasteasytrade.JRandTest.Tests.Count4Bits;
 import com.fasteasytrade.JRandTest.Tests.Count8Bits;
+import com.fasteasytrade.JRandTest.Tests.MinimumDistance;
+import com.fasteasytrade.JRandTest.Tests.MonteCarlo;
+import com.fasteasytrade.JRandTest.Tests.OverlappingPairsSparseOccupancy;
+import com.fasteasytrade.JRandTest.Tests.Run;
+import com.fasteasytrade.JRandTest.Tests.Squeeze;
+import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import org.apache.log4j.Logger;
 import org.zaproxy.zap.extension.tokengen.TokenAnalysisTestResult.Result;
 
@@ -38,10 +55,26 @@ public class TokenAnalyserThread extends Thread {
 
     public static final int NUM_TESTS = 9; // Change manually if you add any tests!
 
+    /** The number of tests run by the deep analysis, in addition to the {@link #NUM_TESTS}. */
+    public static final int NUM_DEEP_TESTS = DeepTest.values().length;
+
+    /**
+     * The p-values of the deep analysis outside of this range fail the test, as expected for a good
+     * random source once in 5000 p-values.
+     */
+    private static final double MIN_P_VALUE = 0.0001;
+
+    private static final double MAX_P_VALUE = 0.9999;
+
+    private static final long PROGRESS_INTERVAL_IN_MS = 500;
+
     private CharacterFrequencyMap cfm = null;
     private List<TokenAnalyserListenner> listenners = new ArrayList<>();
     private OutputDestination outputDestination = null;
-    private boolean cancelled = false;
+    private volatile boolean cancelled = false;
+    private boolean deepAnalysis;
+    private volatile ExecutorService executor;
+    private final List<TokenRandomStream> streams = new CopyOnWriteArrayList<>();
 
     private static Logger log = Logger.getLogger(TokenAnalyserThread.class);
 
@@ -93,45 +126,194 @@ public class TokenAnalyserThread extends Thread {
             return;
         }
 
-        // Character uniformity
-        this.notifyListenners(cfm.checkCharacterUniformity());
-        if (cancelled) {
-            return;
+        // The remaining tests are independent, run them in parallel but notify the results in
+        // order, to keep the output of each test together.
+        int numberOfTests = getNumberOfTests();
+        executor =
+                Executors.newFixedThreadPool(
+                        Math.min(numberOfTests - 1, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<AnalysisTask> tasks = new ArrayList<>(numberOfTests - 1);
+
+            // Character uniformity
+            tasks.add(
+                    new AnalysisTask(
+                            TokenAnalysisTestResult.Type.CHR_UNIFORMITY,
+                            executor.submit(cfm::checkCharacterUniformity)));
+
+            // Character transitions
+            tasks.add(
+                    new AnalysisTask(
+                            TokenAnalysisTestResult.Type.CHR_TRANSITIONS,
+                            executor.submit(cfm::checkCharacterTransitions)));
+
+            submitTest(new Count1Bit(), TokenAnalysisTestResult.Type.COUNT_1_BIT, tasks);
+            submitTest(new Count2Bits(), TokenAnalysisTestResult.Type.COUNT_2_BITS, tasks);
+            submitTest(new Count3Bits(), TokenAnalysisTestResult.Type.COUNT_3_BITS, tasks);
+            submitTest(new Count4Bits(), TokenAnalysisTestResult.Type.COUNT_4_BITS, tasks);
+            submitTest(new Count8Bits(), TokenAnalysisTestResult.Type.COUNT_8_BITS, tasks);
+            submitTest(new Count16Bits(), TokenAnalysisTestResult.Type.COUNT_16_BITS, tasks);
+
+            if (deepAnalysis) {
+                int tokensBytes = cfm.getTokensBytes().length;
+                for (DeepTest deepTest : DeepTest.values()) {
+                    submitDeepTest(deepTest, tokensBytes, tasks);
+                }
+            }
+
+            for (AnalysisTask task : tasks) {
+                if (cancelled) {
+                    return;
+                }
+                try {
+                    TokenAnalysisTestResult testResult = waitForResult(task);
+                    if (task.test != null) {
+                        task.test.help(); // This outputs a summary to the specified
+                        // outputDestination
+                    }
+                    this.notifyListenners(testResult);
+                } catch (ExecutionException e) {
+                    log.error(e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException | CancellationException e) {
+            log.debug("Analysis interrupted.");
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        // Character transitions
-        this.notifyListenners(cfm.checkCharacterTransitions());
-        if (cancelled) {
-            return;
+    private TokenAnalysisTestResult waitForResult(AnalysisTask task)
+            throws InterruptedException, ExecutionException {
+        if (task.expectedBytes == 0) {
+            return task.result.get();
         }
 
-        TokenRandomStream trs = new TokenRandomStream(cfm);
+        while (true) {
+            try {
+                return task.result.get(PROGRESS_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                int percentage =
+                        (int) Math.min(99, task.stream.getBytesRead() * 100 / task.expectedBytes);
+                for (TokenAnalyserListenner listenner : listenners) {
+                    listenner.notifyTestProgress(task.type, percentage);
+                }
+            }
+        }
+    }
 
-        runTest(new Count1Bit(), trs, TokenAnalysisTestResult.Type.COUNT_1_BIT);
-        runTest(new Count2Bits(), trs, TokenAnalysisTestResult.Type.COUNT_2_BITS);
-        runTest(new Count3Bits(), trs, TokenAnalysisTestResult.Type.COUNT_3_BITS);
-        runTest(new Count4Bits(), trs, TokenAnalysisTestResult.Type.COUNT_4_BITS);
-        runTest(new Count8Bits(), trs, TokenAnalysisTestResult.Type.COUNT_8_BITS);
-        runTest(new Count16Bits(), trs, TokenAnalysisTestResult.Type.COUNT_16_BITS);
+    private void submitTest(
+            Base test, TokenAnalysisTestResult.Type type, List<AnalysisTask> tasks) {
+        TokenRandomStream trs = createStream();
+        test.registerInput(trs);
+        test.addOutputDestination(this.outputDestination);
+
+        tasks.add(
+                new AnalysisTask(
+                        type,
+                        test,
+                        trs,
+                        0,
+                        executor.submit(
+                                () -> {
+                                    TokenAnalysisTestResult result =
+                                            new TokenAnalysisTestResult(type);
+                                    test.runTest();
+                                    result.setDetails(test.getDetails());
+                                    result.setFailures(test.getErrors());
+                                    result.setResult(Result.valueOf(test.getResult().name()));
+                                    return result;
+                                })));
     }
 
-    private void runTest(Base test, RandomStream rs, TokenAnalysisTestResult.Type type) {
+    private TokenRandomStream createStream() {
+        TokenRandomStream trs = new TokenRandomStream(cfm);
+        streams.add(trs);
         if (cancelled) {
-            return;
-        }
-        try {
-            TokenAnalysisTestResult result = new TokenAnalysisTestResult(type);
-            test.registerInput(rs);
-            test.addOutputDestination(this.outputDestination);
-            test.runTest();
-            result.setDetails(test.getDetails());
-            result.setFailures(test.getErrors());
-            result.setResult(Result.valueOf(test.getResult().name()));
-            test.help(); // This outputs a summary to the specified outputDestination
-            this.notifyListenners(result);
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
+            trs.closeInputStream();
         }
+        return trs;
+    }
+
+    private void submitDeepTest(DeepTest deepTest, int tokensBytes, List<AnalysisTask> tasks) {
+        Base test = deepTest.createTest();
+        TokenRandomStream trs = createStream();
+        test.registerInput(trs);
+        // Each test outputs to its own destination, to not mix the output of the tests.
+        BufferedOutputDestination output = new BufferedOutputDestination();
+        test.addOutputDestination(output);
+
+        long expectedBytes =
+                deepTest.bytesPerPass == 0
+                        ? tokensBytes
+                        : deepTest.passes * (long) Math.min(deepTest.bytesPerPass, tokensBytes);
+        tasks.add(
+                new AnalysisTask(
+                        deepTest.type,
+                        test,
+                        trs,
+                        Math.max(1, expectedBytes),
+                        executor.submit(
+                                () -> {
+                                    TokenAnalysisTestResult result =
+                                            new TokenAnalysisTestResult(deepTest.type);
+                                    if (tokensBytes < deepTest.minimumBytes) {
+                                        setNotEnoughTokens(
+                                                result, deepTest.minimumBytes, tokensBytes);
+                                        return result;
+                                    }
+
+                                    test.test(trs.getFilename());
+
+                                    if (trs.isExhausted() && deepTest.bytesPerPass != 0) {
+                                        setNotEnoughTokens(
+                                                result,
+                                                deepTest.passes == 1
+                                                        ? trs.getBytesRead()
+                                                        : deepTest.bytesPerPass,
+                                                tokensBytes);
+                                        return result;
+                                    }
+
+                                    List<String> failures = new ArrayList<>();
+                                    for (double pValue : test.getPValues()) {
+                                        if (pValue < MIN_P_VALUE || pValue > MAX_P_VALUE) {
+                                            failures.add(
+                                                    MessageFormat.format(
+                                                            messages.getString(
+                                                                    "tokengen.analyse.detail.pvalue"),
+                                                            formatPValue(pValue),
+                                                            formatPValue(MIN_P_VALUE),
+                                                            formatPValue(MAX_P_VALUE)));
+                                        }
+                                    }
+                                    result.setDetails(output.getLines());
+                                    result.setFailures(failures);
+                                    result.setResult(
+                                            failures.isEmpty() && !test.getPValues().isEmpty()
+                                                    ? Result.PASS
+                                                    : Result.FAIL);
+                                    return result;
+                                })));
+    }
+
+    private void setNotEnoughTokens(TokenAnalysisTestResult result, long required, int available) {
+        result.setResult(Result.FAIL);
+        result.setSummary(messages.getString("tokengen.analyse.summary.notenoughtokens"));
+        result.setDetails(Collections.emptyList());
+        result.setFailures(
+                Collections.singletonList(
+                        MessageFormat.format(
+                                messages.getString("tokengen.analyse.detail.notenoughtokens"),
+                                required,
+                                available)));
+    }
+
+    private static String formatPValue(double pValue) {
+        return String.format(Locale.ROOT, "%.4f", pValue);
     }
 
     private void notifyListenners(TokenAnalysisTestResult result) {
@@ -150,11 +332,151 @@ public class TokenAnalyserThread extends Thread {
         this.cfm = cfm;
     }
 
+    /**
+     * Sets whether or not the deep analysis should be done, which also runs the tests that need a
+     * large number of tokens (for example, Birthday Spacings, Squeeze).
+     *
+     * @param deepAnalysis {@code true} if the deep analysis should be done, {@code false}
+     *     otherwise.
+     */
+    public void setDeepAnalysis(boolean deepAnalysis) {
+        this.deepAnalysis = deepAnalysis;
+    }
+
+    /**
+     * Gets the number of tests that will be run.
+     *
+     * @return the number of tests.
+     */
+    public int getNumberOfTests() {
+        return deepAnalysis ? NUM_TESTS + NUM_DEEP_TESTS : NUM_TESTS;
+    }
+
     public void cancel() {
         this.cancelled = true;
+        // Closing the streams ends the tests still reading them.
+        for (TokenRandomStream stream : streams) {
+            stream.closeInputStream();
+        }
+        ExecutorService executor = this.executor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
     }
 
     public void addOutputDestination(OutputDestination outputDestination) {
         this.outputDestination = outputDestination;
     }
+
+    /**
+     * The tests of the deep analysis, the tests print their results and need more data.
+     *
+     * <p>The bytes are of tokens read per pass (the tests might read the data more than once), zero
+     * if the test reads all the tokens.
+     */
+    private enum DeepTest {
+        BIRTHDAY_SPACINGS(
+                TokenAnalysisTestResult.Type.BIRTHDAY_SPACINGS,
+                BirthdaySpacings::new,
+                9,
+                500 * 1024 * 4),
+        OVERLAPPING_PAIRS_SPARSE_OCCUPANCY(
+                TokenAnalysisTestResult.Type.OVERLAPPING_PAIRS_SPARSE_OCCUPANCY,
+                OverlappingPairsSparseOccupancy::new,
+                23,
+                ((1 << 21) + 1) * 4),
+        MINIMUM_DISTANCE(
+                TokenAnalysisTestResult.Type.MINIMUM_DISTANCE,
+                MinimumDistance::new,
+                1,
+                100 * 8000 * 2 * 4),
+        // The number of numbers read per trial varies, about 23 on average.
+        SQUEEZE(TokenAnalysisTestResult.Type.SQUEEZE, Squeeze::new, 1, 100000 * 23 * 4),
+        RUNS(TokenAnalysisTestResult.Type.RUNS, Run::new, 1, 2 * 10 * 10000 * 4),
+        MONTE_CARLO(TokenAnalysisTestResult.Type.MONTE_CARLO, MonteCarlo::new, 1, 0, 10000 * 4);
+
+        private final TokenAnalysisTestResult.Type type;
+        private final Supplier<Base> testSupplier;
+        private final int passes;
+        private final int bytesPerPass;
+        private final int minimumBytes;
+
+        private DeepTest(
+                TokenAnalysisTestResult.Type type,
+                Supplier<Base> testSupplier,
+                int passes,
+                int bytesPerPass) {
+            this(type, testSupplier, passes, bytesPerPass, bytesPerPass);
+        }
+
+        private DeepTest(
+                TokenAnalysisTestResult.Type type,
+                Supplier<Base> testSupplier,
+                int passes,
+                int bytesPerPass,
+                int minimumBytes) {
+            this.type = type;
+            this.testSupplier = testSupplier;
+            this.passes = passes;
+            this.bytesPerPass = bytesPerPass;
+            this.minimumBytes = minimumBytes;
+        }
+
+        private Base createTest() {
+            return testSupplier.get();
+        }
+    }
+
+    private static class AnalysisTask {
+
+        private final TokenAnalysisTestResult.Type type;
+        private final Base test;
+        private final TokenRandomStream stream;
+        private final long expectedBytes;
+        private final Future<TokenAnalysisTestResult> result;
+
+        private AnalysisTask(
+                TokenAnalysisTestResult.Type type, Future<TokenAnalysisTestResult> result) {
+            this(type, null, null, 0, result);
+        }
+
+        private AnalysisTask(
+                TokenAnalysisTestResult.Type type,
+                Base test,
+                TokenRandomStream stream,
+                long expectedBytes,
+                Future<TokenAnalysisTestResult> result) {
+            this.type = type;
+            this.test = test;
+            this.stream = stream;
+            this.expectedBytes = expectedBytes;
+            this.result = result;
+        }
+    }
+
+    /** An {@code OutputDestination} that keeps the output, to obtain it once the test is done. */
+    private static class BufferedOutputDestination implements OutputDestination {
+
+        private final StringBuilder output = new StringBuilder();
+
+        @Override
+        public void printf(String s) {
+            output.append(s);
+        }
+
+        @Override
+        public void puts(String s) {
+            output.append(s).append('\n');
+        }
+
+        List<String> getLines() {
+            List<String> lines = new ArrayList<>();
+            for (String line : output.toString().split("\r?\n")) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line);
+                }
+            }
+            return lines;
+        }
+    }
 }
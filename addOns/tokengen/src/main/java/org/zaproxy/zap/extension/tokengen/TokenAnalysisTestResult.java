@@ -33,7 +33,13 @@ public class TokenAnalysisTestResult {
         COUNT_3_BITS,
         COUNT_4_BITS,
         COUNT_8_BITS,
-        COUNT_16_BITS
+        COUNT_16_BITS,
+        BIRTHDAY_SPACINGS,
+        OVERLAPPING_PAIRS_SPARSE_OCCUPANCY,
+        MINIMUM_DISTANCE,
+        SQUEEZE,
+        RUNS,
+        MONTE_CARLO
     };
 
     public enum Result {
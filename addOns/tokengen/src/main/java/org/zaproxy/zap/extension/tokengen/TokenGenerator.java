@@ -22,8 +22,12 @@ package org.zaproxy.zap.extension.tokengen;
 import java.net.SocketTimeoutException;
 import java.util.Iterator;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import javax.swing.SwingWorker;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.model.Model;
 import org.parosproxy.paros.network.HtmlParameter;
@@ -32,43 +36,87 @@ import org.parosproxy.paros.network.HttpMessage;
 import org.parosproxy.paros.network.HttpSender;
 import org.zaproxy.zap.extension.params.HtmlParameterStats;
 
-public class TokenGenerator extends SwingWorker<Void, Void> {
+/**
+ * Generates the tokens, sending the requests from a pool of threads, one request in flight per
+ * thread.
+ *
+ * <p>The threads take the requests from a shared count, so all the tokens requested are generated
+ * regardless of the number of threads. The request that times out is given back to the count, to be
+ * sent again by any of the threads.
+ */
+public class TokenGenerator {
+
+    private static final AtomicInteger GENERATOR_NUMBER = new AtomicInteger(1);
 
     private int numberTokens = 0;
+    private int numberThreads = 1;
     private HttpMessage httpMessage = null;
-    private HttpSender httpSender = null;
     private HtmlParameterStats targetToken = null;
     private ExtensionTokenGen extension = null;
-    private boolean stopGenerating = false;
-    private boolean paused = false;
+    private volatile boolean stopGenerating = false;
+    private volatile boolean paused = false;
+    private final Object pauseLock = new Object();
     private long requestDelayDuration;
-    private TimeUnit requestDelayTimeUnit;
+    private TimeUnit requestDelayTimeUnit = TimeUnit.MILLISECONDS;
     private boolean shouldRemoveCookie = false;
+
+    private ExecutorService executor;
+    private final AtomicInteger remainingTokens = new AtomicInteger();
+    private final AtomicInteger runningThreads = new AtomicInteger();
+    private final LongAdder requestsSent = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
     private static Logger log = Logger.getLogger(TokenGenerator.class);
 
-    private HttpSender getHttpSender() {
-        if (httpSender == null) {
-            // TODO Replace with HttpSender.TOKEN_GENERATOR_INITIATOR when available.
-            httpSender =
-                    new HttpSender(
-                            Model.getSingleton().getOptionsParam().getConnectionParam(), true, 12);
+    HttpSender createHttpSender() {
+        // TODO Replace with HttpSender.TOKEN_GENERATOR_INITIATOR when available.
+        return new HttpSender(
+                Model.getSingleton().getOptionsParam().getConnectionParam(), true, 12);
+    }
+
+    /**
+     * Starts generating the tokens.
+     *
+     * @throws IllegalStateException if already started.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            throw new IllegalStateException("Token generation already started.");
+        }
+
+        remainingTokens.set(numberTokens);
+        runningThreads.set(numberThreads);
+        executor =
+                Executors.newFixedThreadPool(
+                        numberThreads,
+                        new TokenGeneratorThreadFactory(
+                                "ZAP-TokenGenerator-" + GENERATOR_NUMBER.getAndIncrement() + "-"));
+        for (int i = 0; i < numberThreads; i++) {
+            executor.execute(this::run);
         }
-        return httpSender;
+        executor.shutdown();
     }
 
-    @Override
-    protected Void doInBackground() throws Exception {
+    private void run() {
         try {
             generate();
         } catch (Throwable e) {
             log.error("An error occurred during token generation:", e);
+        } finally {
+            if (runningThreads.decrementAndGet() == 0) {
+                log.debug(
+                        "Token generation finished, requests sent: "
+                                + requestsSent.sum()
+                                + " timeouts: "
+                                + timeouts.sum());
+                this.extension.generatorStopped(this);
+            }
         }
-        return null;
     }
 
-    private void generate() throws InterruptedException {
-        TreeSet<HtmlParameter> cookies = this.httpMessage.getRequestHeader().getCookieParams();
+    private HttpMessage createMessage() {
         HttpMessage msg = this.httpMessage.cloneRequest();
+        TreeSet<HtmlParameter> cookies = msg.getRequestHeader().getCookieParams();
 
         if (shouldRemoveCookie && targetToken.getType() == HtmlParameter.Type.cookie) {
             Iterator<HtmlParameter> iter = cookies.iterator();
@@ -83,15 +131,15 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
         } else {
             msg.getRequestHeader().setHeader(HttpHeader.COOKIE, null);
         }
+        return msg;
+    }
 
-        for (int i = 0; i < numberTokens; i++) {
-            while (paused && !this.stopGenerating) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    // Ignore
-                }
-            }
+    private void generate() throws InterruptedException {
+        HttpMessage msg = createMessage();
+        HttpSender httpSender = createHttpSender();
+
+        while (takeToken()) {
+            waitWhilePaused();
             if (this.stopGenerating) {
                 break;
             }
@@ -99,23 +147,80 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
             requestDelayTimeUnit.sleep(requestDelayDuration);
 
             try {
-                this.getHttpSender().sendAndReceive(msg, true);
+                httpSender.sendAndReceive(msg, true);
+                requestsSent.increment();
             } catch (SocketTimeoutException ste) {
                 log.debug(
                         "A timout occurred while sending a request to generate a token. Reducing sent count, initiating supplemental request.");
-                i--;
+                timeouts.increment();
+                remainingTokens.incrementAndGet();
+                continue;
             } catch (Exception e) {
                 log.error(e.getMessage(), e);
             }
             this.extension.addTokenResult(msg, targetToken);
         }
-        this.extension.generatorStopped(this);
     }
 
+    /**
+     * Takes a token to generate from the remaining ones, if any.
+     *
+     * <p>The count is never decreased below zero, so that the tokens given back (for example, on
+     * timeouts) are available to be taken again.
+     *
+     * @return {@code true} if a token was taken, {@code false} if there are no more tokens.
+     */
+    private boolean takeToken() {
+        while (true) {
+            int remaining = remainingTokens.get();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (remainingTokens.compareAndSet(remaining, remaining - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tokens still to generate.
+     *
+     * @return the number of remaining tokens, never negative.
+     */
+    int getRemainingTokens() {
+        return remainingTokens.get();
+    }
+
+    private void waitWhilePaused() throws InterruptedException {
+        synchronized (pauseLock) {
+            while (paused && !this.stopGenerating) {
+                pauseLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Sets the number of tokens to generate, in total.
+     *
+     * @param numberTokens the number of tokens.
+     */
     public void setNumberTokens(int numberTokens) {
         this.numberTokens = numberTokens;
     }
 
+    /**
+     * Sets the number of threads, that is, the number of requests in flight.
+     *
+     * @param numberThreads the number of threads.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setNumberThreads(int numberThreads) {
+        if (numberThreads < 1) {
+            throw new IllegalArgumentException("The parameter numberThreads must be positive.");
+        }
+        this.numberThreads = numberThreads;
+    }
+
     public void setHttpMessage(HttpMessage httpMessage) {
         this.httpMessage = httpMessage;
     }
@@ -129,7 +234,10 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
     }
 
     public void stopGenerating() {
-        this.stopGenerating = true;
+        synchronized (pauseLock) {
+            this.stopGenerating = true;
+            pauseLock.notifyAll();
+        }
     }
 
     public void setExtension(ExtensionTokenGen extension) {
@@ -141,7 +249,10 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
     }
 
     public void setPaused(boolean paused) {
-        this.paused = paused;
+        synchronized (pauseLock) {
+            this.paused = paused;
+            pauseLock.notifyAll();
+        }
     }
 
     public void setRequestDelay(long duration, TimeUnit timeUnit) {
@@ -155,4 +266,22 @@ public class TokenGenerator extends SwingWorker<Void, Void> {
     public void setShouldRemoveCookie(boolean shouldRemoveCookie) {
         this.shouldRemoveCookie = shouldRemoveCookie;
     }
+
+    private static class TokenGeneratorThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber;
+        private final String namePrefix;
+
+        private TokenGeneratorThreadFactory(String namePrefix) {
+            this.threadNumber = new AtomicInteger(1);
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
 }
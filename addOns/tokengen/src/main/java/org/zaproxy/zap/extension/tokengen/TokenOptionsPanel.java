@@ -20,6 +20,7 @@
 package org.zaproxy.zap.extension.tokengen;
 
 import javax.swing.GroupLayout;
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import org.parosproxy.paros.Constant;
 import org.parosproxy.paros.model.OptionsParam;
@@ -34,6 +35,7 @@ import org.zaproxy.zap.utils.ZapNumberSpinner;
  * <ul>
  *   <li>Number of threads for the token generation;
  *   <li>The request delay;
+ *   <li>Whether or not the deep analysis should be done;
  * </ul>
  *
  * @see TokenParam
@@ -53,12 +55,19 @@ public class TokenOptionsPanel extends AbstractParamPanel {
     private static final String REQUEST_DELAY_LABEL =
             Constant.messages.getString("tokengen.optionspanel.option.requestdelay");
 
+    /** The label for the deep analysis option. */
+    private static final String DEEP_ANALYSIS_LABEL =
+            Constant.messages.getString("tokengen.optionspanel.option.deepanalysis");
+
     /** The number spinner for the number of threads per scan. */
     private ZapNumberSpinner threadsPerScanNumberSpinner;
 
     /** The number spinner for the request delay. */
     private ZapNumberSpinner requestDelayNumberSpinner;
 
+    /** The check box for the deep analysis. */
+    private JCheckBox deepAnalysisCheckBox;
+
     public TokenOptionsPanel() {
         super();
 
@@ -70,6 +79,8 @@ public class TokenOptionsPanel extends AbstractParamPanel {
         requestDelayNumberSpinner =
                 new ZapNumberSpinner(0, TokenParam.DEFAULT_REQUEST_DELAY_IN_MS, Integer.MAX_VALUE);
 
+        deepAnalysisCheckBox = new JCheckBox(DEEP_ANALYSIS_LABEL);
+
         setName(NAME);
 
         GroupLayout layout = new GroupLayout(this);
@@ -87,7 +98,8 @@ public class TokenOptionsPanel extends AbstractParamPanel {
                         .addGroup(
                                 layout.createParallelGroup(GroupLayout.Alignment.LEADING)
                                         .addComponent(threadsPerScanNumberSpinner)
-                                        .addComponent(requestDelayNumberSpinner)));
+                                        .addComponent(requestDelayNumberSpinner)
+                                        .addComponent(deepAnalysisCheckBox)));
 
         layout.setVerticalGroup(
                 layout.createSequentialGroup()
@@ -98,7 +110,8 @@ public class TokenOptionsPanel extends AbstractParamPanel {
                         .addGroup(
                                 layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
                                         .addComponent(requestDelayLabel)
-                                        .addComponent(requestDelayNumberSpinner)));
+                                        .addComponent(requestDelayNumberSpinner))
+                        .addComponent(deepAnalysisCheckBox));
     }
 
     @Override
@@ -107,6 +120,7 @@ public class TokenOptionsPanel extends AbstractParamPanel {
 
         threadsPerScanNumberSpinner.setValue(options.getThreadsPerScan());
         requestDelayNumberSpinner.setValue(options.getRequestDelayInMs());
+        deepAnalysisCheckBox.setSelected(options.isDeepAnalysis());
     }
 
     @Override
@@ -115,6 +129,7 @@ public class TokenOptionsPanel extends AbstractParamPanel {
 
         options.setThreadsPerScan(threadsPerScanNumberSpinner.getValue());
         options.setRequestDelayInMs(requestDelayNumberSpinner.getValue());
+        options.setDeepAnalysis(deepAnalysisCheckBox.isSelected());
     }
 
     @Override
@@ -29,6 +29,7 @@ import org.zaproxy.zap.common.VersionedAbstractParam;
  * <ul>
  *   <li>Number of threads for the token generation;
  *   <li>The request delay;
+ *   <li>Whether or not the deep analysis should be done;
  * </ul>
  */
 public class TokenParam extends VersionedAbstractParam {
@@ -52,10 +53,14 @@ public class TokenParam extends VersionedAbstractParam {
 
     private static final String REQUEST_DELAY_IN_MS = PARAM_BASE_KEY + ".requestDelayInMs";
 
+    private static final String DEEP_ANALYSIS = PARAM_BASE_KEY + ".deepAnalysis";
+
     private int threadsPerScan = DEFAULT_THREADS_PER_SCAN;
 
     private int requestDelayInMs = DEFAULT_REQUEST_DELAY_IN_MS;
 
+    private boolean deepAnalysis;
+
     public TokenParam() {}
 
     @Override
@@ -78,6 +83,8 @@ public class TokenParam extends VersionedAbstractParam {
         setThreadsPerScanImpl(getConfig().getInt(THREADS_PER_SCAN, DEFAULT_THREADS_PER_SCAN));
 
         requestDelayInMs = getConfig().getInt(REQUEST_DELAY_IN_MS, DEFAULT_REQUEST_DELAY_IN_MS);
+
+        deepAnalysis = getConfig().getBoolean(DEEP_ANALYSIS, false);
     }
 
     private void setThreadsPerScanImpl(int threadsPerScan) {
@@ -101,4 +108,24 @@ public class TokenParam extends VersionedAbstractParam {
         this.requestDelayInMs = requestDelayInMs;
         getConfig().setProperty(REQUEST_DELAY_IN_MS, this.requestDelayInMs);
     }
+
+    /**
+     * Tells whether or not the deep analysis should be done, which runs more (and slower) tests.
+     *
+     * @return {@code true} if the deep analysis should be done, {@code false} otherwise.
+     */
+    public boolean isDeepAnalysis() {
+        return deepAnalysis;
+    }
+
+    /**
+     * Sets whether or not the deep analysis should be done.
+     *
+     * @param deepAnalysis {@code true} if the deep analysis should be done, {@code false}
+     *     otherwise.
+     */
+    public void setDeepAnalysis(boolean deepAnalysis) {
+        this.deepAnalysis = deepAnalysis;
+        getConfig().setProperty(DEEP_ANALYSIS, this.deepAnalysis);
+    }
 }
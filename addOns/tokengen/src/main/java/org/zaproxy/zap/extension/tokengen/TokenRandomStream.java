@@ -19,15 +19,20 @@
  */
 package org.zaproxy.zap.extension.tokengen;
 
-import java.math.BigInteger;
-
+/**
+ * A {@code RandomStream} of the bytes of the tokens of a {@link CharacterFrequencyMap}.
+ *
+ * <p>Each stream keeps its own position, so the tests can read the same tokens concurrently, each
+ * with its own stream.
+ */
 public class TokenRandomStream implements com.fasteasytrade.JRandTest.IO.RandomStream {
 
     private CharacterFrequencyMap cfm = null;
     private int offset = 0;
-    private int byteOffset = 0;
     private byte[] bytes = null;
-    private boolean open = false;
+    private volatile boolean open = false;
+    private volatile long bytesReadBefore;
+    private boolean exhausted;
     private String fileName = "TokenRandomStream";
 
     public TokenRandomStream(CharacterFrequencyMap cfm) {
@@ -53,50 +58,62 @@ public class TokenRandomStream implements com.fasteasytrade.JRandTest.IO.RandomS
 
     @Override
     public boolean openInputStream() throws Exception {
+        bytesReadBefore += offset;
         offset = 0;
-        open = true;
-        readNextToken();
+        bytes = cfm.getTokensBytes();
+        open = bytes != null && bytes.length > 0;
         return true;
     }
 
-    private void readNextToken() throws Exception {
-        bytes = cfm.getByteArrayToken(offset);
-        if (bytes == null) {
-            open = false;
-        }
-        offset++;
-        byteOffset = 0;
-    }
-
-    private BigInteger readNumber(int sizeInBytes) throws Exception {
-        byte[] ba = new byte[sizeInBytes];
-
+    private long readNumber(int sizeInBytes) {
+        long value = 0;
         for (int i = 0; i < sizeInBytes; i++) {
             if (!open) {
-                return BigInteger.valueOf(-1);
+                return -1;
             }
-            ba[i] = bytes[byteOffset];
-            byteOffset++;
-            if (byteOffset >= bytes.length) {
-                readNextToken();
+            value = (value << 8) | (bytes[offset] & 0xff);
+            offset++;
+            if (offset >= bytes.length) {
+                open = false;
+                exhausted = true;
             }
         }
-        return new BigInteger(ba);
+        return value;
     }
 
     @Override
     public byte readByte() throws Exception {
-        return readNumber(1).byteValue();
+        return (byte) readNumber(1);
     }
 
     @Override
     public int readInt() throws Exception {
-        return readNumber(4).intValue();
+        return (int) readNumber(4);
     }
 
     @Override
     public long readLong() throws Exception {
-        return readNumber(8).longValue();
+        return readNumber(8);
+    }
+
+    /**
+     * Gets the number of bytes read, in all the times the stream was opened.
+     *
+     * <p>The value is approximate if called while other thread is reading the stream.
+     *
+     * @return the number of bytes read.
+     */
+    public long getBytesRead() {
+        return bytesReadBefore + offset;
+    }
+
+    /**
+     * Tells whether or not all the bytes were read, at least once.
+     *
+     * @return {@code true} if all the bytes were read, {@code false} otherwise.
+     */
+    public boolean isExhausted() {
+        return exhausted;
     }
 
     @Override
@@ -26,6 +26,9 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 
 /** Unit test for {@link CharacterFrequencyMap}. */
@@ -97,4 +100,57 @@ public class CharacterFrequencyMapUnitTest {
                 contains("Col 0 A:1 B:1 C:1", "Col 1 A:1 B:1 C:1", "Col 2 A:1 B:1 C:1"));
         assertThat(result.getSummary(), is(nullValue()));
     }
+
+    @Test
+    public void shouldKeepTokensAndCountCharacters() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        // When
+        cfm.addToken("ab");
+        cfm.addToken("");
+        cfm.addToken("bcd");
+        // Then
+        assertThat(cfm.size(), is(equalTo(3)));
+        assertThat(cfm.getTokens(), contains("ab", "", "bcd"));
+        assertThat(cfm.numberOfChars(), is(equalTo(4)));
+        assertThat(cfm.getFrequency('a'), is(equalTo(1)));
+        assertThat(cfm.getFrequency('b'), is(equalTo(2)));
+        assertThat(cfm.getFrequency('z'), is(equalTo(0)));
+        assertThat(cfm.getFrequency('\u20ac'), is(equalTo(0)));
+        assertThat(cfm.getLowestChar(), is(equalTo('a')));
+        assertThat(cfm.getHighestChar(), is(equalTo('d')));
+    }
+
+    @Test
+    public void shouldGetBytesOfAllTokens() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("0aff");
+        cfm.addToken("10");
+        // When
+        byte[] bytes = cfm.getTokensBytes();
+        // Then
+        assertThat(bytes, is(equalTo(new byte[] {0x0a, (byte) 0xff, 0x10})));
+    }
+
+    @Test
+    public void shouldAddTokensConcurrently() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        // When
+        for (int i = 0; i < 4; i++) {
+            executor.execute(
+                    () -> {
+                        for (int j = 0; j < 5000; j++) {
+                            cfm.addToken("ABC");
+                        }
+                    });
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        // Then
+        assertThat(cfm.size(), is(equalTo(20000)));
+        assertThat(cfm.getFrequency('A'), is(equalTo(20000)));
+    }
 }
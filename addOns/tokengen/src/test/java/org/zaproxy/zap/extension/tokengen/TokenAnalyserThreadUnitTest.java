@@ -0,0 +1,133 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.fasteasytrade.JRandTest.IO.OutputDestination;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.ResourceBundle;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit test for {@link TokenAnalyserThread}. */
+public class TokenAnalyserThreadUnitTest {
+
+    private ResourceBundle messages;
+    private CharacterFrequencyMap cfm;
+
+    @Before
+    public void setUp() throws Exception {
+        messages =
+                ResourceBundle.getBundle("org.zaproxy.zap.extension.tokengen.resources.Messages");
+        cfm = new CharacterFrequencyMap();
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            cfm.addToken(Long.toHexString(random.nextLong() | Long.MIN_VALUE));
+        }
+    }
+
+    @Test
+    public void shouldRunStandardTestsByDefault() throws Exception {
+        // Given
+        TokenAnalyserThread analyser = createAnalyser();
+        List<TokenAnalysisTestResult> results = new ArrayList<>();
+        analyser.addListenner(results::add);
+        // When
+        analyser.start();
+        analyser.join();
+        // Then
+        assertThat(analyser.getNumberOfTests(), is(equalTo(TokenAnalyserThread.NUM_TESTS)));
+        assertThat(
+                getTypes(results),
+                contains(
+                        TokenAnalysisTestResult.Type.MAX_ENTROPY,
+                        TokenAnalysisTestResult.Type.CHR_UNIFORMITY,
+                        TokenAnalysisTestResult.Type.CHR_TRANSITIONS,
+                        TokenAnalysisTestResult.Type.COUNT_1_BIT,
+                        TokenAnalysisTestResult.Type.COUNT_2_BITS,
+                        TokenAnalysisTestResult.Type.COUNT_3_BITS,
+                        TokenAnalysisTestResult.Type.COUNT_4_BITS,
+                        TokenAnalysisTestResult.Type.COUNT_8_BITS,
+                        TokenAnalysisTestResult.Type.COUNT_16_BITS));
+    }
+
+    @Test
+    public void shouldNotRunDeepTestsWithoutEnoughTokens() throws Exception {
+        // Given
+        TokenAnalyserThread analyser = createAnalyser();
+        analyser.setDeepAnalysis(true);
+        List<TokenAnalysisTestResult> results = new ArrayList<>();
+        analyser.addListenner(results::add);
+        // When
+        analyser.start();
+        analyser.join();
+        // Then
+        assertThat(
+                analyser.getNumberOfTests(),
+                is(equalTo(TokenAnalyserThread.NUM_TESTS + TokenAnalyserThread.NUM_DEEP_TESTS)));
+        assertThat(results, hasSize(analyser.getNumberOfTests()));
+        List<TokenAnalysisTestResult> deepResults =
+                results.subList(TokenAnalyserThread.NUM_TESTS, results.size());
+        assertThat(
+                getTypes(deepResults),
+                contains(
+                        TokenAnalysisTestResult.Type.BIRTHDAY_SPACINGS,
+                        TokenAnalysisTestResult.Type.OVERLAPPING_PAIRS_SPARSE_OCCUPANCY,
+                        TokenAnalysisTestResult.Type.MINIMUM_DISTANCE,
+                        TokenAnalysisTestResult.Type.SQUEEZE,
+                        TokenAnalysisTestResult.Type.RUNS,
+                        TokenAnalysisTestResult.Type.MONTE_CARLO));
+        for (TokenAnalysisTestResult result : deepResults) {
+            assertThat(result.getResult(), is(equalTo(TokenAnalysisTestResult.Result.FAIL)));
+            assertThat(result.getSummary(), is(equalTo("Not enough tokens")));
+        }
+    }
+
+    private TokenAnalyserThread createAnalyser() {
+        TokenAnalyserThread analyser = new TokenAnalyserThread(messages);
+        analyser.setCfm(cfm);
+        analyser.addOutputDestination(
+                new OutputDestination() {
+
+                    @Override
+                    public void printf(String s) {}
+
+                    @Override
+                    public void puts(String s) {}
+                });
+        return analyser;
+    }
+
+    private static List<TokenAnalysisTestResult.Type> getTypes(
+            List<TokenAnalysisTestResult> results) {
+        List<TokenAnalysisTestResult.Type> types = new ArrayList<>();
+        for (TokenAnalysisTestResult result : results) {
+            types.add(result.getType());
+        }
+        return types;
+    }
+}
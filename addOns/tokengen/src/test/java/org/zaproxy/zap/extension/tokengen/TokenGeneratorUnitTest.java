@@ -0,0 +1,135 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.tokengen;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.httpclient.URI;
+import org.junit.Before;
+import org.junit.Test;
+import org.parosproxy.paros.network.HttpMessage;
+import org.parosproxy.paros.network.HttpSender;
+import org.zaproxy.zap.extension.params.HtmlParameterStats;
+
+/** Unit test for {@link TokenGenerator}. */
+public class TokenGeneratorUnitTest {
+
+    private ExtensionTokenGen extension;
+    private CountDownLatch stopped;
+
+    @Before
+    public void setUp() {
+        extension = mock(ExtensionTokenGen.class);
+        stopped = new CountDownLatch(1);
+        doAnswer(
+                        invocation -> {
+                            stopped.countDown();
+                            return null;
+                        })
+                .when(extension)
+                .generatorStopped(any(TokenGenerator.class));
+    }
+
+    @Test
+    public void shouldGenerateAllTokensWithSeveralThreads() throws Exception {
+        // Given
+        AtomicInteger requests = new AtomicInteger();
+        TokenGenerator generator = createGenerator(50, 4, httpSender(0, requests));
+        // When
+        generator.start();
+        // Then
+        assertThat(stopped.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+        assertThat(requests.get(), is(equalTo(50)));
+        assertThat(generator.getRemainingTokens(), is(equalTo(0)));
+        verify(extension, times(50))
+                .addTokenResult(any(HttpMessage.class), any(HtmlParameterStats.class));
+    }
+
+    @Test
+    public void shouldSendAgainRequestsThatTimedOut() throws Exception {
+        // Given
+        AtomicInteger requests = new AtomicInteger();
+        TokenGenerator generator = createGenerator(10, 3, httpSender(5, requests));
+        // When
+        generator.start();
+        // Then
+        assertThat(stopped.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+        assertThat(requests.get(), is(equalTo(15)));
+        assertThat(generator.getRemainingTokens(), is(equalTo(0)));
+        verify(extension, times(10))
+                .addTokenResult(any(HttpMessage.class), any(HtmlParameterStats.class));
+    }
+
+    @Test
+    public void shouldNotGenerateTokensIfNoneRequested() throws Exception {
+        // Given
+        AtomicInteger requests = new AtomicInteger();
+        TokenGenerator generator = createGenerator(0, 2, httpSender(0, requests));
+        // When
+        generator.start();
+        // Then
+        assertThat(stopped.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+        assertThat(requests.get(), is(equalTo(0)));
+        assertThat(generator.getRemainingTokens(), is(equalTo(0)));
+    }
+
+    private TokenGenerator createGenerator(int tokens, int threads, HttpSender httpSender)
+            throws Exception {
+        TokenGenerator generator =
+                new TokenGenerator() {
+
+                    @Override
+                    HttpSender createHttpSender() {
+                        return httpSender;
+                    }
+                };
+        generator.setNumberTokens(tokens);
+        generator.setNumberThreads(threads);
+        generator.setHttpMessage(new HttpMessage(new URI("http://example.com/", true)));
+        generator.setExtension(extension);
+        return generator;
+    }
+
+    private static HttpSender httpSender(int timeouts, AtomicInteger requests) throws Exception {
+        HttpSender httpSender = mock(HttpSender.class);
+        doAnswer(
+                        invocation -> {
+                            if (requests.incrementAndGet() <= timeouts) {
+                                throw new SocketTimeoutException();
+                            }
+                            return null;
+                        })
+                .when(httpSender)
+                .sendAndReceive(any(HttpMessage.class), anyBoolean());
+        return httpSender;
+    }
+}
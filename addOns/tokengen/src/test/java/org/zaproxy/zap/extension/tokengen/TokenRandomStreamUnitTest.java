@@ -50,6 +50,50 @@ public class TokenRandomStreamUnitTest {
         assertThat(stream.readLong(), is(-1L));
     }
 
+    @Test
+    public void shouldReadBytesOfTheTokens() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("0102");
+        cfm.addToken("03ff");
+        stream = new TokenRandomStream(cfm);
+        // When
+        stream.openInputStream();
+        int value = stream.readInt();
+        // Then
+        assertThat(value, is(0x010203ff));
+        assertThat(stream.isOpen(), is(false));
+        assertThat(stream.readByte(), is((byte) -1));
+    }
+
+    @Test
+    public void shouldReturnMinusOneIfNotEnoughBytes() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("0102");
+        stream = new TokenRandomStream(cfm);
+        stream.openInputStream();
+        // When
+        int value = stream.readInt();
+        // Then
+        assertThat(value, is(-1));
+    }
+
+    @Test
+    public void shouldReadFromStartWhenReopened() throws Exception {
+        // Given
+        CharacterFrequencyMap cfm = new CharacterFrequencyMap();
+        cfm.addToken("7f01");
+        stream = new TokenRandomStream(cfm);
+        stream.openInputStream();
+        stream.readByte();
+        // When
+        stream.openInputStream();
+        // Then
+        assertThat(stream.readByte(), is((byte) 0x7f));
+        assertThat(stream.isOpen(), is(true));
+    }
+
     // TODO Add more tests
 
 }
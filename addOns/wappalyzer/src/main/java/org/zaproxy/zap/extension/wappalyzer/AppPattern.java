@@ -24,24 +24,49 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
+import org.apache.log4j.Logger;
 
 public class AppPattern {
 
+    private static final Logger LOGGER = Logger.getLogger(AppPattern.class);
+
     private String type = null;
+    private String pattern = null;
     private Pattern re2jPattern = null;
-    private java.util.regex.Pattern javaPattern = null;
+    private volatile java.util.regex.Pattern javaPattern = null;
     private String version = null;
     private int confidence = 100;
 
+    /**
+     * Sets the regular expression of the pattern.
+     *
+     * <p>The java pattern is compiled only if the RE2/J pattern does not compile, otherwise it's
+     * compiled lazily, when first needed.
+     *
+     * @param pattern the regular expression
+     * @throws java.util.regex.PatternSyntaxException if the pattern is not valid
+     */
     public void setPattern(String pattern) {
-        this.javaPattern = java.util.regex.Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+        this.pattern = pattern;
+        this.javaPattern = null;
         try {
             // This takes precedence, if it compiles
             this.re2jPattern = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
         } catch (com.google.re2j.PatternSyntaxException e) {
-            // Ignore
+            this.re2jPattern = null;
+            this.javaPattern = java.util.regex.Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
         }
     }
+
+    /**
+     * Returns the regular expression of the pattern.
+     *
+     * @return the regular expression
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
     /**
      * Returns the java version of the regex pattern - its provided as the core requires a java
      * Pattern when searching for evidence. It should not be used for matching in this package, use
@@ -50,7 +75,22 @@ public class AppPattern {
      * @return
      */
     public java.util.regex.Pattern getJavaPattern() {
-        return javaPattern;
+        java.util.regex.Pattern result = javaPattern;
+        if (result == null) {
+            result = compileJavaPattern();
+            javaPattern = result;
+        }
+        return result;
+    }
+
+    private java.util.regex.Pattern compileJavaPattern() {
+        try {
+            return java.util.regex.Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+        } catch (java.util.regex.PatternSyntaxException e) {
+            LOGGER.warn("Pattern not valid in Java, searching it literally: " + pattern, e);
+            return java.util.regex.Pattern.compile(
+                    java.util.regex.Pattern.quote(pattern), Pattern.CASE_INSENSITIVE);
+        }
     }
 
     public Pattern getRe2jPattern() {
@@ -92,7 +132,7 @@ public class AppPattern {
                 }
             }
         } else {
-            Matcher matcher = this.javaPattern.matcher(str);
+            Matcher matcher = getJavaPattern().matcher(str);
             if (matcher.find()) {
                 results = createResultsList(matcher.groupCount());
                 for (int i = 1; i <= matcher.groupCount(); i++) {
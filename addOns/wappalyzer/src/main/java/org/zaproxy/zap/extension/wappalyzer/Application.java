@@ -19,6 +19,7 @@
  */
 package org.zaproxy.zap.extension.wappalyzer;
 
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,7 @@ public class Application {
     private String name;
     private String website;
     private ImageIcon icon = null;
+    private boolean iconLoaded;
     private List<String> categories = new ArrayList<String>();
     private List<Map<String, AppPattern>> headers;
     private List<AppPattern> url = new ArrayList<AppPattern>();
@@ -138,11 +140,28 @@ public class Application {
         this.implies.add(i);
     }
 
-    public ImageIcon getIcon() {
+    /**
+     * Gets the icon of the application.
+     *
+     * <p>If not set, the icon is loaded from the add-on resources, on first call.
+     *
+     * @return the icon, might be {@code null} if the application does not have one
+     */
+    public synchronized ImageIcon getIcon() {
+        if (!iconLoaded) {
+            iconLoaded = true;
+            URL iconUrl =
+                    ExtensionWappalyzer.class.getResource(
+                            ExtensionWappalyzer.RESOURCE + "/icons/" + name + ".png");
+            if (iconUrl != null) {
+                icon = new ImageIcon(iconUrl);
+            }
+        }
         return icon;
     }
 
-    public void setIcon(ImageIcon icon) {
+    public synchronized void setIcon(ImageIcon icon) {
         this.icon = icon;
+        this.iconLoaded = true;
     }
 }
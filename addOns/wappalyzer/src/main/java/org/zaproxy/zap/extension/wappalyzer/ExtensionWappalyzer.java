@@ -23,6 +23,7 @@ import java.awt.EventQueue;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -59,11 +60,13 @@ public class ExtensionWappalyzer extends ExtensionAdaptor
     public static final ImageIcon WAPPALYZER_ICON =
             new ImageIcon(ExtensionWappalyzer.class.getResource(RESOURCE + "/wappalyzer.png"));
 
+    private static final String CACHE_FILE = "wappalyzer/apps.cache";
+
     private TechPanel techPanel = null;
     private PopupMenuEvidence popupMenuEvidence = null;
 
-    private Map<String, String> categories = new HashMap<String, String>();
-    private List<Application> applications = new ArrayList<Application>();
+    /** The parsed {@code apps.json}, loaded lazily. */
+    private WappalyzerData data;
 
     private ExtensionSearch extSearch = null;
 
@@ -90,15 +93,6 @@ public class ExtensionWappalyzer extends ExtensionAdaptor
     public ExtensionWappalyzer() {
         super(NAME);
         this.setOrder(201);
-
-        try {
-            WappalyzerJsonParser parser = new WappalyzerJsonParser();
-            WappalyzerData result = parser.parseDefaultAppsJson();
-            this.applications = result.getApplications();
-            this.categories = result.getCategories();
-        } catch (IOException e) {
-            logger.error(e.getMessage(), e);
-        }
     }
 
     @Override
@@ -188,7 +182,34 @@ public class ExtensionWappalyzer extends ExtensionAdaptor
     }
 
     public List<Application> getApplications() {
-        return this.applications;
+        return getData().getApplications();
+    }
+
+    private synchronized WappalyzerData getData() {
+        if (data == null) {
+            try {
+                WappalyzerJsonParser parser = new WappalyzerJsonParser();
+                String zapHome = Constant.getZapHome();
+                if (zapHome != null) {
+                    data =
+                            parser.parseDefaultAppsJson(
+                                    Paths.get(zapHome, CACHE_FILE), getAddOnVersion());
+                } else {
+                    data = parser.parseDefaultAppsJson();
+                }
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+                data = new WappalyzerData();
+            }
+        }
+        return data;
+    }
+
+    private String getAddOnVersion() {
+        if (getAddOn() == null) {
+            return "";
+        }
+        return getAddOn().getVersion().toString();
     }
 
     public TechTableModel getTechModelForSite(String site) {
@@ -0,0 +1,402 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import net.htmlparser.jericho.Element;
+import net.htmlparser.jericho.HTMLElementName;
+import net.htmlparser.jericho.Source;
+import org.apache.log4j.Logger;
+import org.parosproxy.paros.network.HttpHeaderField;
+import org.parosproxy.paros.network.HttpMessage;
+import org.zaproxy.zap.extension.commonlib.MultiStringMatcher;
+
+/**
+ * The patterns of all applications, indexed to match a message in a single pass over each of its
+ * parts.
+ *
+ * <p>The patterns are grouped by the part of the message they apply to (URL, headers by name, body,
+ * meta elements by name). For each pattern a literal that any match must contain is extracted, when
+ * possible, and the literals of a group are searched all at once, only the patterns whose literal
+ * was found (or that have none) are then evaluated.
+ */
+class FingerprintIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(FingerprintIndex.class);
+
+    /** The minimum length of the literals, shorter ones do not discard enough patterns. */
+    private static final int MIN_LITERAL_LENGTH = 3;
+
+    private final List<Application> applications;
+
+    private final PatternGroup url;
+    private final Map<String, PatternGroup> headers;
+    private final PatternGroup html;
+    private final Map<String, PatternGroup> metas;
+    private final PatternGroup script;
+
+    /**
+     * Constructs a {@code FingerprintIndex} with the patterns of the given applications.
+     *
+     * @param applications the applications
+     */
+    FingerprintIndex(List<Application> applications) {
+        this.applications = applications;
+
+        PatternGroup.Builder urlBuilder = new PatternGroup.Builder();
+        Map<String, PatternGroup.Builder> headerBuilders = new HashMap<>();
+        PatternGroup.Builder htmlBuilder = new PatternGroup.Builder();
+        Map<String, PatternGroup.Builder> metaBuilders = new HashMap<>();
+        PatternGroup.Builder scriptBuilder = new PatternGroup.Builder();
+
+        for (int i = 0; i < applications.size(); i++) {
+            Application app = applications.get(i);
+            urlBuilder.add(i, app.getUrl());
+            for (Map<String, AppPattern> header : app.getHeaders()) {
+                for (Map.Entry<String, AppPattern> entry : header.entrySet()) {
+                    headerBuilders
+                            .computeIfAbsent(
+                                    entry.getKey().toLowerCase(Locale.ROOT),
+                                    k -> new PatternGroup.Builder())
+                            .add(i, entry.getValue());
+                }
+            }
+            htmlBuilder.add(i, app.getHtml());
+            for (Map<String, AppPattern> meta : app.getMetas()) {
+                for (Map.Entry<String, AppPattern> entry : meta.entrySet()) {
+                    metaBuilders
+                            .computeIfAbsent(entry.getKey(), k -> new PatternGroup.Builder())
+                            .add(i, entry.getValue());
+                }
+            }
+            scriptBuilder.add(i, app.getScript());
+        }
+
+        this.url = urlBuilder.build();
+        this.headers = build(headerBuilders);
+        this.html = htmlBuilder.build();
+        this.metas = build(metaBuilders);
+        this.script = scriptBuilder.build();
+    }
+
+    private static Map<String, PatternGroup> build(Map<String, PatternGroup.Builder> builders) {
+        Map<String, PatternGroup> groups = new HashMap<>();
+        for (Map.Entry<String, PatternGroup.Builder> entry : builders.entrySet()) {
+            groups.put(entry.getKey(), entry.getValue().build());
+        }
+        return groups;
+    }
+
+    /**
+     * Gets the applications indexed.
+     *
+     * @return the applications
+     */
+    List<Application> getApplications() {
+        return applications;
+    }
+
+    /**
+     * Gets the applications that match the given message.
+     *
+     * @param msg the message
+     * @param source the HTML source of the response
+     * @return the matches, in the order of the applications, never {@code null}
+     */
+    List<ApplicationMatch> match(HttpMessage msg, Source source) {
+        ApplicationMatch[] matches = new ApplicationMatch[applications.size()];
+
+        url.match(msg.getRequestHeader().getURI().toString(), matches, applications);
+
+        Set<String> headersMatched = new HashSet<>();
+        for (HttpHeaderField header : msg.getResponseHeader().getHeaders()) {
+            String name = header.getName().toLowerCase(Locale.ROOT);
+            PatternGroup group = headers.get(name);
+            // Just the first header with the name, as done by getHeader(String).
+            if (group != null && headersMatched.add(name)) {
+                group.match(header.getValue(), matches, applications);
+            }
+        }
+
+        if (msg.getResponseHeader().isText()) {
+            String body = msg.getResponseBody().toString();
+            html.match(body, matches, applications);
+
+            if (!metas.isEmpty()) {
+                for (Element metaElement : source.getAllElements(HTMLElementName.META)) {
+                    String name = metaElement.getAttributeValue("name");
+                    String content = metaElement.getAttributeValue("content");
+                    if (name != null && content != null) {
+                        PatternGroup group = metas.get(name);
+                        if (group != null) {
+                            group.match(content, matches, applications);
+                        }
+                    }
+                }
+            }
+
+            script.match(body, matches, applications);
+        }
+
+        List<ApplicationMatch> result = new ArrayList<>();
+        for (ApplicationMatch match : matches) {
+            if (match != null) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets a literal that all the matches of the given (case insensitive) regular expression
+     * contain.
+     *
+     * <p>Only literals outside of groups and character classes are considered, and none is returned
+     * if the expression has alternatives at the top level or constructs not understood.
+     *
+     * @param regex the regular expression
+     * @return the longest literal found, in lower case, or {@code null} if none
+     */
+    static String getRequiredLiteral(String regex) {
+        String longest = "";
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            i++;
+            switch (c) {
+                case '\\':
+                    if (i >= regex.length()) {
+                        return null;
+                    }
+                    char escaped = regex.charAt(i);
+                    i++;
+                    if (Character.isLetterOrDigit(escaped)) {
+                        if ("xupPckNQE0".indexOf(escaped) != -1) {
+                            // Not just a single character, bail out.
+                            return null;
+                        }
+                        longest = longest(longest, current);
+                    } else if (depth == 0) {
+                        current.append(escaped);
+                    }
+                    break;
+                case '[':
+                    i = skipCharacterClass(regex, i);
+                    if (i == -1) {
+                        return null;
+                    }
+                    longest = longest(longest, current);
+                    break;
+                case '(':
+                    if (i < regex.length()
+                            && regex.charAt(i) == '?'
+                            && (i + 1 >= regex.length()
+                                    || ":=!<".indexOf(regex.charAt(i + 1)) == -1)) {
+                        // Inline flags might change how the literals match.
+                        return null;
+                    }
+                    depth++;
+                    longest = longest(longest, current);
+                    break;
+                case ')':
+                    depth--;
+                    if (depth < 0) {
+                        return null;
+                    }
+                    break;
+                case '|':
+                    if (depth == 0) {
+                        return null;
+                    }
+                    break;
+                case '?':
+                case '*':
+                    if (depth == 0 && current.length() > 0) {
+                        current.setLength(current.length() - 1);
+                    }
+                    longest = longest(longest, current);
+                    break;
+                case '+':
+                    longest = longest(longest, current);
+                    break;
+                case '{':
+                    int end = regex.indexOf('}', i);
+                    String quantifier = end == -1 ? "" : regex.substring(i, end);
+                    if (quantifier.matches("\\d+(,\\d*)?")) {
+                        if (depth == 0 && quantifier.startsWith("0") && current.length() > 0) {
+                            current.setLength(current.length() - 1);
+                        }
+                        longest = longest(longest, current);
+                        i = end + 1;
+                    } else if (depth == 0) {
+                        current.append(c);
+                    }
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    longest = longest(longest, current);
+                    break;
+                default:
+                    if (depth == 0) {
+                        if (c < 128) {
+                            current.append(c);
+                        } else {
+                            longest = longest(longest, current);
+                        }
+                    }
+            }
+        }
+        longest = longest(longest, current);
+        if (longest.length() < MIN_LITERAL_LENGTH) {
+            return null;
+        }
+        return longest.toLowerCase(Locale.ROOT);
+    }
+
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == ']') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static String longest(String longest, StringBuilder current) {
+        String candidate = current.toString();
+        current.setLength(0);
+        return candidate.length() > longest.length() ? candidate : longest;
+    }
+
+    /** The patterns that apply to the same content. */
+    private static class PatternGroup {
+
+        private final int[] appIndexes;
+        private final AppPattern[] patterns;
+        private final int[] literalIndexes;
+        private final MultiStringMatcher literalMatcher;
+
+        private PatternGroup(
+                int[] appIndexes,
+                AppPattern[] patterns,
+                int[] literalIndexes,
+                List<String> literals) {
+            this.appIndexes = appIndexes;
+            this.patterns = patterns;
+            this.literalIndexes = literalIndexes;
+            this.literalMatcher =
+                    literals.isEmpty() ? null : new MultiStringMatcher(literals, true);
+        }
+
+        void match(String content, ApplicationMatch[] matches, List<Application> applications) {
+            BitSet literalsFound =
+                    literalMatcher == null ? new BitSet() : literalMatcher.findAll(content);
+            for (int i = 0; i < patterns.length; i++) {
+                int literalIndex = literalIndexes[i];
+                if (literalIndex != -1 && !literalsFound.get(literalIndex)) {
+                    continue;
+                }
+                AppPattern pattern = patterns[i];
+                List<String> results = pattern.findInString(content);
+                if (results == null) {
+                    continue;
+                }
+                int appIndex = appIndexes[i];
+                ApplicationMatch appMatch = matches[appIndex];
+                if (appMatch == null) {
+                    appMatch = new ApplicationMatch(applications.get(appIndex));
+                    matches[appIndex] = appMatch;
+                }
+                // TODO may need to account for the wappalyzer spec in dealing with version info:
+                // https://www.wappalyzer.com/docs/specification
+                results.forEach(appMatch::addVersion);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(
+                            pattern.getType() + " matched " + appMatch.getApplication().getName());
+                }
+            }
+        }
+
+        private static class Builder {
+
+            private final List<Integer> appIndexes = new ArrayList<>();
+            private final List<AppPattern> patterns = new ArrayList<>();
+            private final List<Integer> literalIndexes = new ArrayList<>();
+            private final Map<String, Integer> literals = new HashMap<>();
+
+            void add(int appIndex, List<AppPattern> appPatterns) {
+                for (AppPattern pattern : appPatterns) {
+                    add(appIndex, pattern);
+                }
+            }
+
+            void add(int appIndex, AppPattern pattern) {
+                appIndexes.add(appIndex);
+                patterns.add(pattern);
+                String literal = getRequiredLiteral(pattern.getPattern());
+                literalIndexes.add(
+                        literal == null
+                                ? -1
+                                : literals.computeIfAbsent(literal, k -> literals.size()));
+            }
+
+            PatternGroup build() {
+                int[] appIndexesArray = new int[appIndexes.size()];
+                int[] literalIndexesArray = new int[literalIndexes.size()];
+                for (int i = 0; i < appIndexesArray.length; i++) {
+                    appIndexesArray[i] = appIndexes.get(i);
+                    literalIndexesArray[i] = literalIndexes.get(i);
+                }
+                String[] literalsArray = new String[literals.size()];
+                for (Map.Entry<String, Integer> entry : literals.entrySet()) {
+                    literalsArray[entry.getValue()] = entry.getKey();
+                }
+                return new PatternGroup(
+                        appIndexesArray,
+                        patterns.toArray(new AppPattern[patterns.size()]),
+                        literalIndexesArray,
+                        Arrays.asList(literalsArray));
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+
+/**
+ * A binary cache of the parsed {@link WappalyzerData}, to avoid parsing the JSON on every start.
+ *
+ * <p>The cache is tied to the version of the parser (and add-on) that created it and to a checksum
+ * of the source it was created from, a cache with a different version, checksum, or format is
+ * ignored.
+ */
+final class WappalyzerDataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(WappalyzerDataCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private WappalyzerDataCache() {}
+
+    /**
+     * Reads the data from the given cache file.
+     *
+     * @param file the cache file
+     * @param version the version of the parser that creates the data
+     * @param checksum the checksum of the source of the data
+     * @return the data, or {@code null} if the cache does not exist, is stale, or is not valid
+     */
+    static WappalyzerData read(Path file, String version, long checksum) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION
+                    || !version.equals(in.readUTF())
+                    || in.readLong() != checksum) {
+                return null;
+            }
+            WappalyzerData data = new WappalyzerData();
+            for (int i = in.readInt(); i > 0; i--) {
+                data.addCategory(in.readUTF(), in.readUTF());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                Application app = new Application();
+                app.setName(in.readUTF());
+                app.setWebsite(readNullableString(in));
+                app.setCategories(readStrings(in));
+                app.setHeaders(readPatternMaps(in));
+                app.setUrl(readPatterns(in));
+                app.setHtml(readPatterns(in));
+                app.setScript(readPatterns(in));
+                app.setMetas(readPatternMaps(in));
+                app.setImplies(readStrings(in));
+                data.addApplication(app);
+            }
+            return data;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed to read the cache " + file + ", ignoring it.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given data to the given cache file.
+     *
+     * <p>Errors are logged, the cache is optional.
+     *
+     * @param file the cache file
+     * @param version the version of the parser that created the data
+     * @param checksum the checksum of the source of the data
+     * @param data the data to cache
+     */
+    static void write(Path file, String version, long checksum, WappalyzerData data) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), "apps", ".tmp");
+            try (DataOutputStream out =
+                    new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(version);
+                out.writeLong(checksum);
+                out.writeInt(data.getCategories().size());
+                for (Map.Entry<String, String> category : data.getCategories().entrySet()) {
+                    out.writeUTF(category.getKey());
+                    out.writeUTF(category.getValue());
+                }
+                out.writeInt(data.getApplications().size());
+                for (Application app : data.getApplications()) {
+                    out.writeUTF(app.getName());
+                    writeNullableString(out, app.getWebsite());
+                    writeStrings(out, app.getCategories());
+                    writePatternMaps(out, app.getHeaders());
+                    writePatterns(out, app.getUrl());
+                    writePatterns(out, app.getHtml());
+                    writePatterns(out, app.getScript());
+                    writePatternMaps(out, app.getMetas());
+                    writeStrings(out, app.getImplies());
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            Files.move(
+                    tempFile,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write the cache " + file, e);
+        }
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private static void writePatterns(DataOutputStream out, List<AppPattern> patterns)
+            throws IOException {
+        out.writeInt(patterns.size());
+        for (AppPattern pattern : patterns) {
+            writePattern(out, pattern);
+        }
+    }
+
+    private static List<AppPattern> readPatterns(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<AppPattern> patterns = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            patterns.add(readPattern(in));
+        }
+        return patterns;
+    }
+
+    private static void writePatternMaps(
+            DataOutputStream out, List<Map<String, AppPattern>> patternMaps) throws IOException {
+        out.writeInt(patternMaps.size());
+        for (Map<String, AppPattern> map : patternMaps) {
+            Map.Entry<String, AppPattern> entry = map.entrySet().iterator().next();
+            out.writeUTF(entry.getKey());
+            writePattern(out, entry.getValue());
+        }
+    }
+
+    private static List<Map<String, AppPattern>> readPatternMaps(DataInputStream in)
+            throws IOException {
+        int size = in.readInt();
+        List<Map<String, AppPattern>> patternMaps = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, AppPattern> map = new HashMap<>();
+            map.put(in.readUTF(), readPattern(in));
+            patternMaps.add(map);
+        }
+        return patternMaps;
+    }
+
+    private static void writePattern(DataOutputStream out, AppPattern pattern) throws IOException {
+        out.writeUTF(pattern.getType());
+        out.writeUTF(pattern.getPattern());
+        writeNullableString(out, pattern.getVersion());
+        out.writeInt(pattern.getConfidence());
+    }
+
+    private static AppPattern readPattern(DataInputStream in) throws IOException {
+        AppPattern pattern = new AppPattern();
+        pattern.setType(in.readUTF());
+        pattern.setPattern(in.readUTF());
+        pattern.setVersion(readNullableString(in));
+        pattern.setConfidence(in.readInt());
+        return pattern;
+    }
+}
@@ -21,19 +21,29 @@ package org.zaproxy.zap.extension.wappalyzer;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.PatternSyntaxException;
-import javax.swing.ImageIcon;
+import java.util.zip.CRC32;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 public class WappalyzerJsonParser {
 
+    /**
+     * The version of the parser, to be increased when the parsing changes, to not use the cached
+     * data created by previous versions.
+     *
+     * @see #parseDefaultAppsJson(Path, String)
+     */
+    static final int PARSER_VERSION = 1;
+
     private static final String FIELD_CONFIDENCE = "confidence:";
     private static final String FIELD_VERSION = "version:";
 
@@ -49,29 +59,46 @@ public class WappalyzerJsonParser {
     }
 
     public WappalyzerData parseDefaultAppsJson() throws IOException {
-        return parseJson(getStringResource(ExtensionWappalyzer.RESOURCE + "/apps.json"));
+        return parseJson(new String(getDefaultAppsJson(), StandardCharsets.UTF_8));
     }
 
-    private static String getStringResource(String resourceName) throws IOException {
-        InputStream in = null;
-        StringBuilder sb = new StringBuilder();
-        try {
-            in = ExtensionWappalyzer.class.getResourceAsStream(resourceName);
-            int numRead = 0;
-            byte[] buf = new byte[1024];
-            while ((numRead = in.read(buf)) != -1) {
-                sb.append(new String(buf, 0, numRead));
+    /**
+     * Parses the default {@code apps.json}, using the given binary cache if up to date.
+     *
+     * <p>The cache is (re)created if it does not exist or if it's stale, that is, created from a
+     * different {@code apps.json} or by a different version of the parser or of the add-on.
+     *
+     * @param cacheFile the file of the cache
+     * @param addOnVersion the version of the add-on
+     * @return the parsed data
+     * @throws IOException if an error occurred while reading the {@code apps.json}
+     */
+    public WappalyzerData parseDefaultAppsJson(Path cacheFile, String addOnVersion)
+            throws IOException {
+        byte[] appsJson = getDefaultAppsJson();
+        CRC32 crc = new CRC32();
+        crc.update(appsJson);
+        long checksum = crc.getValue();
+        String version = PARSER_VERSION + "-" + addOnVersion;
+
+        WappalyzerData data = WappalyzerDataCache.read(cacheFile, version, checksum);
+        if (data == null) {
+            data = parseJson(new String(appsJson, StandardCharsets.UTF_8));
+            if (!data.getApplications().isEmpty()) {
+                WappalyzerDataCache.write(cacheFile, version, checksum, data);
             }
-            return sb.toString();
+        }
+        return data;
+    }
 
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    // Ignore
-                }
+    private static byte[] getDefaultAppsJson() throws IOException {
+        try (InputStream in =
+                ExtensionWappalyzer.class.getResourceAsStream(
+                        ExtensionWappalyzer.RESOURCE + "/apps.json")) {
+            if (in == null) {
+                throw new IOException("Resource apps.json not found.");
             }
+            return IOUtils.toByteArray(in);
         }
     }
 
@@ -108,13 +135,6 @@ public class WappalyzerJsonParser {
                 app.setMetas(this.jsonToAppPatternMapList("META", appData.get("meta")));
                 app.setImplies(this.jsonToStringList(appData.get("implies")));
 
-                URL icon =
-                        ExtensionWappalyzer.class.getResource(
-                                ExtensionWappalyzer.RESOURCE + "/icons/" + appName + ".png");
-                if (icon != null) {
-                    app.setIcon(new ImageIcon(icon));
-                }
-
                 result.addApplication(app);
             }
 
@@ -21,10 +21,7 @@ package org.zaproxy.zap.extension.wappalyzer;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import net.htmlparser.jericho.Element;
-import net.htmlparser.jericho.HTMLElementName;
 import net.htmlparser.jericho.Source;
 import org.apache.log4j.Logger;
 import org.parosproxy.paros.Constant;
@@ -41,8 +38,7 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
     private static final Logger LOGGER = Logger.getLogger(WappalyzerPassiveScanner.class);
     private WappalyzerApplicationHolder applicationHolder;
     private Set<String> visitedSiteIdentifiers = new HashSet<>();
-    private ApplicationMatch appMatch;
-    private Application currentApp;
+    private FingerprintIndex index;
 
     public WappalyzerPassiveScanner(WappalyzerApplicationHolder applicationHolder) {
         super();
@@ -68,21 +64,13 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
 
         long startTime = System.currentTimeMillis();
-        for (Application app : this.getApps()) {
-            this.currentApp = app;
-            checkAppMatches(msg, source);
-            if (appMatch != null) {
-                String site =
-                        msg.getRequestHeader().getHostName()
-                                + ":"
-                                + msg.getRequestHeader().getHostPort();
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Adding " + app.getName() + " to " + site);
-                }
-                addApplicationsToSite(site, appMatch);
-                this.appMatch = null;
+        String site =
+                msg.getRequestHeader().getHostName() + ":" + msg.getRequestHeader().getHostPort();
+        for (ApplicationMatch appMatch : getIndex().match(msg, source)) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Adding " + appMatch.getApplication().getName() + " to " + site);
             }
-            this.currentApp = null;
+            addApplicationsToSite(site, appMatch);
         }
 
         if (LOGGER.isDebugEnabled()) {
@@ -117,89 +105,12 @@ public class WappalyzerPassiveScanner implements PassiveScanner {
         }
     }
 
-    private void checkAppMatches(HttpMessage msg, Source source) {
-        checkUrlMatches(msg);
-        checkHeadersMatches(msg);
-        if (!msg.getResponseHeader().isText()) {
-            return; // Don't check body if not text'ish
-        }
-        checkBodyMatches(msg);
-        checkMetaElementsMatches(source);
-        checkScriptMatches(msg);
-    }
-
-    private void checkScriptMatches(HttpMessage msg) {
-        String body = msg.getResponseBody().toString();
-        for (AppPattern p : currentApp.getScript()) {
-            addIfMatches(p, body);
-        }
-    }
-
-    private void checkMetaElementsMatches(Source source) {
-        List<Element> metaElements = source.getAllElements(HTMLElementName.META);
-        for (Element metaElement : metaElements) {
-            for (Map<String, AppPattern> sp : currentApp.getMetas()) {
-                for (Map.Entry<String, AppPattern> entry : sp.entrySet()) {
-                    String name = metaElement.getAttributeValue("name");
-                    String content = metaElement.getAttributeValue("content");
-                    if (name != null && content != null && name.equals(entry.getKey())) {
-                        AppPattern p = entry.getValue();
-                        addIfMatches(p, content);
-                    }
-                }
-            }
-        }
-    }
-
-    private void checkBodyMatches(HttpMessage msg) {
-        String body = msg.getResponseBody().toString();
-        for (AppPattern p : currentApp.getHtml()) {
-            addIfMatches(p, body);
-        }
-    }
-
-    private void checkHeadersMatches(HttpMessage msg) {
-        for (Map<String, AppPattern> sp : currentApp.getHeaders()) {
-            for (Map.Entry<String, AppPattern> entry : sp.entrySet()) {
-                String header = msg.getResponseHeader().getHeader(entry.getKey());
-                if (header != null) {
-                    AppPattern p = entry.getValue();
-                    addIfMatches(p, header);
-                }
-            }
-        }
-    }
-
-    private void checkUrlMatches(HttpMessage msg) {
-        String url = msg.getRequestHeader().getURI().toString();
-        for (AppPattern p : currentApp.getUrl()) {
-            addIfMatches(p, url);
-        }
-    }
-
-    private void addIfMatches(AppPattern appPattern, String content) {
-        List<String> results = appPattern.findInString(content);
-        if (results != null) {
-            this.appMatch = getAppMatch();
-            // TODO may need to account for the wappalyzer spec in dealing with version info:
-            // https://www.wappalyzer.com/docs/specification
-            results.forEach(appMatch::addVersion);
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug(
-                        appPattern.getType() + " matched " + appMatch.getApplication().getName());
-            }
-        }
-    }
-
-    private List<Application> getApps() {
-        return applicationHolder.getApplications();
-    }
-
-    private ApplicationMatch getAppMatch() {
-        if (appMatch == null) {
-            appMatch = new ApplicationMatch(currentApp);
+    private FingerprintIndex getIndex() {
+        List<Application> apps = applicationHolder.getApplications();
+        if (index == null || index.getApplications() != apps) {
+            index = new FingerprintIndex(apps);
         }
-        return appMatch;
+        return index;
     }
 
     @Override
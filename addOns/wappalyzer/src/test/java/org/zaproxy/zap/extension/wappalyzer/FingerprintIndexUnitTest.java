@@ -0,0 +1,99 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/** Unit test for {@link FingerprintIndex}. */
+public class FingerprintIndexUnitTest {
+
+    @Test
+    public void shouldGetWholeLiteralPattern() {
+        assertThat(FingerprintIndex.getRequiredLiteral("WordPress"), is(equalTo("wordpress")));
+    }
+
+    @Test
+    public void shouldGetLongestLiteralOutsideGroups() {
+        assertThat(
+                FingerprintIndex.getRequiredLiteral("jquery(?:\\-|\\.)([\\d.]*\\d)[^/]*\\.js"),
+                is(equalTo("jquery")));
+    }
+
+    @Test
+    public void shouldGetEscapedCharactersAsLiterals() {
+        assertThat(
+                FingerprintIndex.getRequiredLiteral("/wp-content/themes\\/"),
+                is(equalTo("/wp-content/themes/")));
+    }
+
+    @Test
+    public void shouldNotIncludeOptionalCharacters() {
+        assertThat(FingerprintIndex.getRequiredLiteral("abcde?fgh"), is(equalTo("abcd")));
+        assertThat(FingerprintIndex.getRequiredLiteral("abcde*fgh"), is(equalTo("abcd")));
+        assertThat(FingerprintIndex.getRequiredLiteral("abcde{0,2}fgh"), is(equalTo("abcd")));
+    }
+
+    @Test
+    public void shouldIncludeRequiredRepeatedCharacters() {
+        assertThat(FingerprintIndex.getRequiredLiteral("abcde+fg"), is(equalTo("abcde")));
+        assertThat(FingerprintIndex.getRequiredLiteral("abcde{2}fg"), is(equalTo("abcde")));
+    }
+
+    @Test
+    public void shouldNotGetLiteralWithTopLevelAlternatives() {
+        assertThat(FingerprintIndex.getRequiredLiteral("wordpress|joomla"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldGetLiteralWithAlternativesInGroups() {
+        assertThat(
+                FingerprintIndex.getRequiredLiteral("(?:wp|wordpress)-content"),
+                is(equalTo("-content")));
+    }
+
+    @Test
+    public void shouldNotGetLiteralWithInlineFlags() {
+        assertThat(FingerprintIndex.getRequiredLiteral("(?x)word press"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotGetLiteralWithComplexEscapes() {
+        assertThat(FingerprintIndex.getRequiredLiteral("\\x41bcdef"), is(nullValue()));
+        assertThat(FingerprintIndex.getRequiredLiteral("\\Qabc\\E"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotGetShortLiterals() {
+        assertThat(FingerprintIndex.getRequiredLiteral("ab"), is(nullValue()));
+        assertThat(FingerprintIndex.getRequiredLiteral(""), is(nullValue()));
+        assertThat(FingerprintIndex.getRequiredLiteral("\\d+"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldIgnoreLiteralsInCharacterClasses() {
+        assertThat(FingerprintIndex.getRequiredLiteral("[abcdef]xyz"), is(equalTo("xyz")));
+        assertThat(FingerprintIndex.getRequiredLiteral("[]abcdef]xyz"), is(equalTo("xyz")));
+    }
+}
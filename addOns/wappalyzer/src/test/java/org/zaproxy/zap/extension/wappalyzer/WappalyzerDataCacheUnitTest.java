@@ -0,0 +1,151 @@
+/*
+ * Zed Attack Proxy (ZAP) and its related class files.
+ *
+ * ZAP is an HTTP/HTTPS proxy for assessing web application security.
+ *
+ * Copyright 2019 The ZAP Development Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zaproxy.zap.extension.wappalyzer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit test for {@link WappalyzerDataCache}. */
+public class WappalyzerDataCacheUnitTest {
+
+    private static final String VERSION = "1-14";
+
+    private static final long CHECKSUM = 1234L;
+
+    @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldNotReadNonExistentCache() throws Exception {
+        // Given
+        Path file = tempFolder.getRoot().toPath().resolve("apps.cache");
+        // When
+        WappalyzerData data = WappalyzerDataCache.read(file, VERSION, CHECKSUM);
+        // Then
+        assertThat(data, is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotReadInvalidCache() throws Exception {
+        // Given
+        Path file = tempFolder.newFile("apps.cache").toPath();
+        Files.write(file, new byte[] {0, 0, 0, 1, 2});
+        // When
+        WappalyzerData data = WappalyzerDataCache.read(file, VERSION, CHECKSUM);
+        // Then
+        assertThat(data, is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotReadCacheWithDifferentChecksum() throws Exception {
+        // Given
+        Path file = tempFolder.getRoot().toPath().resolve("apps.cache");
+        WappalyzerDataCache.write(file, VERSION, CHECKSUM, createData());
+        // When
+        WappalyzerData data = WappalyzerDataCache.read(file, VERSION, CHECKSUM + 1);
+        // Then
+        assertThat(data, is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotReadCacheWithDifferentVersion() throws Exception {
+        // Given
+        Path file = tempFolder.getRoot().toPath().resolve("apps.cache");
+        WappalyzerDataCache.write(file, VERSION, CHECKSUM, createData());
+        // When
+        WappalyzerData data = WappalyzerDataCache.read(file, "2-14", CHECKSUM);
+        // Then
+        assertThat(data, is(nullValue()));
+    }
+
+    @Test
+    public void shouldReadWrittenData() throws Exception {
+        // Given
+        Path file = tempFolder.getRoot().toPath().resolve("dir/apps.cache");
+        WappalyzerDataCache.write(file, VERSION, CHECKSUM, createData());
+        // When
+        WappalyzerData data = WappalyzerDataCache.read(file, VERSION, CHECKSUM);
+        // Then
+        assertThat(data, is(notNullValue()));
+        assertThat(data.getCategories().get("1"), is(equalTo("CMS")));
+        assertThat(data.getApplications().size(), is(equalTo(1)));
+        Application app = data.getApplications().get(0);
+        assertThat(app.getName(), is(equalTo("WordPress")));
+        assertThat(app.getWebsite(), is(equalTo("https://wordpress.org")));
+        assertThat(app.getCategories(), is(equalTo(Arrays.asList("CMS"))));
+        assertThat(app.getImplies(), is(equalTo(Arrays.asList("PHP", "MySQL"))));
+        assertThat(app.getUrl().size(), is(equalTo(0)));
+        AppPattern html = app.getHtml().get(0);
+        assertThat(html.getType(), is(equalTo("HTML")));
+        assertThat(html.getPattern(), is(equalTo("<link rel=[\"']stylesheet[\"'] [^>]+wp-")));
+        assertThat(html.getVersion(), is(nullValue()));
+        assertThat(html.getConfidence(), is(equalTo(50)));
+        AppPattern meta = app.getMetas().get(0).get("generator");
+        assertThat(meta.getPattern(), is(equalTo("WordPress( [\\d.]+)?")));
+        assertThat(meta.getVersion(), is(equalTo("\\1")));
+        assertThat(meta.findInString("WordPress 5.2"), is(equalTo(Arrays.asList("5.2"))));
+        assertThat(app.getHeaders().get(0).get("X-Pingback").getType(), is(equalTo("HEADER")));
+    }
+
+    private static WappalyzerData createData() {
+        WappalyzerData data = new WappalyzerData();
+        data.addCategory("1", "CMS");
+        Application app = new Application();
+        app.setName("WordPress");
+        app.setWebsite("https://wordpress.org");
+        app.addCategories("CMS");
+        app.setImplies(Arrays.asList("PHP", "MySQL"));
+        AppPattern html = createPattern("HTML", "<link rel=[\"']stylesheet[\"'] [^>]+wp-");
+        html.setConfidence(50);
+        app.addHtml(html);
+        AppPattern meta = createPattern("META", "WordPress( [\\d.]+)?");
+        meta.setVersion("\\1");
+        app.setMetas(Arrays.asList(singletonMap("generator", meta)));
+        app.setHeaders(
+                Arrays.asList(
+                        singletonMap("X-Pingback", createPattern("HEADER", "/xmlrpc\\.php$"))));
+        data.addApplication(app);
+        return data;
+    }
+
+    private static AppPattern createPattern(String type, String regex) {
+        AppPattern pattern = new AppPattern();
+        pattern.setType(type);
+        pattern.setPattern(regex);
+        return pattern;
+    }
+
+    private static Map<String, AppPattern> singletonMap(String key, AppPattern pattern) {
+        Map<String, AppPattern> map = new HashMap<>();
+        map.put(key, pattern);
+        return map;
+    }
+}
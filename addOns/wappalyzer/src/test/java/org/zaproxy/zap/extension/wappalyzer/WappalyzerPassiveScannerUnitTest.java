@@ -127,6 +127,33 @@ public class WappalyzerPassiveScannerUnitTest
         assertFoundApp("www.example.com:443", "PHP"); // Implied
     }
 
+    @Test
+    public void shouldMatchMetaElementsAndImpliedApps() throws HttpMalformedHeaderException {
+        // Given
+        HttpMessage msg = makeHttpMessage();
+        msg.setResponseBody(
+                "<html><head><meta name=\"generator\" content=\"WordPress 5.2.2\"></head></html>");
+        // When
+        scan(msg);
+        // Then
+        assertFoundAppCount("www.example.com:443", 3);
+        assertFoundApp("www.example.com:443", "WordPress", "5.2.2");
+        assertFoundApp("www.example.com:443", "PHP"); // Implied
+        assertFoundApp("www.example.com:443", "MySQL"); // Implied
+    }
+
+    @Test
+    public void shouldMatchBodyIgnoringCase() throws HttpMalformedHeaderException {
+        // Given
+        HttpMessage msg = makeHttpMessage();
+        msg.setResponseBody("<html><SCRIPT SRC='LIBS/MODERNIZR.MIN.JS'></SCRIPT></html>");
+        // When
+        scan(msg);
+        // Then
+        assertFoundAppCount("www.example.com:443", 1);
+        assertFoundApp("www.example.com:443", "Modernizr");
+    }
+
     private void scan(HttpMessage msg) {
         rule.scanHttpResponseReceive(msg, -1, this.createSource(msg));
     }
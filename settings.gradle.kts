@@ -24,6 +24,7 @@ var addOns = listOf(
     "callgraph",
     "cmss",
     "codedx",
+    "commonlib",
     "coreLang",
     "customreport",
     "diff",